@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a read-heavy mix of {@link Cache#get} and {@link Cache#put} calls on a single cache shared
+ * by an increasing number of threads, with and without buffered read promotions.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class CacheContentionBenchmark {
+    @Param({ "false", "true" })
+    private boolean bufferReadPromotions;
+
+    // the percentage of operations that are puts
+    @Param({ "1", "10" })
+    private int writePercentage;
+
+    @Param({ "100000" })
+    private int numberOfKeys;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        // the cache holds half of the keys so that puts evict entries
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(numberOfKeys / 2)
+            .setBufferReadPromotions(bufferReadPromotions)
+            .build();
+        for (int i = 0; i < numberOfKeys; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    private Integer readOrWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(numberOfKeys);
+        if (random.nextInt(100) < writePercentage) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer readOrWrite_01() {
+        return readOrWrite();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer readOrWrite_04() {
+        return readOrWrite();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer readOrWrite_16() {
+        return readOrWrite();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Integer readOrWrite_32() {
+        return readOrWrite();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Integer readOrWrite_64() {
+        return readOrWrite();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.fs;
+
+import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways that the shared cache of searchable snapshots (see {@code xpack.searchable.snapshot.shared_cache.mmap}) can
+ * serve the reads of Lucene from its cache file: positional reads from the file channel, and copies from a memory-mapping of the
+ * file. Reads are random, fall into a cache file that is hot in the page cache, and are copied into a heap buffer like the reads of
+ * a {@code BufferedIndexInput}.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SharedCacheFileReadBenchmark {
+
+    private static final int FILE_SIZE = 256 * 1024 * 1024;
+
+    @Param({ "1024", "8192", "65536" })
+    int readSize;
+
+    private final Random random = new Random(42);
+    private Path path;
+    private FileChannel fileChannel;
+    private MappedByteBuffer mapping;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempFile("shared_snapshot_cache", null);
+        fileChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final ByteBuffer page = ByteBuffer.allocateDirect(1024 * 1024);
+        final byte[] bytes = new byte[page.capacity()];
+        for (long position = 0; position < FILE_SIZE; position += bytes.length) {
+            random.nextBytes(bytes);
+            page.clear();
+            page.put(bytes).flip();
+            write(fileChannel, page, position);
+        }
+        mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+        buffer = ByteBuffer.allocate(readSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(fileChannel, () -> Files.deleteIfExists(path));
+    }
+
+    @Benchmark
+    public ByteBuffer fileChannel() throws IOException {
+        buffer.clear();
+        read(fileChannel, buffer, randomPosition());
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer mmap() {
+        buffer.clear();
+        buffer.put(mapping.slice(Math.toIntExact(randomPosition()), readSize));
+        return buffer;
+    }
+
+    private long randomPosition() {
+        return random.nextInt(FILE_SIZE - readSize);
+    }
+
+    @SuppressForbidden(reason = "Use positional writes on purpose")
+    private static void write(FileChannel fileChannel, ByteBuffer src, long position) throws IOException {
+        while (src.hasRemaining()) {
+            position += fileChannel.write(src, position);
+        }
+    }
+
+    @SuppressForbidden(reason = "Use positional reads on purpose")
+    private static void read(FileChannel fileChannel, ByteBuffer dst, long position) throws IOException {
+        fileChannel.read(dst, position);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.index.mapper;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterModule;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.MapperRegistry;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.IndicesModule;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptCompiler;
+import org.elasticsearch.script.ScriptContext;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.XContentParserConfiguration;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to parse a single large document into Lucene documents with the
+ * {@code DocumentParser}:
+ * <ul>
+ *     <li>{@code wide_nested}: an order with a thousand nested order lines</li>
+ *     <li>{@code deep_nested}: four levels of nested objects, each with six children</li>
+ *     <li>{@code flattened}: a {@code flattened} field with a thousand keys, three levels deep</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class DocumentParserBenchmark {
+
+    private static final int NUM_ORDER_LINES = 1000;
+    private static final int NESTED_DEPTH = 4;
+    private static final int NESTED_FAN_OUT = 6;
+    private static final int FLATTENED_FAN_OUT = 10;
+
+    @Param({ "wide_nested", "deep_nested", "flattened" })
+    String document;
+
+    private MapperService mapperService;
+    private SourceToParse source;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (document) {
+            case "wide_nested" -> {
+                mapperService = createMapperService("""
+                    {"_doc":{"properties":{
+                      "customer":{"type":"keyword"},
+                      "lines":{"type":"nested","properties":{
+                        "sku":{"type":"keyword"},
+                        "quantity":{"type":"long"},
+                        "price":{"type":"double"},
+                        "description":{"type":"text"}
+                      }}
+                    }}}""");
+                StringBuilder builder = new StringBuilder("{\"customer\":\"c-42\",\"lines\":[");
+                for (int i = 0; i < NUM_ORDER_LINES; i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append("{\"sku\":\"sku-")
+                        .append(i)
+                        .append("\",\"quantity\":")
+                        .append(i % 7 + 1)
+                        .append(",\"price\":")
+                        .append(i % 100 + 0.99)
+                        .append(",\"description\":\"order line number ")
+                        .append(i)
+                        .append("\"}");
+                }
+                source = source(builder.append("]}").toString());
+            }
+            case "deep_nested" -> {
+                mapperService = createMapperService("{\"_doc\":{\"properties\":" + nestedMapping(NESTED_DEPTH) + "}}");
+                StringBuilder builder = new StringBuilder();
+                nestedDocument(builder, NESTED_DEPTH);
+                source = source(builder.toString());
+            }
+            case "flattened" -> {
+                mapperService = createMapperService("""
+                    {"_doc":{"properties":{"labels":{"type":"flattened","depth_limit":5}}}}""");
+                StringBuilder builder = new StringBuilder("{\"labels\":");
+                flattenedDocument(builder, 3);
+                source = source(builder.append('}').toString());
+            }
+            default -> throw new IllegalArgumentException("unknown document [" + document + "]");
+        }
+    }
+
+    @Benchmark
+    public ParsedDocument parse() {
+        return mapperService.documentMapper().parse(source);
+    }
+
+    private static String nestedMapping(int depth) {
+        String properties = "\"name\":{\"type\":\"keyword\"},\"value\":{\"type\":\"long\"}";
+        if (depth > 0) {
+            properties += ",\"children\":{\"type\":\"nested\",\"properties\":" + nestedMapping(depth - 1) + "}";
+        }
+        return "{" + properties + "}";
+    }
+
+    private static void nestedDocument(StringBuilder builder, int depth) {
+        builder.append("{\"name\":\"level-").append(depth).append("\",\"value\":").append(depth);
+        if (depth > 0) {
+            builder.append(",\"children\":[");
+            for (int i = 0; i < NESTED_FAN_OUT; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                nestedDocument(builder, depth - 1);
+            }
+            builder.append(']');
+        }
+        builder.append('}');
+    }
+
+    private static void flattenedDocument(StringBuilder builder, int depth) {
+        builder.append('{');
+        for (int i = 0; i < FLATTENED_FAN_OUT; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("\"key-").append(i).append("\":");
+            if (depth > 1) {
+                flattenedDocument(builder, depth - 1);
+            } else {
+                builder.append("\"value-").append(i).append('"');
+            }
+        }
+        builder.append('}');
+    }
+
+    private static SourceToParse source(String json) {
+        return new SourceToParse("1", new BytesArray(json), XContentType.JSON);
+    }
+
+    private static MapperService createMapperService(String mappings) throws IOException {
+        Settings settings = Settings.builder()
+            .put("index.number_of_replicas", 0)
+            .put("index.number_of_shards", 1)
+            .put("index.version.created", Version.CURRENT)
+            .build();
+        IndexMetadata meta = IndexMetadata.builder("index").settings(settings).build();
+        IndexSettings indexSettings = new IndexSettings(meta, settings);
+        MapperRegistry mapperRegistry = new IndicesModule(Collections.emptyList()).getMapperRegistry();
+
+        SimilarityService similarityService = new SimilarityService(indexSettings, null, Map.of());
+        MapperService mapperService = new MapperService(
+            indexSettings,
+            new IndexAnalyzers(
+                Map.of("default", new NamedAnalyzer("default", AnalyzerScope.INDEX, new StandardAnalyzer())),
+                Map.of(),
+                Map.of()
+            ),
+            XContentParserConfiguration.EMPTY.withRegistry(new NamedXContentRegistry(ClusterModule.getNamedXWriteables()))
+                .withDeprecationHandler(LoggingDeprecationHandler.INSTANCE),
+            similarityService,
+            mapperRegistry,
+            () -> { throw new UnsupportedOperationException(); },
+            new IdFieldMapper(() -> true),
+            new ScriptCompiler() {
+                @Override
+                public <T> T compile(Script script, ScriptContext<T> scriptContext) {
+                    throw new UnsupportedOperationException();
+                }
+            }
+        );
+        mapperService.merge("_doc", new CompressedXContent(mappings), MapperService.MergeReason.MAPPING_UPDATE);
+        return mapperService;
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.NameOrDefinition;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.mapper.NumberFieldMapper.NumberType;
+import org.elasticsearch.index.mapper.ObjectMapper;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.support.NestedScope;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptContext;
+import org.elasticsearch.search.SearchModule;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.BucketCollector;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.MultiBucketCollector;
+import org.elasticsearch.search.aggregations.MultiBucketConsumerService.MultiBucketConsumer;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.PercentilesAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
+import org.elasticsearch.search.internal.SubSearchContext;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.search.sort.BucketedSort;
+import org.elasticsearch.search.sort.BucketedSort.ExtraData;
+import org.elasticsearch.search.sort.SortAndFormats;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks collecting aggregations with one set of aggregators per leaf
+ * slice, the slices being collected in parallel and the per-slice results
+ * reduced locally to the shard-level result like the query phase does when
+ * concurrent segment search is enabled. One slice is the sequential
+ * baseline.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentAggregationBenchmark {
+    private static final int NUM_SEGMENTS = 32;
+    private static final long START_MILLIS = 1_600_000_000_000L;
+
+    private final SearchModule searchModule = new SearchModule(Settings.EMPTY, List.of());
+    private final PageCacheRecycler recycler = new PageCacheRecycler(Settings.EMPTY);
+    private final CircuitBreakerService breakerService = new NoneCircuitBreakerService();
+    private final BigArrays bigArrays = new BigArrays(recycler, breakerService, CircuitBreaker.REQUEST);
+    private final Index index = new Index("test", "uuid");
+    private final IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(
+        Settings.EMPTY,
+        new IndexFieldDataCache.Listener() {
+        }
+    );
+
+    @Param({ "1", "4", "16" })
+    private int slices;
+
+    @Param({ "terms", "date_histogram", "cardinality", "percentiles" })
+    private String agg;
+
+    @Param({ "2000000" })
+    private int numDocs;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private ExecutorService executor;
+    private List<List<LeafReaderContext>> leafSlices;
+    private AggregationBuilder builder;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = new ByteBuffersDirectory();
+        Random random = new Random(0);
+        IndexWriterConfig config = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            int docsPerSegment = numDocs / NUM_SEGMENTS;
+            for (int i = 0; i < numDocs; i++) {
+                Document document = new Document();
+                document.add(new SortedSetDocValuesField("keyword", new BytesRef("term-" + random.nextInt(100_000))));
+                document.add(new SortedNumericDocValuesField("date", START_MILLIS + i * 1000L));
+                document.add(new SortedNumericDocValuesField("long", random.nextInt(1_000_000)));
+                writer.addDocument(document);
+                if ((i + 1) % docsPerSegment == 0) {
+                    writer.commit();
+                }
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+
+        leafSlices = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            leafSlices.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : reader.leaves()) {
+            leafSlices.get(leaf.ord % slices).add(leaf);
+        }
+        executor = EsExecutors.newFixed(
+            "concurrent_aggs",
+            slices,
+            -1,
+            EsExecutors.daemonThreadFactory("concurrent_aggs"),
+            new ThreadContext(Settings.EMPTY),
+            false
+        );
+
+        builder = switch (agg) {
+            case "terms" -> new TermsAggregationBuilder("t").field("keyword");
+            case "date_histogram" -> new DateHistogramAggregationBuilder("h").field("date").calendarInterval(DateHistogramInterval.HOUR);
+            case "cardinality" -> new CardinalityAggregationBuilder("c").field("keyword");
+            case "percentiles" -> new PercentilesAggregationBuilder("p").field("long");
+            default -> throw new UnsupportedOperationException();
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        IOUtils.close(reader, directory);
+    }
+
+    @Benchmark
+    public InternalAggregations collectAndReduce() throws Exception {
+        try (BenchmarkAggregationContext context = new BenchmarkAggregationContext()) {
+            AggregatorFactories factories = new AggregatorFactories.Builder().addAggregator(builder).build(context, null);
+            // aggregators are created on the calling thread, like the query phase does for every slice
+            List<Aggregator[]> sliceAggregators = new ArrayList<>(slices);
+            for (int i = 0; i < slices; i++) {
+                sliceAggregators.add(factories.createTopLevelAggregators());
+            }
+            List<Future<InternalAggregations>> futures = new ArrayList<>(slices - 1);
+            for (int i = 0; i < slices - 1; i++) {
+                Aggregator[] aggregators = sliceAggregators.get(i);
+                List<LeafReaderContext> leaves = leafSlices.get(i);
+                futures.add(executor.submit(() -> collectSlice(aggregators, leaves)));
+            }
+            List<InternalAggregations> results = new ArrayList<>(slices);
+            results.add(collectSlice(sliceAggregators.get(slices - 1), leafSlices.get(slices - 1)));
+            for (Future<InternalAggregations> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw (Exception) e.getCause();
+                }
+            }
+            if (results.size() == 1) {
+                return results.get(0);
+            }
+            return InternalAggregations.reduce(results, new AggregationReduceContext.ForPartial(bigArrays, null, () -> false));
+        }
+    }
+
+    private static InternalAggregations collectSlice(Aggregator[] aggregators, List<LeafReaderContext> leaves) throws IOException {
+        BucketCollector collector = MultiBucketCollector.wrap(true, List.of(aggregators));
+        collector.preCollection();
+        for (LeafReaderContext leaf : leaves) {
+            LeafBucketCollector leafCollector;
+            try {
+                leafCollector = collector.getLeafCollector(leaf);
+            } catch (CollectionTerminatedException e) {
+                continue;
+            }
+            int maxDoc = leaf.reader().maxDoc();
+            for (int doc = 0; doc < maxDoc; doc++) {
+                leafCollector.collect(doc);
+            }
+        }
+        collector.postCollection();
+        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            aggregations.add(aggregator.buildTopLevel());
+        }
+        return InternalAggregations.from(aggregations);
+    }
+
+    private class BenchmarkAggregationContext extends AggregationContext {
+        private final Query query = new MatchAllDocsQuery();
+        private final List<Releasable> releaseMe = new ArrayList<>();
+        private final MultiBucketConsumer multiBucketConsumer = new MultiBucketConsumer(
+            Integer.MAX_VALUE,
+            breakerService.getBreaker(CircuitBreaker.REQUEST)
+        );
+
+        @Override
+        public Query query() {
+            return query;
+        }
+
+        @Override
+        public Aggregator profileIfEnabled(Aggregator agg) throws IOException {
+            return agg;
+        }
+
+        @Override
+        public boolean profiling() {
+            return false;
+        }
+
+        @Override
+        public long nowInMillis() {
+            return 0;
+        }
+
+        @Override
+        public Analyzer getNamedAnalyzer(String analyzer) {
+            return null;
+        }
+
+        @Override
+        public Analyzer buildCustomAnalyzer(
+            IndexSettings indexSettings,
+            boolean normalizer,
+            NameOrDefinition tokenizer,
+            List<NameOrDefinition> charFilters,
+            List<NameOrDefinition> tokenFilters
+        ) {
+            return null;
+        }
+
+        @Override
+        protected IndexFieldData<?> buildFieldData(MappedFieldType ft) {
+            IndexFieldDataCache indexFieldDataCache = indicesFieldDataCache.buildIndexFieldDataCache(new IndexFieldDataCache.Listener() {
+            }, index, ft.name());
+            return ft.fielddataBuilder("test", this::lookup).build(indexFieldDataCache, breakerService);
+        }
+
+        @Override
+        public MappedFieldType getFieldType(String path) {
+            return switch (path) {
+                case "keyword" -> new KeywordFieldMapper.KeywordFieldType(path, false, true, null);
+                case "date" -> new DateFieldMapper.DateFieldType(path, false);
+                case "long" -> new NumberFieldMapper.NumberFieldType(path, NumberType.LONG, false);
+                default -> throw new UnsupportedOperationException();
+            };
+        }
+
+        @Override
+        public Set<String> getMatchingFieldNames(String pattern) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isFieldMapped(String field) {
+            return field.equals("keyword") || field.equals("date") || field.equals("long");
+        }
+
+        @Override
+        public <FactoryType> FactoryType compile(Script script, ScriptContext<FactoryType> context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SearchLookup lookup() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ValuesSourceRegistry getValuesSourceRegistry() {
+            return searchModule.getValuesSourceRegistry();
+        }
+
+        @Override
+        public BigArrays bigArrays() {
+            return bigArrays;
+        }
+
+        @Override
+        public IndexSearcher searcher() {
+            return searcher;
+        }
+
+        @Override
+        public Query buildQuery(QueryBuilder builder) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Query filterQuery(Query query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexSettings getIndexSettings() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<SortAndFormats> buildSort(List<SortBuilder<?>> sortBuilders) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ObjectMapper getObjectMapper(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NestedScope nestedScope() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SubSearchContext subSearchContext() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addReleasable(Aggregator aggregator) {
+            releaseMe.add(aggregator);
+        }
+
+        @Override
+        public MultiBucketConsumer multiBucketConsumer() {
+            return multiBucketConsumer;
+        }
+
+        @Override
+        public BitsetFilterCache bitsetFilterCache() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BucketedSort buildBucketedSort(SortBuilder<?> sort, int size, ExtraData values) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int shardRandomSeed() {
+            return 0;
+        }
+
+        @Override
+        public long getRelativeTimeInMillis() {
+            return 0;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public CircuitBreaker breaker() {
+            return breakerService.getBreaker(CircuitBreaker.REQUEST);
+        }
+
+        @Override
+        public Analyzer getIndexAnalyzer(Function<String, NamedAnalyzer> unindexedFieldAnalyzer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isCacheable() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean enableRewriteToFilterByFilter() {
+            // the fields are not indexed, only doc values are collected
+            return false;
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(releaseMe);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -54,8 +55,21 @@ public class LongKeyedBucketOrdsBenchmark {
      */
     private static final long DISTINCT_VALUES_IN_BUCKETS = 10;
 
-    private final PageCacheRecycler recycler = new PageCacheRecycler(Settings.EMPTY);
-    private final BigArrays bigArrays = new BigArrays(recycler, null, "REQUEST");
+    /**
+     * Whether the big arrays should be backed by direct memory pages.
+     */
+    @Param({ "false", "true" })
+    public boolean directPages;
+
+    private BigArrays bigArrays;
+
+    @Setup
+    public void setupBigArrays() {
+        PageCacheRecycler recycler = new PageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.DIRECT_ENABLED_SETTING.getKey(), directPages).build()
+        );
+        bigArrays = new BigArrays(recycler, null, "REQUEST");
+    }
 
     /**
      * Force loading all of the implementations just for extra paranoia's sake.
@@ -206,6 +220,23 @@ public class LongKeyedBucketOrdsBenchmark {
         }
     }
 
+    /**
+     * Emulates a high cardinality aggregation that collects a distinct value
+     * per document from many buckets, so the underlying hash spans many pages.
+     */
+    @Benchmark
+    public void multiBucketManyHighCardinality(Blackhole bh) {
+        try (LongKeyedBucketOrds ords = LongKeyedBucketOrds.build(bigArrays, CardinalityUpperBound.MANY)) {
+            for (long i = 0; i < LIMIT; i++) {
+                ords.add(i % DISTINCT_BUCKETS, i);
+            }
+            if (ords.size() != LIMIT) {
+                throw new IllegalArgumentException("Expected [" + LIMIT + "] but found [" + ords.size() + "]");
+            }
+            bh.consume(ords);
+        }
+    }
+
     private void multiBucket(Blackhole bh, LongKeyedBucketOrds ords) {
         for (long i = 0; i < LIMIT; i++) {
             ords.add(i % DISTINCT_BUCKETS, i % DISTINCT_VALUES_IN_BUCKETS);
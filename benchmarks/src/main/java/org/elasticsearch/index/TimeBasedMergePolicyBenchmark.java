@@ -0,0 +1,179 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexes metrics-like documents in roughly increasing {@code @timestamp} order, flushing a segment every {@link #FLUSH_SIZE}
+ * documents like periodic refreshes would, and compares the {@code tiered} and {@code time_based} merge policies. Besides the
+ * indexing throughput it reports how many bytes were written by merges for every byte of the final index, and the share of the
+ * segments that a range query over {@link #QUERY_WIDTH_PCT}% of the time range can skip because their {@code @timestamp} range
+ * doesn't intersect with the query. Those are reported as secondary results, see {@link MergeCounters}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class TimeBasedMergePolicyBenchmark {
+
+    private static final int NUM_DOCS = 500_000;
+    private static final int FLUSH_SIZE = 5_000;
+    private static final int QUERY_WIDTH_PCT = 1;
+    private static final int NUM_QUERIES = 1_000;
+    private static final String[] HOSTS = { "host-0", "host-1", "host-2", "host-3", "host-4", "host-5", "host-6", "host-7" };
+
+    @Param({ "tiered", "time_based" })
+    String mergePolicy;
+
+    /**
+     * The maximum number of milliseconds that a document can arrive late.
+     */
+    @Param({ "0", "10000" })
+    int maxDelayMillis;
+
+    private IndexSettings indexSettings;
+
+    @Setup
+    public void setup() {
+        final IndexMetadata indexMetadata = IndexMetadata.builder("benchmark")
+            .settings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                    .put(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "@timestamp")
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), mergePolicy)
+                    // small segments, so that the benchmark goes through a few levels of merges
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_FLOOR_SEGMENT_SETTING.getKey(), "100kb")
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_MAX_MERGED_SEGMENT_SETTING.getKey(), "10mb")
+            )
+            .build();
+        indexSettings = new IndexSettings(indexMetadata, Settings.EMPTY);
+    }
+
+    /**
+     * The statistics of the index that the last invocation built, reported alongside the indexing throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MergeCounters {
+        public long mergedBytes;
+        public double writeAmplification;
+        public double skipRatio;
+        public int numSegments;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_DOCS)
+    public void indexAndMerge(MergeCounters counters) throws IOException {
+        final Random random = new Random(42);
+        final long[] merged = new long[1];
+        try (Directory dir = new ByteBuffersDirectory()) {
+            final IndexWriterConfig config = new IndexWriterConfig().setMergePolicy(indexSettings.getMergePolicy())
+                .setMergeScheduler(new SerialMergeScheduler())
+                .setIndexSort(new Sort(new SortedNumericSortField("@timestamp", SortField.Type.LONG)))
+                .setMergedSegmentWarmer(reader -> merged[0] += ((SegmentReader) reader).getSegmentInfo().sizeInBytes());
+            try (IndexWriter writer = new IndexWriter(dir, config)) {
+                for (int i = 0; i < NUM_DOCS; i++) {
+                    final long timestamp = Math.max(0, i - (maxDelayMillis > 0 ? random.nextInt(maxDelayMillis) : 0));
+                    writer.addDocument(newDocument(timestamp, random));
+                    if ((i + 1) % FLUSH_SIZE == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.commit();
+            }
+            long indexBytes = 0;
+            for (String file : dir.listAll()) {
+                indexBytes += dir.fileLength(file);
+            }
+            counters.mergedBytes = merged[0];
+            counters.writeAmplification = (double) merged[0] / indexBytes;
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                counters.skipRatio = skipRatio(reader, random);
+                counters.numSegments = reader.leaves().size();
+            }
+        }
+    }
+
+    private static double skipRatio(DirectoryReader reader, Random random) throws IOException {
+        final List<long[]> ranges = new ArrayList<>();
+        for (LeafReaderContext leaf : reader.leaves()) {
+            final PointValues points = leaf.reader().getPointValues("@timestamp");
+            ranges.add(
+                new long[] {
+                    LongPoint.decodeDimension(points.getMinPackedValue(), 0),
+                    LongPoint.decodeDimension(points.getMaxPackedValue(), 0) }
+            );
+        }
+        final long width = (long) NUM_DOCS * QUERY_WIDTH_PCT / 100;
+        long skipped = 0;
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final long from = random.nextInt(NUM_DOCS - (int) width);
+            final long to = from + width;
+            for (long[] range : ranges) {
+                if (range[1] < from || range[0] > to) {
+                    skipped++;
+                }
+            }
+        }
+        return (double) skipped / ((long) NUM_QUERIES * ranges.size());
+    }
+
+    private static Document newDocument(long timestamp, Random random) {
+        final Document doc = new Document();
+        doc.add(new LongPoint("@timestamp", timestamp));
+        doc.add(new SortedNumericDocValuesField("@timestamp", timestamp));
+        doc.add(new StringField("host", HOSTS[random.nextInt(HOSTS.length)], Field.Store.NO));
+        final long value = random.nextInt(1000);
+        doc.add(new LongPoint("value", value));
+        doc.add(new SortedNumericDocValuesField("value", value));
+        return doc;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.env.ShardLock;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.codec.CodecService;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.LuceneDocument;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SeqNoFieldMapper;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexes batches of metrics-like documents with auto-generated ids into an {@link InternalEngine}, refreshing after each batch
+ * like a shard with a short refresh interval would, and occasionally delivering a document twice like a bulk request that is
+ * retried after a connection failure. Compares regular indices with {@link IndexSettings#INDEX_APPEND_ONLY_SETTING append-only} ones.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class AppendOnlyIndexingBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] HOSTS = { "host-0", "host-1", "host-2", "host-3", "host-4", "host-5", "host-6", "host-7" };
+
+    @Param({ "false", "true" })
+    boolean appendOnly;
+
+    /**
+     * The number of documents per batch that are delivered twice.
+     */
+    @Param({ "0", "10" })
+    int retriesPerBatch;
+
+    private final Random random = new Random(42);
+    private Path translogPath;
+    private ThreadPool threadPool;
+    private Store store;
+    private InternalEngine engine;
+    private long autoGeneratedIdTimestamp;
+
+    @Setup
+    public void setup() throws IOException {
+        final IndexMetadata indexMetadata = IndexMetadata.builder("benchmark")
+            .settings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                    .put(IndexSettings.INDEX_APPEND_ONLY_SETTING.getKey(), appendOnly)
+            )
+            .build();
+        final IndexSettings indexSettings = new IndexSettings(indexMetadata, Settings.EMPTY);
+        final ShardId shardId = new ShardId(indexMetadata.getIndex(), 0);
+        translogPath = Files.createTempDirectory("translog");
+        threadPool = new ThreadPool(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "benchmark").build());
+        store = new Store(shardId, indexSettings, new ByteBuffersDirectory(), new ShardLock(shardId) {
+            @Override
+            protected void closeInternal() {}
+        });
+        store.createEmpty();
+        final String translogUUID = Translog.createEmptyTranslog(translogPath, SequenceNumbers.NO_OPS_PERFORMED, shardId, 1L);
+        store.associateIndexWithNewTranslog(translogUUID);
+
+        final EngineConfig config = new EngineConfig(
+            shardId,
+            threadPool,
+            indexSettings,
+            null,
+            store,
+            new TieredMergePolicy(),
+            new StandardAnalyzer(),
+            IndexSearcher.getDefaultSimilarity(),
+            new CodecService(null),
+            new Engine.EventListener() {
+            },
+            IndexSearcher.getDefaultQueryCache(),
+            IndexSearcher.getDefaultQueryCachingPolicy(),
+            new TranslogConfig(shardId, translogPath, indexSettings, BigArrays.NON_RECYCLING_INSTANCE),
+            TimeValue.timeValueMinutes(5),
+            List.of(),
+            List.of(),
+            null,
+            new NoneCircuitBreakerService(),
+            () -> SequenceNumbers.NO_OPS_PERFORMED,
+            () -> RetentionLeases.EMPTY,
+            () -> 1L,
+            IndexModule.DEFAULT_SNAPSHOT_COMMIT_SUPPLIER,
+            null
+        );
+        engine = new InternalEngine(config);
+        engine.recoverFromTranslog((e, snapshot) -> 0, Long.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(engine, store);
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        IOUtils.rm(translogPath);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void indexBatch() throws IOException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final String id = UUIDs.base64UUID();
+            final long timestamp = autoGeneratedIdTimestamp++;
+            engine.index(index(id, timestamp, false));
+            if (i < retriesPerBatch) {
+                engine.index(index(id, timestamp, true));
+            }
+        }
+        engine.refresh("benchmark");
+    }
+
+    private Engine.Index index(String id, long autoGeneratedIdTimestamp, boolean isRetry) {
+        final BytesRef encodedId = Uid.encodeId(id);
+        final String host = HOSTS[random.nextInt(HOSTS.length)];
+        final long value = random.nextInt(1000);
+        final BytesArray source = new BytesArray(
+            ("{\"@timestamp\":" + autoGeneratedIdTimestamp + ",\"host\":\"" + host + "\",\"value\":" + value + "}").getBytes(
+                StandardCharsets.UTF_8
+            )
+        );
+
+        final LuceneDocument document = new LuceneDocument();
+        document.add(new LongPoint("@timestamp", autoGeneratedIdTimestamp));
+        document.add(new SortedNumericDocValuesField("@timestamp", autoGeneratedIdTimestamp));
+        document.add(new StringField("host", host, Field.Store.NO));
+        document.add(new SortedSetDocValuesField("host", new BytesRef(host)));
+        document.add(new LongPoint("value", value));
+        document.add(new SortedNumericDocValuesField("value", value));
+        document.add(new Field(IdFieldMapper.NAME, encodedId, IdFieldMapper.Defaults.FIELD_TYPE));
+        final Field versionField = new NumericDocValuesField("_version", 0);
+        final SeqNoFieldMapper.SequenceIDFields seqID = SeqNoFieldMapper.SequenceIDFields.emptySeqID();
+        document.add(versionField);
+        document.add(seqID.seqNo);
+        document.add(seqID.seqNoDocValue);
+        document.add(seqID.primaryTerm);
+        final BytesRef sourceRef = source.toBytesRef();
+        document.add(new StoredField(SourceFieldMapper.NAME, sourceRef.bytes, sourceRef.offset, sourceRef.length));
+        final ParsedDocument doc = new ParsedDocument(versionField, seqID, id, null, List.of(document), source, XContentType.JSON, null);
+
+        return new Engine.Index(
+            new Term(IdFieldMapper.NAME, encodedId),
+            doc,
+            SequenceNumbers.UNASSIGNED_SEQ_NO,
+            1L,
+            Versions.MATCH_ANY,
+            VersionType.INTERNAL,
+            Engine.Operation.Origin.PRIMARY,
+            System.nanoTime(),
+            autoGeneratedIdTimestamp,
+            isRetry,
+            SequenceNumbers.UNASSIGNED_SEQ_NO,
+            0
+        );
+    }
+}
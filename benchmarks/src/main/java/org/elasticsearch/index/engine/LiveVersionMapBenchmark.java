@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.translog.Translog;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of putting and getting the versions of recently indexed documents in the {@link LiveVersionMap}. The
+ * memory that the version map needs per document is reported as the secondary {@code bytesPerId} result.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+public class LiveVersionMapBenchmark {
+
+    @Param({ "false", "true" })
+    boolean compact;
+
+    @Param({ "100000" })
+    int numIds;
+
+    private BytesRef[] ids;
+    private IndexVersionValue[] versions;
+    private LiveVersionMap filledMap;
+
+    @Setup
+    public void setup() {
+        ids = new BytesRef[numIds];
+        versions = new IndexVersionValue[numIds];
+        for (int i = 0; i < numIds; i++) {
+            ids[i] = new BytesRef(UUIDs.base64UUID());
+            versions[i] = new IndexVersionValue(new Translog.Location(1, i * 100L, 100), 1, i, 1);
+        }
+        filledMap = newFilledMap();
+    }
+
+    /**
+     * Reports the memory that the version map needs per document alongside the time of the benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MemoryCounters {
+        public long bytesPerId;
+    }
+
+    private LiveVersionMap newFilledMap() {
+        final LiveVersionMap map = new LiveVersionMap(compact);
+        map.enforceSafeAccess();
+        for (int i = 0; i < numIds; i++) {
+            try (Releasable ignored = map.acquireLock(ids[i])) {
+                map.putIndexUnderLock(ids[i], versions[i]);
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    public LiveVersionMap put(MemoryCounters counters) {
+        final LiveVersionMap map = newFilledMap();
+        counters.bytesPerId = map.ramBytesUsed() / numIds;
+        return map;
+    }
+
+    @Benchmark
+    public long get(MemoryCounters counters) {
+        counters.bytesPerId = filledMap.ramBytesUsed() / numIds;
+        long sum = 0;
+        for (BytesRef id : ids) {
+            try (Releasable ignored = filledMap.acquireLock(id)) {
+                sum += filledMap.getUnderLock(id).seqNo;
+            }
+        }
+        return sum;
+    }
+}
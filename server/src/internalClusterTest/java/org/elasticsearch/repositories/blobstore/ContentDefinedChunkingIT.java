@@ -0,0 +1,158 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.snapshots.AbstractSnapshotIntegTestCase;
+import org.elasticsearch.snapshots.SnapshotInfo;
+import org.elasticsearch.snapshots.mockstore.MockRepository;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 0)
+public class ContentDefinedChunkingIT extends AbstractSnapshotIntegTestCase {
+
+    private static final String INDEX_NAME = "test-index";
+
+    public void testSnapshotRestoreAndDeleteWithSharedChunks() throws Exception {
+        final String node = internalCluster().startNode();
+        final String repositoryName = "test-repo";
+        createRepository(
+            repositoryName,
+            "mock",
+            Settings.builder()
+                .put("location", randomRepoPath())
+                .put("compress", randomBoolean())
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_SETTING.getKey(), true)
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_AVERAGE_CHUNK_SIZE_SETTING.getKey(), "64kb")
+        );
+        final MockRepository repository = getRepositoryOnNode(repositoryName, node);
+
+        // stored fields of documents larger than a block are compressed in independent slices, so that the stored fields files of
+        // segments that hold the same large document share most of their bytes and thus most of their chunks
+        final String value = randomAlphaOfLength(1 << 20);
+
+        logger.info("--> snapshot two segments holding the same document");
+        createIndexWithDocument("1", value);
+        createIndexWithDocument("2", value);
+        final SnapshotInfo firstSnapshot = createFullSnapshot(repositoryName, "snapshot-1");
+        final IndexId indexId = getRepositoryData(repositoryName).resolveIndexId(INDEX_NAME);
+        final Set<String> firstSnapshotChunks = new HashSet<>();
+        final int firstSnapshotChunkReferences = collectChunks(repository, indexId, firstSnapshot, firstSnapshotChunks);
+        assertThat("chunks are shared across files", firstSnapshotChunkReferences, greaterThan(firstSnapshotChunks.size()));
+        assertThat(listChunkBlobs(repository, indexId), equalTo(firstSnapshotChunks));
+        assertChunksWrittenOnce(repository);
+
+        logger.info("--> snapshot a new segment of a recreated index holding the same document");
+        assertAcked(client().admin().indices().prepareDelete(INDEX_NAME));
+        createIndexWithDocument("3", value);
+        final SnapshotInfo secondSnapshot = createFullSnapshot(repositoryName, "snapshot-2");
+        final Set<String> secondSnapshotChunks = new HashSet<>();
+        collectChunks(repository, indexId, secondSnapshot, secondSnapshotChunks);
+        assertThat("chunks are shared across snapshots", Sets.intersection(firstSnapshotChunks, secondSnapshotChunks), not(empty()));
+        assertChunksWrittenOnce(repository);
+
+        logger.info("--> delete the first snapshot");
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot(repositoryName, "snapshot-1").get());
+        assertThat(Sets.difference(firstSnapshotChunks, secondSnapshotChunks), not(empty()));
+        assertThat(listChunkBlobs(repository, indexId), equalTo(secondSnapshotChunks));
+
+        logger.info("--> restore the second snapshot");
+        assertAcked(client().admin().indices().prepareDelete(INDEX_NAME));
+        final RestoreSnapshotResponse restoreResponse = client().admin()
+            .cluster()
+            .prepareRestoreSnapshot(repositoryName, "snapshot-2")
+            .setIndices(INDEX_NAME)
+            .setWaitForCompletion(true)
+            .get();
+        assertThat(restoreResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen(INDEX_NAME);
+        assertDocCount(INDEX_NAME, 1L);
+        assertThat(client().prepareGet(INDEX_NAME, "3").get().getSourceAsMap().get("field"), equalTo(value));
+    }
+
+    /**
+     * Indexes the given document in a new segment, creating the index if needed.
+     */
+    private void createIndexWithDocument(String id, String value) {
+        if (indexExists(INDEX_NAME) == false) {
+            assertAcked(
+                prepareCreate(INDEX_NAME).setSettings(indexSettingsNoReplicas(1).put(MergePolicyConfig.INDEX_MERGE_ENABLED, false))
+                    .setMapping("field", "type=text,index=false")
+            );
+        }
+        indexDoc(INDEX_NAME, id, "field", value);
+        flush(INDEX_NAME);
+    }
+
+    /**
+     * Adds the chunks of the files of the only shard of the index in the given snapshot to the given set.
+     *
+     * @return the number of references to chunks from the files of the shard
+     */
+    private static int collectChunks(MockRepository repository, IndexId indexId, SnapshotInfo snapshotInfo, Set<String> chunks) {
+        final BlobStoreIndexShardSnapshot shardSnapshot = PlainActionFuture.get(
+            f -> repository.threadPool()
+                .generic()
+                .execute(
+                    ActionRunnable.supply(
+                        f,
+                        () -> repository.loadShardSnapshot(repository.shardContainer(indexId, 0), snapshotInfo.snapshotId())
+                    )
+                )
+        );
+        int references = 0;
+        for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : shardSnapshot.indexFiles()) {
+            // files whose contents are stored in the shard snapshot metadata are not chunked
+            if (fileInfo.isChunked()) {
+                for (BlobStoreIndexShardSnapshot.Chunk chunk : fileInfo.chunks()) {
+                    chunks.add(chunk.name());
+                    references++;
+                }
+            }
+        }
+        return references;
+    }
+
+    private static Set<String> listChunkBlobs(MockRepository repository, IndexId indexId) {
+        return PlainActionFuture.get(
+            f -> repository.threadPool()
+                .generic()
+                .execute(
+                    ActionRunnable.supply(
+                        f,
+                        () -> repository.shardContainer(indexId, 0).listBlobsByPrefix(ContentDefinedChunker.CHUNK_BLOB_PREFIX).keySet()
+                    )
+                )
+        );
+    }
+
+    private static void assertChunksWrittenOnce(MockRepository repository) {
+        for (Map.Entry<String, Long> blobWriteCount : repository.getBlobWriteCounts().entrySet()) {
+            if (blobWriteCount.getKey().contains(ContentDefinedChunker.CHUNK_BLOB_PREFIX)) {
+                assertThat("chunk [" + blobWriteCount.getKey() + "] was uploaded more than once", blobWriteCount.getValue(), equalTo(1L));
+            }
+        }
+    }
+}
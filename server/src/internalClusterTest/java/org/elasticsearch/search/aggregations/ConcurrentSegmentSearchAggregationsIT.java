@@ -0,0 +1,177 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.bucket.nested.Nested;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.profile.SearchProfileShardResult;
+import org.elasticsearch.search.profile.query.CollectorResult;
+import org.elasticsearch.search.profile.query.QueryProfileShardResult;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.elasticsearch.search.aggregations.AggregationBuilders.cardinality;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.nested;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST)
+public class ConcurrentSegmentSearchAggregationsIT extends ESIntegTestCase {
+
+    private static final String INDEX = "index";
+
+    private void createIndexWithManySegments() throws Exception {
+        assertAcked(
+            prepareCreate(INDEX).setSettings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                    // keep enough segments for the shard to be searched in several leaf slices
+                    .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+            ).setMapping("keyword", "type=keyword", "number", "type=long", "nested", "type=nested")
+        );
+        final int numSegments = between(12, 20);
+        for (int i = 0; i < numSegments; i++) {
+            final List<IndexRequestBuilder> docs = new ArrayList<>();
+            for (int j = between(1, 20); j > 0; j--) {
+                final List<Map<String, Object>> nestedDocs = new ArrayList<>();
+                for (int k = between(0, 3); k > 0; k--) {
+                    nestedDocs.add(Map.of("value", between(0, 10)));
+                }
+                docs.add(
+                    client().prepareIndex(INDEX)
+                        .setSource("keyword", "k" + between(0, 20), "number", randomLongBetween(0, 100), "nested", nestedDocs)
+                );
+            }
+            indexRandom(false, false, docs);
+            refresh(INDEX);
+        }
+        ensureGreen(INDEX);
+    }
+
+    public void testTermsAndCardinality() throws Exception {
+        createIndexWithManySegments();
+        final Function<SearchRequestBuilder, SearchRequestBuilder> request = builder -> builder.addAggregation(
+            terms("terms").field("keyword").size(100).subAggregation(cardinality("cardinality").field("number").precisionThreshold(1000))
+        ).addAggregation(cardinality("cardinality").field("number").precisionThreshold(1000));
+
+        final Map<String, Object> sequential = summarize(search(request, false, false).getAggregations());
+
+        final long searchWorkerTasks = completedSearchWorkerTasks();
+        final Map<String, Object> concurrent = summarize(search(request, true, false).getAggregations());
+        assertThat(concurrent, equalTo(sequential));
+        // the slices but the last one are searched on the search_worker pool
+        assertBusy(() -> assertThat(completedSearchWorkerTasks(), greaterThan(searchWorkerTasks)));
+    }
+
+    public void testNestedAggregations() throws Exception {
+        createIndexWithManySegments();
+        final Function<SearchRequestBuilder, SearchRequestBuilder> request = builder -> builder.addAggregation(
+            nested("nested", "nested").subAggregation(
+                terms("terms").field("nested.value").size(100).subAggregation(cardinality("cardinality").field("nested.value"))
+            )
+        );
+
+        final Nested sequential = search(request, false, false).getAggregations().get("nested");
+
+        final long searchWorkerTasks = completedSearchWorkerTasks();
+        final Nested concurrent = search(request, true, false).getAggregations().get("nested");
+        assertThat(concurrent.getDocCount(), equalTo(sequential.getDocCount()));
+        assertThat(summarize(concurrent.getAggregations()), equalTo(summarize(sequential.getAggregations())));
+        assertBusy(() -> assertThat(completedSearchWorkerTasks(), greaterThan(searchWorkerTasks)));
+    }
+
+    public void testProfiledAggregationsAreCollectedSequentially() throws Exception {
+        createIndexWithManySegments();
+        final Function<SearchRequestBuilder, SearchRequestBuilder> request = builder -> builder.addAggregation(
+            terms("terms").field("keyword").size(100).subAggregation(cardinality("cardinality").field("number").precisionThreshold(1000))
+        );
+
+        final Map<String, Object> sequential = summarize(search(request, false, false).getAggregations());
+
+        final long searchWorkerTasks = completedSearchWorkerTasks();
+        final SearchResponse profiled = search(request, true, true);
+        assertThat(summarize(profiled.getAggregations()), equalTo(sequential));
+        assertThat(completedSearchWorkerTasks(), equalTo(searchWorkerTasks));
+        for (SearchProfileShardResult shardResult : profiled.getProfileResults().values()) {
+            for (QueryProfileShardResult queryResult : shardResult.getQueryProfileResults()) {
+                assertThat(queryResult.getCollectorResult().getReason(), not(equalTo(CollectorResult.REASON_SEARCH_CONCURRENT)));
+            }
+        }
+    }
+
+    private SearchResponse search(
+        Function<SearchRequestBuilder, SearchRequestBuilder> request,
+        boolean concurrentSegmentSearch,
+        boolean profile
+    ) {
+        assertAcked(
+            client().admin()
+                .cluster()
+                .prepareUpdateSettings()
+                .setPersistentSettings(
+                    Settings.builder().put(SearchService.CONCURRENT_SEGMENT_SEARCH_ENABLED.getKey(), concurrentSegmentSearch)
+                )
+        );
+        final SearchResponse response = request.apply(client().prepareSearch(INDEX).setSize(0).setProfile(profile)).get();
+        assertSearchResponse(response);
+        return response;
+    }
+
+    private long completedSearchWorkerTasks() {
+        long completed = 0L;
+        for (NodeStats nodeStats : client().admin().cluster().prepareNodesStats().setThreadPool(true).get().getNodes()) {
+            for (ThreadPoolStats.Stats stats : nodeStats.getThreadPool()) {
+                if (stats.getName().equals(ThreadPool.Names.SEARCH_WORKER)) {
+                    completed += stats.getCompleted();
+                }
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Flattens the terms and cardinality aggregations of a response so that the results of two searches can be compared.
+     */
+    private static Map<String, Object> summarize(Aggregations aggregations) {
+        final Map<String, Object> summary = new LinkedHashMap<>();
+        final Cardinality cardinality = aggregations.get("cardinality");
+        if (cardinality != null) {
+            summary.put("cardinality", cardinality.getValue());
+        }
+        final Terms terms = aggregations.get("terms");
+        if (terms != null) {
+            for (Terms.Bucket bucket : terms.getBuckets()) {
+                summary.put("terms." + bucket.getKeyAsString(), bucket.getDocCount());
+                summary.put("terms." + bucket.getKeyAsString() + ".sub", summarize(bucket.getAggregations()));
+            }
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.snapshots;
+
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.indices.recovery.RecoverySettings;
+import org.elasticsearch.snapshots.mockstore.MockRepository;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 0)
+public class SnapshotFileRangeRestoreIT extends AbstractSnapshotIntegTestCase {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal, Settings otherSettings) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal, otherSettings))
+            .put(
+                RecoverySettings.INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE.getKey(),
+                new ByteSizeValue(1, ByteSizeUnit.MB).getStringRep()
+            )
+            .put(RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS.getKey(), between(2, 4))
+            .put(RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE.getKey(), between(1, 8))
+            .build();
+    }
+
+    public void testRestoreLargeFilesWithConcurrentRangeReads() throws Exception {
+        internalCluster().startMasterOnlyNode();
+        final String dataNode = internalCluster().startDataOnlyNode();
+
+        final String indexName = "test-index";
+        createIndex(indexName, indexSettingsNoReplicas(1).build());
+        // a few megabytes of stored fields, so that the merged segment has files that span several ranges
+        final int numDocs = scaledRandomIntBetween(3_000, 5_000);
+        for (int i = 0; i < numDocs; i += 500) {
+            final BulkRequestBuilder bulk = client().prepareBulk();
+            for (int j = i; j < Math.min(numDocs, i + 500); j++) {
+                bulk.add(client().prepareIndex(indexName).setId(Integer.toString(j)).setSource("field", randomAlphaOfLength(1_000)));
+            }
+            assertNoFailures(bulk.get());
+        }
+        flushAndRefresh(indexName);
+        assertNoFailures(client().admin().indices().prepareForceMerge(indexName).setMaxNumSegments(1).get());
+
+        final String repositoryName = "repository";
+        // the latency simulates a remote repository, for which reading ranges concurrently speeds restores up
+        createRepository(
+            repositoryName,
+            "mock",
+            randomRepositorySettings().put("read_latency", TimeValue.timeValueMillis(between(0, 20)).getStringRep())
+        );
+        final String snapshotName = "snapshot";
+        createFullSnapshot(repositoryName, snapshotName);
+        assertAcked(client().admin().indices().prepareDelete(indexName));
+
+        final RestoreSnapshotResponse restoreResponse = client().admin()
+            .cluster()
+            .prepareRestoreSnapshot(repositoryName, snapshotName)
+            .setIndices(indexName)
+            .setWaitForCompletion(true)
+            .get();
+        assertThat(restoreResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen(indexName);
+        assertDocCount(indexName, numDocs);
+
+        final MockRepository repository = getRepositoryOnNode(repositoryName, dataNode);
+        assertThat(repository.getRangeReadCount(), greaterThan(0L));
+    }
+}
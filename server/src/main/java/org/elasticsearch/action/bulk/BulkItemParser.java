@@ -0,0 +1,205 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.shard.IndexShard;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses the documents of the index requests in a {@link BulkShardRequest} on up to
+ * {@link IndexSettings#INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING} threads of the {@code bulk_parsing} thread pool ahead
+ * of the write thread that applies the items to the primary. The write thread still applies the items one after another so
+ * versioning, sequence number assignment and dynamic mapping updates stay ordered.
+ * <p>
+ * The write thread never waits for a document to be parsed: it parses the items that no other thread has parsed yet as
+ * usual, and parses again the documents that were parsed with a mapping that has since been updated.
+ * <p>
+ * The documents that are parsed ahead are accounted for in {@link IndexingPressure} on top of the request until the write
+ * thread takes them, and parsing ahead stops when the indexing pressure limit would be exceeded.
+ * <p>
+ * Each parsing task holds a reference to the request until it completes, because the sources of a request received over the
+ * transport are slices of network buffers that are recycled once the request is released, which may happen before the tasks
+ * that were started ahead of the write thread are done.
+ */
+final class BulkItemParser {
+
+    private static final Object PARSING = new Object();
+    private static final Object SKIPPED = new Object();
+
+    private final BulkShardRequest request;
+    private final IndexShard primary;
+    private final IndexingPressure indexingPressure;
+    private final AtomicInteger nextItem = new AtomicInteger();
+    private final AtomicInteger parsedAheadTaken = new AtomicInteger();
+    private volatile boolean stopped;
+    /**
+     * The state of each item: {@code null} if nobody has started parsing it,
+     * {@link #PARSING}, {@link #SKIPPED} or the {@link Parsed} document.
+     */
+    private final AtomicReferenceArray<Object> items;
+
+    BulkItemParser(BulkShardRequest request, IndexShard primary, IndexingPressure indexingPressure) {
+        this.request = request;
+        this.primary = primary;
+        this.indexingPressure = indexingPressure;
+        this.items = new AtomicReferenceArray<>(request.items().length);
+    }
+
+    /**
+     * Starts parsing the documents on up to {@code threads} tasks of {@code executor}.
+     */
+    void start(Executor executor, int threads) {
+        for (int i = 0; i < threads; i++) {
+            if (request.tryIncRef() == false) {
+                // the request is already released, so are its sources
+                return;
+            }
+            try {
+                executor.execute(new AbstractRunnable() {
+                    @Override
+                    protected void doRun() {
+                        parseItems();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        // documents that fail to parse are skipped in parse(), so this can only be a rejection
+                        assert e instanceof EsRejectedExecutionException : e;
+                    }
+
+                    @Override
+                    public void onAfter() {
+                        request.decRef();
+                    }
+                });
+            } catch (EsRejectedExecutionException e) {
+                // the write thread parses whatever isn't parsed ahead
+                request.decRef();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops parsing documents that haven't been started yet and releases the documents that were parsed ahead but not taken. The
+     * documents that are being parsed are released by the task that parses them once it is done.
+     */
+    void stop() {
+        nextItem.set(items.length());
+        stopped = true;
+        for (int i = 0; i < items.length(); i++) {
+            final Object item = items.get(i);
+            if (item instanceof Parsed parsed && items.compareAndSet(i, item, SKIPPED)) {
+                parsed.reservation.close();
+            }
+        }
+    }
+
+    /**
+     * Takes the document of the item at {@code itemIndex} if it was parsed with the
+     * current mapping, returns {@code null} if the caller has to parse it. Each document
+     * can only be taken once.
+     */
+    @Nullable
+    ParsedDocument take(int itemIndex) {
+        Object item = items.getAndSet(itemIndex, SKIPPED);
+        if (item instanceof Parsed parsed) {
+            parsed.reservation.close();
+            if (parsed.mapper == primary.mapperService().documentMapper()) {
+                parsedAheadTaken.incrementAndGet();
+                return parsed.document;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The number of documents that were parsed ahead and taken by the write thread.
+     */
+    int parsedAheadTaken() {
+        return parsedAheadTaken.get();
+    }
+
+    private void release(int itemIndex) {
+        if (items.getAndSet(itemIndex, SKIPPED) instanceof Parsed parsed) {
+            parsed.reservation.close();
+        }
+    }
+
+    private void parseItems() {
+        int itemIndex;
+        while ((itemIndex = nextItem.getAndIncrement()) < items.length()) {
+            if (items.compareAndSet(itemIndex, null, PARSING)) {
+                assert request.hasReferences() : "parsing the sources of a released request";
+                final Object parsed = parse(request.items()[itemIndex]);
+                if (parsed == null) {
+                    // the indexing pressure limit is reached, the write thread parses the remaining documents
+                    items.compareAndSet(itemIndex, PARSING, SKIPPED);
+                    return;
+                }
+                if (items.compareAndSet(itemIndex, PARSING, parsed) == false && parsed instanceof Parsed p) {
+                    // the write thread already went past this item
+                    p.reservation.close();
+                }
+                if (stopped) {
+                    release(itemIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the document of the given item, returns {@code null} if it can't be accounted for in the indexing pressure.
+     */
+    @Nullable
+    private Object parse(BulkItemRequest item) {
+        if (item.request() instanceof IndexRequest == false) {
+            return SKIPPED;
+        }
+        DocumentMapper mapper = primary.mapperService().documentMapper();
+        if (mapper == null) {
+            return SKIPPED;
+        }
+        IndexRequest request = (IndexRequest) item.request();
+        // the source length is an estimate of the size of the parsed document, which is held until the write thread takes it
+        final Releasable reservation = indexingPressure.tryMarkPrimaryOperationBytes(request.source().length());
+        if (reservation == null) {
+            return null;
+        }
+        try {
+            SourceToParse source = new SourceToParse(
+                request.id(),
+                request.source(),
+                request.getContentType(),
+                request.routing(),
+                request.getDynamicTemplates()
+            );
+            return new Parsed(mapper, mapper.parse(source), reservation);
+        } catch (Exception e) {
+            reservation.close();
+            // the write thread parses the document again and reports the failure
+            return SKIPPED;
+        }
+    }
+
+    private record Parsed(DocumentMapper mapper, ParsedDocument document, Releasable reservation) {}
+}
@@ -166,6 +166,11 @@ class BulkPrimaryExecutionContext {
         return locationToSync;
     }
 
+    /** returns the position of the current item in {@link BulkShardRequest#items()} */
+    public int getCurrentItemIndex() {
+        return currentIndex;
+    }
+
     private BulkItemRequest getCurrentItem() {
         return request.items()[currentIndex];
     }
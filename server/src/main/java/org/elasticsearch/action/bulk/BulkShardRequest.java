@@ -15,13 +15,22 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.ReplicatedWriteRequest;
 import org.elasticsearch.action.support.replication.ReplicationRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.FilterStreamInput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.transport.RawIndexingDataTransportRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -31,14 +40,43 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
 
     private final BulkItemRequest[] items;
 
+    /**
+     * Releases the network buffers that the documents of a request read from the wire are sliced from, {@code null} if the
+     * request was built on this node. The buffers are recycled once the last reference is released, so anything that reads
+     * the sources outside of the handling of the request, such as parsing them ahead on another thread, must hold a
+     * reference of its own for as long as it reads them.
+     */
+    @Nullable
+    private final RefCounted sourcesRefCounted;
+
     public BulkShardRequest(StreamInput in) throws IOException {
         super(in);
-        items = in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+        final List<ReleasableBytesReference> sources = new ArrayList<>();
+        // slice the documents out of the buffers they were received in instead of copying them to the heap
+        final StreamInput itemsInput = new FilterStreamInput(in) {
+            @Override
+            public BytesReference readBytesReference() throws IOException {
+                final ReleasableBytesReference bytes = readReleasableBytesReference();
+                sources.add(bytes);
+                return bytes;
+            }
+        };
+        boolean success = false;
+        try {
+            items = itemsInput.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+            success = true;
+        } finally {
+            if (success == false) {
+                Releasables.close(sources);
+            }
+        }
+        sourcesRefCounted = AbstractRefCounted.of(() -> Releasables.close(sources));
     }
 
     public BulkShardRequest(ShardId shardId, RefreshPolicy refreshPolicy, BulkItemRequest[] items) {
         super(shardId);
         this.items = items;
+        this.sourcesRefCounted = null;
         setRefreshPolicy(refreshPolicy);
     }
 
@@ -148,4 +186,26 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> i
     public long ramBytesUsed() {
         return SHALLOW_SIZE + Stream.of(items).mapToLong(Accountable::ramBytesUsed).sum();
     }
+
+    @Override
+    public void incRef() {
+        if (sourcesRefCounted != null) {
+            sourcesRefCounted.incRef();
+        }
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return sourcesRefCounted == null || sourcesRefCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return sourcesRefCounted != null && sourcesRefCounted.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return sourcesRefCounted == null || sourcesRefCounted.hasReferences();
+    }
 }
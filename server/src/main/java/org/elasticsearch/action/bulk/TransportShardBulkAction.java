@@ -39,6 +39,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.IndexingPressure;
@@ -47,6 +48,7 @@ import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SourceToParse;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
@@ -147,7 +149,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             public void onTimeout(TimeValue timeout) {
                 mappingUpdateListener.onFailure(new MapperException("timed out while waiting for a dynamic mapping update"));
             }
-        }), listener, threadPool, executor(primary));
+        }), listener, threadPool, executor(primary), indexingPressure);
     }
 
     @Override
@@ -170,6 +172,37 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
         ThreadPool threadPool,
         String executorName
+    ) {
+        performOnPrimary(
+            request,
+            primary,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            listener,
+            threadPool,
+            executorName,
+            null
+        );
+    }
+
+    /**
+     * Same as {@link #performOnPrimary(BulkShardRequest, IndexShard, UpdateHelper, LongSupplier, MappingUpdatePerformer, Consumer,
+     * ActionListener, ThreadPool, String)} but parses documents ahead of the write thread if the index is configured to, accounting
+     * for them in the given {@link IndexingPressure}.
+     */
+    public static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        Consumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        ThreadPool threadPool,
+        String executorName,
+        @Nullable IndexingPressure indexingPressure
     ) {
         new ActionRunnable<>(listener) {
 
@@ -177,6 +210,10 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
             private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
 
+            private final BulkItemParser itemParser = indexingPressure == null
+                ? null
+                : startItemParser(request, primary, indexingPressure, threadPool.executor(ThreadPool.Names.BULK_PARSING));
+
             final long startBulkTime = System.nanoTime();
 
             @Override
@@ -184,6 +221,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 while (context.hasMoreOperationsToExecute()) {
                     if (executeBulkItemRequest(
                         context,
+                        itemParser,
                         updateHelper,
                         nowInMillisSupplier,
                         mappingUpdater,
@@ -203,6 +241,9 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
             @Override
             public void onRejection(Exception e) {
+                if (itemParser != null) {
+                    itemParser.stop();
+                }
                 // We must finish the outstanding request. Finishing the outstanding request can include
                 // refreshing and fsyncing. Therefore, we must force execution on the WRITE thread.
                 executor.execute(new ActionRunnable<>(listener) {
@@ -235,6 +276,9 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             }
 
             private void finishRequest() {
+                if (itemParser != null) {
+                    itemParser.stop();
+                }
                 ActionListener.completeWith(
                     listener,
                     () -> new WritePrimaryResult<>(
@@ -250,6 +294,26 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         }.run();
     }
 
+    /**
+     * Starts parsing the documents of the request ahead of the write thread if the index is configured to and there is more
+     * than one item, returns {@code null} otherwise.
+     */
+    @Nullable
+    private static BulkItemParser startItemParser(
+        BulkShardRequest request,
+        IndexShard primary,
+        IndexingPressure indexingPressure,
+        Executor executor
+    ) {
+        final int threads = primary.indexSettings().getBulkParallelParsingThreads();
+        if (threads == 0 || request.items().length < 2) {
+            return null;
+        }
+        final BulkItemParser itemParser = new BulkItemParser(request, primary, indexingPressure);
+        itemParser.start(executor, Math.min(threads, request.items().length - 1));
+        return itemParser;
+    }
+
     /**
      * Executes bulk item requests and handles request execution exceptions.
      * @return {@code true} if request completed on this thread and the listener was invoked, {@code false} if the request triggered
@@ -262,6 +326,30 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         MappingUpdatePerformer mappingUpdater,
         Consumer<ActionListener<Void>> waitForMappingUpdate,
         ActionListener<Void> itemDoneListener
+    ) throws Exception {
+        return executeBulkItemRequest(
+            context,
+            null,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            itemDoneListener
+        );
+    }
+
+    /**
+     * Same as {@link #executeBulkItemRequest(BulkPrimaryExecutionContext, UpdateHelper, LongSupplier, MappingUpdatePerformer,
+     * Consumer, ActionListener)} but indexes the document that {@code itemParser} parsed ahead if there is one.
+     */
+    static boolean executeBulkItemRequest(
+        BulkPrimaryExecutionContext context,
+        @Nullable BulkItemParser itemParser,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        Consumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<Void> itemDoneListener
     ) throws Exception {
         final DocWriteRequest.OpType opType = context.getCurrent().opType();
 
@@ -317,15 +405,32 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 request.routing(),
                 request.getDynamicTemplates()
             );
-            result = primary.applyIndexOperationOnPrimary(
-                version,
-                request.versionType(),
-                sourceToParse,
-                request.ifSeqNo(),
-                request.ifPrimaryTerm(),
-                request.getAutoGeneratedTimestamp(),
-                request.isRetry()
-            );
+            // only documents of index requests are parsed ahead, not those that updates are translated into
+            final ParsedDocument parsedDocument = itemParser != null && opType != DocWriteRequest.OpType.UPDATE
+                ? itemParser.take(context.getCurrentItemIndex())
+                : null;
+            if (parsedDocument != null) {
+                result = primary.applyIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    sourceToParse,
+                    parsedDocument,
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            } else {
+                result = primary.applyIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    sourceToParse,
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            }
         }
         if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
 
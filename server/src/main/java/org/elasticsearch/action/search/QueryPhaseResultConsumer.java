@@ -31,7 +31,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -49,6 +52,13 @@ import static org.elasticsearch.action.search.SearchPhaseController.setShardInde
  * in the {@link CircuitBreaker#REQUEST} circuit breaker. Before any partial or final reduce, the memory
  * needed to reduce the aggregations is estimated and a {@link CircuitBreakingException} is thrown if it
  * exceeds the maximum memory allowed in this breaker.
+ * <p>
+ * By default shard results are buffered and reduced in batches of {@code batched_reduce_size} results. In streaming
+ * mode, every shard result is instead merged as soon as it arrives with another shard result or partial merge that
+ * covers the same number of shards or fewer, so the results are reduced along a tree of pairwise merges that run
+ * concurrently on up to {@code maxConcurrentStreamingMerges} threads of the executor. Streaming mode does not notify
+ * the {@link SearchProgressListener} of partial reduces since pairwise merges do not cover all the shards that were
+ * consumed so far.
  */
 public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhaseResult> implements Releasable {
     private static final Logger logger = LogManager.getLogger(QueryPhaseResultConsumer.class);
@@ -63,6 +73,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
     private final boolean hasTopDocs;
     private final boolean hasAggs;
     private final boolean performFinalReduce;
+    private final int maxConcurrentStreamingMerges;
 
     private final PendingMerges pendingMerges;
     private final Consumer<Exception> onPartialMergeFailure;
@@ -80,6 +91,25 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         SearchProgressListener progressListener,
         int expectedResultSize,
         Consumer<Exception> onPartialMergeFailure
+    ) {
+        this(request, executor, circuitBreaker, controller, isCanceled, progressListener, expectedResultSize, onPartialMergeFailure, 0);
+    }
+
+    /**
+     * Creates a {@link QueryPhaseResultConsumer} that incrementally reduces aggregation results
+     * as shard results are consumed, in streaming mode if <code>maxConcurrentStreamingMerges</code> is
+     * greater than 0.
+     */
+    public QueryPhaseResultConsumer(
+        SearchRequest request,
+        Executor executor,
+        CircuitBreaker circuitBreaker,
+        SearchPhaseController controller,
+        Supplier<Boolean> isCanceled,
+        SearchProgressListener progressListener,
+        int expectedResultSize,
+        Consumer<Exception> onPartialMergeFailure,
+        int maxConcurrentStreamingMerges
     ) {
         super(expectedResultSize);
         this.executor = executor;
@@ -95,6 +125,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         this.hasTopDocs = source == null || source.size() != 0;
         this.hasAggs = source != null && source.aggregations() != null;
         int batchReduceSize = (hasAggs || hasTopDocs) ? Math.min(request.getBatchedReduceSize(), expectedResultSize) : expectedResultSize;
+        // there is nothing to merge without top docs and aggregations
+        this.maxConcurrentStreamingMerges = (hasAggs || hasTopDocs) ? maxConcurrentStreamingMerges : 0;
         this.pendingMerges = new PendingMerges(batchReduceSize, request.resolveTrackTotalHitsUpTo());
     }
 
@@ -220,6 +252,33 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         return new MergeResult(processedShards, newTopDocs, newAggs, hasAggs ? serializedSize : 0);
     }
 
+    private StreamingPartial mergePartials(StreamingPartial left, StreamingPartial right) {
+        final TopDocs newTopDocs;
+        if (hasTopDocs) {
+            // we have to merge here in the same way we collect on a shard
+            newTopDocs = mergeTopDocs(List.of(left.consumeTopDocs(), right.consumeTopDocs()), topNSize, 0);
+        } else {
+            newTopDocs = null;
+        }
+        final InternalAggregations newAggs;
+        if (hasAggs) {
+            List<InternalAggregations> aggsList = List.of(left.consumeAggs(), right.consumeAggs());
+            newAggs = InternalAggregations.topLevelReduce(aggsList, aggReduceContextBuilder.forPartialReduction());
+        } else {
+            newAggs = null;
+        }
+        // we leave the results un-serialized because serializing is slow but we compute the serialized
+        // size as an estimate of the memory used by the newly reduced aggregations.
+        long serializedSize = hasAggs ? DelayableWriteable.getSerializedSize(newAggs) : 0;
+        return new StreamingPartial(
+            left.numShards + right.numShards,
+            Math.min(left.firstShardIndex, right.firstShardIndex),
+            newTopDocs,
+            newAggs,
+            serializedSize
+        );
+    }
+
     public int getNumReducePhases() {
         return pendingMerges.numReducePhases;
     }
@@ -238,6 +297,12 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         private final AtomicReference<MergeTask> runningTask = new AtomicReference<>();
         private final AtomicReference<Exception> failure = new AtomicReference<>();
 
+        // streaming mode: the shard results and partial merges that wait to be merged, smallest first
+        private final PriorityQueue<StreamingPartial> partials = new PriorityQueue<>(
+            Comparator.comparingInt((StreamingPartial p) -> p.numShards).thenComparingInt(p -> p.firstShardIndex)
+        );
+        private final Set<StreamingMergeTask> runningStreamingMerges = new HashSet<>();
+
         private final TopDocsStats topDocsStats;
         private volatile MergeResult mergeResult;
         private volatile boolean hasPartialReduce;
@@ -257,6 +322,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             }
 
             List<Releasable> toRelease = new ArrayList<>(buffer.stream().<Releasable>map(b -> b::releaseAggs).collect(Collectors.toList()));
+            partials.forEach(p -> toRelease.add(p::releaseAggs));
             toRelease.add(() -> {
                 circuitBreaker.addWithoutBreaking(-circuitBreakerBytes);
                 circuitBreakerBytes = 0;
@@ -278,8 +344,8 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             return failure.get() != null;
         }
 
-        boolean hasPendingMerges() {
-            return queue.isEmpty() == false || runningTask.get() != null;
+        synchronized boolean hasPendingMerges() {
+            return queue.isEmpty() == false || runningTask.get() != null || runningStreamingMerges.isEmpty() == false;
         }
 
         void sortBuffer() {
@@ -323,6 +389,10 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         }
 
         public void consume(QuerySearchResult result, Runnable next) {
+            if (maxConcurrentStreamingMerges > 0) {
+                consumeStreaming(result, next);
+                return;
+            }
             boolean executeNextImmediately = true;
             synchronized (this) {
                 if (hasFailure() || result.isNull()) {
@@ -367,6 +437,128 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             }
         }
 
+        private void consumeStreaming(QuerySearchResult result, Runnable next) {
+            StreamingMergeTask task = null;
+            synchronized (this) {
+                if (hasFailure() || result.isNull()) {
+                    result.consumeAll();
+                } else {
+                    long aggsSize = ramBytesUsedQueryResult(result);
+                    if (hasAggs) {
+                        try {
+                            addEstimateAndMaybeBreak(aggsSize);
+                        } catch (Exception exc) {
+                            result.releaseAggs();
+                            onMergeFailure(exc);
+                            next.run();
+                            return;
+                        }
+                    }
+                    topDocsStats.add(result.topDocs(), result.searchTimedOut(), result.terminatedEarly());
+                    partials.add(new StreamingPartial(result, aggsSize));
+                    // the next result is consumed once the merge of this result and its follow-up merges are done
+                    task = pollStreamingMerge(next);
+                }
+            }
+            if (task == null) {
+                next.run();
+            } else {
+                executeStreamingMerge(task);
+            }
+        }
+
+        /**
+         * Polls the two smallest partials if a merge slot is available. Must be called while holding the lock.
+         */
+        private StreamingMergeTask pollStreamingMerge(Runnable next) {
+            assert Thread.holdsLock(this);
+            if (hasFailure() || partials.size() < 2 || runningStreamingMerges.size() >= maxConcurrentStreamingMerges) {
+                return null;
+            }
+            StreamingMergeTask task = new StreamingMergeTask(partials.poll(), partials.poll(), next);
+            runningStreamingMerges.add(task);
+            return task;
+        }
+
+        private void executeStreamingMerge(StreamingMergeTask task) {
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    final StreamingPartial[] toMerge = task.consumeInputs();
+                    if (toMerge == null) {
+                        return;
+                    }
+                    final long inputSize = toMerge[0].size + toMerge[1].size;
+                    final long estimatedTotalSize;
+                    final StreamingPartial merged;
+                    try {
+                        long estimatedMergeSize = hasAggs ? estimateRamBytesUsedForReduce(inputSize) : 0;
+                        if (addStreamingEstimateAndMaybeBreak(estimatedMergeSize) == false) {
+                            // the merges were cancelled in the meantime
+                            toMerge[0].releaseAggs();
+                            toMerge[1].releaseAggs();
+                            return;
+                        }
+                        estimatedTotalSize = inputSize + estimatedMergeSize;
+                        merged = mergePartials(toMerge[0], toMerge[1]);
+                    } catch (Exception t) {
+                        toMerge[0].releaseAggs();
+                        toMerge[1].releaseAggs();
+                        onMergeFailure(t);
+                        return;
+                    }
+                    final StreamingMergeTask followUp = onAfterStreamingMerge(task, merged, estimatedTotalSize);
+                    if (followUp != null) {
+                        executeStreamingMerge(followUp);
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception exc) {
+                    onMergeFailure(exc);
+                }
+            });
+        }
+
+        /**
+         * Accounts the estimated memory of a streaming merge unless the merges were cancelled after a failure, in which
+         * case the circuit breaker was already reset and false is returned.
+         */
+        private synchronized boolean addStreamingEstimateAndMaybeBreak(long estimatedSize) {
+            if (hasFailure()) {
+                return false;
+            }
+            addEstimateAndMaybeBreak(estimatedSize);
+            ++numReducePhases;
+            return true;
+        }
+
+        private synchronized StreamingMergeTask onAfterStreamingMerge(
+            StreamingMergeTask task,
+            StreamingPartial merged,
+            long estimatedSize
+        ) {
+            if (hasFailure()) {
+                return null;
+            }
+            runningStreamingMerges.remove(task);
+            if (hasAggs) {
+                // Update the circuit breaker to remove the size of the source aggregations
+                // and replace the estimation with the serialized size of the newly reduced result.
+                addWithoutBreaking(merged.size - estimatedSize);
+                logger.trace("aggs streaming reduction [{}->{}] max [{}]", estimatedSize, merged.size, maxAggsCurrentBufferSize);
+            }
+            partials.add(merged);
+            // hand over the listener to the follow-up merge if there is one
+            StreamingMergeTask followUp = pollStreamingMerge(task.next);
+            if (followUp != null) {
+                task.next = null;
+            } else {
+                task.consumeListener();
+            }
+            return followUp;
+        }
+
         private synchronized void onMergeFailure(Exception exc) {
             if (hasFailure()) {
                 assert circuitBreakerBytes == 0;
@@ -389,6 +581,12 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             while ((mergeTask = queue.pollFirst()) != null) {
                 toCancels.add(mergeTask::cancel);
             }
+            for (StreamingMergeTask streamingMergeTask : runningStreamingMerges) {
+                toCancels.add(streamingMergeTask::cancel);
+            }
+            runningStreamingMerges.clear();
+            partials.forEach(p -> toCancels.add(p::releaseAggs));
+            partials.clear();
             mergeResult = null;
             Releasables.close(toCancels);
         }
@@ -480,6 +678,9 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
                 setShardIndex(topDocs.topDocs, result.getShardIndex());
                 topDocsList.add(topDocs.topDocs);
             }
+            for (StreamingPartial partial : sortedPartials()) {
+                topDocsList.add(partial.consumeTopDocs());
+            }
             return topDocsList;
         }
 
@@ -494,8 +695,18 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             for (QuerySearchResult result : buffer) {
                 aggsList.add(result.consumeAggs());
             }
+            for (StreamingPartial partial : sortedPartials()) {
+                aggsList.add(partial.consumeAggs());
+            }
             return aggsList;
         }
+
+        private List<StreamingPartial> sortedPartials() {
+            // ensure consistent ordering
+            List<StreamingPartial> sorted = new ArrayList<>(partials);
+            sorted.sort(Comparator.comparingInt(p -> p.firstShardIndex));
+            return sorted;
+        }
     }
 
     private static class MergeResult {
@@ -517,6 +728,90 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
         }
     }
 
+    /**
+     * A shard result or a partial merge of shard results in streaming mode.
+     */
+    private static class StreamingPartial {
+        private final int numShards;
+        private final int firstShardIndex;
+        // the memory that is accounted in the circuit breaker for this partial
+        private final long size;
+        // the shard result if this partial covers a single shard
+        private final QuerySearchResult result;
+        private final TopDocs reducedTopDocs;
+        private final InternalAggregations reducedAggs;
+
+        private StreamingPartial(QuerySearchResult result, long size) {
+            this.numShards = 1;
+            this.firstShardIndex = result.getShardIndex();
+            this.size = size;
+            this.result = result;
+            this.reducedTopDocs = null;
+            this.reducedAggs = null;
+        }
+
+        private StreamingPartial(int numShards, int firstShardIndex, TopDocs reducedTopDocs, InternalAggregations reducedAggs, long size) {
+            this.numShards = numShards;
+            this.firstShardIndex = firstShardIndex;
+            this.size = size;
+            this.result = null;
+            this.reducedTopDocs = reducedTopDocs;
+            this.reducedAggs = reducedAggs;
+        }
+
+        TopDocs consumeTopDocs() {
+            if (result == null) {
+                return reducedTopDocs;
+            }
+            TopDocsAndMaxScore topDocs = result.consumeTopDocs();
+            setShardIndex(topDocs.topDocs, result.getShardIndex());
+            return topDocs.topDocs;
+        }
+
+        InternalAggregations consumeAggs() {
+            return result == null ? reducedAggs : result.consumeAggs();
+        }
+
+        void releaseAggs() {
+            if (result != null) {
+                result.releaseAggs();
+            }
+        }
+    }
+
+    private static class StreamingMergeTask {
+        private StreamingPartial[] inputs;
+        private Runnable next;
+
+        private StreamingMergeTask(StreamingPartial left, StreamingPartial right, Runnable next) {
+            this.inputs = new StreamingPartial[] { left, right };
+            this.next = next;
+        }
+
+        public synchronized StreamingPartial[] consumeInputs() {
+            StreamingPartial[] toRet = inputs;
+            inputs = null;
+            return toRet;
+        }
+
+        public void consumeListener() {
+            if (next != null) {
+                next.run();
+                next = null;
+            }
+        }
+
+        public void cancel() {
+            StreamingPartial[] inputs = consumeInputs();
+            if (inputs != null) {
+                for (StreamingPartial input : inputs) {
+                    input.releaseAggs();
+                }
+            }
+            consumeListener();
+        }
+    }
+
     private static class MergeTask {
         private final List<SearchShard> emptyResults;
         private QuerySearchResult[] buffer;
@@ -689,6 +689,23 @@ public final class SearchPhaseController {
         SearchRequest request,
         int numShards,
         Consumer<Exception> onPartialMergeFailure
+    ) {
+        return newSearchPhaseResults(executor, circuitBreaker, isCanceled, listener, request, numShards, onPartialMergeFailure, 0);
+    }
+
+    /**
+     * Returns a new {@link QueryPhaseResultConsumer} instance that reduces search responses incrementally, in streaming mode
+     * with up to <code>maxConcurrentStreamingMerges</code> concurrent merges if it is greater than 0.
+     */
+    QueryPhaseResultConsumer newSearchPhaseResults(
+        Executor executor,
+        CircuitBreaker circuitBreaker,
+        Supplier<Boolean> isCanceled,
+        SearchProgressListener listener,
+        SearchRequest request,
+        int numShards,
+        Consumer<Exception> onPartialMergeFailure,
+        int maxConcurrentStreamingMerges
     ) {
         return new QueryPhaseResultConsumer(
             request,
@@ -698,7 +715,8 @@ public final class SearchPhaseController {
             isCanceled,
             listener,
             numShards,
-            onPartialMergeFailure
+            onPartialMergeFailure,
+            maxConcurrentStreamingMerges
         );
     }
 
@@ -121,6 +121,18 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         Property.NodeScope
     );
 
+    /**
+     * The maximum number of concurrent pairwise merges of shard results on the coordinating node of a search request,
+     * 0 to reduce shard results in batches of {@code batched_reduce_size} results instead.
+     */
+    public static final Setting<Integer> STREAMING_REDUCE_MAX_CONCURRENT_MERGES_SETTING = Setting.intSetting(
+        "action.search.streaming_reduce.max_concurrent_merges",
+        0,
+        0,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     private final ThreadPool threadPool;
     private final ClusterService clusterService;
     private final SearchTransportService searchTransportService;
@@ -1190,7 +1202,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 task.getProgressListener(),
                 searchRequest,
                 shardIterators.size(),
-                exc -> searchTransportService.cancelSearchTask(task, "failed to merge result [" + exc.getMessage() + "]")
+                exc -> searchTransportService.cancelSearchTask(task, "failed to merge result [" + exc.getMessage() + "]"),
+                clusterService.getClusterSettings().get(STREAMING_REDUCE_MAX_CONCURRENT_MERGES_SETTING)
             );
             AbstractSearchAsyncAction<? extends SearchPhaseResult> searchAsyncAction = switch (searchRequest.searchType()) {
                 case DFS_QUERY_THEN_FETCH -> new SearchDfsQueryThenFetchAsyncAction(
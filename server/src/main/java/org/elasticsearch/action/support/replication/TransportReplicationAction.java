@@ -328,9 +328,11 @@ public abstract class TransportReplicationAction<
 
     private void handleOperationRequest(final Request request, final TransportChannel channel, Task task) {
         Releasable releasable = checkOperationLimits(request);
+        // the request may hold on to the buffers it was received in until the operation completes
+        request.incRef();
         ActionListener<Response> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, actionName, request),
-            releasable::close
+            () -> Releasables.close(releasable, request::decRef)
         );
         runReroutePhase(task, request, listener, false);
     }
@@ -345,9 +347,10 @@ public abstract class TransportReplicationAction<
             request.sentFromLocalReroute(),
             request.localRerouteInitiatedByNodeClient()
         );
+        request.incRef();
         ActionListener<Response> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, transportPrimaryAction, request),
-            releasable::close
+            () -> Releasables.close(releasable, request::decRef)
         );
 
         try {
@@ -605,9 +608,10 @@ public abstract class TransportReplicationAction<
         final Task task
     ) {
         Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
+        replicaRequest.incRef();
         ActionListener<ReplicaResponse> listener = ActionListener.runBefore(
             new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest),
-            releasable::close
+            () -> Releasables.close(releasable, replicaRequest::decRef)
         );
 
         try {
@@ -1414,6 +1418,26 @@ public abstract class TransportReplicationAction<
             return false;
         }
 
+        @Override
+        public void incRef() {
+            request.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return request.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return request.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return request.hasReferences();
+        }
+
         @Override
         public String toString() {
             return "request: " + request + ", target allocation id: " + targetAllocationID + ", primary term: " + primaryTerm;
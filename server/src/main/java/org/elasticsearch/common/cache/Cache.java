@@ -18,6 +18,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -50,6 +52,13 @@ import java.util.function.ToLongBiFunction;
  * <li>Locks on the list could be taken per node being modified instead of globally.</li>
  * </ol>
  * <p>
+ * The second option is available through {@link CacheBuilder#setBufferReadPromotions(boolean)}: a read that finds the
+ * LRU lock held by another thread records the promotion of the entry it read in a small lossy buffer of its segment
+ * instead of waiting for the lock. The buffer of a segment is drained by the next read of that segment that acquires
+ * the lock without waiting, or by {@link #refresh()}. The LRU order is then only approximate under contention: a read
+ * entry may be promoted late, or not at all if its pending promotion was overwritten, but entries that are read are
+ * still never considered expired after access. Writes and invalidations always take the LRU lock.
+ * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
  *
@@ -91,6 +100,9 @@ public class Cache<K, V> {
     // the removal callback
     private RemovalListener<K, V> removalListener = notification -> {};
 
+    // true if promotions of read entries are buffered when the LRU lock is contended
+    private boolean bufferReadPromotions;
+
     // use CacheBuilder to construct
     Cache() {}
 
@@ -137,6 +149,18 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setBufferReadPromotions(boolean bufferReadPromotions) {
+        this.bufferReadPromotions = bufferReadPromotions;
+        for (CacheSegment segment : segments) {
+            segment.readBuffer = bufferReadPromotions ? new AtomicReferenceArray<>(READ_BUFFER_SIZE) : null;
+        }
+    }
+
+    // pkg-private for testing
+    boolean bufferReadPromotions() {
+        return bufferReadPromotions;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -185,6 +209,10 @@ public class Cache<K, V> {
 
         Map<K, CompletableFuture<Entry<K, V>>> map;
 
+        // promotions of entries read while the LRU lock was contended, null unless read promotions are buffered
+        AtomicReferenceArray<Entry<K, V>> readBuffer;
+        final AtomicInteger readBufferWrites = new AtomicInteger();
+
         /**
          * get an entry from the segment; expired entries will be returned as null but not removed from the cache until the LRU list is
          * pruned or a manual {@link Cache#refresh()} is performed however a caller can take action using the provided callback
@@ -317,9 +345,42 @@ public class Cache<K, V> {
             }
         }
 
+        /**
+         * record the promotion of an entry that was read while the LRU lock was held by another thread; a pending
+         * promotion that is not drained before the buffer wraps around is lost
+         *
+         * @param entry the entry to promote when the buffer is drained
+         */
+        void bufferRead(Entry<K, V> entry) {
+            readBuffer.lazySet(readBufferWrites.getAndIncrement() & (READ_BUFFER_SIZE - 1), entry);
+        }
+
+        /**
+         * apply the pending promotions of this segment to the LRU list, without evicting entries
+         */
+        void drainReadBuffer() {
+            assert lruLock.isHeldByCurrentThread();
+
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                if (readBuffer.get(i) != null) {
+                    Entry<K, V> entry = readBuffer.getAndSet(i, null);
+                    if (entry != null && entry.state == State.EXISTING) {
+                        relinkAtHead(entry);
+                    }
+                }
+            }
+        }
+
+        void clearReadBuffer() {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                readBuffer.set(i, null);
+            }
+        }
     }
 
     public static final int NUMBER_OF_SEGMENTS = 256;
+    // the number of pending promotions per segment, a power of two
+    static final int READ_BUFFER_SIZE = 16;
     @SuppressWarnings("unchecked")
     private final CacheSegment[] segments = (CacheSegment[]) Array.newInstance(CacheSegment.class, NUMBER_OF_SEGMENTS);
 
@@ -351,11 +412,27 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            promoteRead(segment, entry, now);
             return entry.value;
         }
     }
 
+    private void promoteRead(CacheSegment segment, Entry<K, V> entry, long now) {
+        // the state is read without holding the LRU lock, entries that were not linked yet are always promoted under the lock
+        if (segment.readBuffer == null || entry.state != State.EXISTING) {
+            promote(entry, now);
+            return;
+        }
+        try (ReleasableLock locked = lruLock.tryAcquire()) {
+            if (locked == null) {
+                segment.bufferRead(entry);
+            } else {
+                segment.drainReadBuffer();
+                promote(entry, now);
+            }
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -539,6 +616,11 @@ public class Cache<K, V> {
                 head = tail = null;
                 count = 0;
                 weight = 0;
+                if (bufferReadPromotions) {
+                    for (CacheSegment segment : segments) {
+                        segment.clearReadBuffer();
+                    }
+                }
             }
         } finally {
             for (int i = NUMBER_OF_SEGMENTS - 1; i >= 0; i--) {
@@ -559,6 +641,11 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            if (bufferReadPromotions) {
+                for (CacheSegment segment : segments) {
+                    segment.drainReadBuffer();
+                }
+            }
             evict(now);
         }
     }
@@ -19,6 +19,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean bufferReadPromotions;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -78,6 +79,18 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether reads that find the LRU list of the cache locked by another thread buffer the promotion of the entry
+     * they read instead of waiting for the lock. This removes most of the lock contention of read-heavy caches at the
+     * cost of an approximate LRU order under contention. Defaults to {@code false}.
+     *
+     * @param bufferReadPromotions whether promotions of read entries are buffered when the LRU list is contended
+     */
+    public CacheBuilder<K, V> setBufferReadPromotions(boolean bufferReadPromotions) {
+        this.bufferReadPromotions = bufferReadPromotions;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -95,6 +108,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (bufferReadPromotions) {
+            cache.setBufferReadPromotions(true);
+        }
         return cache;
     }
 }
@@ -68,6 +68,8 @@ import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.translog.TranslogGroupCommitter;
+import org.elasticsearch.indices.AdaptiveRefreshScheduler;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesRequestCache;
@@ -217,6 +219,9 @@ public final class ClusterSettings extends AbstractScopedSettings {
         RecoverySettings.INDICES_RECOVERY_USE_SNAPSHOTS_SETTING,
         RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS,
         RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_PER_NODE,
+        RecoverySettings.INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE,
+        RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS,
+        RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE,
         ThrottlingAllocationDecider.CLUSTER_ROUTING_ALLOCATION_NODE_INITIAL_PRIMARIES_RECOVERIES_SETTING,
         ThrottlingAllocationDecider.CLUSTER_ROUTING_ALLOCATION_NODE_CONCURRENT_INCOMING_RECOVERIES_SETTING,
         ThrottlingAllocationDecider.CLUSTER_ROUTING_ALLOCATION_NODE_CONCURRENT_OUTGOING_RECOVERIES_SETTING,
@@ -296,6 +301,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         SearchService.DEFAULT_SEARCH_TIMEOUT_SETTING,
         SearchService.DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS,
         TransportSearchAction.SHARD_COUNT_LIMIT_SETTING,
+        TransportSearchAction.STREAMING_REDUCE_MAX_CONCURRENT_MERGES_SETTING,
         TransportSearchAction.DEFAULT_PRE_FILTER_SHARD_SIZE,
         RemoteClusterService.REMOTE_CLUSTER_SKIP_UNAVAILABLE,
         SniffConnectionStrategy.REMOTE_CONNECTIONS_PER_CLUSTER,
@@ -411,6 +417,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         SearchService.LOW_LEVEL_CANCELLATION_SETTING,
         SearchService.MAX_OPEN_SCROLL_CONTEXT,
         SearchService.ENABLE_REWRITE_AGGS_TO_FILTER_BY_FILTER,
+        SearchService.CONCURRENT_SEGMENT_SEARCH_ENABLED,
         SearchService.MAX_ASYNC_SEARCH_RESPONSE_SIZE_SETTING,
         Node.WRITE_PORTS_FILE_SETTING,
         Node.NODE_NAME_SETTING,
@@ -437,6 +444,8 @@ public final class ClusterSettings extends AbstractScopedSettings {
         JvmGcMonitorService.GC_OVERHEAD_INFO_SETTING,
         JvmGcMonitorService.GC_OVERHEAD_DEBUG_SETTING,
         PageCacheRecycler.LIMIT_HEAP_SETTING,
+        PageCacheRecycler.LIMIT_DIRECT_SETTING,
+        PageCacheRecycler.DIRECT_ENABLED_SETTING,
         PageCacheRecycler.WEIGHT_BYTES_SETTING,
         PageCacheRecycler.WEIGHT_INT_SETTING,
         PageCacheRecycler.WEIGHT_LONG_SETTING,
@@ -452,6 +461,11 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndexingMemoryController.MAX_INDEX_BUFFER_SIZE_SETTING,
         IndexingMemoryController.SHARD_INACTIVE_TIME_SETTING,
         IndexingMemoryController.SHARD_MEMORY_INTERVAL_TIME_SETTING,
+        AdaptiveRefreshScheduler.MIN_INTERVAL_SETTING,
+        AdaptiveRefreshScheduler.MAX_INTERVAL_SETTING,
+        TranslogGroupCommitter.ENABLED_SETTING,
+        TranslogGroupCommitter.TARGET_LATENCY_SETTING,
+        TranslogGroupCommitter.MAX_CONCURRENT_SYNCS_SETTING,
         ResourceWatcherService.ENABLED,
         ResourceWatcherService.RELOAD_INTERVAL_HIGH,
         ResourceWatcherService.RELOAD_INTERVAL_MEDIUM,
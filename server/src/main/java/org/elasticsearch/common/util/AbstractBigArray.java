@@ -14,6 +14,7 @@ import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.core.Releasables;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -110,6 +111,16 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    protected final ByteBuffer newDirectBytePage(int page) {
+        assert recycler != null && recycler.hasDirectBytePages() : "direct byte pages are disabled";
+        final Recycler.V<ByteBuffer> v = recycler.directBytePage(clearOnResize);
+        cache = grow(cache, page + 1);
+        assert cache[page] == null;
+        cache[page] = v;
+        assert v.v().capacity() == PageCacheRecycler.BYTE_PAGE_SIZE;
+        return v.v();
+    }
+
     protected final Object[] newObjectPage(int page) {
         if (recycler != null) {
             final Recycler.V<Object[]> v = recycler.objectPage();
@@ -168,4 +179,26 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    /**
+     * Bulk copies array to paged direct array
+     */
+    protected final void set(long index, byte[] buf, int offset, int len, ByteBuffer[] pages, int shift) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        if (indexInPage + len <= pageSize()) {
+            pages[pageIndex].put(indexInPage << shift, buf, offset << shift, len << shift);
+        } else {
+            int copyLen = pageSize() - indexInPage;
+            pages[pageIndex].put(indexInPage << shift, buf, offset << shift, copyLen << shift);
+            do {
+                ++pageIndex;
+                offset += copyLen;
+                len -= copyLen;
+                copyLen = Math.min(len, pageSize());
+                pages[pageIndex].put(0, buf, offset << shift, copyLen << shift);
+            } while (len > copyLen);
+        }
+    }
+
 }
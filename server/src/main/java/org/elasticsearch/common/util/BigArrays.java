@@ -482,6 +482,13 @@ public class BigArrays {
         return this.circuitBreakingInstance.breakerService;
     }
 
+    /**
+     * Whether big arrays of primitives are backed by direct memory pages, see {@link PageCacheRecycler#DIRECT_ENABLED_SETTING}.
+     */
+    boolean useDirectPages() {
+        return recycler != null && recycler.hasDirectBytePages();
+    }
+
     private <T extends AbstractBigArray> T resizeInPlace(T array, long newSize) {
         final long oldMemSize = array.ramBytesUsed();
         final long oldSize = array.size();
@@ -650,6 +657,9 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigLongArray.estimateRamBytes(size), false);
+            if (useDirectPages()) {
+                return new BigDirectLongArray(size, this, clearOnResize);
+            }
             return new BigLongArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsLongArrayWrapper(this, size, clearOnResize));
@@ -668,6 +678,8 @@ public class BigArrays {
     public LongArray resize(LongArray array, long size) {
         if (array instanceof BigLongArray) {
             return resizeInPlace((BigLongArray) array, size);
+        } else if (array instanceof BigDirectLongArray) {
+            return resizeInPlace((BigDirectLongArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -697,6 +709,9 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigDoubleArray.estimateRamBytes(size), false);
+            if (useDirectPages()) {
+                return new BigDirectDoubleArray(size, this, clearOnResize);
+            }
             return new BigDoubleArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsDoubleArrayWrapper(this, size, clearOnResize));
@@ -712,6 +727,8 @@ public class BigArrays {
     public DoubleArray resize(DoubleArray array, long size) {
         if (array instanceof BigDoubleArray) {
             return resizeInPlace((BigDoubleArray) array, size);
+        } else if (array instanceof BigDirectDoubleArray) {
+            return resizeInPlace((BigDirectDoubleArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
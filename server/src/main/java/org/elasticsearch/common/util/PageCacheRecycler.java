@@ -16,9 +16,13 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.common.recycler.Recyclers.concurrent;
 import static org.elasticsearch.common.recycler.Recyclers.concurrentDeque;
@@ -67,6 +71,23 @@ public class PageCacheRecycler {
         Property.NodeScope
     );
 
+    /**
+     * Whether big long and double arrays should be backed by direct byte buffers instead of heap pages, which
+     * keeps large aggregation data structures out of the old generation. These arrays are still accounted in the
+     * circuit breaker of their {@link BigArrays} instance. At most {@link #LIMIT_DIRECT_SETTING} of direct memory is
+     * allocated, further pages are heap byte buffers.
+     */
+    public static final Setting<Boolean> DIRECT_ENABLED_SETTING = Setting.boolSetting(
+        "cache.recycler.page.direct.enabled",
+        false,
+        Property.NodeScope
+    );
+    public static final Setting<ByteSizeValue> LIMIT_DIRECT_SETTING = Setting.memorySizeSetting(
+        "cache.recycler.page.limit.direct",
+        "10%",
+        Property.NodeScope
+    );
+
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
     public static final int OBJECT_PAGE_SIZE = PAGE_SIZE_IN_BYTES / RamUsageEstimator.NUM_BYTES_OBJECT_REF;
@@ -78,9 +99,13 @@ public class PageCacheRecycler {
 
     private final Recycler<byte[]> bytePage;
     private final Recycler<Object[]> objectPage;
+    @Nullable
+    private final Recycler<ByteBuffer> directBytePage;
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
+    private static final byte[] ZERO_PAGE = new byte[BYTE_PAGE_SIZE];
+
     static {
         NON_RECYCLING_INSTANCE = new PageCacheRecycler(Settings.builder().put(LIMIT_HEAP_SETTING.getKey(), "0%").build());
     }
@@ -125,6 +150,37 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxObjectPageCount) <= limit;
+
+        if (DIRECT_ENABLED_SETTING.get(settings)) {
+            final long directLimit = LIMIT_DIRECT_SETTING.get(settings).getBytes();
+            final int maxDirectBytePageCount = (int) Math.min(Integer.MAX_VALUE, directLimit / BYTE_PAGE_SIZE);
+            final AtomicInteger directBytePageCount = new AtomicInteger();
+            // Direct memory is only freed once the garbage collector collects its buffer, so direct pages are never dropped: at
+            // most maxDirectBytePageCount of them are allocated and a single deque of the same size can always take them back.
+            // Pages that are needed beyond that are heap buffers, which are not recycled.
+            directBytePage = concurrentDeque(new AbstractRecyclerC<ByteBuffer>() {
+                @Override
+                public ByteBuffer newInstance() {
+                    // pages are only accessed with absolute reads and writes, so their position never changes
+                    if (directBytePageCount.getAndUpdate(count -> Math.min(count + 1, maxDirectBytePageCount)) < maxDirectBytePageCount) {
+                        return ByteBuffer.allocateDirect(BYTE_PAGE_SIZE).order(ByteOrder.nativeOrder());
+                    }
+                    return ByteBuffer.allocate(BYTE_PAGE_SIZE).order(ByteOrder.nativeOrder());
+                }
+
+                @Override
+                public void recycle(ByteBuffer value) {
+                    assert value.isDirect() : "heap pages are not recycled";
+                }
+
+                @Override
+                public void destroy(ByteBuffer value) {
+                    assert false : "direct pages must never be dropped";
+                }
+            }, Math.max(1, maxDirectBytePageCount));
+        } else {
+            directBytePage = null;
+        }
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -135,6 +191,45 @@ public class PageCacheRecycler {
         return v;
     }
 
+    /**
+     * Returns whether this recycler provides direct byte pages, see {@link #DIRECT_ENABLED_SETTING}.
+     */
+    public boolean hasDirectBytePages() {
+        return directBytePage != null;
+    }
+
+    /**
+     * Returns a page of {@link #BYTE_PAGE_SIZE} bytes that is backed by direct memory, or by the heap if the limit of direct
+     * memory is reached.
+     */
+    public Recycler.V<ByteBuffer> directBytePage(boolean clear) {
+        assert directBytePage != null : "direct byte pages are disabled";
+        final Recycler.V<ByteBuffer> v = directBytePage.obtain();
+        final ByteBuffer page = v.v();
+        if (page.isDirect() == false) {
+            // heap pages are fresh and left to the garbage collector, only direct pages go back to the deque
+            assert v.isRecycled() == false;
+            return new Recycler.V<>() {
+                @Override
+                public ByteBuffer v() {
+                    return page;
+                }
+
+                @Override
+                public boolean isRecycled() {
+                    return false;
+                }
+
+                @Override
+                public void close() {}
+            };
+        }
+        if (v.isRecycled() && clear) {
+            page.put(0, ZERO_PAGE);
+        }
+        return v;
+    }
+
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
         return objectPage.obtain();
@@ -81,6 +81,7 @@ public abstract class AsyncIOProcessor<Item> {
     private void drainAndProcessAndRelease(List<Tuple<Item, Consumer<Exception>>> candidates) {
         Exception exception;
         try {
+            beforeDrain();
             queue.drainTo(candidates);
             exception = processList(candidates);
         } finally {
@@ -124,6 +125,12 @@ public abstract class AsyncIOProcessor<Item> {
         };
     }
 
+    /**
+     * Called by the worker that is about to process the queued items, before it drains the queue. Implementations may wait here
+     * for more items to be queued so that they are processed in the same batch.
+     */
+    protected void beforeDrain() {}
+
     /**
      * Writes or processes the items out or to disk.
      */
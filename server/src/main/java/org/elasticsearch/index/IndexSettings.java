@@ -98,12 +98,73 @@ public final class IndexSettings {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether the operations that are added to the translog are compressed with LZ4. The setting applies to the translog
+     * generations that are created after the shard is opened, existing generations are read in the format they were written in.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_COMPRESS_SETTING = Setting.boolSetting(
+        "index.translog.compress",
+        false,
+        Property.IndexScope
+    );
+    /**
+     * Whether the engine keeps the versions of the recently indexed documents in compact, primitive array based maps rather than
+     * in a hash map with an object per document. This reduces the heap that the version map needs between refreshes at the cost
+     * of creating the version objects when they are looked up.
+     */
+    public static final Setting<Boolean> INDEX_COMPACT_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.compact_version_map",
+        false,
+        Property.IndexScope
+    );
+    /**
+     * Whether the index only accepts new documents with auto-generated ids. Append-only indices reject index requests with
+     * explicit ids, updates and deletes, so that the engine only tracks recently indexed documents in the version map for the
+     * couple of refreshes that follow a retried request instead of whenever a document is updated or deleted.
+     */
+    public static final Setting<Boolean> INDEX_APPEND_ONLY_SETTING = Setting.boolSetting(
+        "index.append_only",
+        false,
+        Property.IndexScope
+    );
+    /**
+     * Whether segments store a bloom filter of the terms of the {@code _id} field. The filter lets id lookups, such as the ones
+     * of updates, realtime gets and indexing with explicit ids, skip the segments that don't contain the id without seeking their
+     * terms dictionary. This costs between 10 and 20 bits per document on disk.
+     */
+    public static final Setting<Boolean> INDEX_BLOOM_FILTER_ID_FIELD_SETTING = Setting.boolSetting(
+        "index.bloom_filter_for_id_field.enabled",
+        false,
+        Property.IndexScope
+    );
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING = Setting.boolSetting(
         "index.warmer.enabled",
         true,
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether eager global ordinals are built in the background after a refresh, instead of blocking the refresh until
+     * they are built. Searches that need global ordinals for a reader that are not built yet wait for the ongoing build.
+     */
+    public static final Setting<Boolean> INDEX_WARMER_GLOBAL_ORDINALS_ASYNC_SETTING = Setting.boolSetting(
+        "index.warmer.global_ordinals.async",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    /**
+     * The number of threads that parse the documents of a shard level bulk request ahead of the write thread that applies them
+     * to the primary in order. {@code 0} parses every document on the write thread as it is applied.
+     */
+    public static final Setting<Integer> INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING = Setting.intSetting(
+        "index.bulk.parallel_parsing_threads",
+        0,
+        0,
+        32,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<String> INDEX_CHECK_ON_STARTUP = new Setting<>("index.shard.check_on_startup", "false", (s) -> {
         return switch (s) {
             case "false", "true", "checksum" -> s;
@@ -256,6 +317,16 @@ public final class IndexSettings {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether the node picks how often the shards of the index are refreshed from their search rate and the indexing buffer
+     * pressure of the node, between {@link #INDEX_REFRESH_INTERVAL_SETTING the refresh interval} and a maximum interval.
+     */
+    public static final Setting<Boolean> INDEX_REFRESH_ADAPTIVE_SETTING = Setting.boolSetting(
+        "index.refresh.adaptive",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING = Setting.byteSizeSetting(
         "index.translog.flush_threshold_size",
         new ByteSizeValue(512, ByteSizeUnit.MB),
@@ -570,8 +641,13 @@ public final class IndexSettings {
     private final boolean queryStringAllowLeadingWildcard;
     private final boolean defaultAllowUnmappedFields;
     private volatile Translog.Durability durability;
+    private final boolean translogCompressed;
+    private final boolean compactVersionMap;
+    private final boolean appendOnly;
+    private final boolean bloomFilterIdField;
     private volatile TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
+    private volatile boolean adaptiveRefresh;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile ByteSizeValue generationThresholdSize;
     private volatile ByteSizeValue flushAfterMergeThresholdSize;
@@ -599,6 +675,8 @@ public final class IndexSettings {
     }
 
     private volatile boolean warmerEnabled;
+    private volatile boolean globalOrdinalsWarmingAsync;
+    private volatile int bulkParallelParsingThreads;
     private volatile int maxResultWindow;
     private volatile int maxInnerResultWindow;
     private volatile int maxRescoreWindow;
@@ -709,9 +787,14 @@ public final class IndexSettings {
         this.queryStringAllowLeadingWildcard = QUERY_STRING_ALLOW_LEADING_WILDCARD.get(nodeSettings);
         this.defaultAllowUnmappedFields = scopedSettings.get(ALLOW_UNMAPPED);
         this.durability = scopedSettings.get(INDEX_TRANSLOG_DURABILITY_SETTING);
+        this.translogCompressed = scopedSettings.get(INDEX_TRANSLOG_COMPRESS_SETTING);
+        this.compactVersionMap = scopedSettings.get(INDEX_COMPACT_VERSION_MAP_SETTING);
+        this.appendOnly = scopedSettings.get(INDEX_APPEND_ONLY_SETTING);
+        this.bloomFilterIdField = scopedSettings.get(INDEX_BLOOM_FILTER_ID_FIELD_SETTING);
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
+        adaptiveRefresh = scopedSettings.get(INDEX_REFRESH_ADAPTIVE_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         generationThresholdSize = scopedSettings.get(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING);
         flushAfterMergeThresholdSize = scopedSettings.get(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING);
@@ -722,6 +805,8 @@ public final class IndexSettings {
         softDeleteRetentionOperations = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING);
         retentionLeaseMillis = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING).millis();
         warmerEnabled = scopedSettings.get(INDEX_WARMER_ENABLED_SETTING);
+        globalOrdinalsWarmingAsync = scopedSettings.get(INDEX_WARMER_GLOBAL_ORDINALS_ASYNC_SETTING);
+        bulkParallelParsingThreads = scopedSettings.get(INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING);
         maxResultWindow = scopedSettings.get(MAX_RESULT_WINDOW_SETTING);
         maxInnerResultWindow = scopedSettings.get(MAX_INNER_RESULT_WINDOW_SETTING);
         maxRescoreWindow = scopedSettings.get(MAX_RESCORE_WINDOW_SETTING);
@@ -772,6 +857,11 @@ public final class IndexSettings {
             MergePolicyConfig.INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING,
             mergePolicyConfig::setSegmentsPerTier
         );
+        scopedSettings.addSettingsUpdateConsumer(
+            MergePolicyConfig.INDEX_MERGE_POLICY_MERGE_FACTOR_SETTING,
+            mergePolicyConfig::setMergeFactor
+        );
+        scopedSettings.addSettingsUpdateConsumer(MergePolicyConfig.INDEX_MERGE_POLICY_COLD_AFTER_SETTING, mergePolicyConfig::setColdAfter);
 
         scopedSettings.addSettingsUpdateConsumer(
             MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
@@ -790,11 +880,14 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(MAX_NGRAM_DIFF_SETTING, this::setMaxNgramDiff);
         scopedSettings.addSettingsUpdateConsumer(MAX_SHINGLE_DIFF_SETTING, this::setMaxShingleDiff);
         scopedSettings.addSettingsUpdateConsumer(INDEX_WARMER_ENABLED_SETTING, this::setEnableWarmer);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_WARMER_GLOBAL_ORDINALS_ASYNC_SETTING, this::setGlobalOrdinalsWarmingAsync);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING, this::setBulkParallelParsingThreads);
         scopedSettings.addSettingsUpdateConsumer(INDEX_GC_DELETES_SETTING, this::setGCDeletes);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING, this::setTranslogFlushThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING, this::setFlushAfterMergeThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING, this::setGenerationThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_ADAPTIVE_SETTING, this::setAdaptiveRefresh);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(MAX_TERMS_COUNT_SETTING, this::setMaxTermsCount);
@@ -839,6 +932,10 @@ public final class IndexSettings {
         this.refreshInterval = timeValue;
     }
 
+    private void setAdaptiveRefresh(boolean adaptiveRefresh) {
+        this.adaptiveRefresh = adaptiveRefresh;
+    }
+
     /**
      * Returns the settings for this index. These settings contain the node and index level settings where
      * settings that are specified on both index and node level are overwritten by the index settings.
@@ -983,6 +1080,34 @@ public final class IndexSettings {
         this.durability = durability;
     }
 
+    /**
+     * Returns true if the operations added to the translog of this index are compressed.
+     */
+    public boolean isTranslogCompressed() {
+        return translogCompressed;
+    }
+
+    /**
+     * Returns true if the engine keeps the versions of recently indexed documents in compact maps.
+     */
+    public boolean isCompactVersionMap() {
+        return compactVersionMap;
+    }
+
+    /**
+     * Returns true if the index only accepts new documents with auto-generated ids.
+     */
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    /**
+     * Returns true if new segments store a bloom filter of the terms of the {@code _id} field.
+     */
+    public boolean isBloomFilterIdField() {
+        return bloomFilterIdField;
+    }
+
     /**
      * Returns true if index warmers are enabled, otherwise <code>false</code>
      */
@@ -994,6 +1119,28 @@ public final class IndexSettings {
         this.warmerEnabled = enableWarmer;
     }
 
+    /**
+     * Returns true if eager global ordinals are built in the background after a refresh, otherwise <code>false</code>
+     */
+    public boolean isGlobalOrdinalsWarmingAsync() {
+        return globalOrdinalsWarmingAsync;
+    }
+
+    private void setGlobalOrdinalsWarmingAsync(boolean globalOrdinalsWarmingAsync) {
+        this.globalOrdinalsWarmingAsync = globalOrdinalsWarmingAsync;
+    }
+
+    /**
+     * Returns the number of threads that parse the documents of a shard level bulk request ahead of the write thread
+     */
+    public int getBulkParallelParsingThreads() {
+        return bulkParallelParsingThreads;
+    }
+
+    private void setBulkParallelParsingThreads(int bulkParallelParsingThreads) {
+        this.bulkParallelParsingThreads = bulkParallelParsingThreads;
+    }
+
     /**
      * Returns the translog sync interval. This is the interval in which the transaction log is asynchronously fsynced unless
      * the transaction log is fsyncing on every operations
@@ -1013,6 +1160,13 @@ public final class IndexSettings {
         return refreshInterval;
     }
 
+    /**
+     * Returns true if the node picks how often the shards of this index are refreshed.
+     */
+    public boolean isAdaptiveRefresh() {
+        return adaptiveRefresh;
+    }
+
     /**
      * Returns the transaction log threshold size when to forcefully flush the index and clear the transaction log.
      */
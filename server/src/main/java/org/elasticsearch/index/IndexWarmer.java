@@ -11,7 +11,9 @@ package org.elasticsearch.index;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
@@ -19,8 +21,10 @@ import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -98,6 +102,8 @@ public final class IndexWarmer {
 
         private final Executor executor;
         private final IndexFieldDataService indexFieldDataService;
+        // the cache key of the last reader that was warmed per shard, so that background builds for older readers can be skipped
+        private final Map<ShardId, IndexReader.CacheKey> latestReaders = ConcurrentCollections.newConcurrentMap();
 
         FieldDataWarmer(Executor executor, IndexFieldDataService indexFieldDataService) {
             this.executor = executor;
@@ -113,8 +119,25 @@ public final class IndexWarmer {
                 warmUpGlobalOrdinals.put(indexName, fieldType);
             }
             final CountDownLatch latch = new CountDownLatch(warmUpGlobalOrdinals.size());
+            // when building global ordinals in the background the refresh does not wait for them, so the reader may be closed
+            // before the build starts and needs to be kept open until it completes
+            final boolean async = indexShard.indexSettings().isGlobalOrdinalsWarmingAsync();
+            final IndexReader.CacheKey readerKey = reader.getReaderCacheHelper().getKey();
+            if (async) {
+                latestReaders.put(indexShard.shardId(), readerKey);
+                // the last reader of a shard is closed with the shard, which must not leave its entry behind
+                reader.getReaderCacheHelper().addClosedListener(key -> latestReaders.remove(indexShard.shardId(), key));
+            } else {
+                latestReaders.remove(indexShard.shardId());
+            }
             for (final MappedFieldType fieldType : warmUpGlobalOrdinals.values()) {
                 executor.execute(() -> {
+                    // builds may queue up behind each other on frequent refreshes, and the ones for readers that were already
+                    // replaced by a newer reader are not worth it since searches use the newer reader
+                    if (async && (latestReaders.get(indexShard.shardId()) != readerKey || reader.tryIncRef() == false)) {
+                        latch.countDown();
+                        return;
+                    }
                     try {
                         final long start = System.nanoTime();
                         IndexFieldData.Global<?> ifd = indexFieldDataService.getForField(
@@ -141,11 +164,22 @@ public final class IndexWarmer {
                             .logger()
                             .warn(() -> new ParameterizedMessage("failed to warm-up global ordinals for [{}]", fieldType.name()), e);
                     } finally {
+                        if (async) {
+                            decRef(indexShard, reader);
+                        }
                         latch.countDown();
                     }
                 });
             }
-            return () -> latch.await();
+            return async ? TerminationHandle.NO_WAIT : () -> latch.await();
+        }
+
+        private static void decRef(IndexShard indexShard, ElasticsearchDirectoryReader reader) {
+            try {
+                reader.decRef();
+            } catch (IOException e) {
+                indexShard.warmerService().logger().warn("failed to release reader after warming global ordinals", e);
+            }
         }
     }
 
@@ -14,6 +14,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.stats.IndexingPressureStats;
 
@@ -165,6 +166,25 @@ public class IndexingPressure {
         });
     }
 
+    /**
+     * Accounts for memory that primary operations hold on to on top of their requests, such as documents that are parsed ahead
+     * of indexing them. Unlike {@link #markPrimaryOperationStarted} this returns {@code null} rather than rejecting when the
+     * limit would be exceeded, since the memory can be saved by not doing the work ahead.
+     */
+    @Nullable
+    public Releasable tryMarkPrimaryOperationBytes(long bytes) {
+        long combinedBytes = this.currentCombinedCoordinatingAndPrimaryBytes.addAndGet(bytes);
+        if (combinedBytes + this.currentReplicaBytes.get() > primaryAndCoordinatingLimits) {
+            this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            return null;
+        }
+        currentPrimaryBytes.getAndAdd(bytes);
+        return wrapReleasable(() -> {
+            this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            this.currentPrimaryBytes.getAndAdd(-bytes);
+        });
+    }
+
     public Releasable markReplicaOperationStarted(int operations, long bytes, boolean forceExecution) {
         long replicaWriteBytes = this.currentReplicaBytes.addAndGet(bytes);
         if (forceExecution == false && replicaWriteBytes > replicaLimits) {
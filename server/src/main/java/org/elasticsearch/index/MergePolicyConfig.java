@@ -17,6 +17,10 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.mapper.DataStreamTimestampFieldMapper;
+
+import java.util.List;
 
 /**
  * A shard in elasticsearch is a Lucene index, and a Lucene index is broken
@@ -98,10 +102,31 @@ import org.elasticsearch.core.SuppressForbidden;
  * indices segments API to see the segments that an index has, and
  * possibly either increase the <code>max_merged_segment</code> or issue an optimize
  * call for the index (try and aim to issue it on a low traffic time).
+ *
+ * <p>
+ * Indices in {@link IndexMode#TIME_SERIES time series mode} and indices that are sorted by <code>@timestamp</code> can set
+ * <code>index.merge.policy.type</code> to <code>time_based</code> on creation, see {@link TimeBasedMergePolicy}. This policy only
+ * merges adjacent segments, so that every segment covers a narrow time range, and uses <code>floor_segment</code>,
+ * <code>max_merged_segment</code> and the following settings:
+ *
+ * <ul>
+ * <li><code>index.merge.policy.merge_factor</code>:
+ *
+ *     Number of adjacent segments of similar size that are merged at once.
+ *     Default is <code>10</code>.
+ *
+ * <li><code>index.merge.policy.cold_after</code>:
+ *
+ *     Adjacent segments that were written longer ago than this are merged
+ *     eagerly, even if there are fewer than <code>merge_factor</code> of them.
+ *     Default is <code>1h</code>.
+ * </ul>
  */
 
 public final class MergePolicyConfig {
     private final EsTieredMergePolicy mergePolicy = new EsTieredMergePolicy();
+    private final TimeBasedMergePolicy timeBasedMergePolicy = new TimeBasedMergePolicy();
+    private final Type type;
     private final Logger logger;
     private final boolean mergesEnabled;
 
@@ -111,6 +136,8 @@ public final class MergePolicyConfig {
     public static final ByteSizeValue DEFAULT_MAX_MERGED_SEGMENT = new ByteSizeValue(5, ByteSizeUnit.GB);
     public static final double DEFAULT_SEGMENTS_PER_TIER = 10.0d;
     public static final double DEFAULT_DELETES_PCT_ALLOWED = 33.0d;
+    public static final int DEFAULT_MERGE_FACTOR = 10;
+    public static final TimeValue DEFAULT_COLD_AFTER = TimeValue.timeValueHours(1);
     public static final Setting<Double> INDEX_COMPOUND_FORMAT_SETTING = new Setting<>(
         "index.compound_format",
         Double.toString(TieredMergePolicy.DEFAULT_NO_CFS_RATIO),
@@ -168,6 +195,25 @@ public final class MergePolicyConfig {
         Property.Dynamic,
         Property.IndexScope
     );
+    public static final Setting<Type> INDEX_MERGE_POLICY_TYPE_SETTING = Setting.enumSetting(
+        Type.class,
+        "index.merge.policy.type",
+        Type.TIERED,
+        Property.IndexScope
+    );
+    public static final Setting<Integer> INDEX_MERGE_POLICY_MERGE_FACTOR_SETTING = Setting.intSetting(
+        "index.merge.policy.merge_factor",
+        DEFAULT_MERGE_FACTOR,
+        2,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    public static final Setting<TimeValue> INDEX_MERGE_POLICY_COLD_AFTER_SETTING = Setting.positiveTimeSetting(
+        "index.merge.policy.cold_after",
+        DEFAULT_COLD_AFTER,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     // don't convert to Setting<> and register... we only set this in tests and register via a plugin
     public static final String INDEX_MERGE_ENABLED = "index.merge.enabled";
 
@@ -181,6 +227,16 @@ public final class MergePolicyConfig {
         ByteSizeValue maxMergedSegment = indexSettings.getValue(INDEX_MERGE_POLICY_MAX_MERGED_SEGMENT_SETTING);
         double segmentsPerTier = indexSettings.getValue(INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING);
         double deletesPctAllowed = indexSettings.getValue(INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING);
+        this.type = indexSettings.getValue(INDEX_MERGE_POLICY_TYPE_SETTING);
+        if (type == Type.TIME_BASED && isTimeOrdered(indexSettings) == false) {
+            throw new IllegalArgumentException(
+                "["
+                    + INDEX_MERGE_POLICY_TYPE_SETTING.getKey()
+                    + "=time_based] requires [index.mode=time_series] or an index sorted by ["
+                    + DataStreamTimestampFieldMapper.DEFAULT_PATH
+                    + "]"
+            );
+        }
         this.mergesEnabled = indexSettings.getSettings().getAsBoolean(INDEX_MERGE_ENABLED, true);
         if (mergesEnabled == false) {
             logger.warn(
@@ -196,6 +252,11 @@ public final class MergePolicyConfig {
         mergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
         mergePolicy.setSegmentsPerTier(segmentsPerTier);
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        timeBasedMergePolicy.setNoCFSRatio(indexSettings.getValue(INDEX_COMPOUND_FORMAT_SETTING));
+        timeBasedMergePolicy.setFloorSegmentMB(floorSegment.getMbFrac());
+        timeBasedMergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
+        timeBasedMergePolicy.setMergeFactor(indexSettings.getValue(INDEX_MERGE_POLICY_MERGE_FACTOR_SETTING));
+        timeBasedMergePolicy.setColdAfterMillis(indexSettings.getValue(INDEX_MERGE_POLICY_COLD_AFTER_SETTING).millis());
         logger.trace(
             "using [tiered] merge mergePolicy with expunge_deletes_allowed[{}], floor_segment[{}],"
                 + " max_merge_at_once[{}], max_merged_segment[{}], segments_per_tier[{}],"
@@ -209,12 +270,21 @@ public final class MergePolicyConfig {
         );
     }
 
+    private static boolean isTimeOrdered(IndexSettings indexSettings) {
+        if (indexSettings.getMode() == IndexMode.TIME_SERIES) {
+            return true;
+        }
+        final List<String> sortFields = IndexSortConfig.INDEX_SORT_FIELD_SETTING.get(indexSettings.getSettings());
+        return sortFields.isEmpty() == false && sortFields.get(0).equals(DataStreamTimestampFieldMapper.DEFAULT_PATH);
+    }
+
     void setSegmentsPerTier(Double segmentsPerTier) {
         mergePolicy.setSegmentsPerTier(segmentsPerTier);
     }
 
     void setMaxMergedSegment(ByteSizeValue maxMergedSegment) {
         mergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
+        timeBasedMergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
     }
 
     void setMaxMergesAtOnce(Integer maxMergeAtOnce) {
@@ -223,6 +293,7 @@ public final class MergePolicyConfig {
 
     void setFloorSegmentSetting(ByteSizeValue floorSegementSetting) {
         mergePolicy.setFloorSegmentMB(floorSegementSetting.getMbFrac());
+        timeBasedMergePolicy.setFloorSegmentMB(floorSegementSetting.getMbFrac());
     }
 
     void setExpungeDeletesAllowed(Double value) {
@@ -231,12 +302,21 @@ public final class MergePolicyConfig {
 
     void setNoCFSRatio(Double noCFSRatio) {
         mergePolicy.setNoCFSRatio(noCFSRatio);
+        timeBasedMergePolicy.setNoCFSRatio(noCFSRatio);
     }
 
     void setDeletesPctAllowed(Double deletesPctAllowed) {
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
     }
 
+    void setMergeFactor(Integer mergeFactor) {
+        timeBasedMergePolicy.setMergeFactor(mergeFactor);
+    }
+
+    void setColdAfter(TimeValue coldAfter) {
+        timeBasedMergePolicy.setColdAfterMillis(coldAfter.millis());
+    }
+
     private int adjustMaxMergeAtOnceIfNeeded(int maxMergeAtOnce, double segmentsPerTier) {
         // fixing maxMergeAtOnce, see TieredMergePolicy#setMaxMergeAtOnce
         if (segmentsPerTier < maxMergeAtOnce) {
@@ -258,7 +338,10 @@ public final class MergePolicyConfig {
 
     @SuppressForbidden(reason = "we always use an appropriate merge scheduler alongside this policy so NoMergePolic#INSTANCE is ok")
     MergePolicy getMergePolicy() {
-        return mergesEnabled ? mergePolicy : NoMergePolicy.INSTANCE;
+        if (mergesEnabled == false) {
+            return NoMergePolicy.INSTANCE;
+        }
+        return type == Type.TIME_BASED ? timeBasedMergePolicy : mergePolicy;
     }
 
     private static double parseNoCFSRatio(String noCFSRatio) {
@@ -282,4 +365,12 @@ public final class MergePolicyConfig {
             }
         }
     }
+
+    /**
+     * The merge policies that an index can use.
+     */
+    public enum Type {
+        TIERED,
+        TIME_BASED
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.index.FilterMergePolicy;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
+import org.apache.lucene.index.MergeTrigger;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Merge policy for indices whose documents are mostly indexed in time order, such as time series indices and indices that are
+ * sorted by {@code @timestamp}. Unlike {@link EsTieredMergePolicy}, which merges segments of similar sizes wherever they are in the
+ * index, it only merges adjacent segments. Each segment then keeps covering a narrow time range, so that range queries and the
+ * can_match phase can skip the segments and shards outside of the queried range.
+ * <p>
+ * Segments that haven't been written for {@link #setColdAfterMillis(long) a while} are cold, and adjacent cold segments are merged
+ * as soon as there are two of them, up to half the max merged segment size, so that old time ranges end up in few large segments.
+ */
+final class TimeBasedMergePolicy extends FilterMergePolicy {
+
+    /** the key of the time at which a segment was written in its diagnostics, see {@link org.apache.lucene.index.IndexWriter} */
+    static final String DIAGNOSTICS_TIMESTAMP = "timestamp";
+
+    final LogByteSizeMergePolicy regularMergePolicy;
+    private final LongSupplier currentTimeMillis;
+    private volatile long coldAfterMillis = Long.MAX_VALUE;
+
+    TimeBasedMergePolicy() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeBasedMergePolicy(LongSupplier currentTimeMillis) {
+        // log merging only merges adjacent segments, and doesn't limit the size of the segments of forced merges
+        super(new LogByteSizeMergePolicy());
+        this.regularMergePolicy = (LogByteSizeMergePolicy) in;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos infos, MergeContext mergeContext) throws IOException {
+        final MergeSpecification spec = super.findMerges(mergeTrigger, infos, mergeContext);
+        if (spec != null) {
+            return spec;
+        }
+        return findColdMerges(infos, mergeContext);
+    }
+
+    /**
+     * Finds the first run of at least two adjacent cold segments that are not being merged already.
+     */
+    private MergeSpecification findColdMerges(SegmentInfos infos, MergeContext mergeContext) throws IOException {
+        final long coldBefore = currentTimeMillis.getAsLong() - coldAfterMillis;
+        if (coldAfterMillis == Long.MAX_VALUE || coldBefore < 0) {
+            return null;
+        }
+        final long maxMergeBytes = (long) (regularMergePolicy.getMaxMergeMB() * 1024 * 1024);
+        final int mergeFactor = regularMergePolicy.getMergeFactor();
+        final Set<SegmentCommitInfo> mergingSegments = mergeContext.getMergingSegments();
+        final List<SegmentCommitInfo> run = new ArrayList<>();
+        long runBytes = 0;
+        for (SegmentCommitInfo info : infos) {
+            final long bytes = size(info, mergeContext);
+            final boolean mergeable = mergingSegments.contains(info) == false && isCold(info, coldBefore) && bytes < maxMergeBytes / 2;
+            if (mergeable && run.size() < mergeFactor && runBytes + bytes <= maxMergeBytes) {
+                run.add(info);
+                runBytes += bytes;
+                continue;
+            }
+            if (run.size() >= 2) {
+                break;
+            }
+            run.clear();
+            runBytes = 0;
+            if (mergeable) {
+                run.add(info);
+                runBytes = bytes;
+            }
+        }
+        if (run.size() < 2) {
+            return null;
+        }
+        final MergeSpecification spec = new MergeSpecification();
+        spec.add(new OneMerge(run));
+        return spec;
+    }
+
+    private static boolean isCold(SegmentCommitInfo info, long coldBefore) {
+        final String timestamp = info.info.getDiagnostics().get(DIAGNOSTICS_TIMESTAMP);
+        if (timestamp == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(timestamp) < coldBefore;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    void setColdAfterMillis(long coldAfterMillis) {
+        this.coldAfterMillis = coldAfterMillis;
+    }
+
+    long getColdAfterMillis() {
+        return coldAfterMillis;
+    }
+
+    void setMergeFactor(int mergeFactor) {
+        regularMergePolicy.setMergeFactor(mergeFactor);
+    }
+
+    int getMergeFactor() {
+        return regularMergePolicy.getMergeFactor();
+    }
+
+    void setFloorSegmentMB(double mbFrac) {
+        regularMergePolicy.setMinMergeMB(mbFrac);
+    }
+
+    double getFloorSegmentMB() {
+        return regularMergePolicy.getMinMergeMB();
+    }
+
+    void setMaxMergedSegmentMB(double mbFrac) {
+        regularMergePolicy.setMaxMergeMB(mbFrac);
+    }
+
+    double getMaxMergedSegmentMB() {
+        return regularMergePolicy.getMaxMergeMB();
+    }
+}
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -23,6 +24,9 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long segmentAggregationsEvictions;
+    private long segmentAggregationsHitCount;
+    private long segmentAggregationsMissCount;
 
     public RequestCacheStats() {}
 
@@ -31,13 +35,33 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            segmentAggregationsEvictions = in.readVLong();
+            segmentAggregationsHitCount = in.readVLong();
+            segmentAggregationsMissCount = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0, 0, 0);
+    }
+
+    public RequestCacheStats(
+        long memorySize,
+        long evictions,
+        long hitCount,
+        long missCount,
+        long segmentAggregationsEvictions,
+        long segmentAggregationsHitCount,
+        long segmentAggregationsMissCount
+    ) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.segmentAggregationsEvictions = segmentAggregationsEvictions;
+        this.segmentAggregationsHitCount = segmentAggregationsHitCount;
+        this.segmentAggregationsMissCount = segmentAggregationsMissCount;
     }
 
     public void add(RequestCacheStats stats) {
@@ -45,6 +69,9 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.segmentAggregationsEvictions += stats.segmentAggregationsEvictions;
+        this.segmentAggregationsHitCount += stats.segmentAggregationsHitCount;
+        this.segmentAggregationsMissCount += stats.segmentAggregationsMissCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -67,12 +94,38 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The number of partial aggregation results of a segment that were evicted from the cache.
+     */
+    public long getSegmentAggregationsEvictions() {
+        return this.segmentAggregationsEvictions;
+    }
+
+    /**
+     * The number of partial aggregation results of a segment that were found in the cache.
+     */
+    public long getSegmentAggregationsHitCount() {
+        return this.segmentAggregationsHitCount;
+    }
+
+    /**
+     * The number of partial aggregation results of a segment that were not found in the cache.
+     */
+    public long getSegmentAggregationsMissCount() {
+        return this.segmentAggregationsMissCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeVLong(segmentAggregationsEvictions);
+            out.writeVLong(segmentAggregationsHitCount);
+            out.writeVLong(segmentAggregationsMissCount);
+        }
     }
 
     @Override
@@ -82,6 +135,11 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.startObject(Fields.SEGMENT_AGGREGATIONS);
+        builder.field(Fields.EVICTIONS, getSegmentAggregationsEvictions());
+        builder.field(Fields.HIT_COUNT, getSegmentAggregationsHitCount());
+        builder.field(Fields.MISS_COUNT, getSegmentAggregationsMissCount());
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -93,5 +151,6 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String SEGMENT_AGGREGATIONS = "segment_aggregations";
     }
 }
@@ -21,9 +21,20 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric segmentAggregationsEvictionsMetric = new CounterMetric();
+    final CounterMetric segmentAggregationsHitCount = new CounterMetric();
+    final CounterMetric segmentAggregationsMissCount = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            segmentAggregationsEvictionsMetric.count(),
+            segmentAggregationsHitCount.count(),
+            segmentAggregationsMissCount.count()
+        );
     }
 
     public void onHit() {
@@ -38,10 +49,29 @@ public final class ShardRequestCache {
         totalMetric.inc(key.ramBytesUsed() + value.ramBytesUsed());
     }
 
+    public void onSegmentAggregationsHit() {
+        segmentAggregationsHitCount.inc();
+    }
+
+    public void onSegmentAggregationsMiss() {
+        segmentAggregationsMissCount.inc();
+    }
+
+    public void onSegmentAggregationsRemoval(Accountable key, BytesReference value, boolean evicted) {
+        if (evicted) {
+            segmentAggregationsEvictionsMetric.inc();
+        }
+        onRemoval(key, value);
+    }
+
     public void onRemoval(Accountable key, BytesReference value, boolean evicted) {
         if (evicted) {
             evictionsMetric.inc();
         }
+        onRemoval(key, value);
+    }
+
+    private void onRemoval(Accountable key, BytesReference value) {
         long dec = 0;
         if (key != null) {
             dec += key.ramBytesUsed();
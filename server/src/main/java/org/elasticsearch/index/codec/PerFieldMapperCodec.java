@@ -15,6 +15,8 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.lucene90.Lucene90Codec;
 import org.apache.lucene.codecs.lucene90.Lucene90DocValuesFormat;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.codec.bloomfilter.ES81BloomFilterPostingsFormat;
+import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 
 /**
@@ -29,6 +31,7 @@ public class PerFieldMapperCodec extends Lucene90Codec {
     private final MapperService mapperService;
 
     private final DocValuesFormat docValuesFormat = new Lucene90DocValuesFormat();
+    private final PostingsFormat idPostingsFormat;
 
     static {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(PerFieldMapperCodec.class)
@@ -38,10 +41,16 @@ public class PerFieldMapperCodec extends Lucene90Codec {
     public PerFieldMapperCodec(Mode compressionMode, MapperService mapperService) {
         super(compressionMode);
         this.mapperService = mapperService;
+        this.idPostingsFormat = mapperService.getIndexSettings().isBloomFilterIdField()
+            ? new ES81BloomFilterPostingsFormat(super.getPostingsFormatForField(IdFieldMapper.NAME))
+            : null;
     }
 
     @Override
     public PostingsFormat getPostingsFormatForField(String field) {
+        if (idPostingsFormat != null && IdFieldMapper.NAME.equals(field)) {
+            return idPostingsFormat;
+        }
         PostingsFormat format = mapperService.mappingLookup().getPostingsFormat(field);
         if (format == null) {
             return super.getPostingsFormatForField(field);
@@ -0,0 +1,438 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.bloomfilter;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link PostingsFormat} that adds a per-segment bloom filter to the terms of the fields that it is used for, and delegates
+ * everything else to another postings format. Looking up a term with {@link TermsEnum#seekExact(BytesRef)} first checks the
+ * bloom filter, so that segments that definitely don't contain the term are skipped without seeking the terms dictionary. This
+ * is used for the {@code _id} field, whose terms are unique per document and are looked up for every update and realtime get.
+ * <p>
+ * The filters are sized from the number of terms of the field in the segment and are read off-heap. They are built and written
+ * one page at a time, with a pass over the terms per page, so that writing the filter of a large segment needs a bounded amount
+ * of heap.
+ */
+public final class ES81BloomFilterPostingsFormat extends PostingsFormat {
+
+    public static final String NAME = "ES81BloomFilter";
+
+    static final String META_EXTENSION = "bfm";
+    static final String DATA_EXTENSION = "bfi";
+    static final String META_CODEC = "ES81BloomFilterMeta";
+    static final String DATA_CODEC = "ES81BloomFilterData";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    // with 10 to 20 bits per term, 7 hash functions keep the false positive rate below 1%
+    static final int BITS_PER_TERM = 10;
+    static final int NUM_HASH_FUNCTIONS = 7;
+    // caps the filter of a segment to 128MB
+    static final long MAX_NUM_BITS = 1L << 30;
+    // the heap needed to write the largest filter is 4MB, at the cost of 32 passes over its terms
+    static final int DEFAULT_PAGE_SIZE_IN_BYTES = 1 << 22;
+
+    private final PostingsFormat delegate;
+    private final int pageSizeInBytes;
+
+    /**
+     * Used by the {@link java.util.ServiceLoader} to read segments, the delegate is read from the segment.
+     */
+    public ES81BloomFilterPostingsFormat() {
+        this(null);
+    }
+
+    public ES81BloomFilterPostingsFormat(PostingsFormat delegate) {
+        this(delegate, DEFAULT_PAGE_SIZE_IN_BYTES);
+    }
+
+    ES81BloomFilterPostingsFormat(PostingsFormat delegate, int pageSizeInBytes) {
+        super(NAME);
+        if (pageSizeInBytes < Long.BYTES || Integer.bitCount(pageSizeInBytes) != 1) {
+            throw new IllegalArgumentException("page size must be a power of two of at least 8 bytes but was [" + pageSizeInBytes + "]");
+        }
+        this.delegate = delegate;
+        this.pageSizeInBytes = pageSizeInBytes;
+    }
+
+    @Override
+    public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+        if (delegate == null) {
+            throw new IllegalStateException("the [" + NAME + "] postings format can only write segments when it has a delegate");
+        }
+        return new FieldsWriter(delegate, pageSizeInBytes, state);
+    }
+
+    @Override
+    public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+        return new FieldsReader(state);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(" + delegate + ")";
+    }
+
+    static long numBits(long numTerms) {
+        final long numBits = Math.max(Long.SIZE, Long.highestOneBit(Math.max(1L, numTerms * BITS_PER_TERM) - 1) << 1);
+        return Math.min(numBits, MAX_NUM_BITS);
+    }
+
+    /**
+     * The size of the pages that a filter of {@code numBits} bits is written in. Both are powers of two, so the pages evenly divide
+     * the filter.
+     */
+    static int pageSizeInBytes(long numBits, int maxPageSizeInBytes) {
+        return (int) Math.min(numBits >>> 3, maxPageSizeInBytes);
+    }
+
+    /**
+     * Calls {@code consumer} with the position of each of the bits of {@code term} in a filter of {@code numBits} bits.
+     */
+    private static boolean forEachBit(BytesRef term, long numBits, MurmurHash3.Hash128 hash, BitConsumer consumer) throws IOException {
+        MurmurHash3.hash128(term.bytes, term.offset, term.length, 0, hash);
+        final long mask = numBits - 1;
+        for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+            if (consumer.accept((hash.h1 + i * hash.h2) & mask) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface BitConsumer {
+        boolean accept(long bit) throws IOException;
+    }
+
+    private record FieldFilter(int fieldNumber, long offset, long numBits) {}
+
+    private static final class FieldsWriter extends FieldsConsumer {
+        private final PostingsFormat delegate;
+        private final int pageSizeInBytes;
+        private final SegmentWriteState state;
+        private final FieldsConsumer delegateConsumer;
+        private final IndexOutput dataOut;
+        private final List<FieldFilter> fieldFilters = new ArrayList<>();
+        private boolean closed;
+
+        FieldsWriter(PostingsFormat delegate, int pageSizeInBytes, SegmentWriteState state) throws IOException {
+            this.delegate = delegate;
+            this.pageSizeInBytes = pageSizeInBytes;
+            this.state = state;
+            boolean success = false;
+            IndexOutput dataOut = null;
+            FieldsConsumer delegateConsumer = null;
+            try {
+                delegateConsumer = delegate.fieldsConsumer(state);
+                final String dataFile = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+                dataOut = state.directory.createOutput(dataFile, state.context);
+                CodecUtil.writeIndexHeader(dataOut, DATA_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(delegateConsumer, dataOut);
+                }
+            }
+            this.delegateConsumer = delegateConsumer;
+            this.dataOut = dataOut;
+        }
+
+        @Override
+        public void write(Fields fields, NormsProducer norms) throws IOException {
+            delegateConsumer.write(fields, norms);
+            final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+            for (String field : fields) {
+                final Terms terms = fields.terms(field);
+                if (terms == null) {
+                    continue;
+                }
+                final FieldInfo fieldInfo = state.fieldInfos.fieldInfo(field);
+                // the fields that are written don't expose term statistics
+                final long numBits = numBits(countTerms(terms));
+                fieldFilters.add(new FieldFilter(fieldInfo.number, dataOut.getFilePointer(), numBits));
+                final byte[] page = new byte[pageSizeInBytes(numBits, pageSizeInBytes)];
+                for (long pageStart = 0; pageStart < numBits >>> 3; pageStart += page.length) {
+                    final long start = pageStart;
+                    Arrays.fill(page, (byte) 0);
+                    final TermsEnum termsEnum = terms.iterator();
+                    BytesRef term;
+                    while ((term = termsEnum.next()) != null) {
+                        forEachBit(term, numBits, hash, bit -> {
+                            final long index = (bit >>> 3) - start;
+                            if (index >= 0 && index < page.length) {
+                                page[(int) index] |= (byte) (1 << (bit & 7));
+                            }
+                            return true;
+                        });
+                    }
+                    dataOut.writeBytes(page, page.length);
+                }
+            }
+        }
+
+        private static long countTerms(Terms terms) throws IOException {
+            final TermsEnum termsEnum = terms.iterator();
+            long numTerms = 0;
+            while (termsEnum.next() != null) {
+                numTerms++;
+            }
+            return numTerms;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            boolean success = false;
+            try {
+                CodecUtil.writeFooter(dataOut);
+                final String metaFile = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+                try (IndexOutput metaOut = state.directory.createOutput(metaFile, state.context)) {
+                    CodecUtil.writeIndexHeader(metaOut, META_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                    metaOut.writeString(delegate.getName());
+                    metaOut.writeVInt(fieldFilters.size());
+                    for (FieldFilter fieldFilter : fieldFilters) {
+                        metaOut.writeVInt(fieldFilter.fieldNumber);
+                        metaOut.writeVLong(fieldFilter.offset);
+                        metaOut.writeVLong(fieldFilter.numBits);
+                    }
+                    CodecUtil.writeFooter(metaOut);
+                }
+                success = true;
+            } finally {
+                if (success) {
+                    IOUtils.close(delegateConsumer, dataOut);
+                } else {
+                    IOUtils.closeWhileHandlingException(delegateConsumer, dataOut);
+                }
+            }
+        }
+    }
+
+    private static final class FieldsReader extends FieldsProducer {
+        private final FieldsProducer delegateProducer;
+        private final IndexInput dataIn;
+        private final Map<String, BloomFilter> filters = new HashMap<>();
+
+        FieldsReader(SegmentReadState state) throws IOException {
+            final List<FieldFilter> fieldFilters = new ArrayList<>();
+            final String delegateName;
+            final String metaFile = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+            try (ChecksumIndexInput metaIn = state.directory.openChecksumInput(metaFile, state.context)) {
+                Throwable priorE = null;
+                String name = null;
+                try {
+                    CodecUtil.checkIndexHeader(
+                        metaIn,
+                        META_CODEC,
+                        VERSION_START,
+                        VERSION_CURRENT,
+                        state.segmentInfo.getId(),
+                        state.segmentSuffix
+                    );
+                    name = metaIn.readString();
+                    final int numFields = metaIn.readVInt();
+                    for (int i = 0; i < numFields; i++) {
+                        fieldFilters.add(new FieldFilter(metaIn.readVInt(), metaIn.readVLong(), metaIn.readVLong()));
+                    }
+                } catch (Throwable t) {
+                    priorE = t;
+                } finally {
+                    CodecUtil.checkFooter(metaIn, priorE);
+                }
+                delegateName = name;
+            }
+
+            boolean success = false;
+            FieldsProducer delegateProducer = null;
+            IndexInput dataIn = null;
+            try {
+                delegateProducer = PostingsFormat.forName(delegateName).fieldsProducer(state);
+                final String dataFile = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+                dataIn = state.directory.openInput(dataFile, state.context);
+                CodecUtil.checkIndexHeader(
+                    dataIn,
+                    DATA_CODEC,
+                    VERSION_START,
+                    VERSION_CURRENT,
+                    state.segmentInfo.getId(),
+                    state.segmentSuffix
+                );
+                CodecUtil.retrieveChecksum(dataIn);
+                for (FieldFilter fieldFilter : fieldFilters) {
+                    final FieldInfo fieldInfo = state.fieldInfos.fieldInfo(fieldFilter.fieldNumber);
+                    filters.put(fieldInfo.name, new BloomFilter(dataIn, fieldFilter.offset, fieldFilter.numBits));
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(delegateProducer, dataIn);
+                }
+            }
+            this.delegateProducer = delegateProducer;
+            this.dataIn = dataIn;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return delegateProducer.iterator();
+        }
+
+        @Override
+        public Terms terms(String field) throws IOException {
+            final Terms terms = delegateProducer.terms(field);
+            final BloomFilter filter = filters.get(field);
+            if (terms == null || filter == null) {
+                return terms;
+            }
+            return new BloomFilteredTerms(terms, filter);
+        }
+
+        @Override
+        public int size() {
+            return delegateProducer.size();
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            delegateProducer.checkIntegrity();
+            CodecUtil.checksumEntireFile(dataIn);
+        }
+
+        @Override
+        public FieldsProducer getMergeInstance() {
+            // merges iterate over all terms, so the filters wouldn't skip anything
+            return delegateProducer.getMergeInstance();
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(delegateProducer, dataIn);
+        }
+    }
+
+    private static final class BloomFilter {
+        private final IndexInput dataIn;
+        private final long offset;
+        private final long numBits;
+        private final LongAdder skippedLookups = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        BloomFilter(IndexInput dataIn, long offset, long numBits) {
+            this.dataIn = dataIn;
+            this.offset = offset;
+            this.numBits = numBits;
+        }
+
+        RandomAccessInput newSlice() throws IOException {
+            return dataIn.randomAccessSlice(offset, numBits >>> 3);
+        }
+    }
+
+    /**
+     * The {@link Terms} of a field with a bloom filter, which also exposes the size and the effectiveness of the filter.
+     */
+    public static final class BloomFilteredTerms extends FilterLeafReader.FilterTerms {
+        private final BloomFilter filter;
+
+        private BloomFilteredTerms(Terms in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        @Override
+        public TermsEnum iterator() throws IOException {
+            return new BloomFilteredTermsEnum(in.iterator(), filter);
+        }
+
+        /**
+         * The size of the bloom filter of this field in the segment.
+         */
+        public long filterSizeInBytes() {
+            return filter.numBits >>> 3;
+        }
+
+        /**
+         * The number of term lookups that the bloom filter answered without seeking the terms dictionary.
+         */
+        public long skippedLookups() {
+            return filter.skippedLookups.sum();
+        }
+
+        /**
+         * The number of term lookups that the bloom filter didn't skip, but that didn't find the term.
+         */
+        public long falsePositives() {
+            return filter.falsePositives.sum();
+        }
+    }
+
+    private static final class BloomFilteredTermsEnum extends FilterLeafReader.FilterTermsEnum {
+        private final BloomFilter filter;
+        private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+        private RandomAccessInput bits;
+
+        BloomFilteredTermsEnum(TermsEnum in, BloomFilter filter) {
+            super(in);
+            this.filter = filter;
+        }
+
+        private boolean mayContain(BytesRef term) throws IOException {
+            if (bits == null) {
+                bits = filter.newSlice();
+            }
+            return forEachBit(term, filter.numBits, hash, bit -> (bits.readByte(bit >>> 3) & (1 << (bit & 7))) != 0);
+        }
+
+        @Override
+        public boolean seekExact(BytesRef text) throws IOException {
+            if (mayContain(text) == false) {
+                filter.skippedLookups.increment();
+                return false;
+            }
+            final boolean found = in.seekExact(text);
+            if (found == false) {
+                filter.falsePositives.increment();
+            }
+            return found;
+        }
+    }
+}
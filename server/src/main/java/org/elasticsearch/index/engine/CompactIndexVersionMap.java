@@ -0,0 +1,320 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A map from _id to {@link IndexVersionValue} that stores its entries in primitive arrays instead of allocating a hash table node,
+ * a {@link BytesRef}, a version value and a translog location per entry. The ids are copied into a byte pool and the entries are
+ * found with open addressing and linear probing. The value objects are only created when they are read.
+ * <p>
+ * The map is split into segments that are guarded by their own lock, so that operations on different ids rarely contend. The
+ * space of removed entries is reclaimed when a segment is rehashed.
+ */
+final class CompactIndexVersionMap implements Accountable {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    CompactIndexVersionMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private Segment segment(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    private static int hash(BytesRef id) {
+        // spread the bits so that the high bits pick the segment and the low bits the slot
+        return id.hashCode() * 0x9E3779B9;
+    }
+
+    IndexVersionValue get(BytesRef id) {
+        final int hash = hash(id);
+        return segment(hash).get(id, hash);
+    }
+
+    /**
+     * Associates the id with the value and returns the previous value, or null if there was none.
+     */
+    IndexVersionValue put(BytesRef id, IndexVersionValue value) {
+        final int hash = hash(id);
+        return segment(hash).put(id, hash, value);
+    }
+
+    /**
+     * Removes the id and returns its value, or null if there was none.
+     */
+    IndexVersionValue remove(BytesRef id) {
+        final int hash = hash(id);
+        return segment(hash).remove(id, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the entries of this map.
+     */
+    Map<BytesRef, VersionValue> copyToMap() {
+        final Map<BytesRef, VersionValue> map = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(map);
+        }
+        return map;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = 0;
+        for (Segment segment : segments) {
+            ramBytesUsed += segment.ramBytesUsed;
+        }
+        return ramBytesUsed;
+    }
+
+    private static final class Segment {
+
+        private static final int FREE = 0;
+        private static final int REMOVED = -1;
+
+        // version, seq#, term, translog generation, translog location and operation size of each entry
+        private static final int VALUES_PER_ENTRY = 6;
+        private static final long NO_LOCATION = -1;
+
+        /** the index of the entry in each slot plus one, or {@link #FREE} or {@link #REMOVED} */
+        private int[] slots;
+        private int[] slotHashes;
+        private int mask;
+        private int size;
+
+        /**
+         * the number of entries that were added since the last rehash, including the removed ones: it is at least the number of slots
+         * that are not free, as a slot only becomes used or reused when an entry is added
+         */
+        private int entries;
+        private long[] values;
+        private int[] idOffsets;
+        private int[] idLengths;
+        private byte[] ids;
+        private int idsLength;
+
+        private volatile long ramBytesUsed;
+
+        Segment() {
+            allocate(0, 0);
+        }
+
+        private void allocate(int expectedSize, int expectedIdsLength) {
+            final int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+            slots = new int[capacity];
+            slotHashes = new int[capacity];
+            mask = capacity - 1;
+            size = 0;
+            entries = 0;
+            final int entriesCapacity = Math.max(8, expectedSize);
+            values = new long[entriesCapacity * VALUES_PER_ENTRY];
+            idOffsets = new int[entriesCapacity];
+            idLengths = new int[entriesCapacity];
+            ids = new byte[Math.max(64, expectedIdsLength)];
+            idsLength = 0;
+            updateRamBytesUsed();
+        }
+
+        private void updateRamBytesUsed() {
+            ramBytesUsed = RamUsageEstimator.sizeOf(slots) + RamUsageEstimator.sizeOf(slotHashes) + RamUsageEstimator.sizeOf(values)
+                + RamUsageEstimator.sizeOf(idOffsets) + RamUsageEstimator.sizeOf(idLengths) + RamUsageEstimator.sizeOf(ids);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized IndexVersionValue get(BytesRef id, int hash) {
+            final int slot = find(id, hash);
+            return slot < 0 ? null : valueOf(slots[slot] - 1);
+        }
+
+        synchronized IndexVersionValue put(BytesRef id, int hash, IndexVersionValue value) {
+            int slot = find(id, hash);
+            if (slot >= 0) {
+                final int entry = slots[slot] - 1;
+                final IndexVersionValue previous = valueOf(entry);
+                setValue(entry, value);
+                return previous;
+            }
+            if (entries + 1 > (mask + 1) >>> 1) {
+                // keep the load factor below 50% and drop the removed entries, which bounds the storage of the entries that were
+                // removed and added again in reused slots too; leave room for half as many entries again so that rehashing is amortized
+                rehash(size + 1 + (size >>> 1));
+            }
+            slot = insertionSlot(hash);
+            slots[slot] = addEntry(id, value) + 1;
+            slotHashes[slot] = hash;
+            size++;
+            return null;
+        }
+
+        synchronized IndexVersionValue remove(BytesRef id, int hash) {
+            final int slot = find(id, hash);
+            if (slot < 0) {
+                return null;
+            }
+            final IndexVersionValue previous = valueOf(slots[slot] - 1);
+            slots[slot] = REMOVED;
+            size--;
+            return previous;
+        }
+
+        synchronized void copyTo(Map<BytesRef, VersionValue> map) {
+            for (int slot : slots) {
+                if (slot > 0) {
+                    final int entry = slot - 1;
+                    final int offset = idOffsets[entry];
+                    map.put(new BytesRef(ArrayUtil.copyOfSubArray(ids, offset, offset + idLengths[entry])), valueOf(entry));
+                }
+            }
+        }
+
+        /**
+         * Returns the slot of the given id or -1 if it is not in this segment.
+         */
+        private int find(BytesRef id, int hash) {
+            for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+                if (slots[slot] == FREE) {
+                    return -1;
+                }
+                if (slots[slot] != REMOVED && slotHashes[slot] == hash && idEquals(slots[slot] - 1, id)) {
+                    return slot;
+                }
+            }
+        }
+
+        private int insertionSlot(int hash) {
+            for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+                if (slots[slot] == FREE || slots[slot] == REMOVED) {
+                    return slot;
+                }
+            }
+        }
+
+        private boolean idEquals(int entry, BytesRef id) {
+            final int offset = idOffsets[entry];
+            return idLengths[entry] == id.length
+                && Arrays.equals(ids, offset, offset + id.length, id.bytes, id.offset, id.offset + id.length);
+        }
+
+        private int addEntry(BytesRef id, IndexVersionValue value) {
+            boolean grown = false;
+            if (entries == idOffsets.length) {
+                final int newLength = ArrayUtil.oversize(entries + 1, Integer.BYTES);
+                idOffsets = ArrayUtil.growExact(idOffsets, newLength);
+                idLengths = ArrayUtil.growExact(idLengths, newLength);
+                values = ArrayUtil.growExact(values, newLength * VALUES_PER_ENTRY);
+                grown = true;
+            }
+            if (idsLength + id.length > ids.length) {
+                ids = ArrayUtil.grow(ids, idsLength + id.length);
+                grown = true;
+            }
+            final int entry = entries++;
+            System.arraycopy(id.bytes, id.offset, ids, idsLength, id.length);
+            idOffsets[entry] = idsLength;
+            idLengths[entry] = id.length;
+            idsLength += id.length;
+            setValue(entry, value);
+            if (grown) {
+                updateRamBytesUsed();
+            }
+            return entry;
+        }
+
+        private void setValue(int entry, IndexVersionValue value) {
+            final int offset = entry * VALUES_PER_ENTRY;
+            values[offset] = value.version;
+            values[offset + 1] = value.seqNo;
+            values[offset + 2] = value.term;
+            final Translog.Location location = value.getLocation();
+            if (location == null) {
+                values[offset + 3] = NO_LOCATION;
+            } else {
+                values[offset + 3] = location.generation;
+                values[offset + 4] = location.translogLocation;
+                values[offset + 5] = location.size;
+            }
+        }
+
+        private IndexVersionValue valueOf(int entry) {
+            final int offset = entry * VALUES_PER_ENTRY;
+            final Translog.Location location = values[offset + 3] == NO_LOCATION
+                ? null
+                : new Translog.Location(values[offset + 3], values[offset + 4], (int) values[offset + 5]);
+            return new IndexVersionValue(location, values[offset], values[offset + 1], values[offset + 2]);
+        }
+
+        private void rehash(int expectedSize) {
+            final int[] oldSlots = slots;
+            final int[] oldSlotHashes = slotHashes;
+            final long[] oldValues = values;
+            final int[] oldIdOffsets = idOffsets;
+            final int[] oldIdLengths = idLengths;
+            final byte[] oldIds = ids;
+            long liveIdsLength = 0;
+            for (int slot : oldSlots) {
+                if (slot > 0) {
+                    liveIdsLength += oldIdLengths[slot - 1];
+                }
+            }
+            allocate(expectedSize, Math.toIntExact(liveIdsLength));
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] > 0) {
+                    final int oldEntry = oldSlots[i] - 1;
+                    final int hash = oldSlotHashes[i];
+                    final int entry = entries++;
+                    System.arraycopy(oldIds, oldIdOffsets[oldEntry], ids, idsLength, oldIdLengths[oldEntry]);
+                    idOffsets[entry] = idsLength;
+                    idLengths[entry] = oldIdLengths[oldEntry];
+                    idsLength += oldIdLengths[oldEntry];
+                    System.arraycopy(oldValues, oldEntry * VALUES_PER_ENTRY, values, entry * VALUES_PER_ENTRY, VALUES_PER_ENTRY);
+                    final int slot = insertionSlot(hash);
+                    slots[slot] = entry + 1;
+                    slotHashes[slot] = hash;
+                    size++;
+                }
+            }
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.codec.bloomfilter.ES81BloomFilterPostingsFormat;
 import org.elasticsearch.index.mapper.DocumentParser;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.LuceneDocument;
@@ -833,6 +834,13 @@ public abstract class Engine implements Closeable {
         if (includeSegmentFileSizes) {
             stats.addFiles(getSegmentFileSizes(segmentReader));
         }
+        try {
+            if (segmentReader.terms(IdFieldMapper.NAME) instanceof ES81BloomFilterPostingsFormat.BloomFilteredTerms idTerms) {
+                stats.addIdBloomFilter(idTerms.filterSizeInBytes(), idTerms.skippedLookups(), idTerms.falsePositives());
+            }
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage("Error when retrieving the _id terms of [{}]", segmentReader.getSegmentName()), e);
+        }
     }
 
     private ImmutableOpenMap<String, SegmentsStats.FileStats> getSegmentFileSizes(SegmentReader segmentReader) {
@@ -31,11 +31,13 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
         /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
          *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
-         *  clear this RAM. */
-        final AtomicLong ramBytesUsed = new AtomicLong();
+         *  clear this RAM. Compact maps account for their own memory instead. */
+        private final AtomicLong ramBytesUsed = new AtomicLong();
 
-        private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
+        private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap(), null);
         private final Map<BytesRef, VersionValue> map;
+        // if not null, the index versions are stored in this map rather than in the CHM
+        private final CompactIndexVersionMap compactMap;
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -53,24 +55,61 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // the tombstone
         private final AtomicLong minDeleteTimestamp = new AtomicLong(Long.MAX_VALUE);
 
-        private VersionLookup(Map<BytesRef, VersionValue> map) {
+        private VersionLookup(Map<BytesRef, VersionValue> map, CompactIndexVersionMap compactMap) {
             this.map = map;
+            this.compactMap = compactMap;
+        }
+
+        static VersionLookup create(boolean compact, int expectedSize) {
+            if (compact) {
+                // compact maps grow their arrays as entries are added, presizing them would allocate the memory up-front
+                return new VersionLookup(null, new CompactIndexVersionMap());
+            }
+            return new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize), null);
+        }
+
+        boolean isCompact() {
+            return compactMap != null;
         }
 
         VersionValue get(BytesRef key) {
-            return map.get(key);
+            return compactMap != null ? compactMap.get(key) : map.get(key);
+        }
+
+        void put(BytesRef key, VersionValue value) {
+            if (compactMap != null) {
+                assert value instanceof IndexVersionValue : "only index versions are kept in the version map but got " + value;
+                compactMap.put(key, (IndexVersionValue) value);
+            } else {
+                final VersionValue previousValue = map.put(key, value);
+                final long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + key.bytes.length;
+                long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + value.ramBytesUsed() + uidRAMBytesUsed;
+                ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
+                adjustRam(ramAccounting);
+            }
         }
 
-        VersionValue put(BytesRef key, VersionValue value) {
-            return map.put(key, value);
+        private void adjustRam(long value) {
+            if (value != 0) {
+                long v = ramBytesUsed.addAndGet(value);
+                assert v >= 0 : "bytes=" + v;
+            }
+        }
+
+        long ramBytesUsed() {
+            return compactMap != null ? compactMap.ramBytesUsed() : ramBytesUsed.get();
         }
 
         boolean isEmpty() {
-            return map.isEmpty();
+            return compactMap != null ? compactMap.isEmpty() : map.isEmpty();
         }
 
         int size() {
-            return map.size();
+            return compactMap != null ? compactMap.size() : map.size();
+        }
+
+        Map<BytesRef, VersionValue> getAll() {
+            return compactMap != null ? compactMap.copyToMap() : map;
         }
 
         boolean isUnsafe() {
@@ -81,8 +120,16 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             unsafe = true;
         }
 
-        public VersionValue remove(BytesRef uid) {
-            return map.remove(uid);
+        public void remove(BytesRef uid) {
+            if (compactMap != null) {
+                compactMap.remove(uid);
+            } else {
+                final VersionValue previousValue = map.remove(uid);
+                if (previousValue != null) {
+                    long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
+                    adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
+                }
+            }
         }
 
         public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
@@ -111,8 +158,8 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(boolean compact) {
+            this(VersionLookup.create(compact, 0), VersionLookup.EMPTY, false);
         }
 
         boolean isSafeAccessMode() {
@@ -131,7 +178,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          */
         Maps buildTransitionMap() {
             return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
+                VersionLookup.create(current.isCompact(), current.size()),
                 current,
                 shouldInheritSafeAccess()
             );
@@ -145,27 +192,12 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         }
 
         void put(BytesRef uid, VersionValue version) {
-            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
-            VersionValue previousValue = current.put(uid, version);
-            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
-            adjustRam(ramAccounting);
-        }
-
-        void adjustRam(long value) {
-            if (value != 0) {
-                long v = current.ramBytesUsed.addAndGet(value);
-                assert v >= 0 : "bytes=" + v;
-            }
+            current.put(uid, version);
         }
 
         void remove(BytesRef uid, DeleteVersionValue deleted) {
-            VersionValue previousValue = current.remove(uid);
+            current.remove(uid);
             current.updateMinDeletedTimestamp(deleted);
-            if (previousValue != null) {
-                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
-            }
             if (old != VersionLookup.EMPTY) {
                 // we also need to remove it from the old map here to make sure we don't read this stale value while
                 // we are in the middle of a refresh. Most of the time the old map is an empty map so we can skip it there.
@@ -181,10 +213,22 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    // whether the index versions are kept in compact maps, see IndexSettings#INDEX_COMPACT_VERSION_MAP_SETTING
+    private final boolean compact;
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap;
+
+    LiveVersionMap() {
+        this(false);
+    }
+
+    LiveVersionMap(boolean compact) {
+        this.compact = compact;
+        this.maps = new Maps(compact);
+        this.unsafeKeysMap = new Maps(compact);
+    }
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -405,7 +449,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(compact);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedTombstones is non-zero after clear since the
@@ -415,7 +459,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     @Override
     public long ramBytesUsed() {
-        return maps.current.ramBytesUsed.get() + ramBytesUsedTombstones.get();
+        return maps.current.ramBytesUsed() + ramBytesUsedTombstones.get();
     }
 
     /**
@@ -423,7 +467,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * don't clear on refresh.
      */
     long ramBytesUsedForRefresh() {
-        return maps.current.ramBytesUsed.get();
+        return maps.current.ramBytesUsed();
     }
 
     /**
@@ -431,7 +475,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * except does not include tombstones because they don't clear on refresh.
      */
     long getRefreshingBytes() {
-        return maps.old.ramBytesUsed.get();
+        return maps.old.ramBytesUsed();
     }
 
     @Override
@@ -444,7 +488,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Returns the current internal versions as a point in time snapshot
      */
     Map<BytesRef, VersionValue> getAllCurrent() {
-        return maps.current.map;
+        return maps.current.getAll();
     }
 
     /** Iterates over all deleted versions, including new ones (not yet exposed via reader) and old ones
@@ -29,6 +29,9 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
     private long versionMapMemoryInBytes;
     private long maxUnsafeAutoIdTimestamp = Long.MIN_VALUE;
     private long bitsetMemoryInBytes;
+    private long idBloomFilterSizeInBytes;
+    private long idBloomFilterSkippedLookups;
+    private long idBloomFilterFalsePositives;
     private ImmutableOpenMap<String, FileStats> files = ImmutableOpenMap.of();
 
     public SegmentsStats() {}
@@ -48,6 +51,11 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         versionMapMemoryInBytes = in.readLong();
         bitsetMemoryInBytes = in.readLong();
         maxUnsafeAutoIdTimestamp = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            idBloomFilterSizeInBytes = in.readVLong();
+            idBloomFilterSkippedLookups = in.readVLong();
+            idBloomFilterFalsePositives = in.readVLong();
+        }
 
         final int size = in.readVInt();
         final ImmutableOpenMap.Builder<String, FileStats> files = ImmutableOpenMap.builder(size);
@@ -78,6 +86,12 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         this.bitsetMemoryInBytes += bitsetMemoryInBytes;
     }
 
+    public void addIdBloomFilter(long sizeInBytes, long skippedLookups, long falsePositives) {
+        this.idBloomFilterSizeInBytes += sizeInBytes;
+        this.idBloomFilterSkippedLookups += skippedLookups;
+        this.idBloomFilterFalsePositives += falsePositives;
+    }
+
     public void addFiles(ImmutableOpenMap<String, FileStats> files) {
         final ImmutableOpenMap.Builder<String, FileStats> map = ImmutableOpenMap.builder(this.files);
         for (Map.Entry<String, FileStats> entry : files.entrySet()) {
@@ -101,6 +115,11 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         addIndexWriterMemoryInBytes(mergeStats.indexWriterMemoryInBytes);
         addVersionMapMemoryInBytes(mergeStats.versionMapMemoryInBytes);
         addBitsetMemoryInBytes(mergeStats.bitsetMemoryInBytes);
+        addIdBloomFilter(
+            mergeStats.idBloomFilterSizeInBytes,
+            mergeStats.idBloomFilterSkippedLookups,
+            mergeStats.idBloomFilterFalsePositives
+        );
         addFiles(mergeStats.files);
     }
 
@@ -144,6 +163,39 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         return new ByteSizeValue(bitsetMemoryInBytes);
     }
 
+    /**
+     * The size of the bloom filters of the _id field, which are read off-heap.
+     */
+    public long getIdBloomFilterSizeInBytes() {
+        return idBloomFilterSizeInBytes;
+    }
+
+    public ByteSizeValue getIdBloomFilterSize() {
+        return new ByteSizeValue(idBloomFilterSizeInBytes);
+    }
+
+    /**
+     * The number of _id lookups that skipped a segment because its bloom filter didn't contain the id.
+     */
+    public long getIdBloomFilterSkippedLookups() {
+        return idBloomFilterSkippedLookups;
+    }
+
+    /**
+     * The number of _id lookups that the bloom filter of a segment let through but that didn't find the id in the segment.
+     */
+    public long getIdBloomFilterFalsePositives() {
+        return idBloomFilterFalsePositives;
+    }
+
+    /**
+     * The ratio of the _id lookups of absent ids that the bloom filters didn't skip.
+     */
+    public double getIdBloomFilterFalsePositiveRate() {
+        final long negativeLookups = idBloomFilterSkippedLookups + idBloomFilterFalsePositives;
+        return negativeLookups == 0 ? 0.0 : (double) idBloomFilterFalsePositives / negativeLookups;
+    }
+
     public ImmutableOpenMap<String, FileStats> getFiles() {
         return files;
     }
@@ -172,6 +224,14 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.VERSION_MAP_MEMORY_IN_BYTES, Fields.VERSION_MAP_MEMORY, getVersionMapMemory());
         builder.humanReadableField(Fields.FIXED_BIT_SET_MEMORY_IN_BYTES, Fields.FIXED_BIT_SET, getBitsetMemory());
         builder.field(Fields.MAX_UNSAFE_AUTO_ID_TIMESTAMP, maxUnsafeAutoIdTimestamp);
+        if (idBloomFilterSizeInBytes > 0) {
+            builder.startObject(Fields.ID_BLOOM_FILTER);
+            builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, getIdBloomFilterSize());
+            builder.field(Fields.SKIPPED_LOOKUPS, idBloomFilterSkippedLookups);
+            builder.field(Fields.FALSE_POSITIVES, idBloomFilterFalsePositives);
+            builder.field(Fields.FALSE_POSITIVE_RATE, getIdBloomFilterFalsePositiveRate());
+            builder.endObject();
+        }
         builder.startObject(Fields.FILE_SIZES);
         for (Map.Entry<String, FileStats> entry : files.entrySet()) {
             entry.getValue().toXContent(builder, params);
@@ -205,6 +265,12 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         static final String MAX_UNSAFE_AUTO_ID_TIMESTAMP = "max_unsafe_auto_id_timestamp";
         static final String FIXED_BIT_SET = "fixed_bit_set";
         static final String FIXED_BIT_SET_MEMORY_IN_BYTES = "fixed_bit_set_memory_in_bytes";
+        static final String ID_BLOOM_FILTER = "id_bloom_filter";
+        static final String SIZE = "size";
+        static final String SIZE_IN_BYTES = "size_in_bytes";
+        static final String SKIPPED_LOOKUPS = "skipped_lookups";
+        static final String FALSE_POSITIVES = "false_positives";
+        static final String FALSE_POSITIVE_RATE = "false_positive_rate";
         static final String FILE_SIZES = "file_sizes";
     }
 
@@ -224,6 +290,11 @@ public class SegmentsStats implements Writeable, ToXContentFragment {
         out.writeLong(versionMapMemoryInBytes);
         out.writeLong(bitsetMemoryInBytes);
         out.writeLong(maxUnsafeAutoIdTimestamp);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeVLong(idBloomFilterSizeInBytes);
+            out.writeVLong(idBloomFilterSkippedLookups);
+            out.writeVLong(idBloomFilterFalsePositives);
+        }
 
         out.writeVInt(files.size());
         for (FileStats file : files.values()) {
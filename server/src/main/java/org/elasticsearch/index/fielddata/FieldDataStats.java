@@ -8,12 +8,14 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
@@ -27,8 +29,14 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
     private static final String MEMORY_SIZE_IN_BYTES = "memory_size_in_bytes";
     private static final String EVICTIONS = "evictions";
     private static final String FIELDS = "fields";
+    private static final String GLOBAL_ORDINALS = "global_ordinals";
+    private static final String BUILD_COUNT = "build_count";
+    private static final String BUILD_TIME = "build_time";
+    private static final String BUILD_TIME_IN_MILLIS = "build_time_in_millis";
     private long memorySize;
     private long evictions;
+    private long globalOrdinalsBuildCount;
+    private long globalOrdinalsBuildTimeInMillis;
     @Nullable
     private FieldMemoryStats fields;
 
@@ -40,17 +48,35 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         memorySize = in.readVLong();
         evictions = in.readVLong();
         fields = in.readOptionalWriteable(FieldMemoryStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            globalOrdinalsBuildCount = in.readVLong();
+            globalOrdinalsBuildTimeInMillis = in.readVLong();
+        }
     }
 
     public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields) {
+        this(memorySize, evictions, 0, 0, fields);
+    }
+
+    public FieldDataStats(
+        long memorySize,
+        long evictions,
+        long globalOrdinalsBuildCount,
+        long globalOrdinalsBuildTimeInMillis,
+        @Nullable FieldMemoryStats fields
+    ) {
         this.memorySize = memorySize;
         this.evictions = evictions;
+        this.globalOrdinalsBuildCount = globalOrdinalsBuildCount;
+        this.globalOrdinalsBuildTimeInMillis = globalOrdinalsBuildTimeInMillis;
         this.fields = fields;
     }
 
     public void add(FieldDataStats stats) {
         this.memorySize += stats.memorySize;
         this.evictions += stats.evictions;
+        this.globalOrdinalsBuildCount += stats.globalOrdinalsBuildCount;
+        this.globalOrdinalsBuildTimeInMillis += stats.globalOrdinalsBuildTimeInMillis;
         if (stats.fields != null) {
             if (fields == null) {
                 fields = stats.fields.copy();
@@ -72,6 +98,20 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         return this.evictions;
     }
 
+    /**
+     * The number of times global ordinals were built, or reused from an older reader, for a new reader.
+     */
+    public long getGlobalOrdinalsBuildCount() {
+        return this.globalOrdinalsBuildCount;
+    }
+
+    /**
+     * The total time spent building global ordinals.
+     */
+    public TimeValue getGlobalOrdinalsBuildTime() {
+        return new TimeValue(globalOrdinalsBuildTimeInMillis);
+    }
+
     @Nullable
     public FieldMemoryStats getFields() {
         return fields;
@@ -82,6 +122,10 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeOptionalWriteable(fields);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeVLong(globalOrdinalsBuildCount);
+            out.writeVLong(globalOrdinalsBuildTimeInMillis);
+        }
     }
 
     @Override
@@ -89,6 +133,10 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         builder.startObject(FIELDDATA);
         builder.humanReadableField(MEMORY_SIZE_IN_BYTES, MEMORY_SIZE, getMemorySize());
         builder.field(EVICTIONS, getEvictions());
+        builder.startObject(GLOBAL_ORDINALS);
+        builder.field(BUILD_COUNT, getGlobalOrdinalsBuildCount());
+        builder.humanReadableField(BUILD_TIME_IN_MILLIS, BUILD_TIME, getGlobalOrdinalsBuildTime());
+        builder.endObject();
         if (fields != null) {
             fields.toXContent(builder, FIELDS, MEMORY_SIZE_IN_BYTES, MEMORY_SIZE);
         }
@@ -101,11 +149,15 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         FieldDataStats that = (FieldDataStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && Objects.equals(fields, that.fields);
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && globalOrdinalsBuildCount == that.globalOrdinalsBuildCount
+            && globalOrdinalsBuildTimeInMillis == that.globalOrdinalsBuildTimeInMillis
+            && Objects.equals(fields, that.fields);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, fields);
+        return Objects.hash(memorySize, evictions, globalOrdinalsBuildCount, globalOrdinalsBuildTimeInMillis, fields);
     }
 }
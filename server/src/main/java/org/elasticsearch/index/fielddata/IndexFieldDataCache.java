@@ -11,6 +11,7 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.shard.ShardId;
 
 /**
@@ -23,6 +24,23 @@ public interface IndexFieldDataCache {
     <FD extends LeafFieldData, IFD extends IndexFieldData.Global<FD>> IFD load(DirectoryReader indexReader, IFD indexFieldData)
         throws Exception;
 
+    /**
+     * Returns whether the global field data of the given reader is cached. This never loads field data.
+     */
+    default boolean isCached(DirectoryReader indexReader) {
+        return false;
+    }
+
+    /**
+     * Returns the global field data that was last loaded for the shard of the given reader if it is still cached, or null
+     * otherwise. The returned field data may belong to an older point in time reader of the shard, and is used to reuse the
+     * parts of the global field data that did not change since it was loaded.
+     */
+    @Nullable
+    default Accountable getLastLoadedGlobal(DirectoryReader indexReader) {
+        return null;
+    }
+
     /**
      * Clears all the field data stored cached in on this index.
      */
@@ -40,6 +58,11 @@ public interface IndexFieldDataCache {
          */
         default void onCache(ShardId shardId, String fieldName, Accountable ramUsage) {}
 
+        /**
+         * Called after the global fielddata of a reader is loaded during the cache phase, with the time it took to load it
+         */
+        default void onGlobalLoad(ShardId shardId, String fieldName, long tookInNanos) {}
+
         /**
          * Called after the fielddata is unloaded
          */
@@ -42,4 +42,13 @@ public interface IndexOrdinalsFieldData extends IndexFieldData.Global<LeafOrdina
      * {@link #getOrdinalMap} will result in an {@link UnsupportedOperationException}.
      */
     boolean supportsGlobalOrdinalsMapping();
+
+    /**
+     * Whether a global view of the ordinals for the given {@link IndexReader} is available without building it,
+     * either because it is cached or because the ordinals of the reader are already global. This never loads
+     * global ordinals.
+     */
+    default boolean isGlobalOrdinalsLoaded(DirectoryReader indexReader) {
+        return true;
+    }
 }
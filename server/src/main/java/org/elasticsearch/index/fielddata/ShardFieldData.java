@@ -13,6 +13,7 @@ import com.carrotsearch.hppc.ObjectLongHashMap;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
@@ -20,11 +21,13 @@ import org.elasticsearch.index.shard.ShardId;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class ShardFieldData implements IndexFieldDataCache.Listener {
 
     private final CounterMetric evictionsMetric = new CounterMetric();
     private final CounterMetric totalMetric = new CounterMetric();
+    private final MeanMetric globalLoadMetric = new MeanMetric();
     private final ConcurrentMap<String, CounterMetric> perFieldTotals = ConcurrentCollections.newConcurrentMap();
 
     public FieldDataStats stats(String... fields) {
@@ -40,6 +43,8 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
         return new FieldDataStats(
             totalMetric.count(),
             evictionsMetric.count(),
+            globalLoadMetric.count(),
+            TimeUnit.NANOSECONDS.toMillis(globalLoadMetric.sum()),
             fieldTotals == null ? null : new FieldMemoryStats(fieldTotals)
         );
     }
@@ -60,6 +65,11 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
         }
     }
 
+    @Override
+    public void onGlobalLoad(ShardId shardId, String fieldName, long tookInNanos) {
+        globalLoadMetric.inc(tookInNanos);
+    }
+
     @Override
     public void onRemoval(ShardId shardId, String fieldName, boolean wasEvicted, long sizeInBytes) {
         if (wasEvicted) {
@@ -11,11 +11,15 @@ package org.elasticsearch.index.fielddata.ordinals;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -43,33 +47,70 @@ public enum GlobalOrdinalsBuilder {
         CircuitBreakerService breakerService,
         Logger logger,
         ToScriptField<SortedSetDocValues> toScriptField
+    ) throws IOException {
+        return build(indexReader, indexFieldData, null, breakerService, logger, toScriptField);
+    }
+
+    /**
+     * Build global ordinals for the provided {@link IndexReader}, reusing the ordinal map of the global ordinals that were
+     * previously built for an older reader of the same shard if none of the segments changed since then, in which case the
+     * terms of each segment, and so the mapping of their ordinals to global ordinals, are the same. This is not the case
+     * after indexing, updating or deleting documents with soft deletes since these operations add segments, which requires
+     * rebuilding the mapping of all the segments from scratch.
+     */
+    public static IndexOrdinalsFieldData build(
+        final IndexReader indexReader,
+        IndexOrdinalsFieldData indexFieldData,
+        @Nullable GlobalOrdinalsIndexFieldData previous,
+        CircuitBreakerService breakerService,
+        Logger logger,
+        ToScriptField<SortedSetDocValues> toScriptField
     ) throws IOException {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
         final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
         final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        final IndexReader.CacheKey[] segmentKeys = new IndexReader.CacheKey[indexReader.leaves().size()];
         for (int i = 0; i < indexReader.leaves().size(); ++i) {
+            LeafReader reader = indexReader.leaves().get(i).reader();
             atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
             subs[i] = atomicFD[i].getOrdinalsValues();
+            segmentKeys[i] = reader.getCoreCacheHelper() == null ? null : reader.getCoreCacheHelper().getKey();
+        }
+        // the ordinal map of the previous global ordinals is already accounted for in the breaker, and stays so until the
+        // last global ordinals that share it are removed from the cache
+        final boolean reused = previous != null && previous.hasSameSegments(segmentKeys) && previous.tryShareOrdinalMap();
+        final OrdinalMap ordinalMap;
+        final RefCounted ordinalMapRefs;
+        final long memorySizeInBytes;
+        if (reused) {
+            ordinalMap = previous.getOrdinalMap();
+            ordinalMapRefs = previous.getOrdinalMapRefs();
+            memorySizeInBytes = 0L;
+        } else {
+            ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+            ordinalMapRefs = AbstractRefCounted.of(() -> {});
+            memorySizeInBytes = ordinalMap.ramBytesUsed();
+            breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
-        final long memorySizeInBytes = ordinalMap.ramBytesUsed();
-        breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
 
         if (logger.isDebugEnabled()) {
             logger.debug(
-                "global-ordinals [{}][{}] took [{}]",
+                "global-ordinals [{}][{}] took [{}], reused [{}]",
                 indexFieldData.getFieldName(),
                 ordinalMap.getValueCount(),
-                new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS)
+                new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS),
+                reused
             );
         }
         return new GlobalOrdinalsIndexFieldData(
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
+            segmentKeys,
             ordinalMap,
+            ordinalMapRefs,
             memorySizeInBytes,
             toScriptField
         );
@@ -111,7 +152,9 @@ public enum GlobalOrdinalsBuilder {
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
+            null,
             ordinalMap,
+            AbstractRefCounted.of(() -> {}),
             0,
             toScriptField
         );
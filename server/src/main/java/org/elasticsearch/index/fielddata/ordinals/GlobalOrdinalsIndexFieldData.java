@@ -8,6 +8,7 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -16,6 +17,7 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -49,13 +51,19 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
     private final OrdinalMap ordinalMap;
     private final LeafOrdinalsFieldData[] segmentAfd;
+    @Nullable
+    private final IndexReader.CacheKey[] segmentKeys;
+    // counts the cached global ordinals that share the ordinal map, which is accounted for once until the last of them is removed
+    private final RefCounted ordinalMapRefs;
     private final ToScriptField<SortedSetDocValues> toScriptField;
 
     protected GlobalOrdinalsIndexFieldData(
         String fieldName,
         ValuesSourceType valuesSourceType,
         LeafOrdinalsFieldData[] segmentAfd,
+        @Nullable IndexReader.CacheKey[] segmentKeys,
         OrdinalMap ordinalMap,
+        RefCounted ordinalMapRefs,
         long memorySizeInBytes,
         ToScriptField<SortedSetDocValues> toScriptField
     ) {
@@ -64,9 +72,47 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
         this.memorySizeInBytes = memorySizeInBytes;
         this.ordinalMap = ordinalMap;
         this.segmentAfd = segmentAfd;
+        this.segmentKeys = segmentKeys;
+        this.ordinalMapRefs = ordinalMapRefs;
         this.toScriptField = toScriptField;
     }
 
+    /**
+     * Returns true if these global ordinals were built for the segments identified by the provided core cache keys, in
+     * the same order, in which case their ordinal map can be reused.
+     */
+    boolean hasSameSegments(IndexReader.CacheKey[] keys) {
+        if (segmentKeys == null || segmentKeys.length != keys.length) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null || keys[i] != segmentKeys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tries to share the ordinal map of these global ordinals with global ordinals that are built for a newer reader, and
+     * returns false if the ordinal map was already released.
+     */
+    boolean tryShareOrdinalMap() {
+        return ordinalMapRefs.tryIncRef();
+    }
+
+    RefCounted getOrdinalMapRefs() {
+        return ordinalMapRefs;
+    }
+
+    /**
+     * Called when these global ordinals are removed from the field data cache. Returns the number of bytes that are no
+     * longer used, which is the size of the ordinal map if no other cached global ordinals share it, and 0 otherwise.
+     */
+    public long releaseOrdinalMap() {
+        return ordinalMapRefs.decRef() ? ordinalMap.ramBytesUsed() : 0L;
+    }
+
     public IndexOrdinalsFieldData newConsumer(DirectoryReader source) {
         return new Consumer(source);
     }
@@ -15,6 +15,7 @@ import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
@@ -100,6 +101,12 @@ public abstract class AbstractIndexOrdinalsFieldData implements IndexOrdinalsFie
         }
     }
 
+    @Override
+    public boolean isGlobalOrdinalsLoaded(DirectoryReader indexReader) {
+        // ordinals are already global if there is a single segment
+        return indexReader.leaves().size() <= 1 || cache.isCached(indexReader);
+    }
+
     private IndexOrdinalsFieldData loadGlobalInternal(DirectoryReader indexReader) {
         if (indexReader.leaves().size() <= 1) {
             // ordinals are already global
@@ -136,7 +143,9 @@ public abstract class AbstractIndexOrdinalsFieldData implements IndexOrdinalsFie
 
     @Override
     public IndexOrdinalsFieldData loadGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, breakerService, logger, toScriptField);
+        final Accountable lastLoaded = cache.getLastLoadedGlobal(indexReader);
+        final GlobalOrdinalsIndexFieldData previous = lastLoaded instanceof GlobalOrdinalsIndexFieldData global ? global : null;
+        return GlobalOrdinalsBuilder.build(indexReader, this, previous, breakerService, logger, toScriptField);
     }
 
     @Override
@@ -8,6 +8,12 @@
 
 package org.elasticsearch.index.mapper;
 
+import java.util.Arrays;
+
+/**
+ * The path of the object that is being parsed, made of the names of its parent objects. The path is kept as text as objects are
+ * entered and left, so that building the full path of a field doesn't need to go over every level of the path again.
+ */
 public final class ContentPath {
 
     private static final char DELIMITER = '.';
@@ -18,7 +24,10 @@ public final class ContentPath {
 
     private int index = 0;
 
-    private String[] path = new String[10];
+    /**
+     * The length of the path as text before each of its elements was added.
+     */
+    private int[] lengths = new int[10];
 
     public ContentPath() {
         this(0);
@@ -42,25 +51,26 @@ public final class ContentPath {
     }
 
     public void add(String name) {
-        path[index++] = name;
-        if (index == path.length) { // expand if needed
-            String[] newPath = new String[path.length + 10];
-            System.arraycopy(path, 0, newPath, 0, path.length);
-            path = newPath;
+        if (index == lengths.length) { // expand if needed
+            lengths = Arrays.copyOf(lengths, lengths.length + 10);
+        }
+        lengths[index] = sb.length();
+        if (index >= offset) {
+            sb.append(name).append(DELIMITER);
         }
+        index++;
     }
 
     public void remove() {
-        path[index--] = null;
+        sb.setLength(lengths[--index]);
     }
 
     public String pathAsText(String name) {
-        sb.setLength(0);
-        for (int i = offset; i < index; i++) {
-            sb.append(path[i]).append(DELIMITER);
-        }
+        final int length = sb.length();
         sb.append(name);
-        return sb.toString();
+        final String pathAsText = sb.toString();
+        sb.setLength(length);
+        return pathAsText;
     }
 
     public int length() {
@@ -502,7 +502,6 @@ public final class DocumentParser {
     private static DocumentParserContext nestedContext(DocumentParserContext context, NestedObjectMapper mapper) {
         context = context.createNestedContext(mapper.fullPath());
         LuceneDocument nestedDoc = context.doc();
-        LuceneDocument parentDoc = nestedDoc.getParent();
 
         // We need to add the uid or id to this nested Lucene document too,
         // If we do not do this then when a document gets deleted only the root Lucene document gets deleted and
@@ -510,17 +509,16 @@ public final class DocumentParser {
         // documents inside the Lucene index (document blocks) will be incorrect, as nested documents of different root
         // documents are then aligned with other root documents. This will lead tothe nested query, sorting, aggregations
         // and inner hits to fail or yield incorrect results.
-        IndexableField idField = parentDoc.getField(IdFieldMapper.NAME);
+        Field idField = context.nestedIdField();
         if (idField != null) {
             // We just need to store the id as indexed field, so that IndexWriter#deleteDocuments(term) can then
             // delete it when the root document is deleted too.
-            nestedDoc.add(new Field(IdFieldMapper.NAME, idField.binaryValue(), IdFieldMapper.Defaults.NESTED_FIELD_TYPE));
+            nestedDoc.add(idField);
         } else {
             throw new IllegalStateException("The root document of a nested document should have an _id field");
         }
 
-        Version version = context.indexSettings().getIndexVersionCreated();
-        nestedDoc.add(NestedPathFieldMapper.field(version, mapper.nestedTypePath()));
+        nestedDoc.add(context.nestedPathField(mapper));
         return context;
     }
 
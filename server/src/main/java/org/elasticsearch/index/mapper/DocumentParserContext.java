@@ -9,6 +9,7 @@
 package org.elasticsearch.index.mapper;
 
 import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexableField;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
@@ -89,6 +90,7 @@ public abstract class DocumentParserContext {
     private final Set<String> newFieldsSeen;
     private final Map<String, ObjectMapper> dynamicObjectMappers;
     private final List<RuntimeField> dynamicRuntimeFields;
+    private final NestedDocumentFields nestedDocumentFields;
     private Field version;
     private SeqNoFieldMapper.SequenceIDFields seqID;
 
@@ -103,6 +105,7 @@ public abstract class DocumentParserContext {
         this.newFieldsSeen = in.newFieldsSeen;
         this.dynamicObjectMappers = in.dynamicObjectMappers;
         this.dynamicRuntimeFields = in.dynamicRuntimeFields;
+        this.nestedDocumentFields = in.nestedDocumentFields;
         this.version = in.version;
         this.seqID = in.seqID;
     }
@@ -124,6 +127,7 @@ public abstract class DocumentParserContext {
         this.newFieldsSeen = new HashSet<>();
         this.dynamicObjectMappers = new HashMap<>();
         this.dynamicRuntimeFields = new ArrayList<>();
+        this.nestedDocumentFields = new NestedDocumentFields();
     }
 
     public final IndexSettings indexSettings() {
@@ -197,6 +201,32 @@ public abstract class DocumentParserContext {
         this.seqID = seqID;
     }
 
+    /**
+     * Returns the {@code _id} field to add to nested documents, or {@code null} if the root document has no {@code _id} field.
+     * All nested documents share the same instance, like they share the {@link #seqID()} fields.
+     */
+    final Field nestedIdField() {
+        if (nestedDocumentFields.id == null) {
+            IndexableField idField = rootDoc().getField(IdFieldMapper.NAME);
+            if (idField != null) {
+                nestedDocumentFields.id = new Field(IdFieldMapper.NAME, idField.binaryValue(), IdFieldMapper.Defaults.NESTED_FIELD_TYPE);
+            }
+        }
+        return nestedDocumentFields.id;
+    }
+
+    /**
+     * Returns the {@link NestedPathFieldMapper nested path} field of the nested documents of the given type, which all of them share.
+     */
+    final Field nestedPathField(NestedObjectMapper mapper) {
+        Field field = nestedDocumentFields.paths.get(mapper.nestedTypePath());
+        if (field == null) {
+            field = NestedPathFieldMapper.field(indexSettings.getIndexVersionCreated(), mapper.nestedTypePath());
+            nestedDocumentFields.paths.put(mapper.nestedTypePath(), field);
+        }
+        return field;
+    }
+
     /**
      * Add a new mapper dynamically created while parsing.
      */
@@ -361,6 +391,15 @@ public abstract class DocumentParserContext {
         return null;
     }
 
+    /**
+     * The fields that are the same in all nested documents of a given type, which are built once per document and shared by the
+     * nested documents rather than copied into each of them.
+     */
+    private static final class NestedDocumentFields {
+        private Field id;
+        private final Map<String, Field> paths = new HashMap<>();
+    }
+
     // XContentParser that wraps an existing parser positioned on a value,
     // and a field name, and returns a stream that looks like { 'field' : 'value' }
     private static class CopyToParser extends FilterXContentParser {
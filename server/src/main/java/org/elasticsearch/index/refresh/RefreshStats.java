@@ -34,6 +34,16 @@ public class RefreshStats implements Writeable, ToXContentFragment {
      */
     private int listeners;
 
+    /**
+     * The longest interval between scheduled refreshes that was picked for a shard with adaptive refreshes.
+     */
+    private long adaptiveIntervalInMillis;
+
+    /**
+     * Number of scheduled refreshes that were skipped because the adaptive interval of the shard had not elapsed yet.
+     */
+    private long deferred;
+
     public RefreshStats() {}
 
     public RefreshStats(StreamInput in) throws IOException {
@@ -44,6 +54,10 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             externalTotalTimeInMillis = in.readVLong();
         }
         listeners = in.readVInt();
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            adaptiveIntervalInMillis = in.readVLong();
+            deferred = in.readVLong();
+        }
     }
 
     @Override
@@ -55,14 +69,28 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             out.writeVLong(externalTotalTimeInMillis);
         }
         out.writeVInt(listeners);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeVLong(adaptiveIntervalInMillis);
+            out.writeVLong(deferred);
+        }
     }
 
-    public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners) {
+    public RefreshStats(
+        long total,
+        long totalTimeInMillis,
+        long externalTotal,
+        long externalTotalTimeInMillis,
+        int listeners,
+        long adaptiveIntervalInMillis,
+        long deferred
+    ) {
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
         this.externalTotal = externalTotal;
         this.externalTotalTimeInMillis = externalTotalTimeInMillis;
         this.listeners = listeners;
+        this.adaptiveIntervalInMillis = adaptiveIntervalInMillis;
+        this.deferred = deferred;
     }
 
     public void add(RefreshStats refreshStats) {
@@ -78,6 +106,8 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         this.externalTotal += refreshStats.externalTotal;
         this.externalTotalTimeInMillis += refreshStats.externalTotalTimeInMillis;
         this.listeners += refreshStats.listeners;
+        this.adaptiveIntervalInMillis = Math.max(this.adaptiveIntervalInMillis, refreshStats.adaptiveIntervalInMillis);
+        this.deferred += refreshStats.deferred;
     }
 
     /**
@@ -129,6 +159,25 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         return listeners;
     }
 
+    /**
+     * The longest interval between scheduled refreshes that was picked for a shard with adaptive refreshes, 0 if there is none.
+     */
+    public long getAdaptiveIntervalInMillis() {
+        return adaptiveIntervalInMillis;
+    }
+
+    public TimeValue getAdaptiveInterval() {
+        return new TimeValue(adaptiveIntervalInMillis);
+    }
+
+    /**
+     * The number of scheduled refreshes that were skipped because the adaptive refresh interval of the shard had not elapsed, while
+     * the shard had changes that were not visible to searches yet.
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("refresh");
@@ -137,6 +186,10 @@ public class RefreshStats implements Writeable, ToXContentFragment {
         builder.field("external_total", externalTotal);
         builder.humanReadableField("external_total_time_in_millis", "external_total_time", getExternalTotalTime());
         builder.field("listeners", listeners);
+        if (adaptiveIntervalInMillis > 0 || deferred > 0) {
+            builder.humanReadableField("adaptive_interval_in_millis", "adaptive_interval", getAdaptiveInterval());
+            builder.field("deferred", deferred);
+        }
         builder.endObject();
         return builder;
     }
@@ -151,11 +204,21 @@ public class RefreshStats implements Writeable, ToXContentFragment {
             && totalTimeInMillis == rhs.totalTimeInMillis
             && externalTotal == rhs.externalTotal
             && externalTotalTimeInMillis == rhs.externalTotalTimeInMillis
-            && listeners == rhs.listeners;
+            && listeners == rhs.listeners
+            && adaptiveIntervalInMillis == rhs.adaptiveIntervalInMillis
+            && deferred == rhs.deferred;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners);
+        return Objects.hash(
+            total,
+            totalTimeInMillis,
+            externalTotal,
+            externalTotalTimeInMillis,
+            listeners,
+            adaptiveIntervalInMillis,
+            deferred
+        );
     }
 }
@@ -37,6 +37,7 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.PendingReplicationActions;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.cluster.metadata.DataStream;
@@ -132,6 +133,7 @@ import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.index.translog.TranslogGroupCommitter;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
@@ -253,6 +255,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final MeanMetric externalRefreshMetric = new MeanMetric();
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
+    private final CounterMetric deferredRefreshMetric = new CounterMetric();
 
     private final ShardEventListener shardEventListener = new ShardEventListener();
 
@@ -286,6 +289,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RefreshListeners refreshListeners;
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
+    private final CounterMetric searcherAccesses = new CounterMetric();
+    /**
+     * The interval between scheduled refreshes that the node picked for this shard if its index uses adaptive refreshes.
+     */
+    private volatile long adaptiveRefreshIntervalMillis = -1;
+    private volatile long lastScheduledRefreshMillis;
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
     private final RefreshPendingLocationListener refreshPendingLocationListener;
     private volatile boolean useRetentionLeasesInPeerRecovery;
@@ -311,7 +320,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final Runnable globalCheckpointSyncer,
         final RetentionLeaseSyncer retentionLeaseSyncer,
         final CircuitBreakerService circuitBreakerService,
-        final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier
+        final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
+        @Nullable final TranslogGroupCommitter translogGroupCommitter
     ) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
@@ -327,7 +337,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.indexSortSupplier = indexSortSupplier;
         this.indexEventListener = indexEventListener;
         this.threadPool = threadPool;
-        this.translogSyncProcessor = createTranslogSyncProcessor(logger, threadPool.getThreadContext(), this::getEngine);
+        this.translogSyncProcessor = createTranslogSyncProcessor(logger, threadPool.getThreadContext(), translogSyncer);
+        this.translogGroupCommitter = translogGroupCommitter;
         this.mapperService = mapperService;
         this.indexCache = indexCache;
         this.internalIndexingStats = new InternalIndexingStats();
@@ -395,6 +406,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         readerWrapper = indexReaderWrapper;
         refreshListeners = buildRefreshListeners();
         lastSearcherAccess.set(threadPool.relativeTimeInMillis());
+        lastScheduledRefreshMillis = threadPool.relativeTimeInMillis();
         persistMetadata(path, indexSettings, shardRouting, null, logger);
         this.useRetentionLeasesInPeerRecovery = replicationTracker.hasAllPeerRecoveryRetentionLeases();
         this.refreshPendingLocationListener = new RefreshPendingLocationListener();
@@ -886,8 +898,37 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long ifPrimaryTerm,
         long autoGeneratedTimestamp,
         boolean isRetry
+    ) throws IOException {
+        return applyIndexOperationOnPrimary(
+            version,
+            versionType,
+            sourceToParse,
+            null,
+            ifSeqNo,
+            ifPrimaryTerm,
+            autoGeneratedTimestamp,
+            isRetry
+        );
+    }
+
+    /**
+     * Indexes {@code parsedDocument} instead of parsing {@code sourceToParse} if it isn't {@code null}. The document must
+     * have been parsed from {@code sourceToParse} by the current {@link MapperService#documentMapper() document mapper}.
+     */
+    public Engine.IndexResult applyIndexOperationOnPrimary(
+        long version,
+        VersionType versionType,
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDocument,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long autoGeneratedTimestamp,
+        boolean isRetry
     ) throws IOException {
         assert versionType.validateVersionForWrites(version);
+        if (indexSettings.isAppendOnly() && autoGeneratedTimestamp == IndexRequest.UNSET_AUTO_GENERATED_TIMESTAMP) {
+            return getFailedIndexResult(appendOnlyViolation("index a document with id [" + sourceToParse.id() + "]"), version);
+        }
         return applyIndexOperation(
             getEngine(),
             UNASSIGNED_SEQ_NO,
@@ -899,7 +940,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimestamp,
             isRetry,
             Engine.Operation.Origin.PRIMARY,
-            sourceToParse
+            sourceToParse,
+            parsedDocument
+        );
+    }
+
+    private IllegalArgumentException appendOnlyViolation(String operation) {
+        return new IllegalArgumentException(
+            "index ["
+                + shardId.getIndexName()
+                + "] is append-only and only accepts documents with auto-generated ids, cannot "
+                + operation
         );
     }
 
@@ -922,7 +973,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimeStamp,
             isRetry,
             Engine.Operation.Origin.REPLICA,
-            sourceToParse
+            sourceToParse,
+            null
         );
     }
 
@@ -937,7 +989,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long autoGeneratedTimeStamp,
         boolean isRetry,
         Engine.Operation.Origin origin,
-        SourceToParse sourceToParse
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDocument
     ) throws IOException {
         assert opPrimaryTerm <= getOperationPrimaryTerm()
             : "op term [ " + opPrimaryTerm + " ] > shard term [" + getOperationPrimaryTerm() + "]";
@@ -947,6 +1000,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             operation = prepareIndex(
                 mapperService,
                 sourceToParse,
+                parsedDocument,
                 seqNo,
                 opPrimaryTerm,
                 version,
@@ -985,6 +1039,36 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         boolean isRetry,
         long ifSeqNo,
         long ifPrimaryTerm
+    ) {
+        return prepareIndex(
+            mapperService,
+            source,
+            null,
+            seqNo,
+            primaryTerm,
+            version,
+            versionType,
+            origin,
+            autoGeneratedIdTimestamp,
+            isRetry,
+            ifSeqNo,
+            ifPrimaryTerm
+        );
+    }
+
+    private static Engine.Index prepareIndex(
+        MapperService mapperService,
+        SourceToParse source,
+        @Nullable ParsedDocument parsedDocument,
+        long seqNo,
+        long primaryTerm,
+        long version,
+        VersionType versionType,
+        Engine.Operation.Origin origin,
+        long autoGeneratedIdTimestamp,
+        boolean isRetry,
+        long ifSeqNo,
+        long ifPrimaryTerm
     ) {
         long startTime = System.nanoTime();
         assert source.dynamicTemplates().isEmpty() || origin == Engine.Operation.Origin.PRIMARY
@@ -995,7 +1079,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             documentMapper = DocumentMapper.createEmpty(mapperService);
             mapping = documentMapper.mapping();
         }
-        ParsedDocument doc = documentMapper.parse(source);
+        assert parsedDocument == null || mapping == null : "documents can only be parsed ahead with an existing mapping";
+        ParsedDocument doc = parsedDocument != null ? parsedDocument : documentMapper.parse(source);
         if (mapping != null) {
             // If we are indexing but there is no mapping we create one. This is to ensure that whenever at least a document is indexed
             // some mappings do exist. It covers for the case of indexing an empty doc (`{}`).
@@ -1113,6 +1198,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long ifPrimaryTerm
     ) throws IOException {
         assert versionType.validateVersionForWrites(version);
+        if (indexSettings.isAppendOnly()) {
+            return getFailedDeleteResult(appendOnlyViolation("delete the document with id [" + id + "]"), version);
+        }
         return applyDeleteOperation(
             getEngine(),
             UNASSIGNED_SEQ_NO,
@@ -1228,7 +1316,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             TimeUnit.NANOSECONDS.toMillis(refreshMetric.sum()),
             externalRefreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(externalRefreshMetric.sum()),
-            listeners
+            listeners,
+            indexSettings.isAdaptiveRefresh() ? Math.max(0L, adaptiveRefreshIntervalMillis) : 0L,
+            deferredRefreshMetric.count()
         );
     }
 
@@ -1323,7 +1413,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     public TranslogStats translogStats() {
-        return getEngine().getTranslogStats();
+        final TranslogStats translogStats = getEngine().getTranslogStats();
+        return new TranslogStats(
+            translogStats.estimatedNumberOfOperations(),
+            translogStats.getTranslogSizeInBytes(),
+            translogStats.getUncommittedOperations(),
+            translogStats.getUncommittedSizeInBytes(),
+            translogStats.getEarliestLastModifiedAge(),
+            translogSyncs.count(),
+            translogSyncRequests.count(),
+            TimeUnit.NANOSECONDS.toMillis(translogSyncWaitTimeInNanos.count())
+        );
     }
 
     public CompletionStats completionStats(String... fields) {
@@ -1496,6 +1596,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private void markSearcherAccessed() {
         lastSearcherAccess.lazySet(threadPool.relativeTimeInMillis());
+        searcherAccesses.inc();
+    }
+
+    /**
+     * Returns the number of times a searcher was acquired for a search or a get on this shard.
+     */
+    public long getSearcherAccessCount() {
+        return searcherAccesses.count();
     }
 
     private Engine.Searcher wrapSearcher(Engine.Searcher searcher) {
@@ -3585,28 +3693,40 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor;
+    @Nullable
+    private final TranslogGroupCommitter translogGroupCommitter;
+    private final TranslogGroupCommitter.Syncer translogSyncer = this::syncTranslogLocations;
+    private final CounterMetric translogSyncs = new CounterMetric();
+    private final CounterMetric translogSyncRequests = new CounterMetric();
+    private final CounterMetric translogSyncWaitTimeInNanos = new CounterMetric();
 
     private static AsyncIOProcessor<Translog.Location> createTranslogSyncProcessor(
         Logger logger,
         ThreadContext threadContext,
-        Supplier<Engine> engineSupplier
+        TranslogGroupCommitter.Syncer syncer
     ) {
         return new AsyncIOProcessor<>(logger, 1024, threadContext) {
             @Override
             protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-                try {
-                    engineSupplier.get().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-                } catch (AlreadyClosedException ex) {
-                    // that's fine since we already synced everything on engine close - this also is conform with the methods
-                    // documentation
-                } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                    logger.debug("failed to sync translog", ex);
-                    throw ex;
-                }
+                syncer.sync(candidates.stream().map(Tuple::v1).toList());
             }
         };
     }
 
+    private void syncTranslogLocations(List<Translog.Location> locations) throws IOException {
+        try {
+            if (getEngine().ensureTranslogSynced(locations.stream())) {
+                translogSyncs.inc();
+            }
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    }
+
     /**
      * Syncs the given location with the underlying storage unless already synced. This method might return immediately without
      * actually fsyncing the location until the sync listener is called. Yet, unless there is already another thread fsyncing
@@ -3615,10 +3735,22 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * one thread blocking on the sync an all others can continue indexing.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
+     * If the node has a {@link TranslogGroupCommitter} the location is synced together with the locations that other shards on the
+     * same data path need to sync.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        final long startTimeInNanos = System.nanoTime();
+        final Consumer<Exception> listener = e -> {
+            translogSyncRequests.inc();
+            translogSyncWaitTimeInNanos.inc(System.nanoTime() - startTimeInNanos);
+            syncListener.accept(e);
+        };
+        if (translogGroupCommitter != null) {
+            translogGroupCommitter.sync(path.getRootDataPath(), translogSyncer, location, listener);
+        } else {
+            translogSyncProcessor.put(location, listener);
+        }
     }
 
     public void sync() throws IOException {
@@ -3758,7 +3890,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     public boolean scheduledRefresh() {
         verifyNotClosed();
         boolean listenerNeedsRefresh = refreshListeners.refreshNeeded();
-        if (isReadAllowed() && (listenerNeedsRefresh || getEngine().refreshNeeded())) {
+        boolean engineNeedsRefresh = isReadAllowed() && getEngine().refreshNeeded();
+        if (isReadAllowed() && (listenerNeedsRefresh || engineNeedsRefresh)) {
             if (listenerNeedsRefresh == false // if we have a listener that is waiting for a refresh we need to force it
                 && isSearchIdle()
                 && indexSettings.isExplicitRefresh() == false
@@ -3770,10 +3903,20 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                 setRefreshPending(engine);
                 return false;
+            } else if (listenerNeedsRefresh == false && isAdaptiveRefreshDue() == false) {
+                // the node picked a longer interval than the refresh interval for this shard, skip this refresh so that we write
+                // fewer and larger segments. searches will see the changes after the next refresh that is due.
+                if (engineNeedsRefresh) {
+                    // only count the ticks that had changes to expose, not the ones of a shard without pending changes
+                    deferredRefreshMetric.inc();
+                }
+                getEngine().maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
+                return false;
             } else {
                 if (logger.isTraceEnabled()) {
                     logger.trace("refresh with source [schedule]");
                 }
+                lastScheduledRefreshMillis = threadPool.relativeTimeInMillis();
                 return getEngine().maybeRefresh("schedule");
             }
         }
@@ -3782,6 +3925,29 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return false;
     }
 
+    private boolean isAdaptiveRefreshDue() {
+        final long intervalMillis = adaptiveRefreshIntervalMillis;
+        return indexSettings.isAdaptiveRefresh() == false
+            || intervalMillis <= 0
+            || threadPool.relativeTimeInMillis() - lastScheduledRefreshMillis >= intervalMillis;
+    }
+
+    /**
+     * Sets the minimum interval between the scheduled refreshes of this shard, which only applies if its index uses
+     * {@link IndexSettings#INDEX_REFRESH_ADAPTIVE_SETTING adaptive refreshes}. Scheduled refreshes still don't happen more often
+     * than the {@link IndexSettings#getRefreshInterval() refresh interval}.
+     */
+    public void setAdaptiveRefreshInterval(TimeValue interval) {
+        adaptiveRefreshIntervalMillis = interval.millis();
+    }
+
+    /**
+     * Returns the interval between scheduled refreshes that was picked for this shard, or {@code -1} if none was picked yet.
+     */
+    public TimeValue getAdaptiveRefreshInterval() {
+        return TimeValue.timeValueMillis(adaptiveRefreshIntervalMillis);
+    }
+
     /**
      * Returns true if this shards is search idle
      */
@@ -3959,7 +4125,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             : "resetting engine without blocking operations; active operations are [" + getActiveOperations() + ']';
         sync(); // persist the global checkpoint to disk
         final SeqNoStats seqNoStats = seqNoStats();
-        final TranslogStats translogStats = translogStats();
+        final TranslogStats translogStats = getEngine().getTranslogStats();
         // flush to make sure the latest commit, which will be opened by the read-only engine, includes all operations.
         flush(new FlushRequest().waitIfOngoing(true));
 
@@ -10,6 +10,7 @@ package org.elasticsearch.index.snapshots.blobstore;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -24,6 +25,7 @@ import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -47,6 +49,8 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         private final long partBytes;
         private final int numberOfParts;
         private final StoreFileMetadata metadata;
+        @Nullable
+        private final List<Chunk> chunks;
 
         /**
          * Constructs a new instance of file info
@@ -56,38 +60,82 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @param partSize     size of the single chunk
          */
         public FileInfo(String name, StoreFileMetadata metadata, @Nullable ByteSizeValue partSize) {
+            this(name, metadata, partSize, null);
+        }
+
+        /**
+         * Constructs a new instance of file info for a file that is stored as content-defined chunks, which are its parts and which may
+         * be shared with other files.
+         *
+         * @param name      file name as stored in the blob store
+         * @param metadata  the files meta data
+         * @param chunks    the chunks of the file, in order
+         */
+        public FileInfo(String name, StoreFileMetadata metadata, List<Chunk> chunks) {
+            this(name, metadata, null, Objects.requireNonNull(chunks));
+        }
+
+        public FileInfo(StreamInput in) throws IOException {
+            this(
+                in.readString(),
+                new StoreFileMetadata(in),
+                in.readOptionalWriteable(ByteSizeValue::new),
+                in.getVersion().onOrAfter(CHUNKS_VERSION) && in.readBoolean() ? in.readList(Chunk::new) : null
+            );
+        }
+
+        private FileInfo(String name, StoreFileMetadata metadata, @Nullable ByteSizeValue partSize, @Nullable List<Chunk> chunks) {
             this.name = Objects.requireNonNull(name);
             this.metadata = metadata;
 
             long partBytes = Long.MAX_VALUE;
-            if (partSize != null && partSize.getBytes() > 0) {
-                partBytes = partSize.getBytes();
-            }
-
-            if (metadata.length() == 0) {
-                numberOfParts = 1;
+            if (chunks != null) {
+                if (chunks.isEmpty()) {
+                    throw new IllegalArgumentException("file [" + metadata + "] must have at least one chunk");
+                }
+                if (chunks.stream().mapToLong(Chunk::length).sum() != metadata.length()) {
+                    throw new IllegalArgumentException("chunks " + chunks + " do not match the length of file [" + metadata + "]");
+                }
+                partSize = null;
+                numberOfParts = chunks.size();
+                chunks = List.copyOf(chunks);
             } else {
-                long longNumberOfParts = 1L + (metadata.length() - 1L) / partBytes; // ceil(len/partBytes), but beware of long overflow
-                numberOfParts = (int) longNumberOfParts;
-                if (numberOfParts != longNumberOfParts) { // also beware of int overflow, although 2^32 parts is already ludicrous
-                    throw new IllegalArgumentException("part size [" + partSize + "] too small for file [" + metadata + "]");
+                if (partSize != null && partSize.getBytes() > 0) {
+                    partBytes = partSize.getBytes();
+                }
+
+                if (metadata.length() == 0) {
+                    numberOfParts = 1;
+                } else {
+                    long longNumberOfParts = 1L + (metadata.length() - 1L) / partBytes; // ceil(len/partBytes), but beware of long overflow
+                    numberOfParts = (int) longNumberOfParts;
+                    if (numberOfParts != longNumberOfParts) { // also beware of int overflow, although 2^32 parts is already ludicrous
+                        throw new IllegalArgumentException("part size [" + partSize + "] too small for file [" + metadata + "]");
+                    }
                 }
             }
 
+            this.chunks = chunks;
             this.partSize = partSize;
             this.partBytes = partBytes;
             assert IntStream.range(0, numberOfParts).mapToLong(this::partBytes).sum() == metadata.length();
         }
 
-        public FileInfo(StreamInput in) throws IOException {
-            this(in.readString(), new StoreFileMetadata(in), in.readOptionalWriteable(ByteSizeValue::new));
-        }
-
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             out.writeString(name);
             metadata.writeTo(out);
             out.writeOptionalWriteable(partSize);
+            if (out.getVersion().onOrAfter(CHUNKS_VERSION)) {
+                out.writeBoolean(chunks != null);
+                if (chunks != null) {
+                    out.writeList(chunks);
+                }
+            } else if (chunks != null) {
+                throw new IllegalArgumentException(
+                    "file [" + name + "] is stored as chunks, which nodes before version [" + CHUNKS_VERSION + "] cannot read"
+                );
+            }
         }
 
         /**
@@ -106,7 +154,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @return part name
          */
         public String partName(int part) {
-            if (numberOfParts > 1) {
+            if (chunks != null) {
+                return chunks.get(part).name();
+            } else if (numberOfParts > 1) {
                 return name + ".part" + part;
             } else {
                 return name;
@@ -160,6 +210,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          */
         public long partBytes(int part) {
             assert 0 <= part && part < numberOfParts : part + " vs " + numberOfParts;
+            if (chunks != null) {
+                return chunks.get(part).length();
+            }
             if (numberOfParts == 1) {
                 return length();
             }
@@ -182,6 +235,22 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             return numberOfParts;
         }
 
+        /**
+         * Returns true if the file is stored as content-defined chunks rather than parts of a fixed size, in which case the parts of the
+         * file are its chunks and {@link #partSize()} is {@code null}.
+         */
+        public boolean isChunked() {
+            return chunks != null;
+        }
+
+        /**
+         * Returns the content-defined chunks of the file, or {@code null} if the file is not stored as chunks
+         */
+        @Nullable
+        public List<Chunk> chunks() {
+            return chunks;
+        }
+
         /**
          * Returns file md5 checksum provided by {@link org.elasticsearch.index.store.Store}
          *
@@ -224,6 +293,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (name.equals(fileInfo.name) == false) {
                 return false;
             }
+            if (Objects.equals(chunks, fileInfo.chunks) == false) {
+                return false;
+            }
             if (partSize != null) {
                 if (partSize.equals(fileInfo.partSize) == false) {
                     return false;
@@ -244,6 +316,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         static final String WRITTEN_BY = "written_by";
         static final String META_HASH = "meta_hash";
         static final String WRITER_UUID = "writer_uuid";
+        static final String CHUNKS = "chunks";
+
+        static final Version CHUNKS_VERSION = Version.V_8_1_0;
 
         /**
          * Serializes file info into JSON
@@ -260,6 +335,13 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (file.partSize != null) {
                 builder.field(PART_SIZE, file.partSize.getBytes());
             }
+            if (file.chunks != null) {
+                builder.startArray(CHUNKS);
+                for (Chunk chunk : file.chunks) {
+                    builder.startObject().field(NAME, chunk.name()).field(LENGTH, chunk.length()).endObject();
+                }
+                builder.endArray();
+            }
 
             if (file.metadata.writtenBy() != null) {
                 builder.field(WRITTEN_BY, file.metadata.writtenBy());
@@ -297,6 +379,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             String writtenBy = null;
             BytesRef metaHash = new BytesRef();
             BytesRef writerUuid = UNAVAILABLE_WRITER_UUID;
+            List<Chunk> chunks = null;
             XContentParserUtils.ensureExpectedToken(token, XContentParser.Token.START_OBJECT, parser);
             while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
                 if (token == XContentParser.Token.FIELD_NAME) {
@@ -325,6 +408,11 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                         } else {
                             XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
                         }
+                    } else if (token == XContentParser.Token.START_ARRAY && CHUNKS.equals(currentFieldName)) {
+                        chunks = new ArrayList<>();
+                        while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                            chunks.add(Chunk.fromXContent(parser));
+                        }
                     } else {
                         XContentParserUtils.throwUnknownToken(token, parser.getTokenLocation());
                     }
@@ -345,7 +433,11 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             } else if (checksum == null) {
                 throw new ElasticsearchParseException("missing checksum for name [" + name + "]");
             }
-            return new FileInfo(name, new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid), partSize);
+            final StoreFileMetadata metadata = new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid);
+            if (chunks != null) {
+                return new FileInfo(name, metadata, chunks);
+            }
+            return new FileInfo(name, metadata, partSize);
         }
 
         @Override
@@ -358,12 +450,62 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 + partSize
                 + ", partBytes: "
                 + partBytes
+                + (chunks != null ? ", chunks: " + chunks.size() : "")
                 + ", metadata: "
                 + metadata
                 + "]";
         }
     }
 
+    /**
+     * A content-defined chunk of a snapshotted file, stored in the blob store under its name, which is derived from its contents so that
+     * identical chunks of different files are only stored once.
+     */
+    public record Chunk(String name, long length) implements Writeable {
+
+        public Chunk {
+            Objects.requireNonNull(name);
+            if (length <= 0L) {
+                throw new IllegalArgumentException("chunk [" + name + "] must not be empty");
+            }
+        }
+
+        public Chunk(StreamInput in) throws IOException {
+            this(in.readString(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(length);
+        }
+
+        static Chunk fromXContent(XContentParser parser) throws IOException {
+            XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
+            String name = null;
+            long length = -1L;
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+                final String currentFieldName = parser.currentName();
+                token = parser.nextToken();
+                if (FileInfo.NAME.equals(currentFieldName) && token.isValue()) {
+                    name = parser.text();
+                } else if (FileInfo.LENGTH.equals(currentFieldName) && token.isValue()) {
+                    length = parser.longValue();
+                } else {
+                    XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
+                }
+            }
+            if (name == null || Strings.validFileName(name) == false) {
+                throw new ElasticsearchParseException("missing or invalid chunk name [" + name + "]");
+            } else if (length <= 0L) {
+                throw new ElasticsearchParseException("missing or invalid length for chunk [" + name + "]");
+            }
+            return new Chunk(name, length);
+        }
+    }
+
     /**
      * Snapshot name
      */
@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.unmodifiableMap;
 
@@ -39,6 +41,7 @@ public class BlobStoreIndexShardSnapshots implements Iterable<SnapshotFiles>, To
     private final List<SnapshotFiles> shardSnapshots;
     private final Map<String, FileInfo> files;
     private final Map<String, List<FileInfo>> physicalFiles;
+    private final Set<String> chunks;
 
     public BlobStoreIndexShardSnapshots(List<SnapshotFiles> shardSnapshots) {
         this.shardSnapshots = List.copyOf(shardSnapshots);
@@ -66,6 +69,7 @@ public class BlobStoreIndexShardSnapshots implements Iterable<SnapshotFiles>, To
         }
         this.physicalFiles = unmodifiableMap(mapBuilder);
         this.files = unmodifiableMap(newFiles);
+        this.chunks = chunkNames(this.files);
     }
 
     private BlobStoreIndexShardSnapshots(Map<String, FileInfo> files, List<SnapshotFiles> shardSnapshots) {
@@ -82,6 +86,16 @@ public class BlobStoreIndexShardSnapshots implements Iterable<SnapshotFiles>, To
             mapBuilder.put(entry.getKey(), List.copyOf(entry.getValue()));
         }
         this.physicalFiles = unmodifiableMap(mapBuilder);
+        this.chunks = chunkNames(files);
+    }
+
+    private static Set<String> chunkNames(Map<String, FileInfo> files) {
+        return files.values()
+            .stream()
+            .filter(FileInfo::isChunked)
+            .flatMap(fileInfo -> fileInfo.chunks().stream())
+            .map(BlobStoreIndexShardSnapshot.Chunk::name)
+            .collect(Collectors.toUnmodifiableSet());
     }
 
     /**
@@ -135,6 +149,16 @@ public class BlobStoreIndexShardSnapshots implements Iterable<SnapshotFiles>, To
         return files.get(name);
     }
 
+    /**
+     * Checks whether the given blob is a content-defined chunk of a file of any of the snapshots
+     *
+     * @param blobName blob name
+     * @return true if the blob is a chunk that is referenced by a file
+     */
+    public boolean isReferencedChunk(String blobName) {
+        return chunks.contains(blobName);
+    }
+
     @Override
     public Iterator<SnapshotFiles> iterator() {
         return shardSnapshots.iterator();
@@ -0,0 +1,238 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.snapshots.blobstore;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
+import org.elasticsearch.core.CheckedRunnable;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * An {@link InputStream} over the contents of a file of a shard snapshot that reads the parts of the file with several concurrent ranged
+ * reads, so that restoring a large file is not limited by the throughput of a single connection to the repository.
+ *
+ * The file is split into ranges of roughly equal size that are read in order. While a range is consumed, up to {@code maxConcurrentRanges}
+ * of the following ranges are read in the background and buffered in memory. Every background read requires a permit for the size of its
+ * range from the given {@link Permits}, which bounds the number of ranges and the memory that are used to download and buffer ranges
+ * concurrently on the node; when no permit is available the range is read directly by the consuming thread once it is needed, like
+ * {@link SlicedInputStream} does. The given {@code ensureOpen} check runs before every range is read, in the background or not, so that
+ * reads stop once the target of the reads is closed.
+ *
+ * This class is not thread-safe, it must be consumed by a single thread at a time.
+ */
+public class ParallelRangeInputStream extends InputStream {
+
+    private final List<Range> ranges;
+    private final int maxConcurrentRanges;
+    private final Executor executor;
+    private final Permits permits;
+    private final RangeReader reader;
+    private final CheckedRunnable<IOException> ensureOpen;
+
+    private final Map<Integer, PendingRange> pendingRanges = new HashMap<>();
+    private int nextRange;
+    private int nextRangeToFetch;
+    private InputStream currentStream;
+    private volatile boolean closed;
+
+    /**
+     * @param ranges              the ranges to read, in order
+     * @param maxConcurrentRanges the maximum number of ranges to read ahead of the one that is being consumed
+     * @param executor            the executor to read ranges in the background with, which must not be the one of the consuming thread
+     * @param permits             supplies a permit for each background read
+     * @param reader              reads the contents of a range
+     * @param ensureOpen          throws if ranges must not be read anymore, checked before every range is read
+     */
+    public ParallelRangeInputStream(
+        List<Range> ranges,
+        int maxConcurrentRanges,
+        Executor executor,
+        Permits permits,
+        RangeReader reader,
+        CheckedRunnable<IOException> ensureOpen
+    ) {
+        this.ranges = List.copyOf(ranges);
+        this.maxConcurrentRanges = maxConcurrentRanges;
+        this.executor = executor;
+        this.permits = permits;
+        this.reader = reader;
+        this.ensureOpen = ensureOpen;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] buffer = new byte[1];
+        final int read = read(buffer, 0, 1);
+        return read == -1 ? -1 : buffer[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        ensureOpen();
+        if (length == 0) {
+            return 0;
+        }
+        while (true) {
+            if (currentStream == null) {
+                if (nextRange == ranges.size()) {
+                    return -1;
+                }
+                currentStream = openNextRange();
+            }
+            final int read = currentStream.read(buffer, offset, length);
+            if (read > 0) {
+                return read;
+            }
+            IOUtils.close(currentStream);
+            currentStream = null;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return currentStream == null ? 0 : currentStream.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            IOUtils.close(currentStream);
+        } finally {
+            currentStream = null;
+            // ranges that are still being read release their permits once complete
+            for (PendingRange pendingRange : pendingRanges.values()) {
+                pendingRange.future().addListener(ActionListener.wrap(pendingRange.permit()::close));
+            }
+            pendingRanges.clear();
+        }
+    }
+
+    private InputStream openNextRange() throws IOException {
+        final int rangeIndex = nextRange++;
+        nextRangeToFetch = Math.max(nextRangeToFetch, nextRange);
+        final PendingRange pendingRange = pendingRanges.remove(rangeIndex);
+        fetchAhead();
+        if (pendingRange == null) {
+            final Range range = ranges.get(rangeIndex);
+            ensureOpen.run();
+            return reader.readRange(range.blobName(), range.position(), range.length());
+        }
+        final Releasable permit = pendingRange.permit();
+        try (permit) {
+            return new ByteArrayInputStream(pendingRange.future().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for range [" + rangeIndex + "] to be read");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("failed to read range [" + rangeIndex + "]", cause);
+        }
+    }
+
+    private void fetchAhead() {
+        while (nextRangeToFetch < ranges.size() && nextRangeToFetch < nextRange + maxConcurrentRanges) {
+            final Range range = ranges.get(nextRangeToFetch);
+            final Releasable permit = permits.tryAcquire(range.length());
+            if (permit == null) {
+                return;
+            }
+            final int rangeIndex = nextRangeToFetch++;
+            final ListenableFuture<byte[]> future = new ListenableFuture<>();
+            pendingRanges.put(rangeIndex, new PendingRange(future, permit));
+            executor.execute(ActionRunnable.supply(future, () -> {
+                ensureOpen();
+                ensureOpen.run();
+                try (InputStream stream = reader.readRange(range.blobName(), range.position(), range.length())) {
+                    final byte[] bytes = stream.readNBytes(Math.toIntExact(range.length()));
+                    if (bytes.length != range.length()) {
+                        throw new EOFException("expected [" + range.length() + "] bytes but got [" + bytes.length + "] for " + range);
+                    }
+                    return bytes;
+                }
+            }));
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream is closed");
+        }
+    }
+
+    /**
+     * Splits the given file into ranges of the given size. The ranges never cross the boundaries of the parts of the file, and a trailing
+     * range of a part that would be less than half of the range size is coalesced with the previous range to save a request.
+     */
+    public static List<Range> ranges(BlobStoreIndexShardSnapshot.FileInfo fileInfo, long rangeSize) {
+        assert rangeSize > 0L : rangeSize;
+        final List<Range> ranges = new ArrayList<>();
+        for (int part = 0; part < fileInfo.numberOfParts(); part++) {
+            final String blobName = fileInfo.partName(part);
+            final long partBytes = fileInfo.partBytes(part);
+            long position = 0L;
+            while (position < partBytes) {
+                long length = Math.min(rangeSize, partBytes - position);
+                if (partBytes - position - length < rangeSize / 2) {
+                    length = partBytes - position;
+                }
+                ranges.add(new Range(blobName, position, length));
+                position += length;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * A range of bytes of a blob.
+     */
+    public record Range(String blobName, long position, long length) {}
+
+    @FunctionalInterface
+    public interface Permits {
+        /**
+         * Returns a permit to read a range of the given length in the background and to buffer it until it is consumed, or {@code null}
+         * if no more ranges can be read concurrently.
+         */
+        @Nullable
+        Releasable tryAcquire(long length);
+    }
+
+    @FunctionalInterface
+    public interface RangeReader {
+        /**
+         * Returns a stream over {@code length} bytes of the given blob starting at {@code position}.
+         */
+        InputStream readRange(String blobName, long position, long length) throws IOException;
+    }
+
+    private record PendingRange(ListenableFuture<byte[]> future, Releasable permit) {}
+}
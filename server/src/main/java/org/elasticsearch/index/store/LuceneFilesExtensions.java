@@ -18,6 +18,8 @@ import java.util.Objects;
 
 public enum LuceneFilesExtensions {
 
+    BFI("bfi", "Bloom Filter Index", false, true),
+    BFM("bfm", "Bloom Filter Metadata", true, false),
     CFE("cfe", "Compound Files Entries", true, false),
     // Compound files are tricky because they store all the information for the segment. Benchmarks
     // suggested that not mapping them hurts performance.
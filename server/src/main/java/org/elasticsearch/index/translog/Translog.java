@@ -8,8 +8,12 @@
 
 package org.elasticsearch.index.translog;
 
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
@@ -37,6 +41,8 @@ import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.lz4.ESLZ4Compressor;
+import org.elasticsearch.lz4.ESLZ4Decompressor;
 
 import java.io.Closeable;
 import java.io.EOFException;
@@ -550,6 +556,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 globalCheckpointSupplier,
                 this::getMinFileGeneration,
                 primaryTermSupplier.getAsLong(),
+                config.compressOperations(),
                 tragedy,
                 persistedSequenceNumberConsumer,
                 bigArrays,
@@ -573,7 +580,11 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try {
             final long start = out.position();
             out.skip(Integer.BYTES);
-            writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+            if (config.compressOperations()) {
+                writeCompressedOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+            } else {
+                writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+            }
             final long end = out.position();
             final int operationSize = (int) (end - Integer.BYTES - start);
             out.seek(start);
@@ -1576,6 +1587,14 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     }
 
     static Translog.Operation readOperation(BufferedChecksumStreamInput in) throws IOException {
+        return readOperation(in, false);
+    }
+
+    /**
+     * Reads an operation that was written with {@link #writeCompressedOperationNoSize} if {@code compressed} is true, or with
+     * {@link #writeOperationNoSize} otherwise, preceded by its size.
+     */
+    static Translog.Operation readOperation(BufferedChecksumStreamInput in, boolean compressed) throws IOException {
         final Translog.Operation operation;
         try {
             final int opSize = in.readInt();
@@ -1593,7 +1612,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 verifyChecksum(in);
                 in.reset();
             }
-            operation = Translog.Operation.readOperation(in);
+            operation = compressed ? readCompressedOperation(in, opSize - 4) : Translog.Operation.readOperation(in);
             verifyChecksum(in);
         } catch (EOFException e) {
             throw new TruncatedTranslogException(in.getSource(), "reached premature end of file, translog is truncated", e);
@@ -1617,6 +1636,60 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         }
     }
 
+    private static Translog.Operation readCompressedOperation(BufferedChecksumStreamInput in, int maxCompressedLength)
+        throws IOException {
+        final int uncompressedLength = in.readVInt();
+        final int compressedLength = in.readVInt();
+        if (uncompressedLength < 0 || compressedLength < 0 || compressedLength > maxCompressedLength) {
+            throw new TranslogCorruptedException(
+                in.getSource(),
+                "invalid compressed operation length ["
+                    + compressedLength
+                    + "], uncompressed length ["
+                    + uncompressedLength
+                    + "], operation size ["
+                    + maxCompressedLength
+                    + "]"
+            );
+        }
+        final byte[] compressed = new byte[compressedLength];
+        in.readBytes(compressed, 0, compressedLength);
+        final byte[] uncompressed = new byte[uncompressedLength];
+        final int decompressedLength;
+        try {
+            decompressedLength = ESLZ4Decompressor.INSTANCE.decompress(compressed, 0, uncompressed, 0, uncompressedLength);
+        } catch (LZ4Exception e) {
+            throw new TranslogCorruptedException(in.getSource(), "failed to decompress operation", e);
+        }
+        if (decompressedLength != compressedLength) {
+            throw new TranslogCorruptedException(
+                in.getSource(),
+                "decompressed [" + decompressedLength + "] bytes of a compressed operation of length [" + compressedLength + "]"
+            );
+        }
+        return Translog.Operation.readOperation(StreamInput.wrap(uncompressed));
+    }
+
+    /**
+     * Writes the given operation compressed with LZ4, followed by the checksum of the compressed bytes. The operation can be read
+     * back with {@link #readOperation(BufferedChecksumStreamInput, boolean)}. Each operation is compressed on its own so that
+     * it can still be read from its {@link Location}.
+     */
+    static void writeCompressedOperationNoSize(BufferedChecksumStreamOutput out, Translog.Operation op) throws IOException {
+        final BytesStreamOutput uncompressed = new BytesStreamOutput();
+        Translog.Operation.writeOperation(uncompressed, op);
+        final BytesRef bytes = uncompressed.bytes().toBytesRef();
+        final LZ4Compressor compressor = ESLZ4Compressor.INSTANCE;
+        final byte[] compressed = new byte[compressor.maxCompressedLength(bytes.length)];
+        final int compressedLength = compressor.compress(bytes.bytes, bytes.offset, bytes.length, compressed, 0, compressed.length);
+        out.resetDigest();
+        out.writeVInt(bytes.length);
+        out.writeVInt(compressedLength);
+        out.writeBytes(compressed, 0, compressedLength);
+        long checksum = out.getChecksum();
+        out.writeInt((int) checksum);
+    }
+
     public static void writeOperationNoSize(BufferedChecksumStreamOutput out, Translog.Operation op) throws IOException {
         // This BufferedChecksumStreamOutput remains unclosed on purpose,
         // because closing it closes the underlying stream, which we don't
@@ -1955,6 +2028,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             () -> { throw new UnsupportedOperationException(); },
             () -> { throw new UnsupportedOperationException(); },
             primaryTerm,
+            false,
             new TragicExceptionHolder(),
             seqNo -> { throw new UnsupportedOperationException(); },
             BigArrays.NON_RECYCLING_INSTANCE,
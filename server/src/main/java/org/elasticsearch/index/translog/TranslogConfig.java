@@ -102,4 +102,11 @@ public final class TranslogConfig {
     public DiskIoBufferPool getDiskIoBufferPool() {
         return diskIoBufferPool;
     }
+
+    /**
+     * Returns true if the operations added to new translog generations are compressed.
+     */
+    public boolean compressOperations() {
+        return indexSettings.isTranslogCompressed();
+    }
 }
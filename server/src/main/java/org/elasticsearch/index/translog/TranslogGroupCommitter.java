@@ -0,0 +1,225 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AsyncIOProcessor;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces the translog syncs that the shards of a node request for their write operations with
+ * {@link Translog.Durability#REQUEST} durability. Rather than each shard fsyncing its translog on its own, a single worker per
+ * data path collects the pending syncs of all the shards on that path and fsyncs the translog of each shard once per batch. The
+ * translogs of the shards of a batch are synced concurrently by up to {@link #MAX_CONCURRENT_SYNCS_SETTING} threads, the worker
+ * and threads of the generic pool, since storage devices process concurrent fsyncs of different files faster than serial ones.
+ * <p>
+ * The worker waits for more syncs to be requested before it processes a batch. The wait adapts to the time the previous batches
+ * took to be processed so that syncs are never delayed by more than the {@link #TARGET_LATENCY_SETTING target latency}, and the
+ * worker doesn't wait at all when the previous batch only synced a single shard.
+ */
+public final class TranslogGroupCommitter {
+
+    private static final Logger logger = LogManager.getLogger(TranslogGroupCommitter.class);
+
+    public static final Setting<Boolean> ENABLED_SETTING = Setting.boolSetting(
+        "indices.translog.group_commit.enabled",
+        false,
+        Property.NodeScope
+    );
+
+    public static final Setting<TimeValue> TARGET_LATENCY_SETTING = Setting.timeSetting(
+        "indices.translog.group_commit.target_latency",
+        TimeValue.timeValueMillis(5),
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    public static final Setting<Integer> MAX_CONCURRENT_SYNCS_SETTING = Setting.intSetting(
+        "indices.translog.group_commit.max_concurrent_syncs",
+        4,
+        1,
+        Property.NodeScope
+    );
+
+    /**
+     * Syncs the translog of a shard up to the given locations.
+     */
+    @FunctionalInterface
+    public interface Syncer {
+        void sync(List<Translog.Location> locations) throws IOException;
+    }
+
+    private final ThreadContext threadContext;
+    private final Executor executor;
+    private final int maxConcurrentSyncs;
+    private final Map<Path, Group> groups = ConcurrentCollections.newConcurrentMap();
+    private volatile long targetLatencyNanos;
+
+    public TranslogGroupCommitter(Settings settings, ClusterSettings clusterSettings, ThreadContext threadContext, Executor executor) {
+        this.threadContext = threadContext;
+        this.executor = executor;
+        this.maxConcurrentSyncs = MAX_CONCURRENT_SYNCS_SETTING.get(settings);
+        setTargetLatency(TARGET_LATENCY_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(TARGET_LATENCY_SETTING, this::setTargetLatency);
+    }
+
+    private void setTargetLatency(TimeValue targetLatency) {
+        this.targetLatencyNanos = targetLatency.nanos();
+    }
+
+    /**
+     * Syncs the translog of a shard up to the given location together with the syncs that other shards on the same data path
+     * requested. The listener is notified once the location is synced, or with the exception that prevented the translog of the
+     * shard from being synced. The same {@code syncer} instance must be used for all the syncs of a shard.
+     */
+    public void sync(Path dataPath, Syncer syncer, Translog.Location location, Consumer<Exception> listener) {
+        final PendingSync pendingSync = new PendingSync(syncer, location);
+        groups.computeIfAbsent(dataPath, path -> new Group()).put(pendingSync, e -> listener.accept(e != null ? e : pendingSync.failure));
+    }
+
+    /**
+     * Returns how long the worker of the given data path waits for more syncs before it processes the next batch.
+     */
+    long waitNanos(Path dataPath) {
+        final Group group = groups.get(dataPath);
+        return group == null ? 0L : group.waitNanos();
+    }
+
+    private static final class PendingSync {
+        private final Syncer syncer;
+        private final Translog.Location location;
+        private Exception failure;
+
+        private PendingSync(Syncer syncer, Translog.Location location) {
+            this.syncer = syncer;
+            this.location = location;
+        }
+    }
+
+    private final class Group extends AsyncIOProcessor<PendingSync> {
+
+        private final ExponentiallyWeightedMovingAverage batchNanos = new ExponentiallyWeightedMovingAverage(0.3, 0);
+        // only written by the worker that holds the promise to process the queue
+        private volatile int lastBatchShards;
+
+        private Group() {
+            super(logger, 4096, threadContext);
+        }
+
+        @Override
+        protected void beforeDrain() {
+            final long waitNanos = waitNanos();
+            if (waitNanos > 0) {
+                // parking may return early
+                final long deadline = System.nanoTime() + waitNanos;
+                long remainingNanos = waitNanos;
+                while (remainingNanos > 0) {
+                    LockSupport.parkNanos(remainingNanos);
+                    remainingNanos = deadline - System.nanoTime();
+                }
+            }
+        }
+
+        private long waitNanos() {
+            if (lastBatchShards <= 1) {
+                // there is no other shard to wait for
+                return 0;
+            }
+            // wait for up to as long as a batch takes to be synced, without exceeding the target latency
+            final long averageBatchNanos = (long) batchNanos.getAverage();
+            return Math.min(averageBatchNanos, targetLatencyNanos - averageBatchNanos);
+        }
+
+        @Override
+        protected void write(List<Tuple<PendingSync, Consumer<Exception>>> candidates) {
+            final long startNanos = System.nanoTime();
+            final Map<Syncer, List<PendingSync>> syncsByShard = new IdentityHashMap<>();
+            for (Tuple<PendingSync, Consumer<Exception>> candidate : candidates) {
+                syncsByShard.computeIfAbsent(candidate.v1().syncer, syncer -> new ArrayList<>()).add(candidate.v1());
+            }
+            final List<List<PendingSync>> shards = new ArrayList<>(syncsByShard.values());
+            final AtomicInteger nextShard = new AtomicInteger();
+            final Runnable syncShards = () -> {
+                int shard;
+                while ((shard = nextShard.getAndIncrement()) < shards.size()) {
+                    syncShard(shards.get(shard));
+                }
+            };
+            final int helpers = Math.min(maxConcurrentSyncs, shards.size()) - 1;
+            final CountDownLatch helpersDone = new CountDownLatch(helpers);
+            for (int i = 0; i < helpers; i++) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            syncShards.run();
+                        } finally {
+                            helpersDone.countDown();
+                        }
+                    });
+                } catch (EsRejectedExecutionException e) {
+                    // the node is shutting down, the worker syncs the remaining shards on its own
+                    helpersDone.countDown();
+                }
+            }
+            syncShards.run();
+            // the syncs of the batch are only notified once all its shards are synced
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    helpersDone.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            lastBatchShards = shards.size();
+            batchNanos.addValue(System.nanoTime() - startNanos);
+        }
+
+        private void syncShard(List<PendingSync> pendingSyncs) {
+            final List<Translog.Location> locations = new ArrayList<>(pendingSyncs.size());
+            for (PendingSync pendingSync : pendingSyncs) {
+                locations.add(pendingSync.location);
+            }
+            try {
+                pendingSyncs.get(0).syncer.sync(locations);
+            } catch (Exception e) {
+                // only fail the syncs of the shard whose translog couldn't be synced
+                for (PendingSync pendingSync : pendingSyncs) {
+                    pendingSync.failure = e;
+                }
+            }
+        }
+    }
+}
@@ -34,10 +34,12 @@ final class TranslogHeader {
     public static final int VERSION_CHECKSUMS = 1; // pre-2.0 - unsupported
     public static final int VERSION_CHECKPOINTS = 2; // added checkpoints
     public static final int VERSION_PRIMARY_TERM = 3; // added primary term
+    public static final int VERSION_COMPRESSED_OPERATIONS = 4; // operations are compressed, only used if enabled
     public static final int CURRENT_VERSION = VERSION_PRIMARY_TERM;
 
     private final String translogUUID;
     private final long primaryTerm;
+    private final boolean compressedOperations;
     private final int headerSizeInBytes;
 
     /**
@@ -49,13 +51,22 @@ final class TranslogHeader {
      *                     All operations' terms in this translog file are enforced to be at most this term.
      */
     TranslogHeader(String translogUUID, long primaryTerm) {
-        this(translogUUID, primaryTerm, headerSizeInBytes(translogUUID));
+        this(translogUUID, primaryTerm, false);
+    }
+
+    /**
+     * Creates a new translog header with the given uuid and primary term for a translog file whose operations are compressed
+     * if {@code compressedOperations} is true. Such files are written with {@link #VERSION_COMPRESSED_OPERATIONS}.
+     */
+    TranslogHeader(String translogUUID, long primaryTerm, boolean compressedOperations) {
+        this(translogUUID, primaryTerm, compressedOperations, headerSizeInBytes(translogUUID));
         assert primaryTerm >= 0 : "Primary term must be non-negative; term [" + primaryTerm + "]";
     }
 
-    private TranslogHeader(String translogUUID, long primaryTerm, int headerSizeInBytes) {
+    private TranslogHeader(String translogUUID, long primaryTerm, boolean compressedOperations, int headerSizeInBytes) {
         this.translogUUID = translogUUID;
         this.primaryTerm = primaryTerm;
+        this.compressedOperations = compressedOperations;
         this.headerSizeInBytes = headerSizeInBytes;
     }
 
@@ -71,6 +82,13 @@ final class TranslogHeader {
         return primaryTerm;
     }
 
+    /**
+     * Returns true if the operations of this translog file are compressed.
+     */
+    public boolean compressedOperations() {
+        return compressedOperations;
+    }
+
     /**
      * Returns the header size in bytes. This value can be used as the offset of the first translog operation.
      * See {@link BaseTranslogReader#getFirstOperationOffset()}
@@ -96,7 +114,7 @@ final class TranslogHeader {
     static int readHeaderVersion(final Path path, final FileChannel channel, final StreamInput in) throws IOException {
         final int version;
         try {
-            version = CodecUtil.checkHeader(new InputStreamDataInput(in), TRANSLOG_CODEC, VERSION_CHECKSUMS, VERSION_PRIMARY_TERM);
+            version = CodecUtil.checkHeader(new InputStreamDataInput(in), TRANSLOG_CODEC, VERSION_CHECKSUMS, VERSION_COMPRESSED_OPERATIONS);
         } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
             tryReportOldVersionError(path, channel);
             throw new TranslogCorruptedException(path.toString(), "translog header corrupted", e);
@@ -133,7 +151,7 @@ final class TranslogHeader {
             uuid.length = uuidLen;
             in.read(uuid.bytes, uuid.offset, uuid.length);
             // Read the primary term
-            assert version == VERSION_PRIMARY_TERM;
+            assert version == VERSION_PRIMARY_TERM || version == VERSION_COMPRESSED_OPERATIONS;
             final long primaryTerm = in.readLong();
             // Verify the checksum
             Translog.verifyChecksum(in);
@@ -152,7 +170,7 @@ final class TranslogHeader {
                 );
             }
 
-            return new TranslogHeader(translogUUID, primaryTerm, headerSizeInBytes);
+            return new TranslogHeader(translogUUID, primaryTerm, version == VERSION_COMPRESSED_OPERATIONS, headerSizeInBytes);
         } catch (EOFException e) {
             throw new TranslogCorruptedException(path.toString(), "translog header truncated", e);
         }
@@ -176,7 +194,7 @@ final class TranslogHeader {
     }
 
     /**
-     * Writes this header with the latest format into the file channel
+     * Writes this header with the latest format, or the compressed operations format if enabled, into the file channel
      */
     void write(final FileChannel channel) throws IOException {
         // This output is intentionally not closed because closing it will close the FileChannel.
@@ -184,7 +202,11 @@ final class TranslogHeader {
         final BufferedChecksumStreamOutput out = new BufferedChecksumStreamOutput(
             new OutputStreamStreamOutput(java.nio.channels.Channels.newOutputStream(channel))
         );
-        CodecUtil.writeHeader(new OutputStreamDataOutput(out), TRANSLOG_CODEC, CURRENT_VERSION);
+        CodecUtil.writeHeader(
+            new OutputStreamDataOutput(out),
+            TRANSLOG_CODEC,
+            compressedOperations ? VERSION_COMPRESSED_OPERATIONS : CURRENT_VERSION
+        );
         // Write uuid
         final BytesRef uuid = new BytesRef(translogUUID);
         out.writeInt(uuid.length);
@@ -7,11 +7,13 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
@@ -24,6 +26,9 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long syncCount;
+    private long syncRequests;
+    private long syncWaitTimeInMillis;
 
     public TranslogStats() {}
 
@@ -33,6 +38,11 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+            syncCount = in.readVLong();
+            syncRequests = in.readVLong();
+            syncWaitTimeInMillis = in.readVLong();
+        }
     }
 
     public TranslogStats(
@@ -41,6 +51,19 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         int uncommittedOperations,
         long uncommittedSizeInBytes,
         long earliestLastModifiedAge
+    ) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0, 0);
+    }
+
+    public TranslogStats(
+        int numberOfOperations,
+        long translogSizeInBytes,
+        int uncommittedOperations,
+        long uncommittedSizeInBytes,
+        long earliestLastModifiedAge,
+        long syncCount,
+        long syncRequests,
+        long syncWaitTimeInMillis
     ) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
@@ -57,11 +80,23 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         if (earliestLastModifiedAge < 0) {
             throw new IllegalArgumentException("earliestLastModifiedAge must be >= 0");
         }
+        if (syncCount < 0) {
+            throw new IllegalArgumentException("syncCount must be >= 0");
+        }
+        if (syncRequests < 0) {
+            throw new IllegalArgumentException("syncRequests must be >= 0");
+        }
+        if (syncWaitTimeInMillis < 0) {
+            throw new IllegalArgumentException("syncWaitTimeInMillis must be >= 0");
+        }
         this.numberOfOperations = numberOfOperations;
         this.translogSizeInBytes = translogSizeInBytes;
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.syncCount = syncCount;
+        this.syncRequests = syncRequests;
+        this.syncWaitTimeInMillis = syncWaitTimeInMillis;
     }
 
     public void add(TranslogStats translogStats) {
@@ -78,6 +113,9 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         } else {
             this.earliestLastModifiedAge = Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
         }
+        this.syncCount += translogStats.syncCount;
+        this.syncRequests += translogStats.syncRequests;
+        this.syncWaitTimeInMillis += translogStats.syncWaitTimeInMillis;
     }
 
     public long getTranslogSizeInBytes() {
@@ -102,6 +140,21 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         return earliestLastModifiedAge;
     }
 
+    /** the number of fsyncs of the translog that were needed to make the operations of write requests durable */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /** the number of write requests that waited for the translog to be synced, possibly sharing the same fsync */
+    public long getSyncRequests() {
+        return syncRequests;
+    }
+
+    /** the total time write requests spent waiting for the translog to be synced */
+    public long getSyncWaitTimeInMillis() {
+        return syncWaitTimeInMillis;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -110,6 +163,9 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.field("sync_count", syncCount);
+        builder.field("sync_requests", syncRequests);
+        builder.humanReadableField("sync_wait_time_in_millis", "sync_wait_time", new TimeValue(syncWaitTimeInMillis));
         builder.endObject();
         return builder;
     }
@@ -126,5 +182,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+            out.writeVLong(syncCount);
+            out.writeVLong(syncRequests);
+            out.writeVLong(syncWaitTimeInMillis);
+        }
     }
 }
@@ -139,6 +139,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         final LongSupplier globalCheckpointSupplier,
         final LongSupplier minTranslogGenerationSupplier,
         final long primaryTerm,
+        final boolean compressOperations,
         TragicExceptionHolder tragedy,
         final LongConsumer persistedSequenceNumberConsumer,
         final BigArrays bigArrays,
@@ -150,7 +151,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         FileChannel checkpointChannel = null;
         try {
             checkpointChannel = channelFactory.open(checkpointFile, StandardOpenOption.WRITE);
-            final TranslogHeader header = new TranslogHeader(translogUUID, primaryTerm);
+            final TranslogHeader header = new TranslogHeader(translogUUID, primaryTerm, compressOperations);
             header.write(channel);
             final Checkpoint checkpoint = Checkpoint.emptyTranslogCheckpoint(
                 header.sizeInBytes(),
@@ -254,9 +255,13 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         } else if (seenSequenceNumbers.containsKey(seqNo)) {
             final Tuple<BytesReference, Exception> previous = seenSequenceNumbers.get(seqNo);
             if (previous.v1().equals(data) == false) {
-                Translog.Operation newOp = Translog.readOperation(new BufferedChecksumStreamInput(data.streamInput(), "assertion"));
+                Translog.Operation newOp = Translog.readOperation(
+                    new BufferedChecksumStreamInput(data.streamInput(), "assertion"),
+                    header.compressedOperations()
+                );
                 Translog.Operation prvOp = Translog.readOperation(
-                    new BufferedChecksumStreamInput(previous.v1().streamInput(), "assertion")
+                    new BufferedChecksumStreamInput(previous.v1().streamInput(), "assertion"),
+                    header.compressedOperations()
                 );
                 // TODO: We haven't had timestamp for Index operations in Lucene yet, we need to loosen this check without timestamp.
                 final boolean sameOp;
@@ -304,7 +309,10 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         seenSequenceNumbers.entrySet().stream().filter(e -> e.getKey().longValue() > aboveSeqNo).forEach(e -> {
             final Translog.Operation op;
             try {
-                op = Translog.readOperation(new BufferedChecksumStreamInput(e.getValue().v1().streamInput(), "assertion"));
+                op = Translog.readOperation(
+                    new BufferedChecksumStreamInput(e.getValue().v1().streamInput(), "assertion"),
+                    header.compressedOperations()
+                );
             } catch (IOException ex) {
                 throw new RuntimeException(ex);
             }
@@ -0,0 +1,187 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPool.Names;
+
+import java.io.Closeable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Picks how often the shards of the indices with {@link IndexSettings#INDEX_REFRESH_ADAPTIVE_SETTING adaptive refreshes} are
+ * refreshed. A refresh only makes sense if a search comes along to see its changes, so shards are refreshed about as often as
+ * they are searched, which lets shards that are written to a lot but rarely searched write fewer, larger segments that need less
+ * merging. When the indexing buffers of the node fill up, the intervals shrink so that the buffers are written out by regular
+ * refreshes rather than by the {@link IndexingMemoryController}.
+ * <p>
+ * The intervals are bounded by {@link #MIN_INTERVAL_SETTING} and {@link #MAX_INTERVAL_SETTING}, and shards are never refreshed more
+ * often than their {@link IndexSettings#getRefreshInterval() refresh interval}.
+ */
+public class AdaptiveRefreshScheduler implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveRefreshScheduler.class);
+
+    /** The shortest interval between the scheduled refreshes of a shard (default: 1 second). */
+    public static final Setting<TimeValue> MIN_INTERVAL_SETTING = Setting.positiveTimeSetting(
+        "indices.refresh.adaptive.min_interval",
+        TimeValue.timeValueSeconds(1),
+        Property.NodeScope
+    );
+
+    /** The longest interval between the scheduled refreshes of a shard (default: 30 seconds). */
+    public static final Setting<TimeValue> MAX_INTERVAL_SETTING = Setting.positiveTimeSetting(
+        "indices.refresh.adaptive.max_interval",
+        TimeValue.timeValueSeconds(30),
+        Property.NodeScope
+    );
+
+    /** The share of the indexing buffer that has to be used before the intervals shrink. */
+    static final double PRESSURE_THRESHOLD = 0.5;
+
+    private static final double SEARCH_RATE_ALPHA = 0.3;
+
+    private final ThreadPool threadPool;
+    private final Iterable<IndexShard> indexShards;
+    private final ByteSizeValue indexingBuffer;
+    private final TimeValue minInterval;
+    private final TimeValue maxInterval;
+    private final Map<IndexShard, ShardSearchRate> searchRates = new IdentityHashMap<>();
+    private final Cancellable scheduler;
+
+    AdaptiveRefreshScheduler(Settings settings, ThreadPool threadPool, Iterable<IndexShard> indexShards, ByteSizeValue indexingBuffer) {
+        this.threadPool = threadPool;
+        this.indexShards = indexShards;
+        this.indexingBuffer = indexingBuffer;
+        this.minInterval = MIN_INTERVAL_SETTING.get(settings);
+        this.maxInterval = MAX_INTERVAL_SETTING.get(settings);
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException(
+                "["
+                    + MIN_INTERVAL_SETTING.getKey()
+                    + "] must be less than or equal to ["
+                    + MAX_INTERVAL_SETTING.getKey()
+                    + "] but was ["
+                    + minInterval
+                    + "] and ["
+                    + maxInterval
+                    + "]"
+            );
+        }
+        this.scheduler = scheduleTask(threadPool);
+    }
+
+    protected Cancellable scheduleTask(ThreadPool threadPool) {
+        // it's fine to run it on the scheduler thread, the refreshes themselves are triggered by the indices
+        return threadPool.scheduleWithFixedDelay(this::updateIntervals, minInterval, Names.SAME);
+    }
+
+    @Override
+    public void close() {
+        scheduler.cancel();
+    }
+
+    /**
+     * Computes the interval between the refreshes of every shard with adaptive refreshes from its search rate and the share of the
+     * indexing buffer of the node that is used.
+     */
+    synchronized void updateIntervals() {
+        final long nowInMillis = threadPool.relativeTimeInMillis();
+        final Map<IndexShard, ShardSearchRate> previousSearchRates = new IdentityHashMap<>(searchRates);
+        searchRates.clear();
+        for (IndexShard shard : indexShards) {
+            if (shard.state() == IndexShardState.STARTED && shard.indexSettings().isAdaptiveRefresh()) {
+                ShardSearchRate searchRate = previousSearchRates.get(shard);
+                if (searchRate == null) {
+                    searchRate = new ShardSearchRate(shard, nowInMillis);
+                } else {
+                    searchRate.update(shard.getSearcherAccessCount(), nowInMillis);
+                }
+                searchRates.put(shard, searchRate);
+            }
+        }
+        if (searchRates.isEmpty()) {
+            return;
+        }
+        long totalBytesUsed = 0;
+        for (IndexShard shard : indexShards) {
+            totalBytesUsed += shard.getIndexBufferRAMBytesUsed();
+        }
+        final double pressure = indexingBuffer.getBytes() > 0 ? (double) totalBytesUsed / indexingBuffer.getBytes() : 0.0;
+        for (ShardSearchRate searchRate : searchRates.values()) {
+            final TimeValue interval = computeInterval(searchRate.searchesPerSecond(), pressure, minInterval, maxInterval);
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                    "shard [{}] is searched [{}] times per second, indexing buffer pressure is [{}], refreshing every [{}]",
+                    searchRate.shard.shardId(),
+                    searchRate.searchesPerSecond(),
+                    pressure,
+                    interval
+                );
+            }
+            searchRate.shard.setAdaptiveRefreshInterval(interval);
+        }
+    }
+
+    /**
+     * Returns the interval between the refreshes of a shard that is searched {@code searchesPerSecond} times per second, on a node
+     * that uses {@code pressure} times its indexing buffer.
+     */
+    static TimeValue computeInterval(double searchesPerSecond, double pressure, TimeValue minInterval, TimeValue maxInterval) {
+        double intervalMillis = searchesPerSecond > 0 ? 1000 / searchesPerSecond : maxInterval.millis();
+        if (pressure > PRESSURE_THRESHOLD) {
+            // shrink the interval linearly down to the minimum once the indexing buffer is full
+            intervalMillis *= Math.max(0.0, (1.0 - pressure) / (1.0 - PRESSURE_THRESHOLD));
+        }
+        final long boundedMillis = Math.max(minInterval.millis(), Math.min(maxInterval.millis(), (long) intervalMillis));
+        return TimeValue.timeValueMillis(boundedMillis);
+    }
+
+    private static final class ShardSearchRate {
+        private final IndexShard shard;
+        private final ExponentiallyWeightedMovingAverage searchesPerSecond = new ExponentiallyWeightedMovingAverage(
+            SEARCH_RATE_ALPHA,
+            0.0
+        );
+        private long lastSearcherAccessCount;
+        private long lastUpdateInMillis;
+
+        ShardSearchRate(IndexShard shard, long nowInMillis) {
+            this.shard = shard;
+            this.lastSearcherAccessCount = shard.getSearcherAccessCount();
+            this.lastUpdateInMillis = nowInMillis;
+        }
+
+        void update(long searcherAccessCount, long nowInMillis) {
+            final long elapsedMillis = nowInMillis - lastUpdateInMillis;
+            if (elapsedMillis > 0) {
+                searchesPerSecond.addValue((searcherAccessCount - lastSearcherAccessCount) * 1000.0 / elapsedMillis);
+                lastSearcherAccessCount = searcherAccessCount;
+                lastUpdateInMillis = nowInMillis;
+            }
+        }
+
+        double searchesPerSecond() {
+            return searchesPerSecond.getAverage();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.carrotsearch.hppc.ObjectHashSet;
 import com.carrotsearch.hppc.ObjectSet;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
@@ -49,6 +50,10 @@ import java.util.concurrent.ConcurrentMap;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * The cache can also hold the partial aggregation results of a request for a single leaf reader of a shard, see
+ * {@link #getLeaf} and {@link #putLeaf}. These entries are keyed on the cache key of the leaf reader instead of the one
+ * of the top level reader, so they survive refreshes that do not modify the leaf.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -64,6 +69,16 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * A setting to enable or disable the caching of partial aggregation results per segment on an index level. Only
+     * requests that can be cached with the request cache are cached per segment.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_ENABLED_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_aggregations.enable",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -88,7 +103,8 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
             .setMaximumWeight(sizeInBytes)
             .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
-            .removalListener(this);
+            .removalListener(this)
+            .setBufferReadPromotions(true);
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
@@ -147,6 +163,53 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         return value;
     }
 
+    /**
+     * Returns the cached value for the given key and a single leaf reader of a shard, or null if there is none.
+     * @param cacheEntity the cache entity of the shard
+     * @param leafCacheHelper the cache helper of the leaf reader, the leaf entries are invalidated when it is closed
+     * @param cacheKey the cache key of the request
+     */
+    BytesReference getLeaf(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper leafCacheHelper,
+        BytesReference cacheKey
+    ) {
+        BytesReference value = cache.get(new Key(cacheEntity, mappingCacheKey, leafCacheHelper.getKey(), cacheKey));
+        if (value == null) {
+            cacheEntity.onMiss();
+        } else {
+            cacheEntity.onHit();
+        }
+        return value;
+    }
+
+    /**
+     * Caches the given value for the given key and a single leaf reader of a shard, replacing any existing value.
+     * @param cacheEntity the cache entity of the shard
+     * @param leafCacheHelper the cache helper of the leaf reader, the leaf entries are invalidated when it is closed
+     * @param cacheKey the cache key of the request
+     * @param value the value to cache
+     */
+    void putLeaf(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper leafCacheHelper,
+        BytesReference cacheKey,
+        BytesReference value
+    ) {
+        Key key = new Key(cacheEntity, mappingCacheKey, leafCacheHelper.getKey(), cacheKey);
+        cacheEntity.onCached(key, value);
+        cache.put(key, value);
+        CleanupKey cleanupKey = new CleanupKey(cacheEntity, leafCacheHelper.getKey());
+        if (registeredClosedListeners.containsKey(cleanupKey) == false) {
+            Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+            if (previous == null) {
+                leafCacheHelper.addClosedListener(cleanupKey::onClose);
+            }
+        }
+    }
+
     /**
      * Invalidates the given the cache entry for the given key and it's context
      * @param cacheEntity the cache entity to invalidate for
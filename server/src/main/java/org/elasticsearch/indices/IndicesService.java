@@ -13,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -110,6 +111,7 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogGroupCommitter;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -121,6 +123,8 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.LeafAggregationsCache;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
@@ -224,9 +228,12 @@ public class IndicesService extends AbstractLifecycleComponent
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, IndexStorePlugin.SnapshotCommitSupplier> snapshotCommitSuppliers;
     private final IndexingMemoryController indexingMemoryController;
+    private final AdaptiveRefreshScheduler adaptiveRefreshScheduler;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
+    @Nullable
+    private final TranslogGroupCommitter translogGroupCommitter;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, IndexStorePlugin.DirectoryFactory> directoryFactories;
@@ -301,12 +308,21 @@ public class IndicesService extends AbstractLifecycleComponent
             // ensure we pull an iter with new shards - flatten makes a copy
             () -> Iterables.flatten(this).iterator()
         );
+        adaptiveRefreshScheduler = new AdaptiveRefreshScheduler(
+            settings,
+            threadPool,
+            () -> Iterables.flatten(this).iterator(),
+            indexingMemoryController.indexingBufferSize()
+        );
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
         this.clusterService = clusterService;
         this.client = client;
+        this.translogGroupCommitter = TranslogGroupCommitter.ENABLED_SETTING.get(settings)
+            ? new TranslogGroupCommitter(settings, clusterService.getClusterSettings(), threadPool.getThreadContext(), threadPool.generic())
+            : null;
         this.idFieldDataEnabled = INDICES_ID_FIELD_DATA_ENABLED_SETTING.get(clusterService.getSettings());
         clusterService.getClusterSettings().addSettingsUpdateConsumer(INDICES_ID_FIELD_DATA_ENABLED_SETTING, this::setIdFieldDataEnabled);
         this.indicesFieldDataCache = new IndicesFieldDataCache(settings, new IndexFieldDataCache.Listener() {
@@ -347,6 +363,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 IOUtils.close(
                     analysisRegistry,
                     indexingMemoryController,
+                    adaptiveRefreshScheduler,
                     indicesFieldDataCache,
                     cacheCleaner,
                     indicesRequestCache,
@@ -719,7 +736,8 @@ public class IndicesService extends AbstractLifecycleComponent
             idFieldMapper,
             valuesSourceRegistry,
             indexFoldersDeletionListeners,
-            snapshotCommitSuppliers
+            snapshotCommitSuppliers,
+            translogGroupCommitter
         );
     }
 
@@ -1504,6 +1522,16 @@ public class IndicesService extends AbstractLifecycleComponent
             directoryReader,
             cacheKey,
             out -> {
+                if (canCacheLeafAggregations(context)) {
+                    context.aggregations()
+                        .leafAggregationsCache(
+                            new RequestLeafAggregationsCache(
+                                new IndexShardSegmentAggregationsCacheEntity(context.indexShard()),
+                                context.getSearchExecutionContext().mappingCacheKey(),
+                                cacheKey
+                            )
+                        );
+                }
                 queryPhase.execute(context);
                 context.queryResult().writeToNoId(out);
                 loadedFromCache[0] = false;
@@ -1540,6 +1568,21 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Can the partial aggregation results of a cacheable shard request be cached per segment?
+     */
+    private static boolean canCacheLeafAggregations(SearchContext context) {
+        if (context.aggregations() == null || context.aggregations().supportsLeafCaching() == false) {
+            return false;
+        }
+        if (context.indexShard().indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_ENABLED_SETTING)
+            == false) {
+            return false;
+        }
+        // the aggregations of a segment must be collected over all its matching documents to be cached
+        return context.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER;
+    }
+
     public ByteSizeValue getTotalIndexingBufferBytes() {
         return indexingMemoryController.indexingBufferSize();
     }
@@ -1610,6 +1653,91 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Tracks the partial aggregation results of segments in the request cache statistics of a shard. Shares the cache
+     * identity of {@link IndexShardCacheEntity} so that both kinds of entries are cleared together.
+     */
+    static final class IndexShardSegmentAggregationsCacheEntity extends AbstractIndexShardSegmentAggregationsCacheEntity {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(
+            IndexShardSegmentAggregationsCacheEntity.class
+        );
+        private final IndexShard indexShard;
+
+        IndexShardSegmentAggregationsCacheEntity(IndexShard indexShard) {
+            this.indexShard = indexShard;
+        }
+
+        @Override
+        protected ShardRequestCache stats() {
+            return indexShard.requestCache();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return indexShard.state() != IndexShardState.CLOSED;
+        }
+
+        @Override
+        public Object getCacheIdentity() {
+            return indexShard;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            // No need to take the IndexShard into account since it is shared
+            // across many entities
+            return BASE_RAM_BYTES_USED;
+        }
+    }
+
+    /**
+     * Caches the partial aggregation results of a shard request per segment in the {@link IndicesRequestCache}. Only
+     * segments that are large enough to not be merged away quickly are cached.
+     */
+    private class RequestLeafAggregationsCache implements LeafAggregationsCache {
+        private static final int MIN_SEGMENT_DOCS = 10_000;
+
+        private final IndexShardSegmentAggregationsCacheEntity cacheEntity;
+        private final MappingLookup.CacheKey mappingCacheKey;
+        private final BytesReference cacheKey;
+
+        RequestLeafAggregationsCache(
+            IndexShardSegmentAggregationsCacheEntity cacheEntity,
+            MappingLookup.CacheKey mappingCacheKey,
+            BytesReference cacheKey
+        ) {
+            this.cacheEntity = cacheEntity;
+            this.mappingCacheKey = mappingCacheKey;
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            // the reader cache key of a segment changes when documents of the segment are deleted
+            return ctx.reader().maxDoc() >= MIN_SEGMENT_DOCS && ctx.reader().getReaderCacheHelper() != null;
+        }
+
+        @Override
+        public InternalAggregations get(LeafReaderContext ctx) throws IOException {
+            BytesReference bytes = indicesRequestCache.getLeaf(cacheEntity, mappingCacheKey, ctx.reader().getReaderCacheHelper(), cacheKey);
+            if (bytes == null) {
+                return null;
+            }
+            try (StreamInput in = new NamedWriteableAwareStreamInput(bytes.streamInput(), namedWriteableRegistry)) {
+                return InternalAggregations.readFrom(in);
+            }
+        }
+
+        @Override
+        public void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException {
+            // see cacheShardLevelResult for the expected size
+            try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+                aggregations.writeTo(out);
+                indicesRequestCache.putLeaf(cacheEntity, mappingCacheKey, ctx.reader().getReaderCacheHelper(), cacheKey, out.bytes());
+            }
+        }
+    }
+
     @FunctionalInterface
     interface IndexDeletionAllowedPredicate {
         boolean apply(Index index, IndexSettings indexSettings);
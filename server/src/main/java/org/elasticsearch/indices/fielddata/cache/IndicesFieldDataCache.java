@@ -24,18 +24,21 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable {
@@ -79,13 +82,18 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         assert key != null && key.listeners != null;
         IndexFieldCache indexCache = key.indexCache;
         final Accountable value = notification.getValue();
+        indexCache.onRemoval(key.shardId, value);
+        // global ordinals that share their ordinal map with global ordinals of other readers only free it with the last of them
+        final long sizeInBytes = value instanceof GlobalOrdinalsIndexFieldData
+            ? ((GlobalOrdinalsIndexFieldData) value).releaseOrdinalMap()
+            : value.ramBytesUsed();
         for (IndexFieldDataCache.Listener listener : key.listeners) {
             try {
                 listener.onRemoval(
                     key.shardId,
                     indexCache.fieldName,
                     notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED,
-                    value.ramBytesUsed()
+                    sizeInBytes
                 );
             } catch (Exception e) {
                 // load anyway since listeners should not throw exceptions
@@ -111,6 +119,8 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final String fieldName;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        // the global field data that was last loaded per shard, so that the next load can reuse what did not change
+        private final Map<ShardId, Accountable> lastLoadedGlobal = ConcurrentCollections.newConcurrentMap();
 
         IndexFieldCache(Logger logger, final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
             this.logger = logger;
@@ -162,20 +172,44 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             final Accountable accountable = cache.computeIfAbsent(key, k -> {
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
+                final long startTimeNS = System.nanoTime();
                 final Accountable ifd = (Accountable) indexFieldData.loadGlobalDirect(indexReader);
+                final long tookInNanos = System.nanoTime() - startTimeNS;
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, ifd);
+                        listener.onGlobalLoad(shardId, fieldName, tookInNanos);
                     } catch (Exception e) {
                         // load anyway since listeners should not throw exceptions
                         logger.error("Failed to call listener on global ordinals loading", e);
                     }
                 }
+                if (shardId != null) {
+                    lastLoadedGlobal.put(shardId, ifd);
+                }
                 return ifd;
             });
             return (IFD) accountable;
         }
 
+        @Override
+        public Accountable getLastLoadedGlobal(DirectoryReader indexReader) {
+            final ShardId shardId = ShardUtils.extractShardId(indexReader);
+            return shardId == null ? null : lastLoadedGlobal.get(shardId);
+        }
+
+        void onRemoval(ShardId shardId, Accountable value) {
+            if (shardId != null) {
+                lastLoadedGlobal.remove(shardId, value);
+            }
+        }
+
+        @Override
+        public boolean isCached(DirectoryReader indexReader) {
+            final IndexReader.CacheHelper cacheHelper = indexReader.getReaderCacheHelper();
+            return cacheHelper != null && cache.get(new Key(this, cacheHelper.getKey(), null)) != null;
+        }
+
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
@@ -237,6 +237,44 @@ public class RecoverySettings {
         Setting.Property.NodeScope
     );
 
+    /**
+     * The size of the ranges that large files are split into when they are read from a snapshot with concurrent ranged reads.
+     */
+    public static final Setting<ByteSizeValue> INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE = Setting.byteSizeSetting(
+        "indices.recovery.snapshot_file_download_range_size",
+        new ByteSizeValue(8, ByteSizeUnit.MB),
+        new ByteSizeValue(1, ByteSizeUnit.MB),
+        new ByteSizeValue(256, ByteSizeUnit.MB),
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Controls the maximum number of ranges of a single file that are read concurrently from a snapshot. Files that are larger than
+     * {@link #INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE} are read sequentially when set to 1.
+     */
+    public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS = Setting.intSetting(
+        "indices.recovery.max_concurrent_snapshot_file_range_downloads",
+        4,
+        1,
+        16,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Controls the maximum number of ranges of files that are read concurrently from snapshots on a node, across all restores and
+     * recoveries. Every such range is buffered in memory until it is written to disk.
+     */
+    public static final Setting<Integer> INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE = Setting.intSetting(
+        "indices.recovery.max_concurrent_snapshot_file_range_downloads_per_node",
+        8,
+        1,
+        128,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
     public static final ByteSizeValue DEFAULT_CHUNK_SIZE = new ByteSizeValue(512, ByteSizeUnit.KB);
 
     private volatile ByteSizeValue maxBytesPerSec;
@@ -252,8 +290,11 @@ public class RecoverySettings {
     private volatile boolean useSnapshotsDuringRecovery;
     private volatile int maxConcurrentSnapshotFileDownloads;
     private volatile int maxConcurrentSnapshotFileDownloadsPerNode;
+    private volatile ByteSizeValue snapshotFileDownloadRangeSize;
+    private volatile int maxConcurrentSnapshotFileRangeDownloads;
 
     private final AdjustableSemaphore maxSnapshotFileDownloadsPerNodeSemaphore;
+    private final AdjustableSemaphore maxSnapshotFileRangeDownloadsPerNodeSemaphore;
 
     private volatile ByteSizeValue chunkSize = DEFAULT_CHUNK_SIZE;
 
@@ -280,6 +321,12 @@ public class RecoverySettings {
         this.maxConcurrentSnapshotFileDownloads = INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS.get(settings);
         this.maxConcurrentSnapshotFileDownloadsPerNode = INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_PER_NODE.get(settings);
         this.maxSnapshotFileDownloadsPerNodeSemaphore = new AdjustableSemaphore(this.maxConcurrentSnapshotFileDownloadsPerNode, true);
+        this.snapshotFileDownloadRangeSize = INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE.get(settings);
+        this.maxConcurrentSnapshotFileRangeDownloads = INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS.get(settings);
+        this.maxSnapshotFileRangeDownloadsPerNodeSemaphore = new AdjustableSemaphore(
+            INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE.get(settings),
+            false
+        );
 
         logger.debug("using max_bytes_per_sec[{}]", maxBytesPerSec);
 
@@ -303,6 +350,18 @@ public class RecoverySettings {
             INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_PER_NODE,
             this::setMaxConcurrentSnapshotFileDownloadsPerNode
         );
+        clusterSettings.addSettingsUpdateConsumer(
+            INDICES_RECOVERY_SNAPSHOT_FILE_DOWNLOAD_RANGE_SIZE,
+            this::setSnapshotFileDownloadRangeSize
+        );
+        clusterSettings.addSettingsUpdateConsumer(
+            INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS,
+            this::setMaxConcurrentSnapshotFileRangeDownloads
+        );
+        clusterSettings.addSettingsUpdateConsumer(
+            INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE,
+            maxSnapshotFileRangeDownloadsPerNodeSemaphore::setMaxPermits
+        );
     }
 
     public RateLimiter rateLimiter() {
@@ -412,6 +471,35 @@ public class RecoverySettings {
         this.maxSnapshotFileDownloadsPerNodeSemaphore.setMaxPermits(maxConcurrentSnapshotFileDownloadsPerNode);
     }
 
+    public ByteSizeValue getSnapshotFileDownloadRangeSize() {
+        return snapshotFileDownloadRangeSize;
+    }
+
+    private void setSnapshotFileDownloadRangeSize(ByteSizeValue snapshotFileDownloadRangeSize) {
+        this.snapshotFileDownloadRangeSize = snapshotFileDownloadRangeSize;
+    }
+
+    public int getMaxConcurrentSnapshotFileRangeDownloads() {
+        return maxConcurrentSnapshotFileRangeDownloads;
+    }
+
+    private void setMaxConcurrentSnapshotFileRangeDownloads(int maxConcurrentSnapshotFileRangeDownloads) {
+        this.maxConcurrentSnapshotFileRangeDownloads = maxConcurrentSnapshotFileRangeDownloads;
+    }
+
+    /**
+     * Tries to acquire a permit to read a range of a file from a snapshot concurrently with the other ranges of the file.
+     *
+     * @return a {@link Releasable} that releases the permit, or {@code null} if too many ranges are already being read on this node
+     */
+    @Nullable
+    public Releasable tryAcquireSnapshotFileRangeDownloadPermit() {
+        if (maxSnapshotFileRangeDownloadsPerNodeSemaphore.tryAcquire()) {
+            return Releasables.releaseOnce(maxSnapshotFileRangeDownloadsPerNodeSemaphore::release);
+        }
+        return null;
+    }
+
     @Nullable
     Releasable tryAcquireSnapshotDownloadPermits() {
         final int maxConcurrentSnapshotFileDownloads = getMaxConcurrentSnapshotFileDownloads();
@@ -12,14 +12,12 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
-import org.elasticsearch.index.snapshots.blobstore.SlicedInputStream;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.Objects;
 import java.util.function.LongConsumer;
@@ -46,12 +44,7 @@ public class SnapshotFilesProvider {
             inputStream = new ByteArrayInputStream(content.bytes, content.offset, content.length);
         } else {
             BlobContainer container = blobStoreRepository.shardContainer(indexId, shardId.id());
-            inputStream = new SlicedInputStream(fileInfo.numberOfParts()) {
-                @Override
-                protected InputStream openSlice(int slice) throws IOException {
-                    return container.readBlob(fileInfo.partName(slice));
-                }
-            };
+            inputStream = blobStoreRepository.openSnapshotFile(container, fileInfo, () -> {});
         }
         return blobStoreRepository.maybeRateLimitRestores(inputStream, rateLimiterListener::accept);
     }
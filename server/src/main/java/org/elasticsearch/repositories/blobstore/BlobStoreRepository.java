@@ -54,6 +54,8 @@ import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.BlobStore;
 import org.elasticsearch.common.blobstore.DeleteResult;
 import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
@@ -74,6 +76,7 @@ import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardRestoreFailedException;
@@ -81,11 +84,13 @@ import org.elasticsearch.index.snapshots.IndexShardSnapshotFailedException;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.ParallelRangeInputStream;
 import org.elasticsearch.index.snapshots.blobstore.RateLimitingInputStream;
 import org.elasticsearch.index.snapshots.blobstore.SlicedInputStream;
 import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.repositories.FinalizeSnapshotContext;
@@ -254,10 +259,36 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING = Setting.boolSetting("use_for_peer_recovery", false);
 
+    /**
+     * Setting that enables storing the data files of shard snapshots as content-defined chunks (see {@link ContentDefinedChunker}), so
+     * that chunks that are identical across the files of a shard and across its snapshots are only uploaded and stored once. Chunks
+     * are not shared between shards, which would require reference counting them across the shard level metadata of the repository.
+     */
+    public static final Setting<Boolean> CONTENT_DEFINED_CHUNKING_SETTING = Setting.boolSetting(
+        "content_defined_chunking",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Setting that defines the expected average size of the chunks when {@link #CONTENT_DEFINED_CHUNKING_SETTING} is enabled.
+     */
+    public static final Setting<ByteSizeValue> CONTENT_DEFINED_CHUNKING_AVERAGE_CHUNK_SIZE_SETTING = Setting.byteSizeSetting(
+        "content_defined_chunking.average_chunk_size",
+        new ByteSizeValue(4, ByteSizeUnit.MB),
+        new ByteSizeValue(64, ByteSizeUnit.KB),
+        new ByteSizeValue(256, ByteSizeUnit.MB),
+        Setting.Property.NodeScope
+    );
+
     protected final boolean supportURLRepo;
 
     private final boolean compress;
 
+    private final boolean contentDefinedChunking;
+
+    private final int averageChunkSize;
+
     private final boolean cacheRepositoryData;
 
     private volatile RateLimiter snapshotRateLimiter;
@@ -395,6 +426,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         this.bigArrays = bigArrays;
         this.recoverySettings = recoverySettings;
         this.compress = COMPRESS_SETTING.get(metadata.settings());
+        this.contentDefinedChunking = CONTENT_DEFINED_CHUNKING_SETTING.get(metadata.settings());
+        this.averageChunkSize = Math.toIntExact(CONTENT_DEFINED_CHUNKING_AVERAGE_CHUNK_SIZE_SETTING.get(metadata.settings()).getBytes());
         this.supportURLRepo = SUPPORT_URL_REPO.get(metadata.settings());
         snapshotRateLimiter = getRateLimiter(metadata.settings(), MAX_SNAPSHOT_BYTES_PER_SEC);
         restoreRateLimiter = getRateLimiter(metadata.settings(), MAX_RESTORE_BYTES_PER_SEC);
@@ -2678,6 +2711,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             long indexIncrementalSize = 0;
             long indexTotalFileSize = 0;
             final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot = new LinkedBlockingQueue<>();
+            // the files to store as chunks, which are split into chunks by the workers that upload them
+            final Set<String> filesToChunk = new HashSet<>();
 
             if (isSearchableSnapshotStore(store.indexSettings().getSettings())) {
                 indexCommitPointFiles = Collections.emptyList();
@@ -2697,6 +2732,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         throw new IndexShardSnapshotFailedException(shardId, "Failed to get store file metadata", e);
                     }
                 }
+                final boolean chunkFiles = contentDefinedChunking
+                    && SnapshotsService.useChunkedFileInfos(context.getRepositoryMetaVersion());
                 for (String fileName : fileNames) {
                     if (snapshotStatus.isAborted()) {
                         logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileName);
@@ -2727,12 +2764,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     if (existingFileInfo == null) {
                         indexIncrementalFileCount++;
                         indexIncrementalSize += md.length();
-                        // create a new FileInfo
-                        BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
-                            (needsWrite ? UPLOADED_DATA_BLOB_PREFIX : VIRTUAL_DATA_BLOB_PREFIX) + UUIDs.randomBase64UUID(),
+                        final String blobName = (needsWrite ? UPLOADED_DATA_BLOB_PREFIX : VIRTUAL_DATA_BLOB_PREFIX)
+                            + UUIDs.randomBase64UUID();
+                        // create a new FileInfo, files that are stored as chunks get their chunks once they are uploaded
+                        final BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
+                            blobName,
                             md,
                             chunkSize()
                         );
+                        if (needsWrite && chunkFiles && md.length() > 0L) {
+                            filesToChunk.add(blobName);
+                        }
                         indexCommitPointFiles.add(snapshotFileInfo);
                         if (needsWrite) {
                             filesToSnapshot.add(snapshotFileInfo);
@@ -2761,49 +2803,49 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final ShardGeneration indexGeneration;
             final boolean writeShardGens = SnapshotsService.useShardGenerations(context.getRepositoryMetaVersion());
             final boolean writeFileInfoWriterUUID = SnapshotsService.includeFileInfoWriterUUID(context.getRepositoryMetaVersion());
-            // build a new BlobStoreIndexShardSnapshot, that includes this one and all the saved ones
-            List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
-            newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), indexCommitPointFiles, context.stateIdentifier()));
-            for (SnapshotFiles point : snapshots) {
-                newSnapshotsList.add(point);
-            }
-            final BlobStoreIndexShardSnapshots updatedBlobStoreIndexShardSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
-            final Runnable afterWriteSnapBlob;
+            final Map<String, String> serializationParams = Collections.singletonMap(
+                BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
+                Boolean.toString(writeFileInfoWriterUUID)
+            );
+            // the files that were split into chunks by the upload workers, by blob name
+            final Map<String, BlobStoreIndexShardSnapshot.FileInfo> chunkedFiles = ConcurrentCollections.newConcurrentMap();
+            final Consumer<List<BlobStoreIndexShardSnapshot.FileInfo>> writeShardIndexBlob;
+            final Consumer<List<BlobStoreIndexShardSnapshot.FileInfo>> afterWriteSnapBlob;
             if (writeShardGens) {
-                // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
-                // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
-                // reference a generation that has not had all its files fully upload.
+                // When using shard generations we can safely write the index-${uuid} blob at any point before the shard snapshot
+                // completes since the uuid named blob will simply not be referenced in case of error and thus we will never
+                // reference a generation that has not had all its files fully upload. It is written once the files are uploaded
+                // since the chunks of the files that are stored as chunks are only known then.
                 indexGeneration = ShardGeneration.newGeneration();
-                try {
-                    final Map<String, String> serializationParams = Collections.singletonMap(
-                        BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
-                        Boolean.toString(writeFileInfoWriterUUID)
-                    );
-                    INDEX_SHARD_SNAPSHOTS_FORMAT.write(
-                        updatedBlobStoreIndexShardSnapshots,
-                        shardContainer,
-                        indexGeneration.toBlobNamePart(),
-                        compress,
-                        serializationParams
-                    );
-                } catch (IOException e) {
-                    throw new IndexShardSnapshotFailedException(
-                        shardId,
-                        "Failed to write shard level snapshot metadata for ["
-                            + snapshotId
-                            + "] to ["
-                            + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
-                            + "]",
-                        e
-                    );
-                }
-                afterWriteSnapBlob = () -> {};
+                writeShardIndexBlob = snapshotFiles -> {
+                    try {
+                        INDEX_SHARD_SNAPSHOTS_FORMAT.write(
+                            updatedShardSnapshots(snapshots, snapshotId, snapshotFiles, context.stateIdentifier()),
+                            shardContainer,
+                            indexGeneration.toBlobNamePart(),
+                            compress,
+                            serializationParams
+                        );
+                    } catch (IOException e) {
+                        throw new IndexShardSnapshotFailedException(
+                            shardId,
+                            "Failed to write shard level snapshot metadata for ["
+                                + snapshotId
+                                + "] to ["
+                                + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
+                                + "]",
+                            e
+                        );
+                    }
+                };
+                afterWriteSnapBlob = snapshotFiles -> {};
             } else {
                 // When not using shard generations we can only write the index-${N} blob after all other work for this shard has
                 // completed.
                 // Also, in case of numeric shard generations the data node has to take care of deleting old shard generations.
                 final long newGen = Long.parseLong(fileListGeneration.toBlobNamePart()) + 1;
                 indexGeneration = new ShardGeneration(newGen);
+                writeShardIndexBlob = snapshotFiles -> {};
                 // Delete all previous index-N blobs
                 final List<String> blobsToDelete = blobs.stream()
                     .filter(blob -> blob.startsWith(SNAPSHOT_INDEX_PREFIX))
@@ -2816,13 +2858,14 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         + indexGeneration
                         + "] when deleting index-N blobs "
                         + blobsToDelete;
-                afterWriteSnapBlob = () -> {
+                afterWriteSnapBlob = snapshotFiles -> {
                     try {
-                        final Map<String, String> serializationParams = Collections.singletonMap(
-                            BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
-                            Boolean.toString(writeFileInfoWriterUUID)
+                        writeShardIndexBlobAtomic(
+                            shardContainer,
+                            newGen,
+                            updatedShardSnapshots(snapshots, snapshotId, snapshotFiles, context.stateIdentifier()),
+                            serializationParams
                         );
-                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots, serializationParams);
                     } catch (IOException e) {
                         throw new IndexShardSnapshotFailedException(
                             shardId,
@@ -2851,6 +2894,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
             final StepListener<Collection<Void>> allFilesUploadedListener = new StepListener<>();
             allFilesUploadedListener.whenComplete(v -> {
+                final List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = chunkedFiles.isEmpty()
+                    ? indexCommitPointFiles
+                    : indexCommitPointFiles.stream().map(f -> chunkedFiles.getOrDefault(f.name(), f)).collect(Collectors.toList());
+                writeShardIndexBlob.accept(snapshotFiles);
                 final IndexShardSnapshotStatus.Copy lastSnapshotStatus = snapshotStatus.moveToFinalize(snapshotIndexCommit.getGeneration());
 
                 // now create and write the commit point
@@ -2858,7 +2905,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 final BlobStoreIndexShardSnapshot blobStoreIndexShardSnapshot = new BlobStoreIndexShardSnapshot(
                     snapshotId.getName(),
                     lastSnapshotStatus.getIndexVersion(),
-                    indexCommitPointFiles,
+                    snapshotFiles,
                     lastSnapshotStatus.getStartTime(),
                     threadPool.absoluteTimeInMillis() - lastSnapshotStatus.getStartTime(),
                     lastSnapshotStatus.getIncrementalFileCount(),
@@ -2866,10 +2913,6 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 );
                 try {
                     final String snapshotUUID = snapshotId.getUUID();
-                    final Map<String, String> serializationParams = Collections.singletonMap(
-                        BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
-                        Boolean.toString(writeFileInfoWriterUUID)
-                    );
                     INDEX_SHARD_SNAPSHOT_FORMAT.write(
                         blobStoreIndexShardSnapshot,
                         shardContainer,
@@ -2880,7 +2923,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 } catch (IOException e) {
                     throw new IndexShardSnapshotFailedException(shardId, "Failed to write commit point", e);
                 }
-                afterWriteSnapBlob.run();
+                afterWriteSnapBlob.accept(snapshotFiles);
                 final ShardSnapshotResult shardSnapshotResult = new ShardSnapshotResult(
                     indexGeneration,
                     ByteSizeValue.ofBytes(blobStoreIndexShardSnapshot.totalSize()),
@@ -2894,23 +2937,84 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 return;
             }
             final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+            final FileChunking fileChunking;
+            if (filesToChunk.isEmpty()) {
+                fileChunking = null;
+            } else {
+                final ByteSizeValue maxChunkSize = chunkSize();
+                fileChunking = new FileChunking(
+                    new ContentDefinedChunker(averageChunkSize, maxChunkSize == null ? Long.MAX_VALUE : maxChunkSize.getBytes()),
+                    filesToChunk,
+                    snapshots,
+                    chunkedFiles
+                );
+            }
             // Start as many workers as fit into the snapshot pool at once at the most
             final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), indexIncrementalFileCount);
             final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesUploadedListener);
             for (int i = 0; i < workers; ++i) {
-                executeOneFileSnapshot(store, snapshotId, context.indexId(), snapshotStatus, filesToSnapshot, executor, filesListener);
+                executeOneFileSnapshot(
+                    store,
+                    snapshotId,
+                    context.indexId(),
+                    snapshotStatus,
+                    filesToSnapshot,
+                    fileChunking,
+                    executor,
+                    filesListener
+                );
             }
         } catch (Exception e) {
             context.onFailure(e);
         }
     }
 
+    /**
+     * Builds the shard level metadata that includes the given snapshot of the shard and all the existing ones.
+     */
+    private static BlobStoreIndexShardSnapshots updatedShardSnapshots(
+        BlobStoreIndexShardSnapshots snapshots,
+        SnapshotId snapshotId,
+        List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles,
+        @Nullable String shardStateIdentifier
+    ) {
+        final List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
+        newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), snapshotFiles, shardStateIdentifier));
+        for (SnapshotFiles point : snapshots) {
+            newSnapshotsList.add(point);
+        }
+        return new BlobStoreIndexShardSnapshots(newSnapshotsList);
+    }
+
+    /**
+     * The state that the upload workers of a shard snapshot share to store files as content-defined chunks. Chunks are only
+     * deduplicated within the shard: against the chunks that its earlier snapshots reference and between the files of this
+     * snapshot, since chunks live in the shard container and are deleted with the shard level metadata that references them.
+     */
+    private record FileChunking(
+        ContentDefinedChunker chunker,
+        Set<String> filesToChunk,
+        BlobStoreIndexShardSnapshots existingSnapshots,
+        Map<String, BlobStoreIndexShardSnapshot.FileInfo> chunkedFiles,
+        Set<String> newChunks
+    ) {
+        FileChunking(
+            ContentDefinedChunker chunker,
+            Set<String> filesToChunk,
+            BlobStoreIndexShardSnapshots existingSnapshots,
+            Map<String, BlobStoreIndexShardSnapshot.FileInfo> chunkedFiles
+        ) {
+            this(chunker, filesToChunk, existingSnapshots, chunkedFiles, ConcurrentCollections.newConcurrentSet());
+        }
+    }
+
     private void executeOneFileSnapshot(
         Store store,
         SnapshotId snapshotId,
         IndexId indexId,
         IndexShardSnapshotStatus snapshotStatus,
         BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot,
+        @Nullable FileChunking fileChunking,
         Executor executor,
         ActionListener<Void> listener
     ) throws InterruptedException {
@@ -2921,13 +3025,45 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         } else {
             executor.execute(ActionRunnable.wrap(listener, l -> {
                 try (Releasable ignored = incrementStoreRef(store, snapshotStatus, shardId)) {
-                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
-                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, l);
+                    if (fileChunking != null && fileChunking.filesToChunk().contains(snapshotFileInfo.name())) {
+                        snapshotChunkedFile(snapshotFileInfo, fileChunking, indexId, shardId, snapshotId, snapshotStatus, store);
+                    } else {
+                        snapshotFile(snapshotFileInfo, Collections.emptySet(), indexId, shardId, snapshotId, snapshotStatus, store);
+                    }
+                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, fileChunking, executor, l);
                 }
             }));
         }
     }
 
+    /**
+     * Splits the given file into content-defined chunks and uploads the chunks that neither the earlier snapshots of the shard nor
+     * the other files of this snapshot already stored.
+     */
+    private void snapshotChunkedFile(
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        FileChunking fileChunking,
+        IndexId indexId,
+        ShardId shardId,
+        SnapshotId snapshotId,
+        IndexShardSnapshotStatus snapshotStatus,
+        Store store
+    ) {
+        final BlobStoreIndexShardSnapshot.FileInfo chunkedFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
+            fileInfo.name(),
+            fileInfo.metadata(),
+            chunkFile(fileChunking.chunker(), fileInfo.metadata(), store, snapshotId, snapshotStatus)
+        );
+        final Set<String> chunksToUpload = new HashSet<>();
+        for (BlobStoreIndexShardSnapshot.Chunk chunk : chunkedFileInfo.chunks()) {
+            if (fileChunking.existingSnapshots().isReferencedChunk(chunk.name()) == false && fileChunking.newChunks().add(chunk.name())) {
+                chunksToUpload.add(chunk.name());
+            }
+        }
+        snapshotFile(chunkedFileInfo, chunksToUpload, indexId, shardId, snapshotId, snapshotStatus, store);
+        fileChunking.chunkedFiles().put(chunkedFileInfo.name(), chunkedFileInfo);
+    }
+
     private static Releasable incrementStoreRef(Store store, IndexShardSnapshotStatus snapshotStatus, ShardId shardId) {
         if (store.tryIncRef() == false) {
             if (snapshotStatus.isAborted()) {
@@ -3066,13 +3202,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             indexOutput.writeBytes(hash.bytes, hash.offset, hash.length);
                             recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), hash.length);
                         } else {
-                            try (InputStream stream = maybeRateLimitRestores(new SlicedInputStream(fileInfo.numberOfParts()) {
-                                @Override
-                                protected InputStream openSlice(int slice) throws IOException {
-                                    ensureNotClosing(store);
-                                    return container.readBlob(fileInfo.partName(slice));
-                                }
-                            })) {
+                            try (
+                                InputStream stream = maybeRateLimitRestores(
+                                    openSnapshotFile(container, fileInfo, () -> ensureNotClosing(store))
+                                )
+                            ) {
                                 final byte[] buffer = new byte[Math.toIntExact(Math.min(bufferSize, fileInfo.length()))];
                                 int length;
                                 while ((length = stream.read(buffer)) > 0) {
@@ -3125,6 +3259,55 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         });
     }
 
+    /**
+     * Opens a stream over the contents of the given file of a shard snapshot stored in the given container. Files that are larger than
+     * `indices.recovery.snapshot_file_download_range_size` are read with up to
+     * `indices.recovery.max_concurrent_snapshot_file_range_downloads` concurrent ranged reads, which stop once the returned stream is
+     * closed. The ranges that are read ahead are accounted in the request circuit breaker. Other files are read sequentially one part
+     * after the other.
+     *
+     * @param ensureOpen called before each part or range of the file is read, in the background or not, may throw to abort the read
+     */
+    public InputStream openSnapshotFile(BlobContainer container, BlobStoreIndexShardSnapshot.FileInfo fileInfo, Runnable ensureOpen) {
+        final long rangeSize = recoverySettings.getSnapshotFileDownloadRangeSize().getBytes();
+        final int maxConcurrentRanges = recoverySettings.getMaxConcurrentSnapshotFileRangeDownloads();
+        if (maxConcurrentRanges > 1 && fileInfo.length() > rangeSize) {
+            return new ParallelRangeInputStream(
+                ParallelRangeInputStream.ranges(fileInfo, rangeSize),
+                maxConcurrentRanges,
+                threadPool.generic(),
+                this::tryAcquireSnapshotFileRangePermit,
+                container::readBlob,
+                ensureOpen::run
+            );
+        }
+        return new SlicedInputStream(fileInfo.numberOfParts()) {
+            @Override
+            protected InputStream openSlice(int slice) throws IOException {
+                ensureOpen.run();
+                return container.readBlob(fileInfo.partName(slice));
+            }
+        };
+    }
+
+    @Nullable
+    private Releasable tryAcquireSnapshotFileRangePermit(long length) {
+        final Releasable permit = recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit();
+        final CircuitBreakerService breakerService = bigArrays.breakerService();
+        if (permit == null || breakerService == null) {
+            return permit;
+        }
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(length, "<snapshot_file_range>");
+        } catch (CircuitBreakingException e) {
+            // the range is read by the consuming thread without buffering it instead
+            permit.close();
+            return null;
+        }
+        return Releasables.releaseOnce(() -> Releasables.close(() -> breaker.addWithoutBreaking(-length), permit));
+    }
+
     private static InputStream maybeRateLimit(
         InputStream stream,
         Supplier<RateLimiter> rateLimiterSupplier,
@@ -3339,7 +3522,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         && survivingSnapshotUUIDs.contains(
                             blob.substring(SNAPSHOT_PREFIX.length(), blob.length() - ".dat".length())
                         ) == false)
-                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX) && updatedSnapshots.findNameFile(canonicalName(blob)) == null)
+                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX)
+                        && updatedSnapshots.findNameFile(canonicalName(blob)) == null
+                        && updatedSnapshots.isReferencedChunk(blob) == false)
                     || FsBlobContainer.isTempBlobName(blob)
             )
             .collect(Collectors.toList());
@@ -3436,9 +3621,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     /**
      * Snapshot individual file
      * @param fileInfo file to be snapshotted
+     * @param chunksToUpload the chunks of the file to upload if the file is stored as chunks, other chunks are already stored
      */
     private void snapshotFile(
         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        Set<String> chunksToUpload,
         IndexId indexId,
         ShardId shardId,
         SnapshotId snapshotId,
@@ -3450,31 +3637,21 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
             for (int i = 0; i < fileInfo.numberOfParts(); i++) {
                 final long partBytes = fileInfo.partBytes(i);
+                final String partName = fileInfo.partName(i);
+                if (fileInfo.isChunked() && chunksToUpload.contains(partName) == false) {
+                    // skip over the chunk, the verifying input still reads it to verify the checksum of the whole file
+                    indexInput.seek(indexInput.getFilePointer() + partBytes);
+                    continue;
+                }
 
                 // Make reads abortable by mutating the snapshotStatus object
-                final InputStream inputStream = new FilterInputStream(
-                    maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, partBytes))
-                ) {
-                    @Override
-                    public int read() throws IOException {
-                        checkAborted();
-                        return super.read();
-                    }
-
-                    @Override
-                    public int read(byte[] b, int off, int len) throws IOException {
-                        checkAborted();
-                        return super.read(b, off, len);
-                    }
-
-                    private void checkAborted() {
-                        if (snapshotStatus.isAborted()) {
-                            logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
-                            throw new AbortedSnapshotException();
-                        }
-                    }
-                };
-                final String partName = fileInfo.partName(i);
+                final InputStream inputStream = abortableInputStream(
+                    maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, partBytes)),
+                    shardId,
+                    snapshotId,
+                    fileInfo.physicalName(),
+                    snapshotStatus
+                );
                 logger.trace(() -> new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path()));
                 shardContainer.writeBlob(partName, inputStream, partBytes, false);
             }
@@ -3487,6 +3664,59 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Splits the given file of the store into content-defined chunks, reading it fully to verify its checksum. The caller must hold
+     * a reference to the store.
+     */
+    private static List<BlobStoreIndexShardSnapshot.Chunk> chunkFile(
+        ContentDefinedChunker chunker,
+        StoreFileMetadata md,
+        Store store,
+        SnapshotId snapshotId,
+        IndexShardSnapshotStatus snapshotStatus
+    ) {
+        final ShardId shardId = store.shardId();
+        try (IndexInput indexInput = store.openVerifyingInput(md.name(), IOContext.READONCE, md)) {
+            final List<BlobStoreIndexShardSnapshot.Chunk> chunks = chunker.chunk(
+                abortableInputStream(new InputStreamIndexInput(indexInput, md.length()), shardId, snapshotId, md.name(), snapshotStatus)
+            );
+            Store.verify(indexInput);
+            return chunks;
+        } catch (IOException e) {
+            failStoreIfCorrupted(store, e);
+            throw new IndexShardSnapshotFailedException(shardId, "Failed to split file [" + md.name() + "] into chunks", e);
+        }
+    }
+
+    private static InputStream abortableInputStream(
+        InputStream stream,
+        ShardId shardId,
+        SnapshotId snapshotId,
+        String physicalName,
+        IndexShardSnapshotStatus snapshotStatus
+    ) {
+        return new FilterInputStream(stream) {
+            @Override
+            public int read() throws IOException {
+                checkAborted();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkAborted();
+                return super.read(b, off, len);
+            }
+
+            private void checkAborted() {
+                if (snapshotStatus.isAborted()) {
+                    logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, physicalName);
+                    throw new AbortedSnapshotException();
+                }
+            }
+        };
+    }
+
     private static void failStoreIfCorrupted(Store store, Exception e) {
         if (Lucene.isCorruptionException(e)) {
             try {
@@ -0,0 +1,117 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits files into chunks whose boundaries depend on their contents rather than on fixed offsets, so that the same sequences of bytes
+ * are split into the same chunks even if they appear in different files or at different offsets of a file. Chunks are named after the
+ * SHA-256 digest of their contents, which allows the {@link BlobStoreRepository} to only store identical chunks once.
+ *
+ * Boundaries are found with a gear rolling hash: a chunk ends after a byte if the highest bits of the hash of the last 64 bytes are all
+ * zero, as long as the chunk is at least a quarter of the average chunk size. Chunks end at four times the average chunk size at the
+ * latest, or at the given maximum size if it is smaller.
+ */
+final class ContentDefinedChunker {
+
+    /**
+     * Prefix of the names of chunk blobs, which makes them data blobs that are cleaned up once they are not referenced any more.
+     */
+    static final String CHUNK_BLOB_PREFIX = BlobStoreRepository.UPLOADED_DATA_BLOB_PREFIX + "chunk-";
+
+    /**
+     * Random values that every possible byte contributes to the rolling hash. These must never change, otherwise files would be split
+     * differently than in earlier snapshots and their chunks would not be deduplicated any more.
+     */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < GEAR.length; i++) {
+            // splitmix64
+            seed += 0x9E3779B97F4A7C15L;
+            long z = seed;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long boundaryMask;
+
+    /**
+     * @param averageChunkSize the expected average size of the chunks, rounded down to a power of two
+     * @param maxChunkSize     the maximum size of the chunks, for instance because of the maximum size of the blobs of the repository
+     */
+    ContentDefinedChunker(int averageChunkSize, long maxChunkSize) {
+        if (averageChunkSize < 64) {
+            throw new IllegalArgumentException("average chunk size must be at least [64] bytes but was [" + averageChunkSize + "]");
+        }
+        final int average = Integer.highestOneBit(averageChunkSize);
+        this.minChunkSize = average / 4;
+        this.maxChunkSize = Math.toIntExact(Math.max(minChunkSize, Math.min(4L * average, maxChunkSize)));
+        // bytes after the minimum size end a chunk with a probability of about 1 / (average - minimum)
+        final int boundaryBits = Integer.numberOfTrailingZeros(Integer.highestOneBit(average - minChunkSize));
+        this.boundaryMask = -1L << (Long.SIZE - boundaryBits);
+    }
+
+    /**
+     * Reads the given stream fully and returns the chunks it is made of, in order.
+     */
+    List<BlobStoreIndexShardSnapshot.Chunk> chunk(InputStream input) throws IOException {
+        final List<BlobStoreIndexShardSnapshot.Chunk> chunks = new ArrayList<>();
+        final MessageDigest digest = MessageDigests.sha256();
+        final byte[] buffer = new byte[Math.min(maxChunkSize, 64 * 1024)];
+        long hash = 0L;
+        int chunkSize = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            int sliceStart = 0;
+            for (int i = 0; i < read; i++) {
+                hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+                chunkSize++;
+                if (chunkSize >= maxChunkSize || (chunkSize >= minChunkSize && (hash & boundaryMask) == 0L)) {
+                    digest.update(buffer, sliceStart, i + 1 - sliceStart);
+                    chunks.add(new BlobStoreIndexShardSnapshot.Chunk(chunkName(digest), chunkSize));
+                    sliceStart = i + 1;
+                    hash = 0L;
+                    chunkSize = 0;
+                }
+            }
+            digest.update(buffer, sliceStart, read - sliceStart);
+        }
+        if (chunkSize > 0) {
+            chunks.add(new BlobStoreIndexShardSnapshot.Chunk(chunkName(digest), chunkSize));
+        }
+        return chunks;
+    }
+
+    int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    private static String chunkName(MessageDigest digest) {
+        // digest() also resets the digest for the next chunk
+        return CHUNK_BLOB_PREFIX + MessageDigests.toHexString(digest.digest());
+    }
+}
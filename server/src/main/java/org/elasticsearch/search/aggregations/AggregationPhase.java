@@ -9,6 +9,7 @@ package org.elasticsearch.search.aggregations;
 
 import org.apache.lucene.search.Collector;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.query.CollectorResult;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
@@ -37,9 +38,14 @@ public class AggregationPhase {
         } catch (IOException e) {
             throw new AggregationInitializationException("Could not initialize aggregators", e);
         }
-        Collector collector = context.getProfilers() == null
-            ? bucketCollector
-            : new InternalProfileCollector(bucketCollector, CollectorResult.REASON_AGGREGATION, List.of());
+        Collector collector;
+        if (context.getProfilers() != null) {
+            collector = new InternalProfileCollector(bucketCollector, CollectorResult.REASON_AGGREGATION, List.of());
+        } else if (context.aggregations().leafAggregationsCache() != null) {
+            collector = new CachingLeafAggregationsCollector(context, bucketCollector, context.aggregations().leafAggregationsCache());
+        } else {
+            collector = bucketCollector;
+        }
         context.queryCollectors().put(AggregationPhase.class, collector);
     }
 
@@ -54,25 +60,59 @@ public class AggregationPhase {
             return;
         }
 
-        Aggregator[] aggregators = context.aggregations().aggregators();
-
-        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
         if (context.aggregations().factories().context() != null) {
             // Rollup can end up here with a null context but not null factories.....
+            // the buckets of all the slices count towards the limit, like if the shard was collected by a single set of aggregators
             context.aggregations().factories().context().multiBucketConsumer().reset();
         }
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
+        List<Aggregator[]> sliceAggregators = context.aggregations().sliceAggregators();
+        List<InternalAggregations> partialAggregations = new ArrayList<>();
+        if (sliceAggregators.isEmpty()) {
+            partialAggregations.add(buildTopLevel(context, context.aggregations().aggregators()));
+        } else {
+            // each leaf slice was collected by its own aggregators
+            for (Aggregator[] aggregators : sliceAggregators) {
+                partialAggregations.add(buildTopLevel(context, aggregators));
+            }
+        }
+        if (context.queryCollectors().get(AggregationPhase.class) instanceof CachingLeafAggregationsCollector leafCollector) {
+            // the last leaf must not be cached if the query timed out while collecting it
             try {
-                aggregator.postCollection();
-                aggregations.add(aggregator.buildTopLevel());
+                partialAggregations.addAll(leafCollector.finish(context.queryResult().searchTimedOut() == false));
             } catch (IOException e) {
-                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+                throw new AggregationExecutionException("Failed to build cacheable leaf aggregations", e);
             }
         }
-        context.queryResult().aggregations(InternalAggregations.from(aggregations));
+
+        if (partialAggregations.size() == 1) {
+            context.queryResult().aggregations(partialAggregations.get(0));
+        } else {
+            // reduce the partial results locally to the shard-level result
+            AggregationContext aggregationContext = context.aggregations().factories().context();
+            // none of the aggregations that can be collected per slice or per leaf need scripts for a partial reduction
+            AggregationReduceContext reduceContext = new AggregationReduceContext.ForPartial(
+                aggregationContext.bigArrays(),
+                null,
+                context::isCancelled
+            );
+            context.queryResult().aggregations(InternalAggregations.reduce(partialAggregations, reduceContext));
+        }
 
         // disable aggregations so that they don't run on next pages in case of scrolling
         context.aggregations(null);
         context.queryCollectors().remove(AggregationPhase.class);
     }
+
+    static InternalAggregations buildTopLevel(SearchContext context, Aggregator[] aggregators) {
+        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            try {
+                aggregator.postCollection();
+                aggregations.add(aggregator.buildTopLevel());
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+            }
+        }
+        return InternalAggregations.from(aggregations);
+    }
 }
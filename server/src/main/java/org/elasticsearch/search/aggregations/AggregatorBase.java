@@ -46,6 +46,7 @@ public abstract class AggregatorBase extends Aggregator {
 
     private Map<String, Aggregator> subAggregatorbyName;
     private long requestBytesUsed;
+    private BlockBufferingLeafBucketCollector blockBuffer;
 
     /**
      * Constructs a new Aggregator.
@@ -211,9 +212,26 @@ public abstract class AggregatorBase extends Aggregator {
      */
     @Override
     public final LeafBucketCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        flushBlockBuffer();
         preGetSubLeafCollectors(ctx);
         final LeafBucketCollector sub = collectableSubAggregators.getLeafCollector(ctx);
-        return getLeafCollector(ctx, sub);
+        final LeafBucketCollector collector = getLeafCollector(ctx, sub);
+        if (parent == null
+            && collector.supportsBlockCollection()
+            && scoreMode().needsScores() == false
+            && context.enableBlockCollection()) {
+            // top level aggregators always collect in the same bucket so the documents of the segment can be buffered
+            blockBuffer = new BlockBufferingLeafBucketCollector(collector);
+            return blockBuffer;
+        }
+        return collector;
+    }
+
+    private void flushBlockBuffer() throws IOException {
+        if (blockBuffer != null) {
+            blockBuffer.flush();
+            blockBuffer = null;
+        }
     }
 
     /**
@@ -277,6 +295,7 @@ public abstract class AggregatorBase extends Aggregator {
      */
     @Override
     public void postCollection() throws IOException {
+        flushBlockBuffer();
         // post-collect this agg before subs to make it possible to buffer and then replay in postCollection()
         doPostCollection();
         collectableSubAggregators.postCollection();
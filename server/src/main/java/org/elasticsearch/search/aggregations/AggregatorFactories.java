@@ -243,6 +243,19 @@ public class AggregatorFactories {
         return createSubAggregators(null, CardinalityUpperBound.ONE);
     }
 
+    /**
+     * Returns true if all aggregators, including their sub-aggregators, can be created once per leaf slice of a concurrent
+     * search. See {@link AggregatorFactory#supportsConcurrentCollection()}.
+     */
+    public boolean supportsConcurrentCollection() {
+        for (AggregatorFactory factory : factories) {
+            if (factory.supportsConcurrentCollection() == false || factory.factories.supportsConcurrentCollection() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return the number of sub-aggregator factories
      */
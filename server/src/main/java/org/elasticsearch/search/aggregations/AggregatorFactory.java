@@ -71,6 +71,15 @@ public abstract class AggregatorFactory {
         return parent;
     }
 
+    /**
+     * Returns true if the aggregator of this factory can be created once per leaf slice of a concurrent search, the
+     * shard-level result being the partial reduction of the results of all slices. Sub-aggregations are checked
+     * separately by {@link AggregatorFactories#supportsConcurrentCollection()}.
+     */
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
+
     /**
      * Returns the aggregation subtype for nodes usage stats.
      * <p>
@@ -0,0 +1,70 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.search.Scorable;
+
+import java.io.IOException;
+
+/**
+ * A {@link LeafBucketCollector} that buffers the documents it collects and forwards them in blocks of up to
+ * {@link #BLOCK_SIZE} documents to {@link LeafBucketCollector#collectBlock}. Since the documents are collected after
+ * the query moved past them this must only wrap collectors that don't need scores, and {@link #flush()} must be called
+ * once the collection of the segment is done.
+ */
+final class BlockBufferingLeafBucketCollector extends LeafBucketCollector {
+
+    static final int BLOCK_SIZE = 128;
+
+    private final LeafBucketCollector delegate;
+    private final int[] docs = new int[BLOCK_SIZE];
+    private int count;
+    private long owningBucketOrd;
+
+    BlockBufferingLeafBucketCollector(LeafBucketCollector delegate) {
+        assert delegate.supportsBlockCollection();
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) throws IOException {
+        delegate.setScorer(scorer);
+    }
+
+    @Override
+    public void collect(int doc, long owningBucketOrd) throws IOException {
+        if (count == BLOCK_SIZE || (count > 0 && owningBucketOrd != this.owningBucketOrd)) {
+            flush();
+        }
+        this.owningBucketOrd = owningBucketOrd;
+        docs[count++] = doc;
+    }
+
+    @Override
+    public void collectBlock(int[] docs, int count, long owningBucketOrd) throws IOException {
+        flush();
+        delegate.collectBlock(docs, count, owningBucketOrd);
+    }
+
+    @Override
+    public boolean supportsBlockCollection() {
+        return true;
+    }
+
+    /**
+     * Collects the buffered documents.
+     */
+    void flush() throws IOException {
+        if (count > 0) {
+            final int toCollect = count;
+            // reset first so that a failing block isn't collected again
+            count = 0;
+            delegate.collectBlock(docs, toCollect, owningBucketOrd);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Collector} that collects every leaf that the {@link LeafAggregationsCache} can cache with its own set of top
+ * level aggregators and caches their partial results, and that skips the leaves whose partial results are already
+ * cached. The leaves that cannot be cached are collected by the shared top level aggregators of the request.
+ * <p>
+ * Leaves are collected sequentially, so the partial results of a leaf are built when the collection of the next leaf
+ * starts, or when {@link #finish(boolean)} is called for the last one.
+ */
+final class CachingLeafAggregationsCollector implements Collector {
+
+    private final SearchContext context;
+    private final BucketCollector shared;
+    private final LeafAggregationsCache cache;
+    private final List<InternalAggregations> leafAggregations = new ArrayList<>();
+
+    private LeafReaderContext pendingLeaf;
+    private Aggregator[] pendingAggregators;
+
+    CachingLeafAggregationsCollector(SearchContext context, BucketCollector shared, LeafAggregationsCache cache) {
+        this.context = context;
+        this.shared = shared;
+        this.cache = cache;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        finishPendingLeaf(true);
+        if (cache.isCacheable(ctx) == false) {
+            return shared.getLeafCollector(ctx);
+        }
+        InternalAggregations cached = cache.get(ctx);
+        if (cached != null) {
+            leafAggregations.add(cached);
+            throw new CollectionTerminatedException();
+        }
+        Aggregator[] aggregators = context.aggregations().factories().createTopLevelAggregators();
+        BucketCollector collector = MultiBucketCollector.wrap(true, List.of(aggregators));
+        collector.preCollection();
+        pendingLeaf = ctx;
+        pendingAggregators = aggregators;
+        return collector.getLeafCollector(ctx);
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return shared.scoreMode();
+    }
+
+    /**
+     * Builds the partial results of the last leaf that was collected and returns the partial results of all the leaves
+     * that were collected or loaded from the cache, excluding those of the shared aggregators.
+     *
+     * @param cacheLastLeaf whether the last leaf was fully collected and its partial results can be cached
+     */
+    List<InternalAggregations> finish(boolean cacheLastLeaf) throws IOException {
+        finishPendingLeaf(cacheLastLeaf);
+        return leafAggregations;
+    }
+
+    private void finishPendingLeaf(boolean cacheResults) throws IOException {
+        if (pendingLeaf == null) {
+            return;
+        }
+        InternalAggregations aggregations = AggregationPhase.buildTopLevel(context, pendingAggregators);
+        if (cacheResults) {
+            cache.put(pendingLeaf, aggregations);
+        }
+        leafAggregations.add(aggregations);
+        pendingLeaf = null;
+        pendingAggregators = null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Caches the partial aggregation results of a single shard request per leaf reader, so that only the leaves that
+ * changed since the request was last executed need to be collected.
+ */
+public interface LeafAggregationsCache {
+
+    /**
+     * Returns true if the partial aggregation results of the provided leaf can be cached. Leaves that cannot be cached
+     * are collected by the shared aggregators of the request.
+     */
+    boolean isCacheable(LeafReaderContext ctx);
+
+    /**
+     * Returns the cached partial aggregation results of the provided leaf, or null if there are none.
+     */
+    @Nullable
+    InternalAggregations get(LeafReaderContext ctx) throws IOException;
+
+    /**
+     * Caches the partial aggregation results of the provided leaf. The results must not be modified afterwards.
+     */
+    void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException;
+}
@@ -73,6 +73,31 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long owningBucketOrd) throws IOException;
 
+    /**
+     * Collect the first {@code count} documents of {@code docs}, which are in
+     * increasing order, in the bucket owned by {@code owningBucketOrd}.
+     * <p>
+     * The default implementation calls {@link #collect(int, long)} for every
+     * document. Collectors that {@link #supportsBlockCollection() support block
+     * collection} override it to decode the doc values of the whole block into
+     * primitive arrays and to accumulate them in tight loops, which is cheaper
+     * than reading and accumulating the values of each document in turn.
+     */
+    public void collectBlock(int[] docs, int count, long owningBucketOrd) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], owningBucketOrd);
+        }
+    }
+
+    /**
+     * Does this collector benefit from collecting blocks of documents through
+     * {@link #collectBlock}? If this returns true the documents of top level
+     * aggregators that don't need scores are buffered and collected in blocks.
+     */
+    public boolean supportsBlockCollection() {
+        return false;
+    }
+
     /**
      * Does this collector collect anything? If this returns true we can safely
      * just never call {@link #collect}.
@@ -7,6 +7,12 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The aggregation context that is part of the search context.
  */
@@ -14,6 +20,8 @@ public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
     private Aggregator[] aggregators;
+    private final List<Aggregator[]> sliceAggregators = new ArrayList<>();
+    private LeafAggregationsCache leafAggregationsCache;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -38,4 +46,58 @@ public class SearchContextAggregations {
     public void aggregators(Aggregator[] aggregators) {
         this.aggregators = aggregators;
     }
+
+    /**
+     * Returns true if the query phase may collect each leaf slice of a concurrent search with its own set of top level aggregators
+     * created by {@link #newSliceCollector()}. Profiled aggregations are always collected by a single set of aggregators.
+     */
+    public boolean supportsConcurrentCollection() {
+        return collectsLeavesIndependently() && leafAggregationsCache == null;
+    }
+
+    /**
+     * Returns true if the partial aggregation results of each leaf can be cached with a {@link LeafAggregationsCache}.
+     */
+    public boolean supportsLeafCaching() {
+        return collectsLeavesIndependently();
+    }
+
+    private boolean collectsLeavesIndependently() {
+        return factories.context() != null && factories.context().profiling() == false && factories.supportsConcurrentCollection();
+    }
+
+    /**
+     * Sets the cache of the partial aggregation results of each leaf, must be called before the aggregation phase starts.
+     */
+    public void leafAggregationsCache(LeafAggregationsCache leafAggregationsCache) {
+        assert supportsLeafCaching();
+        this.leafAggregationsCache = leafAggregationsCache;
+    }
+
+    @Nullable
+    public LeafAggregationsCache leafAggregationsCache() {
+        return leafAggregationsCache;
+    }
+
+    /**
+     * Creates a new set of top level aggregators that collects a single leaf slice of a concurrent search.
+     *
+     * @return the collector of the new aggregators, ready for collection
+     */
+    public BucketCollector newSliceCollector() throws IOException {
+        assert supportsConcurrentCollection();
+        Aggregator[] aggregators = factories.createTopLevelAggregators();
+        sliceAggregators.add(aggregators);
+        BucketCollector bucketCollector = MultiBucketCollector.wrap(true, List.of(aggregators));
+        bucketCollector.preCollection();
+        return bucketCollector;
+    }
+
+    /**
+     * The top level aggregators of each leaf slice of a concurrent search, empty if the aggregations were collected by
+     * {@link #aggregators()}.
+     */
+    public List<Aggregator[]> sliceAggregators() {
+        return sliceAggregators;
+    }
 }
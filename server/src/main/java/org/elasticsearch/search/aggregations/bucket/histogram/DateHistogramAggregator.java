@@ -7,9 +7,24 @@
  */
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.sandbox.search.IndexSortSortedNumericDocValuesRangeQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.common.Rounding;
 import org.elasticsearch.common.Rounding.DateTimeUnit;
@@ -43,6 +58,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
 
 /**
  * Aggregator for {@code date_histogram} that rounds values using
@@ -52,6 +68,14 @@ import java.util.function.BiConsumer;
  * {@link FromDateRange} is faster than {@link DateHistogramAggregator}
  * but {@linkplain DateHistogramAggregator} works when we can't precalculate
  * all of the {@link Rounding.Prepared#fixedRoundingPoints() fixed rounding points}.
+ * <p>
+ * When the index is sorted on the field that we aggregate the documents of each
+ * bucket are contiguous so {@linkplain DateHistogramAggregator} finds the
+ * boundaries of the buckets by searching the sorted doc values instead of
+ * rounding the value of every document. If the aggregation is at the top level,
+ * has no sub-aggregations, and the query is a {@code match_all} or a range on
+ * the same field then it counts the documents of each bucket without collecting
+ * them at all.
  */
 class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAggregator {
     /**
@@ -84,6 +108,28 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         Map<String, Object> metadata
     ) throws IOException {
         Rounding.Prepared preparedRounding = valuesSourceConfig.roundingPreparer().apply(rounding);
+        if (isIndexSortedOn(context, indexSortCandidateOrNull(valuesSourceConfig))) {
+            /*
+             * Finding the bucket boundaries in the index sort is cheaper than running
+             * the range aggregation over every document so we don't adapt.
+             */
+            return new DateHistogramAggregator(
+                name,
+                factories,
+                rounding,
+                preparedRounding,
+                order,
+                keyed,
+                minDocCount,
+                extendedBounds,
+                hardBounds,
+                valuesSourceConfig,
+                context,
+                parent,
+                cardinality,
+                metadata
+            );
+        }
         Aggregator asRange = adaptIntoRangeOrNull(
             name,
             factories,
@@ -203,7 +249,60 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         return ranges.toArray(RangeAggregator.Range[]::new);
     }
 
+    /**
+     * The name of the field that we aggregate if the index might be sorted on it
+     * in a way we can use to find the bucket boundaries, {@code null} otherwise.
+     */
+    @Nullable
+    private static String indexSortCandidateOrNull(ValuesSourceConfig valuesSourceConfig) {
+        if (valuesSourceConfig.hasValues() == false
+            || valuesSourceConfig.fieldContext() == null
+            || valuesSourceConfig.script() != null
+            || valuesSourceConfig.missing() != null) {
+            return null;
+        }
+        return valuesSourceConfig.fieldContext().field();
+    }
+
+    /**
+     * Is any segment of the searched index primarily sorted on {@code field}?
+     */
+    private static boolean isIndexSortedOn(AggregationContext context, @Nullable String field) {
+        if (field == null || context.searcher() == null) {
+            return false;
+        }
+        IndexReader reader = context.searcher().getIndexReader();
+        for (LeafReaderContext leaf : reader.leaves()) {
+            if (primaryIndexSortOrNull(leaf.reader(), field) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The primary sort of the segment if it sorts the segment by the single
+     * {@code long} value of {@code field}, {@code null} otherwise.
+     */
+    @Nullable
+    private static SortField primaryIndexSortOrNull(LeafReader reader, String field) {
+        Sort indexSort = reader.getMetaData().getSort();
+        if (indexSort == null) {
+            return null;
+        }
+        SortField primary = indexSort.getSort()[0];
+        if (field.equals(primary.getField()) == false) {
+            return null;
+        }
+        if (primary instanceof SortedNumericSortField numericSort && numericSort.getNumericType() == SortField.Type.LONG) {
+            return primary;
+        }
+        return null;
+    }
+
     private final ValuesSource.Numeric valuesSource;
+    @Nullable
+    private final String indexSortCandidate;
     private final DocValueFormat formatter;
     private final Rounding rounding;
     /**
@@ -219,6 +318,9 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
 
     private final LongKeyedBucketOrds bucketOrds;
 
+    private int segmentsCountedFromIndexSort;
+    private int segmentsCollectedWithIndexSort;
+
     DateHistogramAggregator(
         String name,
         AggregatorFactories factories,
@@ -246,6 +348,7 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         this.hardBounds = hardBounds;
         // TODO: Stop using null here
         this.valuesSource = valuesSourceConfig.hasValues() ? (ValuesSource.Numeric) valuesSourceConfig.getValuesSource() : null;
+        this.indexSortCandidate = indexSortCandidateOrNull(valuesSourceConfig);
         this.formatter = valuesSourceConfig.format();
 
         bucketOrds = LongKeyedBucketOrds.build(bigArrays(), cardinality);
@@ -265,6 +368,12 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         SortedNumericDocValues values = valuesSource.longValues(ctx);
+        if (indexSortCandidate != null) {
+            LeafBucketCollector sorted = getLeafCollectorFromIndexSort(ctx, values, sub);
+            if (sorted != null) {
+                return sorted;
+            }
+        }
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long owningBucketOrd) throws IOException {
@@ -295,6 +404,200 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         };
     }
 
+    /**
+     * Builds a collector that uses the index sort to find the boundaries of the
+     * buckets or returns {@code null} if the segment isn't sorted in a way we can use.
+     * Returns {@link LeafBucketCollector#NO_OP_COLLECTOR} if it was able to count
+     * all of the documents in the segment without collecting them.
+     */
+    @Nullable
+    private LeafBucketCollector getLeafCollectorFromIndexSort(LeafReaderContext ctx, SortedNumericDocValues values, LeafBucketCollector sub)
+        throws IOException {
+        SortField indexSort = primaryIndexSortOrNull(ctx.reader(), indexSortCandidate);
+        if (indexSort == null) {
+            return null;
+        }
+        NumericDocValues singleton = DocValues.unwrapSingleton(values);
+        if (singleton == null || singleton.cost() != ctx.reader().maxDoc()) {
+            // Documents without a value or with many values break the order of the rounded values
+            return null;
+        }
+        SortedLeafValues sortedValues = new SortedLeafValues(ctx, indexSort.getReverse(), singleton);
+        if (countFromIndexSort(ctx, sortedValues, sub)) {
+            segmentsCountedFromIndexSort++;
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
+        segmentsCollectedWithIndexSort++;
+        return new LeafBucketCollectorBase(sub, values) {
+            /**
+             * The first document after the current bucket.
+             */
+            private int bucketEnd = -1;
+            private long bucketKey;
+            private boolean bucketInBounds;
+            private long lastOwningBucketOrd = -1;
+            private long bucketOrd;
+
+            @Override
+            public void collect(int doc, long owningBucketOrd) throws IOException {
+                if (doc >= bucketEnd) {
+                    bucketKey = preparedRounding.round(sortedValues.valueAt(doc));
+                    bucketEnd = sortedValues.firstDocAfterRounding(doc, ctx.reader().maxDoc(), bucketKey);
+                    bucketInBounds = hardBounds == null || hardBounds.contain(bucketKey);
+                    lastOwningBucketOrd = -1;
+                }
+                if (bucketInBounds == false) {
+                    return;
+                }
+                if (owningBucketOrd != lastOwningBucketOrd) {
+                    bucketOrd = bucketOrds.add(owningBucketOrd, bucketKey);
+                    if (bucketOrd < 0) { // already seen
+                        bucketOrd = -1 - bucketOrd;
+                    }
+                    lastOwningBucketOrd = owningBucketOrd;
+                }
+                collectBucket(sub, doc, bucketOrd);
+            }
+        };
+    }
+
+    /**
+     * Counts the documents in each bucket straight from the index sort if
+     * every document that matches the query is a contiguous range of the
+     * segment and we don't need to collect them.
+     *
+     * @return {@code true} if the segment was counted, {@code false} if it must be collected
+     */
+    private boolean countFromIndexSort(LeafReaderContext ctx, SortedLeafValues sortedValues, LeafBucketCollector sub)
+        throws IOException {
+        if (parent != null || sub.isNoop() == false || docCountProvider.alwaysOne() == false || ctx.reader().getLiveDocs() != null) {
+            return false;
+        }
+        long lower = Long.MIN_VALUE;
+        long upper = Long.MAX_VALUE;
+        Query query = unwrapTopLevelQuery(topLevelQuery());
+        if (query instanceof PointRangeQuery rangeQuery) {
+            if (indexSortCandidate.equals(rangeQuery.getField()) == false
+                || rangeQuery.getNumDims() != 1
+                || rangeQuery.getBytesPerDim() != Long.BYTES) {
+                return false;
+            }
+            lower = LongPoint.decodeDimension(rangeQuery.getLowerPoint(), 0);
+            upper = LongPoint.decodeDimension(rangeQuery.getUpperPoint(), 0);
+        } else if (query != null && query.getClass() != MatchAllDocsQuery.class) {
+            return false;
+        }
+        int maxDoc = ctx.reader().maxDoc();
+        int start = sortedValues.firstDocInRange(0, maxDoc, lower, upper);
+        int end = sortedValues.firstDocAfterRange(start, maxDoc, lower, upper);
+        int doc = start;
+        while (doc < end) {
+            long key = preparedRounding.round(sortedValues.valueAt(doc));
+            int next = sortedValues.firstDocAfterRounding(doc, end, key);
+            if (hardBounds == null || hardBounds.contain(key)) {
+                long bucketOrd = bucketOrds.add(0, key);
+                if (bucketOrd < 0) { // already seen
+                    bucketOrd = -1 - bucketOrd;
+                }
+                incrementBucketDocCount(bucketOrd, next - doc);
+            }
+            doc = next;
+        }
+        return true;
+    }
+
+    private static Query unwrapTopLevelQuery(Query query) {
+        if (query instanceof BoostQuery boostQuery) {
+            return unwrapTopLevelQuery(boostQuery.getQuery());
+        } else if (query instanceof ConstantScoreQuery constantScoreQuery) {
+            return unwrapTopLevelQuery(constantScoreQuery.getQuery());
+        } else if (query instanceof IndexSortSortedNumericDocValuesRangeQuery indexSortQuery) {
+            return unwrapTopLevelQuery(indexSortQuery.getFallbackQuery());
+        } else if (query instanceof IndexOrDocValuesQuery indexOrDocValuesQuery) {
+            return unwrapTopLevelQuery(indexOrDocValuesQuery.getIndexQuery());
+        } else {
+            return query;
+        }
+    }
+
+    /**
+     * Random access to the single, dense values of a segment that is sorted on
+     * them. Finding a document takes a logarithmic number of reads.
+     */
+    private class SortedLeafValues {
+        private final LeafReaderContext ctx;
+        private final boolean reverse;
+        private NumericDocValues values;
+
+        SortedLeafValues(LeafReaderContext ctx, boolean reverse, NumericDocValues values) {
+            this.ctx = ctx;
+            this.reverse = reverse;
+            this.values = values;
+        }
+
+        long valueAt(int doc) throws IOException {
+            if (values.docID() > doc) {
+                // Doc values only move forwards so we need a fresh iterator to go back
+                values = DocValues.unwrapSingleton(valuesSource.longValues(ctx));
+            }
+            if (values.docID() != doc && values.advanceExact(doc) == false) {
+                throw new IllegalStateException("expected a value for doc [" + doc + "] in a dense field");
+            }
+            return values.longValue();
+        }
+
+        /**
+         * The first document in {@code [from, to)} whose value is in the range
+         * {@code [lower, upper]} or sorts after it.
+         */
+        int firstDocInRange(int from, int to, long lower, long upper) throws IOException {
+            return reverse ? firstDoc(from, to, v -> v <= upper) : firstDoc(from, to, v -> v >= lower);
+        }
+
+        /**
+         * The first document in {@code [from, to)} whose value sorts after the range {@code [lower, upper]}.
+         */
+        int firstDocAfterRange(int from, int to, long lower, long upper) throws IOException {
+            return reverse ? firstDoc(from, to, v -> v < lower) : firstDoc(from, to, v -> v > upper);
+        }
+
+        /**
+         * The first document in {@code (from, to)} whose value doesn't round to {@code key}.
+         */
+        int firstDocAfterRounding(int from, int to, long key) throws IOException {
+            return reverse
+                ? firstDoc(from + 1, to, v -> preparedRounding.round(v) < key)
+                : firstDoc(from + 1, to, v -> preparedRounding.round(v) > key);
+        }
+
+        /**
+         * The first document in {@code [from, to)} whose value matches {@code predicate}
+         * or {@code to} if there isn't one. The {@code predicate} must be {@code false}
+         * for every document before that one and {@code true} for every document after it.
+         * Gallops forwards from {@code from} so small buckets are found with few reads.
+         */
+        private int firstDoc(int from, int to, LongPredicate predicate) throws IOException {
+            int lo = from;
+            int step = 1;
+            int hi = from;
+            while (hi < to && predicate.test(valueAt(hi)) == false) {
+                lo = hi + 1;
+                hi = (int) Math.min((long) hi + step, to);
+                step <<= 1;
+            }
+            // Now predicate is false before lo and true at hi or hi == to
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (predicate.test(valueAt(mid))) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+
     @Override
     public InternalAggregation[] buildAggregations(long[] owningBucketOrds) throws IOException {
         return buildAggregationsForVariableBuckets(
@@ -351,6 +654,8 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
     @Override
     public void collectDebugInfo(BiConsumer<String, Object> add) {
         add.accept("total_buckets", bucketOrds.size());
+        add.accept("segments_counted_from_index_sort", segmentsCountedFromIndexSort);
+        add.accept("segments_collected_with_index_sort", segmentsCollectedWithIndexSort);
     }
 
     /**
@@ -157,4 +157,9 @@ public final class DateHistogramAggregatorFactory extends ValuesSourceAggregator
             metadata
         );
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
@@ -48,6 +48,12 @@ public class NestedAggregatorFactory extends AggregatorFactory {
         return new NestedAggregator(name, factories, parentObjectMapper, childObjectMapper, context, parent, cardinality, metadata);
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        // the parent bitsets come from the shared bitset cache and the child docs are iterated per leaf
+        return true;
+    }
+
     private static final class Unmapped extends NonCollectingAggregator {
 
         Unmapped(String name, AggregationContext context, Aggregator parent, AggregatorFactories factories, Map<String, Object> metadata)
@@ -7,7 +7,10 @@
  */
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
@@ -40,6 +43,7 @@ import java.util.function.Function;
 import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 
+import static org.apache.lucene.index.SortedSetDocValues.NO_MORE_ORDS;
 import static org.elasticsearch.search.aggregations.InternalOrder.isKeyOrder;
 
 /**
@@ -48,9 +52,9 @@ import static org.elasticsearch.search.aggregations.InternalOrder.isKeyOrder;
  */
 public class MapStringTermsAggregator extends AbstractStringTermsAggregator {
     private final CollectorSource collectorSource;
-    private final ResultStrategy<?, ?> resultStrategy;
-    private final BytesKeyedBucketOrds bucketOrds;
-    private final IncludeExclude.StringFilter includeExclude;
+    protected final ResultStrategy<?, ?> resultStrategy;
+    protected final BytesKeyedBucketOrds bucketOrds;
+    protected final IncludeExclude.StringFilter includeExclude;
 
     public MapStringTermsAggregator(
         String name,
@@ -129,6 +133,147 @@ public class MapStringTermsAggregator extends AbstractStringTermsAggregator {
         Releasables.close(collectorSource, resultStrategy, bucketOrds);
     }
 
+    /**
+     * Variant of {@link MapStringTermsAggregator} for fields with ordinals that counts the segment ordinals of each
+     * leaf and adds the counts to the buckets of their terms once the leaf is collected. Unlike the
+     * {@link GlobalOrdinalsStringTermsAggregator} it never needs global ordinals, which are costly to build on large
+     * fields after every refresh, and unlike the regular {@link MapStringTermsAggregator} it only looks up and hashes
+     * each term that matches once per segment rather than once per document.
+     * <p>
+     * This can only be used if this aggregator has no sub-aggregators and collects from a single bucket since
+     * documents are only added to their buckets once their leaf is fully collected.
+     */
+    static class SegmentOrdinals extends MapStringTermsAggregator {
+        private final ValuesSource.Bytes.WithOrdinals valuesSource;
+        private SortedSetDocValues segmentOrds;
+        private LongArray segmentDocCounts;
+        private int segmentsWithoutValues = 0;
+        private int segmentsWithSingleValuedOrds = 0;
+        private int segmentsWithMultiValuedOrds = 0;
+        private long segmentTermsLookedUp = 0;
+
+        SegmentOrdinals(
+            String name,
+            AggregatorFactories factories,
+            ValuesSourceConfig valuesSourceConfig,
+            BucketOrder order,
+            BucketCountThresholds bucketCountThresholds,
+            IncludeExclude.StringFilter includeExclude,
+            AggregationContext context,
+            Aggregator parent,
+            SubAggCollectionMode collectionMode,
+            boolean showTermDocCountError,
+            Map<String, Object> metadata
+        ) throws IOException {
+            super(
+                name,
+                factories,
+                new ValuesSourceCollectorSource(valuesSourceConfig),
+                a -> a.new StandardTermsResults(valuesSourceConfig.getValuesSource()),
+                order,
+                valuesSourceConfig.format(),
+                bucketCountThresholds,
+                includeExclude,
+                context,
+                parent,
+                collectionMode,
+                showTermDocCountError,
+                CardinalityUpperBound.ONE,
+                metadata
+            );
+            assert factories == null || factories.countAggregators() == 0;
+            this.valuesSource = (ValuesSource.Bytes.WithOrdinals) valuesSourceConfig.getValuesSource();
+            this.segmentDocCounts = context.bigArrays().newLongArray(1, true);
+        }
+
+        @Override
+        public LeafBucketCollector getLeafCollector(LeafReaderContext ctx, LeafBucketCollector sub) throws IOException {
+            if (segmentOrds != null) {
+                mapSegmentCountsToBuckets();
+            }
+            final SortedSetDocValues ords = valuesSource.ordinalsValues(ctx);
+            if (ords.getValueCount() == 0) {
+                segmentsWithoutValues++;
+                return LeafBucketCollector.NO_OP_COLLECTOR;
+            }
+            segmentOrds = ords;
+            segmentDocCounts = bigArrays().grow(segmentDocCounts, ords.getValueCount());
+            assert sub.isNoop();
+            final SortedDocValues singleValues = DocValues.unwrapSingleton(ords);
+            if (singleValues != null) {
+                segmentsWithSingleValuedOrds++;
+                return resultStrategy.wrapCollector(new LeafBucketCollectorBase(sub, ords) {
+                    @Override
+                    public void collect(int doc, long owningBucketOrd) throws IOException {
+                        assert owningBucketOrd == 0;
+                        if (false == singleValues.advanceExact(doc)) {
+                            return;
+                        }
+                        segmentDocCounts.increment(singleValues.ordValue(), docCountProvider.getDocCount(doc));
+                    }
+                });
+            }
+            segmentsWithMultiValuedOrds++;
+            return resultStrategy.wrapCollector(new LeafBucketCollectorBase(sub, ords) {
+                @Override
+                public void collect(int doc, long owningBucketOrd) throws IOException {
+                    assert owningBucketOrd == 0;
+                    if (false == ords.advanceExact(doc)) {
+                        return;
+                    }
+                    int docCount = docCountProvider.getDocCount(doc);
+                    for (long ord = ords.nextOrd(); ord != NO_MORE_ORDS; ord = ords.nextOrd()) {
+                        segmentDocCounts.increment(ord, docCount);
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected void doPostCollection() throws IOException {
+            if (segmentOrds != null) {
+                mapSegmentCountsToBuckets();
+            }
+        }
+
+        @Override
+        public void collectDebugInfo(BiConsumer<String, Object> add) {
+            super.collectDebugInfo(add);
+            add.accept("segments_without_values", segmentsWithoutValues);
+            add.accept("segments_with_single_valued_ords", segmentsWithSingleValuedOrds);
+            add.accept("segments_with_multi_valued_ords", segmentsWithMultiValuedOrds);
+            add.accept("segment_terms_looked_up", segmentTermsLookedUp);
+        }
+
+        @Override
+        public void doClose() {
+            super.doClose();
+            Releasables.close(segmentDocCounts);
+        }
+
+        private void mapSegmentCountsToBuckets() throws IOException {
+            for (long ord = 0; ord < segmentOrds.getValueCount(); ord++) {
+                // We use set(...) here, because we need to reset the slot to 0.
+                // segmentDocCounts get reused over the segments and otherwise counts would be too high.
+                long inc = segmentDocCounts.set(ord, 0);
+                if (inc == 0) {
+                    continue;
+                }
+                BytesRef term = segmentOrds.lookupOrd(ord);
+                segmentTermsLookedUp++;
+                if (includeExclude != null && false == includeExclude.accept(term)) {
+                    continue;
+                }
+                long bucketOrd = bucketOrds.add(0, term);
+                if (bucketOrd < 0) { // already seen
+                    bucketOrd = -1 - bucketOrd;
+                }
+                incrementBucketDocCount(bucketOrd, inc);
+            }
+            segmentOrds = null;
+        }
+    }
+
     /**
      * Abstraction on top of building collectors to fetch values so {@code terms},
      * {@code significant_terms}, and {@code significant_text} can share a bunch of
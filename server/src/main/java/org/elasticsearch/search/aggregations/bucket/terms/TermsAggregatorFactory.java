@@ -10,6 +10,7 @@ package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.search.DocValueFormat;
@@ -42,7 +43,7 @@ import java.util.function.Function;
 import java.util.function.LongPredicate;
 
 public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
-    static Boolean REMAP_GLOBAL_ORDS, COLLECT_SEGMENT_ORDS;
+    static Boolean REMAP_GLOBAL_ORDS, COLLECT_SEGMENT_ORDS, SKIP_GLOBAL_ORDS;
 
     static void registerAggregators(ValuesSourceRegistry.Builder builder) {
         builder.register(
@@ -76,6 +77,18 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
      */
     static final long MAX_ORDS_TO_TRY_FILTERS = 1000;
 
+    /**
+     * The minimum number of segment ordinals, summed over all segments, a
+     * field must have for us to aggregate it with
+     * {@link ExecutionMode#SEGMENT_ORDINALS segment ordinals} when its global
+     * ordinals aren't built yet. Building global ordinals takes time roughly
+     * proportional to the number of distinct values of the field, which stalls
+     * the first search after every refresh on large fields. Below this number
+     * global ordinals are cheap to build and worth building since they can be
+     * reused by later searches until the next refresh.
+     */
+    static final long MIN_SEGMENT_ORDS_TO_SKIP_GLOBAL_ORDS = 1_000_000;
+
     /**
      * This supplier is used for all the field types that should be aggregated as bytes/strings,
      * including those that need global ordinals
@@ -108,7 +121,14 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                     execution = ExecutionMode.MAP;
                 }
                 if (execution == null) {
-                    execution = ExecutionMode.GLOBAL_ORDINALS;
+                    boolean skipGlobalOrds = shouldSkipGlobalOrds(
+                        factories,
+                        cardinality,
+                        (ValuesSource.Bytes.WithOrdinals) valuesSource,
+                        context.searcher(),
+                        MIN_SEGMENT_ORDS_TO_SKIP_GLOBAL_ORDS
+                    );
+                    execution = skipGlobalOrds ? ExecutionMode.SEGMENT_ORDINALS : ExecutionMode.GLOBAL_ORDINALS;
                 }
                 final long maxOrd = execution == ExecutionMode.GLOBAL_ORDINALS ? getMaxOrd(valuesSource, context.searcher()) : -1;
                 if (subAggCollectMode == null) {
@@ -335,6 +355,42 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
         return SubAggCollectionMode.DEPTH_FIRST;
     }
 
+    /**
+     * Should we aggregate with {@link ExecutionMode#SEGMENT_ORDINALS segment ordinals}
+     * rather than building global ordinals? We do iff this aggregator:
+     *  - has no sub-aggregator AND
+     *  - collects from a single bucket AND
+     *  - targets a field whose global ordinals are not built yet AND
+     *  - targets a field that has at least {@code minSegmentOrds} segment ordinals,
+     *    {@link #MIN_SEGMENT_ORDS_TO_SKIP_GLOBAL_ORDS} outside of tests.
+     */
+    static boolean shouldSkipGlobalOrds(
+        AggregatorFactories factories,
+        CardinalityUpperBound cardinality,
+        ValuesSource.Bytes.WithOrdinals valuesSource,
+        IndexSearcher searcher,
+        long minSegmentOrds
+    ) throws IOException {
+        if (factories != AggregatorFactories.EMPTY || cardinality != CardinalityUpperBound.ONE) {
+            return false;
+        }
+        // we use the static SKIP_GLOBAL_ORDS to allow tests to force specific optimizations
+        if (SKIP_GLOBAL_ORDS != null) {
+            return SKIP_GLOBAL_ORDS;
+        }
+        if (valuesSource.globalOrdinalsLoaded(searcher)) {
+            return false;
+        }
+        long segmentOrds = 0;
+        for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+            segmentOrds += valuesSource.ordinalsValues(ctx).getValueCount();
+            if (segmentOrds >= minSegmentOrds) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the maximum global ordinal value for the provided {@link ValuesSource} or -1
      * if the values source is not an instance of {@link ValuesSource.Bytes.WithOrdinals}.
@@ -387,6 +443,64 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                 );
             }
         },
+        SEGMENT_ORDINALS(new ParseField("segment_ordinals")) {
+
+            @Override
+            Aggregator create(
+                String name,
+                AggregatorFactories factories,
+                ValuesSourceConfig valuesSourceConfig,
+                BucketOrder order,
+                TermsAggregator.BucketCountThresholds bucketCountThresholds,
+                IncludeExclude includeExclude,
+                AggregationContext context,
+                Aggregator parent,
+                SubAggCollectionMode subAggCollectMode,
+                boolean showTermDocCountError,
+                CardinalityUpperBound cardinality,
+                Map<String, Object> metadata
+            ) throws IOException {
+                if (factories != AggregatorFactories.EMPTY || cardinality != CardinalityUpperBound.ONE) {
+                    /*
+                     * Segment ordinals are only counted once their segment is
+                     * collected so sub-aggregations and multiple owning buckets
+                     * are not supported. Hash the values on the fly instead, which
+                     * doesn't need global ordinals either.
+                     */
+                    return MAP.create(
+                        name,
+                        factories,
+                        valuesSourceConfig,
+                        order,
+                        bucketCountThresholds,
+                        includeExclude,
+                        context,
+                        parent,
+                        subAggCollectMode,
+                        showTermDocCountError,
+                        cardinality,
+                        metadata
+                    );
+                }
+                assert valuesSourceConfig.getValuesSource() instanceof ValuesSource.Bytes.WithOrdinals;
+                IncludeExclude.StringFilter filter = includeExclude == null
+                    ? null
+                    : includeExclude.convertToStringFilter(valuesSourceConfig.format());
+                return new MapStringTermsAggregator.SegmentOrdinals(
+                    name,
+                    factories,
+                    valuesSourceConfig,
+                    order,
+                    bucketCountThresholds,
+                    filter,
+                    context,
+                    parent,
+                    subAggCollectMode,
+                    showTermDocCountError,
+                    metadata
+                );
+            }
+        },
         GLOBAL_ORDINALS(new ParseField("global_ordinals")) {
 
             @Override
@@ -530,8 +644,9 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
             return switch (value) {
                 case "global_ordinals" -> GLOBAL_ORDINALS;
                 case "map" -> MAP;
+                case "segment_ordinals" -> SEGMENT_ORDINALS;
                 default -> throw new IllegalArgumentException(
-                    "Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals]"
+                    "Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals, segment_ordinals]"
                 );
             };
         }
@@ -580,4 +695,9 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
         }
         return includeExclude.convertToOrdinalsFilter(format).acceptedGlobalOrdinals(values)::get;
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
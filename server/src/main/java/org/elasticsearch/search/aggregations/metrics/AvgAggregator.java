@@ -66,6 +66,7 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
         final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        final DoubleValuesBlock block = DoubleValuesBlock.allValues(values);
 
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -93,6 +94,30 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
                     compensations.set(bucket, kahanSummation.delta());
                 }
             }
+
+            @Override
+            public void collectBlock(int[] docs, int count, long bucket) throws IOException {
+                counts = bigArrays().grow(counts, bucket + 1);
+                sums = bigArrays().grow(sums, bucket + 1);
+                compensations = bigArrays().grow(compensations, bucket + 1);
+
+                final int valueCount = block.load(docs, count);
+                if (valueCount > 0) {
+                    counts.increment(bucket, valueCount);
+                    final double[] blockValues = block.values();
+                    kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                    for (int i = 0; i < valueCount; i++) {
+                        kahanSummation.add(blockValues[i]);
+                    }
+                    sums.set(bucket, kahanSummation.value());
+                    compensations.set(bucket, kahanSummation.delta());
+                }
+            }
+
+            @Override
+            public boolean supportsBlockCollection() {
+                return true;
+            }
         };
     }
 
@@ -105,4 +105,9 @@ class CardinalityAggregatorFactory extends ValuesSourceAggregatorFactory {
             ? HyperLogLogPlusPlus.DEFAULT_PRECISION
             : HyperLogLogPlusPlus.precisionFromThreshold(precisionThreshold);
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+
+import java.io.IOException;
+
+/**
+ * Decodes the values of a block of documents into a reusable primitive array so that metric aggregators can accumulate
+ * them in a tight loop from {@link LeafBucketCollector#collectBlock} rather than reading the doc values of each document
+ * in turn. The values are loaded in document order, and in the order of the doc values within a document.
+ */
+final class DoubleValuesBlock {
+
+    private final SortedNumericDoubleValues multiValues;
+    private final NumericDoubleValues singleValues;
+    private double[] values = new double[0];
+
+    private DoubleValuesBlock(SortedNumericDoubleValues multiValues, NumericDoubleValues singleValues) {
+        this.multiValues = multiValues;
+        this.singleValues = singleValues;
+    }
+
+    /**
+     * Loads all the values of each document.
+     */
+    static DoubleValuesBlock allValues(SortedNumericDoubleValues values) {
+        final NumericDoubleValues singleton = FieldData.unwrapSingleton(values);
+        return singleton != null ? new DoubleValuesBlock(null, singleton) : new DoubleValuesBlock(values, null);
+    }
+
+    /**
+     * Loads a single value per document.
+     */
+    static DoubleValuesBlock singleValue(NumericDoubleValues values) {
+        return new DoubleValuesBlock(null, values);
+    }
+
+    /**
+     * Loads the values of the first {@code count} documents of {@code docs}.
+     *
+     * @return the number of values that were loaded into {@link #values()}
+     */
+    int load(int[] docs, int count) throws IOException {
+        if (singleValues != null) {
+            if (values.length < count) {
+                values = new double[ArrayUtil.oversize(count, Double.BYTES)];
+            }
+            int valueCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (singleValues.advanceExact(docs[i])) {
+                    values[valueCount++] = singleValues.doubleValue();
+                }
+            }
+            return valueCount;
+        }
+        int valueCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (multiValues.advanceExact(docs[i])) {
+                final int docValueCount = multiValues.docValueCount();
+                values = ArrayUtil.grow(values, valueCount + docValueCount);
+                for (int j = 0; j < docValueCount; j++) {
+                    values[valueCount++] = multiValues.nextValue();
+                }
+            }
+        }
+        return valueCount;
+    }
+
+    /**
+     * The values that were loaded by the last call to {@link #load}.
+     */
+    double[] values() {
+        return values;
+    }
+}
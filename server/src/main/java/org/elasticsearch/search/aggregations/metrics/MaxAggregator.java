@@ -86,6 +86,7 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(ctx);
         final NumericDoubleValues values = MultiValueMode.MAX.select(allValues);
+        final DoubleValuesBlock block = DoubleValuesBlock.singleValue(values);
         return new LeafBucketCollectorBase(sub, allValues) {
 
             @Override
@@ -103,6 +104,27 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
                 }
             }
 
+            @Override
+            public void collectBlock(int[] docs, int count, long bucket) throws IOException {
+                if (bucket >= maxes.size()) {
+                    long from = maxes.size();
+                    maxes = bigArrays().grow(maxes, bucket + 1);
+                    maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
+                }
+                final int valueCount = block.load(docs, count);
+                final double[] blockValues = block.values();
+                double max = maxes.get(bucket);
+                for (int i = 0; i < valueCount; i++) {
+                    max = Math.max(max, blockValues[i]);
+                }
+                maxes.set(bucket, max);
+            }
+
+            @Override
+            public boolean supportsBlockCollection() {
+                return true;
+            }
+
         };
     }
 
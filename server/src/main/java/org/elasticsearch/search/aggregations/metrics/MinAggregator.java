@@ -86,6 +86,7 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(ctx);
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
+        final DoubleValuesBlock block = DoubleValuesBlock.singleValue(values);
         return new LeafBucketCollectorBase(sub, allValues) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -102,6 +103,27 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
                 }
             }
 
+            @Override
+            public void collectBlock(int[] docs, int count, long bucket) throws IOException {
+                if (bucket >= mins.size()) {
+                    long from = mins.size();
+                    mins = bigArrays().grow(mins, bucket + 1);
+                    mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
+                }
+                final int valueCount = block.load(docs, count);
+                final double[] blockValues = block.values();
+                double min = mins.get(bucket);
+                for (int i = 0; i < valueCount; i++) {
+                    min = Math.min(min, blockValues[i]);
+                }
+                mins.set(bucket, min);
+            }
+
+            @Override
+            public boolean supportsBlockCollection() {
+                return true;
+            }
+
         };
     }
 
@@ -83,4 +83,9 @@ class PercentilesAggregatorFactory extends ValuesSourceAggregatorFactory {
             metadata
         );
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return valuesSupportConcurrentCollection();
+    }
 }
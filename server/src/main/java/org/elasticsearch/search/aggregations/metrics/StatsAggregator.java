@@ -71,21 +71,12 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
         }
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
         final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        final DoubleValuesBlock block = DoubleValuesBlock.allValues(values);
 
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= counts.size()) {
-                    final long from = counts.size();
-                    final long overSize = BigArrays.overSize(bucket + 1);
-                    counts = bigArrays().resize(counts, overSize);
-                    sums = bigArrays().resize(sums, overSize);
-                    compensations = bigArrays().resize(compensations, overSize);
-                    mins = bigArrays().resize(mins, overSize);
-                    maxes = bigArrays().resize(maxes, overSize);
-                    mins.fill(from, overSize, Double.POSITIVE_INFINITY);
-                    maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
-                }
+                maybeGrow(bucket);
 
                 if (values.advanceExact(doc)) {
                     final int valuesCount = values.docValueCount();
@@ -110,9 +101,53 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
                     maxes.set(bucket, max);
                 }
             }
+
+            @Override
+            public void collectBlock(int[] docs, int count, long bucket) throws IOException {
+                maybeGrow(bucket);
+
+                final int valueCount = block.load(docs, count);
+                if (valueCount > 0) {
+                    counts.increment(bucket, valueCount);
+                    final double[] blockValues = block.values();
+                    double min = mins.get(bucket);
+                    double max = maxes.get(bucket);
+                    kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                    for (int i = 0; i < valueCount; i++) {
+                        kahanSummation.add(blockValues[i]);
+                    }
+                    for (int i = 0; i < valueCount; i++) {
+                        min = Math.min(min, blockValues[i]);
+                        max = Math.max(max, blockValues[i]);
+                    }
+                    sums.set(bucket, kahanSummation.value());
+                    compensations.set(bucket, kahanSummation.delta());
+                    mins.set(bucket, min);
+                    maxes.set(bucket, max);
+                }
+            }
+
+            @Override
+            public boolean supportsBlockCollection() {
+                return true;
+            }
         };
     }
 
+    private void maybeGrow(long bucket) {
+        if (bucket >= counts.size()) {
+            final long from = counts.size();
+            final long overSize = BigArrays.overSize(bucket + 1);
+            counts = bigArrays().resize(counts, overSize);
+            sums = bigArrays().resize(sums, overSize);
+            compensations = bigArrays().resize(compensations, overSize);
+            mins = bigArrays().resize(mins, overSize);
+            maxes = bigArrays().resize(maxes, overSize);
+            mins.fill(from, overSize, Double.POSITIVE_INFINITY);
+            maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
+        }
+    }
+
     @Override
     public boolean hasMetric(String name) {
         try {
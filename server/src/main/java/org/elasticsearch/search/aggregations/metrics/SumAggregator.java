@@ -61,6 +61,7 @@ public class SumAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
         final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
+        final DoubleValuesBlock block = DoubleValuesBlock.allValues(values);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -84,6 +85,28 @@ public class SumAggregator extends NumericMetricsAggregator.SingleValue {
                     sums.set(bucket, kahanSummation.value());
                 }
             }
+
+            @Override
+            public void collectBlock(int[] docs, int count, long bucket) throws IOException {
+                sums = bigArrays().grow(sums, bucket + 1);
+                compensations = bigArrays().grow(compensations, bucket + 1);
+
+                final int valueCount = block.load(docs, count);
+                if (valueCount > 0) {
+                    final double[] blockValues = block.values();
+                    kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                    for (int i = 0; i < valueCount; i++) {
+                        kahanSummation.add(blockValues[i]);
+                    }
+                    compensations.set(bucket, kahanSummation.delta());
+                    sums.set(bucket, kahanSummation.value());
+                }
+            }
+
+            @Override
+            public boolean supportsBlockCollection() {
+                return true;
+            }
         };
     }
 
@@ -32,6 +32,7 @@ import org.elasticsearch.index.query.support.NestedScope;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptContext;
 import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService.MultiBucketConsumer;
 import org.elasticsearch.search.aggregations.bucket.filter.FilterByFilterAggregator;
 import org.elasticsearch.search.internal.SubSearchContext;
@@ -282,6 +283,17 @@ public abstract class AggregationContext implements Releasable {
      */
     public abstract boolean enableRewriteToFilterByFilter();
 
+    /**
+     * Are top level aggregators that don't need scores allowed to buffer the
+     * documents they collect and collect them in blocks through
+     * {@link LeafBucketCollector#collectBlock}? This is always allowed in
+     * production, benchmarks disable it to compare with collecting each
+     * document in turn.
+     */
+    public boolean enableBlockCollection() {
+        return true;
+    }
+
     /**
      * Implementation of {@linkplain AggregationContext} for production usage
      * that wraps our ubiquitous {@link SearchExecutionContext} and anything else
@@ -46,6 +46,7 @@ import org.elasticsearch.search.aggregations.support.values.ScriptDoubleValues;
 import org.elasticsearch.search.aggregations.support.values.ScriptLongValues;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.LongUnaryOperator;
 
@@ -258,6 +259,15 @@ public abstract class ValuesSource {
                 }
             }
 
+            /**
+             * Whether {@link #globalOrdinalsValues} can be called without building
+             * global ordinals, because they are cached or not needed. This never
+             * builds global ordinals.
+             */
+            public boolean globalOrdinalsLoaded(IndexSearcher indexSearcher) {
+                return true;
+            }
+
             public static class FieldData extends WithOrdinals {
 
                 protected final IndexOrdinalsFieldData indexFieldData;
@@ -290,6 +300,15 @@ public abstract class ValuesSource {
                     return indexFieldData.supportsGlobalOrdinalsMapping();
                 }
 
+                @Override
+                public boolean globalOrdinalsLoaded(IndexSearcher indexSearcher) {
+                    List<LeafReaderContext> leaves = indexSearcher.getIndexReader().leaves();
+                    if (leaves.isEmpty()) {
+                        return true;
+                    }
+                    return indexFieldData.isGlobalOrdinalsLoaded((DirectoryReader) leaves.get(0).parent.reader());
+                }
+
                 @Override
                 public LongUnaryOperator globalOrdinalsMapping(LeafReaderContext context) throws IOException {
                     final IndexOrdinalsFieldData global = indexFieldData.loadGlobal((DirectoryReader) context.parent.reader());
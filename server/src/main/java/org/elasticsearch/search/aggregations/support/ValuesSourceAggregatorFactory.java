@@ -58,6 +58,18 @@ public abstract class ValuesSourceAggregatorFactory extends AggregatorFactory {
     protected abstract Aggregator doCreateInternal(Aggregator parent, CardinalityUpperBound cardinality, Map<String, Object> metadata)
         throws IOException;
 
+    /**
+     * Returns true if the values of this aggregation are read from doc values only, so that they can be read from several
+     * leaf slices concurrently. Scripts and runtime fields share the {@link org.elasticsearch.search.lookup.SearchLookup}
+     * of the search, which is not thread-safe.
+     */
+    protected boolean valuesSupportConcurrentCollection() {
+        if (config.hasValues() == false) {
+            return true;
+        }
+        return config.script() == null && config.fieldType() != null && config.fieldType().hasDocValues();
+    }
+
     @Override
     public String getStatsSubtype() {
         return config.valueSourceType().typeName();
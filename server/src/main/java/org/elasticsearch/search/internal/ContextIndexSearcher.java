@@ -16,6 +16,7 @@ import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConjunctionUtils;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
@@ -33,6 +34,8 @@ import org.apache.lucene.util.BitSet;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.SparseFixedBitSet;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -43,11 +46,18 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -59,10 +69,28 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      */
     private static int CHECK_CANCELLED_SCORER_INTERVAL = 1 << 11;
 
+    /**
+     * The maximum number of documents a leaf slice may hold, unless it consists of a single larger segment.
+     */
+    static final int MAX_DOCS_PER_SLICE = 250_000;
+
+    /**
+     * The maximum number of segments a leaf slice may hold.
+     */
+    static final int MAX_SEGMENTS_PER_SLICE = 5;
+
     private AggregatedDfs aggregatedDfs;
     private QueryProfiler profiler;
     private MutableQueryTimeout cancellable;
 
+    /**
+     * The executor that leaf slices are searched on, or <code>null</code> if all leaves are searched sequentially on the calling thread.
+     */
+    @Nullable
+    private final Executor executor;
+    @Nullable
+    private final LeafSlice[] leafSlices;
+
     public ContextIndexSearcher(
         IndexReader reader,
         Similarity similarity,
@@ -70,7 +98,23 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCachingPolicy queryCachingPolicy,
         boolean wrapWithExitableDirectoryReader
     ) throws IOException {
-        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader);
+        this(reader, similarity, queryCache, queryCachingPolicy, wrapWithExitableDirectoryReader, null);
+    }
+
+    /**
+     * Creates a searcher that partitions the leaves of the provided <code>reader</code> into slices and searches them in parallel on
+     * the provided <code>executor</code> when {@link #search(Query, CollectorManager)} is used. A <code>null</code> executor disables
+     * concurrent search.
+     */
+    public ContextIndexSearcher(
+        IndexReader reader,
+        Similarity similarity,
+        QueryCache queryCache,
+        QueryCachingPolicy queryCachingPolicy,
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor executor
+    ) throws IOException {
+        this(reader, similarity, queryCache, queryCachingPolicy, new MutableQueryTimeout(), wrapWithExitableDirectoryReader, executor);
     }
 
     private ContextIndexSearcher(
@@ -79,13 +123,16 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         QueryCache queryCache,
         QueryCachingPolicy queryCachingPolicy,
         MutableQueryTimeout cancellable,
-        boolean wrapWithExitableDirectoryReader
+        boolean wrapWithExitableDirectoryReader,
+        @Nullable Executor executor
     ) throws IOException {
         super(wrapWithExitableDirectoryReader ? new ExitableDirectoryReader((DirectoryReader) reader, cancellable) : reader);
         setSimilarity(similarity);
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
         this.cancellable = cancellable;
+        this.executor = executor;
+        this.leafSlices = executor == null ? null : slices(leafContexts, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
     }
 
     public void setProfiler(QueryProfiler profiler) {
@@ -121,6 +168,14 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         return this.cancellable.isEnabled();
     }
 
+    /**
+     * Returns the number of leaf slices that {@link #search(Query, CollectorManager)} searches in parallel, or <code>1</code>
+     * if concurrent search is disabled for this searcher.
+     */
+    public int getSliceCount() {
+        return leafSlices == null ? 1 : leafSlices.length;
+    }
+
     public void setAggregatedDfs(AggregatedDfs aggregatedDfs) {
         this.aggregatedDfs = aggregatedDfs;
     }
@@ -162,6 +217,91 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    /**
+     * Searches the provided query with one collector per leaf slice and reduces them with the provided
+     * <code>collectorManager</code>. All slices but the last are forked to the executor this searcher was created with and the
+     * last one is searched on the calling thread. Slices are searched sequentially on the calling thread when the search is
+     * profiled since profile timers are not thread-safe, which still reports one collector tree per slice.
+     */
+    @Override
+    public <C extends Collector, T> T search(Query query, CollectorManager<C, T> collectorManager) throws IOException {
+        if (leafSlices == null || leafSlices.length <= 1) {
+            final C collector = collectorManager.newCollector();
+            search(query, collector);
+            return collectorManager.reduce(Collections.singletonList(collector));
+        }
+        final List<C> collectors = new ArrayList<>(leafSlices.length);
+        ScoreMode scoreMode = null;
+        for (int i = 0; i < leafSlices.length; i++) {
+            final C collector = collectorManager.newCollector();
+            if (scoreMode == null) {
+                scoreMode = collector.scoreMode();
+            } else if (scoreMode != collector.scoreMode()) {
+                throw new IllegalStateException("CollectorManager does not always produce collectors with the same score mode");
+            }
+            collectors.add(collector);
+        }
+        final Weight weight = createWeight(rewrite(query), scoreMode, 1);
+        // once a slice failed there is no point in starting the remaining ones
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<FutureTask<C>> tasks = new ArrayList<>(leafSlices.length);
+        for (int i = 0; i < leafSlices.length; i++) {
+            final List<LeafReaderContext> leaves = Arrays.asList(leafSlices[i].leaves);
+            final C collector = collectors.get(i);
+            tasks.add(new FutureTask<>(() -> {
+                if (failed.get() == false) {
+                    try {
+                        search(leaves, weight, collector);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+                return collector;
+            }));
+        }
+        final boolean fork = profiler == null;
+        for (int i = 0; i < tasks.size(); i++) {
+            final FutureTask<C> task = tasks.get(i);
+            if (fork && i < tasks.size() - 1) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            } else {
+                task.run();
+            }
+        }
+        // wait for all slices, even failed ones, so that no slice keeps using the reader once we return
+        Throwable failure = null;
+        for (FutureTask<C> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException(e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            } else if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (failure instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(failure);
+        }
+        return collectorManager.reduce(collectors);
+    }
+
     public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         for (LeafReaderContext ctx : leaves) { // search each subreader
             searchLeaf(ctx, weight, collector);
@@ -11,6 +11,7 @@ package org.elasticsearch.search.profile.query;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.ScoreMode;
 
 import java.io.IOException;
@@ -53,6 +54,19 @@ public class InternalProfileCollector implements Collector {
         this.children = children;
     }
 
+    /**
+     * Creates a profile collector that groups the collector trees of the leaf slices of a concurrent search.
+     * It is never used to collect documents itself and reports the time spent in all of its children.
+     */
+    public static InternalProfileCollector forSlices(List<InternalProfileCollector> slices) {
+        return new InternalProfileCollector(MultiCollector.wrap(slices), CollectorResult.REASON_SEARCH_CONCURRENT, slices) {
+            @Override
+            public long getTime() {
+                return slices.stream().mapToLong(InternalProfileCollector::getTime).sum();
+            }
+        };
+    }
+
     /**
      * @return the profiled time for this collector (inclusive of children)
      */
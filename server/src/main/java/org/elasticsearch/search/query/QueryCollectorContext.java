@@ -17,6 +17,9 @@ import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Weight;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
 import org.elasticsearch.common.lucene.search.FilteredCollector;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
 
 import java.io.IOException;
@@ -24,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.elasticsearch.search.profile.query.CollectorResult.REASON_SEARCH_MIN_SCORE;
 import static org.elasticsearch.search.profile.query.CollectorResult.REASON_SEARCH_MULTI;
@@ -61,6 +66,37 @@ abstract class QueryCollectorContext {
         return new InternalProfileCollector(collector, profilerName, in != null ? Collections.singletonList(in) : Collections.emptyList());
     }
 
+    /**
+     * Returns true if this context can create one collector per leaf slice with {@link #createForSlice(Collector)},
+     * so that the query can be executed concurrently over the slices of the index reader.
+     */
+    boolean supportsConcurrentCollection() {
+        return false;
+    }
+
+    /**
+     * Creates a collector for a single leaf slice of a concurrent search that delegates documents to the provided
+     * <code>in</code> collector. Contexts that keep state across the search must return a new collector for each slice
+     * and merge them in {@link #reduceSlices()}.
+     * @param in The delegate collector
+     */
+    Collector createForSlice(Collector in) throws IOException {
+        return create(in);
+    }
+
+    /**
+     * Wraps the collector of a single leaf slice with a profiler
+     */
+    protected InternalProfileCollector createForSliceWithProfiler(InternalProfileCollector in) throws IOException {
+        final Collector collector = createForSlice(in);
+        return new InternalProfileCollector(collector, profilerName, in != null ? Collections.singletonList(in) : Collections.emptyList());
+    }
+
+    /**
+     * Merges the state of the collectors created by {@link #createForSlice(Collector)} once all slices have been searched.
+     */
+    void reduceSlices() throws IOException {}
+
     /**
      * Post-process <code>result</code> after search execution.
      *
@@ -92,6 +128,32 @@ abstract class QueryCollectorContext {
         return collector;
     }
 
+    /**
+     * Creates the collector tree of a single leaf slice from the provided <code>collectors</code>
+     * @param collectors Ordered list of collector context that all support concurrent collection
+     */
+    static Collector createSliceQueryCollector(List<QueryCollectorContext> collectors) throws IOException {
+        Collector collector = null;
+        for (QueryCollectorContext ctx : collectors) {
+            assert ctx.supportsConcurrentCollection();
+            collector = ctx.createForSlice(collector);
+        }
+        return collector;
+    }
+
+    /**
+     * Creates the collector tree of a single leaf slice from the provided <code>collectors</code> and wraps each collector with a profiler
+     * @param collectors Ordered list of collector context that all support concurrent collection
+     */
+    static InternalProfileCollector createSliceQueryCollectorWithProfiler(List<QueryCollectorContext> collectors) throws IOException {
+        InternalProfileCollector collector = null;
+        for (QueryCollectorContext ctx : collectors) {
+            assert ctx.supportsConcurrentCollection();
+            collector = ctx.createForSliceWithProfiler(collector);
+        }
+        return collector;
+    }
+
     /**
      * Filters documents with a query score greater than <code>minScore</code>
      * @param minScore The minimum score filter
@@ -102,6 +164,11 @@ abstract class QueryCollectorContext {
             Collector create(Collector in) {
                 return new MinimumScoreCollector(in, minScore);
             }
+
+            @Override
+            boolean supportsConcurrentCollection() {
+                return true;
+            }
         };
     }
 
@@ -110,18 +177,38 @@ abstract class QueryCollectorContext {
      */
     static QueryCollectorContext createFilteredCollectorContext(IndexSearcher searcher, Query query) {
         return new QueryCollectorContext(REASON_SEARCH_POST_FILTER) {
+            private Weight filterWeight;
+
             @Override
             Collector create(Collector in) throws IOException {
-                final Weight filterWeight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+                // the weight is shared by the collectors of all leaf slices
+                if (filterWeight == null) {
+                    filterWeight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+                }
                 return new FilteredCollector(in, filterWeight);
             }
+
+            @Override
+            boolean supportsConcurrentCollection() {
+                return true;
+            }
         };
     }
 
     /**
-     * Creates a multi collector from the provided <code>subs</code>
+     * Creates a multi collector from the provided <code>queryCollectors</code>. If the only query collector is the one of the
+     * provided <code>aggregations</code>, each leaf slice of a concurrent search gets its own set of aggregators. Profiled
+     * aggregations are collected by a single set of aggregators, so that the query is collected sequentially.
      */
-    static QueryCollectorContext createMultiCollectorContext(Collection<Collector> subs) {
+    static QueryCollectorContext createMultiCollectorContext(
+        Map<Class<?>, Collector> queryCollectors,
+        @Nullable SearchContextAggregations aggregations
+    ) {
+        final Collection<Collector> subs = queryCollectors.values();
+        final boolean concurrentAggregations = aggregations != null
+            && queryCollectors.keySet().equals(Set.of(AggregationPhase.class))
+            && aggregations.supportsConcurrentCollection()
+            && subs.stream().noneMatch(collector -> collector instanceof InternalProfileCollector);
         return new QueryCollectorContext(REASON_SEARCH_MULTI) {
             @Override
             Collector create(Collector in) {
@@ -144,6 +231,16 @@ abstract class QueryCollectorContext {
                 final Collector collector = MultiCollector.wrap(subCollectors);
                 return new InternalProfileCollector(collector, REASON_SEARCH_MULTI, subCollectors);
             }
+
+            @Override
+            boolean supportsConcurrentCollection() {
+                return concurrentAggregations;
+            }
+
+            @Override
+            Collector createForSlice(Collector in) throws IOException {
+                return MultiCollector.wrap(in, aggregations.newSliceCollector());
+            }
         };
     }
 
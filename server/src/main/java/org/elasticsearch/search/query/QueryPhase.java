@@ -15,6 +15,7 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
@@ -40,7 +41,10 @@ import org.elasticsearch.search.suggest.SuggestPhase;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTerminationCollectorContext;
@@ -155,7 +159,7 @@ public class QueryPhase {
             }
             if (searchContext.queryCollectors().isEmpty() == false) {
                 // plug in additional collectors, like aggregations
-                collectors.add(createMultiCollectorContext(searchContext.queryCollectors().values()));
+                collectors.add(createMultiCollectorContext(searchContext.queryCollectors(), searchContext.aggregations()));
             }
             if (searchContext.minimumScore() != null) {
                 // apply the minimum score after multi collector so we filter aggs as well
@@ -219,27 +223,26 @@ public class QueryPhase {
         // add the top docs collector, the first collector context in the chain
         collectors.addFirst(topDocsFactory);
 
-        final Collector queryCollector;
-        if (searchContext.getProfilers() != null) {
-            InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
-            searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
-            queryCollector = profileCollector;
+        if (searcher.getSliceCount() > 1 && collectors.stream().allMatch(QueryCollectorContext::supportsConcurrentCollection)) {
+            searchConcurrently(searchContext, searcher, query, collectors, timeoutSet);
         } else {
-            queryCollector = QueryCollectorContext.createQueryCollector(collectors);
-        }
-        QuerySearchResult queryResult = searchContext.queryResult();
-        try {
-            searcher.search(query, queryCollector);
-        } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
-            queryResult.terminatedEarly(true);
-        } catch (TimeExceededException e) {
-            assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
-            if (searchContext.request().allowPartialSearchResults() == false) {
-                // Can't rethrow TimeExceededException because not serializable
-                throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
+            final Collector queryCollector;
+            if (searchContext.getProfilers() != null) {
+                InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
+                searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
+                queryCollector = profileCollector;
+            } else {
+                queryCollector = QueryCollectorContext.createQueryCollector(collectors);
+            }
+            try {
+                searcher.search(query, queryCollector);
+            } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
+                searchContext.queryResult().terminatedEarly(true);
+            } catch (TimeExceededException e) {
+                handleTimeExceeded(searchContext, timeoutSet);
             }
-            queryResult.searchTimedOut(true);
         }
+        QuerySearchResult queryResult = searchContext.queryResult();
         if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER && queryResult.terminatedEarly() == null) {
             queryResult.terminatedEarly(false);
         }
@@ -249,6 +252,58 @@ public class QueryPhase {
         return topDocsFactory.shouldRescore();
     }
 
+    /**
+     * Searches each leaf slice of the <code>searcher</code> with its own collector tree and merges the per-slice results into
+     * the <code>collectors</code> so that they can be post-processed as if the query was collected by a single collector tree.
+     */
+    private static void searchConcurrently(
+        SearchContext searchContext,
+        ContextIndexSearcher searcher,
+        Query query,
+        LinkedList<QueryCollectorContext> collectors,
+        boolean timeoutSet
+    ) throws IOException {
+        final boolean profile = searchContext.getProfilers() != null;
+        final List<InternalProfileCollector> sliceProfileCollectors = new ArrayList<>();
+        try {
+            searcher.search(query, new CollectorManager<Collector, Void>() {
+                @Override
+                public Collector newCollector() throws IOException {
+                    if (profile) {
+                        InternalProfileCollector profileCollector = QueryCollectorContext.createSliceQueryCollectorWithProfiler(collectors);
+                        sliceProfileCollectors.add(profileCollector);
+                        return profileCollector;
+                    } else {
+                        return QueryCollectorContext.createSliceQueryCollector(collectors);
+                    }
+                }
+
+                @Override
+                public Void reduce(Collection<Collector> sliceCollectors) {
+                    // slices are merged below, also when the search timed out
+                    return null;
+                }
+            });
+        } catch (TimeExceededException e) {
+            handleTimeExceeded(searchContext, timeoutSet);
+        }
+        for (QueryCollectorContext ctx : collectors) {
+            ctx.reduceSlices();
+        }
+        if (profile) {
+            searchContext.getProfilers().getCurrentQueryProfiler().setCollector(InternalProfileCollector.forSlices(sliceProfileCollectors));
+        }
+    }
+
+    private static void handleTimeExceeded(SearchContext searchContext, boolean timeoutSet) {
+        assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
+        if (searchContext.request().allowPartialSearchResults() == false) {
+            // Can't rethrow TimeExceededException because not serializable
+            throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Time exceeded");
+        }
+        searchContext.queryResult().searchTimedOut(true);
+    }
+
     /**
      * Returns whether collection within the provided <code>reader</code> can be early-terminated if it sorts
      * with <code>sortAndFormats</code>.
@@ -56,6 +56,8 @@ import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -90,7 +92,11 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
     static class EmptyTopDocsCollectorContext extends TopDocsCollectorContext {
         private final Sort sort;
         private final Collector collector;
-        private final Supplier<TotalHits> hitCountSupplier;
+        private final int trackTotalHitsUpTo;
+        private final int hitCount;
+        private final List<TotalHitCountCollector> sliceHitCountCollectors = new ArrayList<>();
+        private final List<EarlyTerminatingCollector> sliceCollectors = new ArrayList<>();
+        private Supplier<TotalHits> hitCountSupplier;
 
         /**
          * Ctr
@@ -108,14 +114,16 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         ) throws IOException {
             super(REASON_SEARCH_COUNT, 0);
             this.sort = sortAndFormats == null ? null : sortAndFormats.sort;
+            this.trackTotalHitsUpTo = trackTotalHitsUpTo;
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+                this.hitCount = -1;
                 this.collector = new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
                 // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
                 this.hitCountSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
             } else {
                 TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
                 // implicit total hit counts are valid only when there is no filter collector in the chain
-                int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
+                this.hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
                     if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
                         this.collector = hitCountCollector;
@@ -141,6 +149,50 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return collector;
         }
 
+        @Override
+        boolean supportsConcurrentCollection() {
+            return true;
+        }
+
+        @Override
+        Collector createForSlice(Collector in) {
+            assert in == null;
+            final int maxCountHits;
+            if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED || hitCount != -1) {
+                maxCountHits = 0;
+            } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
+                maxCountHits = Integer.MAX_VALUE;
+            } else {
+                maxCountHits = trackTotalHitsUpTo;
+            }
+            final TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+            final EarlyTerminatingCollector sliceCollector = new EarlyTerminatingCollector(hitCountCollector, maxCountHits, false);
+            sliceHitCountCollectors.add(hitCountCollector);
+            sliceCollectors.add(sliceCollector);
+            return sliceCollector;
+        }
+
+        @Override
+        void reduceSlices() {
+            if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED || hitCount != -1) {
+                // the hit count does not depend on the collection
+                return;
+            }
+            long totalHits = 0;
+            for (TotalHitCountCollector hitCountCollector : sliceHitCountCollectors) {
+                totalHits += hitCountCollector.getTotalHits();
+            }
+            final boolean earlyTerminated = sliceCollectors.stream().anyMatch(EarlyTerminatingCollector::hasEarlyTerminated);
+            final TotalHits reduced;
+            if (trackTotalHitsUpTo != SearchContext.TRACK_TOTAL_HITS_ACCURATE && (earlyTerminated || totalHits > trackTotalHitsUpTo)) {
+                // a single collector stops counting once the threshold is reached, report the same lower bound
+                reduced = new TotalHits(trackTotalHitsUpTo, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+            } else {
+                reduced = new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO);
+            }
+            this.hitCountSupplier = () -> reduced;
+        }
+
         @Override
         void postProcess(QuerySearchResult result) {
             final TotalHits totalHitCount = hitCountSupplier.get();
@@ -218,10 +270,15 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
 
         protected final @Nullable SortAndFormats sortAndFormats;
+        private final @Nullable ScoreDoc searchAfter;
+        private final boolean trackMaxScore;
+        private final int hitCountThreshold;
         private final Collector collector;
         private final Supplier<TotalHits> totalHitsSupplier;
-        private final Supplier<TopDocs> topDocsSupplier;
-        private final Supplier<Float> maxScoreSupplier;
+        private final List<TopDocsCollector<?>> sliceTopDocsCollectors = new ArrayList<>();
+        private final List<MaxScoreCollector> sliceMaxScoreCollectors = new ArrayList<>();
+        private Supplier<TopDocs> topDocsSupplier;
+        private Supplier<Float> maxScoreSupplier;
 
         /**
          * Ctr
@@ -246,34 +303,32 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         ) throws IOException {
             super(REASON_SEARCH_TOP_HITS, numHits);
             this.sortAndFormats = sortAndFormats;
-
-            final TopDocsCollector<?> topDocsCollector;
+            this.searchAfter = searchAfter;
+            this.trackMaxScore = trackMaxScore;
 
             if ((sortAndFormats == null || SortField.FIELD_SCORE.equals(sortAndFormats.sort.getSort()[0])) && hasInfMaxScore(query)) {
                 // disable max score optimization since we have a mandatory clause
                 // that doesn't track the maximum score
-                topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, Integer.MAX_VALUE);
-                topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                hitCountThreshold = Integer.MAX_VALUE;
                 totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
             } else if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
                 // don't compute hit counts via the collector
-                topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                hitCountThreshold = 1;
                 totalHitsSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
             } else {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 final int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, trackTotalHitsUpTo);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                    hitCountThreshold = trackTotalHitsUpTo;
                     totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
                 } else {
                     // don't compute hit counts via the collector
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                    hitCountThreshold = 1;
                     totalHitsSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
                 }
             }
+            final TopDocsCollector<?> topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
             MaxScoreCollector maxScoreCollector = null;
             if (sortAndFormats == null) {
                 maxScoreSupplier = () -> {
@@ -301,6 +356,65 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return collector;
         }
 
+        @Override
+        boolean supportsConcurrentCollection() {
+            return true;
+        }
+
+        @Override
+        Collector createForSlice(Collector in) {
+            assert in == null;
+            final TopDocsCollector<?> topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            sliceTopDocsCollectors.add(topDocsCollector);
+            MaxScoreCollector maxScoreCollector = null;
+            if (sortAndFormats != null && trackMaxScore) {
+                maxScoreCollector = new MaxScoreCollector();
+                sliceMaxScoreCollectors.add(maxScoreCollector);
+            }
+            return MultiCollector.wrap(topDocsCollector, maxScoreCollector);
+        }
+
+        @Override
+        void reduceSlices() {
+            final TopDocs[] sliceTopDocs = new TopDocs[sliceTopDocsCollectors.size()];
+            for (int i = 0; i < sliceTopDocs.length; i++) {
+                sliceTopDocs[i] = sliceTopDocsCollectors.get(i).topDocs();
+            }
+            // doc ids are global to the shard so ties are broken the same way as a single collector would
+            TopDocs merged;
+            if (sortAndFormats == null) {
+                merged = TopDocs.merge(numHits, sliceTopDocs);
+            } else {
+                final TopFieldDocs[] sliceTopFieldDocs = new TopFieldDocs[sliceTopDocs.length];
+                for (int i = 0; i < sliceTopDocs.length; i++) {
+                    sliceTopFieldDocs[i] = (TopFieldDocs) sliceTopDocs[i];
+                }
+                merged = TopDocs.merge(sortAndFormats.sort, numHits, sliceTopFieldDocs);
+            }
+            if (merged.totalHits.relation == TotalHits.Relation.EQUAL_TO && merged.totalHits.value > Math.max(hitCountThreshold, numHits)) {
+                // the slices counted their hits exactly but a single collector would have stopped counting at the threshold
+                final TotalHits totalHits = new TotalHits(merged.totalHits.value, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                if (merged instanceof TopFieldDocs fieldDocs) {
+                    merged = new TopFieldDocs(totalHits, fieldDocs.scoreDocs, fieldDocs.fields);
+                } else {
+                    merged = new TopDocs(totalHits, merged.scoreDocs);
+                }
+            }
+            final TopDocs reduced = merged;
+            topDocsSupplier = () -> reduced;
+            if (sortAndFormats != null && trackMaxScore) {
+                float maxScore = Float.NaN;
+                for (MaxScoreCollector maxScoreCollector : sliceMaxScoreCollectors) {
+                    final float sliceMaxScore = maxScoreCollector.getMaxScore();
+                    if (Float.isNaN(maxScore) || sliceMaxScore > maxScore) {
+                        maxScore = sliceMaxScore;
+                    }
+                }
+                final float reducedMaxScore = maxScore;
+                maxScoreSupplier = () -> reducedMaxScore;
+            }
+        }
+
         TopDocsAndMaxScore newTopDocs() {
             TopDocs in = topDocsSupplier.get();
             float maxScore = maxScoreSupplier.get();
@@ -349,6 +463,12 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             this.numberOfShards = numberOfShards;
         }
 
+        @Override
+        boolean supportsConcurrentCollection() {
+            // the last emitted doc of a scroll must be resolved in doc id order across all leaves
+            return false;
+        }
+
         @Override
         void postProcess(QuerySearchResult result) throws IOException {
             final TopDocsAndMaxScore topDocs = newTopDocs();
@@ -128,6 +128,8 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
 
     public static final Version FILE_INFO_WRITER_UUIDS_IN_SHARD_DATA_VERSION = Version.V_7_16_0;
 
+    public static final Version CHUNKED_FILE_INFOS_IN_SHARD_DATA_VERSION = Version.V_8_1_0;
+
     public static final Version OLD_SNAPSHOT_FORMAT = Version.V_7_5_0;
 
     public static final String POLICY_ID_METADATA_FIELD = "policy";
@@ -2359,6 +2361,17 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         return repositoryMetaVersion.onOrAfter(FILE_INFO_WRITER_UUIDS_IN_SHARD_DATA_VERSION);
     }
 
+    /**
+     * Checks whether the files of shard snapshots can be stored as content-defined chunks, which older nodes cannot read, in a repository
+     * with the given metadata version.
+     *
+     * @param repositoryMetaVersion version to check
+     * @return true if files may be stored as chunks
+     */
+    public static boolean useChunkedFileInfos(Version repositoryMetaVersion) {
+        return repositoryMetaVersion.onOrAfter(CHUNKED_FILE_INFOS_IN_SHARD_DATA_VERSION);
+    }
+
     /** Deletes snapshot from repository
      *
      * @param deleteEntry       delete entry in cluster state
@@ -8,10 +8,19 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.apache.lucene.util.TestUtil.randomSimpleString;
 
 public class BulkShardRequestTests extends ESTestCase {
@@ -31,4 +40,49 @@ public class BulkShardRequestTests extends ESTestCase {
         assertEquals("BulkShardRequest [" + shardId + "] containing [" + count + "] requests blocking until refresh", r.toString());
         assertEquals("requests[" + count + "], index[" + index + "][0], refresh[WAIT_UNTIL]", r.getDescription());
     }
+
+    public void testSourcesAreSlicedFromTheReceivedBytes() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final IndexRequest indexRequest = new IndexRequest("index").id("id").source(Requests.INDEX_CONTENT_TYPE, "field", "value");
+        final BulkShardRequest original = new BulkShardRequest(
+            shardId,
+            RefreshPolicy.NONE,
+            new BulkItemRequest[] { new BulkItemRequest(0, indexRequest) }
+        );
+
+        final BulkShardRequest deserialized;
+        final AtomicBoolean released = new AtomicBoolean();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            original.writeTo(out);
+            try (
+                ReleasableBytesReference received = new ReleasableBytesReference(
+                    out.bytes(),
+                    AbstractRefCounted.of(() -> released.set(true))
+                );
+                StreamInput in = received.streamInput()
+            ) {
+                deserialized = new BulkShardRequest(in);
+            }
+        }
+
+        // the transport layer is done with the received bytes but the request still references the sources
+        assertFalse(released.get());
+        assertTrue(deserialized.hasReferences());
+        final IndexRequest deserializedIndexRequest = (IndexRequest) deserialized.items()[0].request();
+        assertEquals(indexRequest.source(), deserializedIndexRequest.source());
+
+        deserialized.incRef();
+        assertFalse(deserialized.decRef());
+        assertFalse(released.get());
+        assertTrue(deserialized.decRef());
+        assertTrue(released.get());
+        assertFalse(deserialized.hasReferences());
+    }
+
+    public void testLocalRequestsAreNotRefCounted() {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final BulkShardRequest request = new BulkShardRequest(shardId, RefreshPolicy.NONE, new BulkItemRequest[0]);
+        assertFalse(request.decRef());
+        assertTrue(request.hasReferences());
+    }
 }
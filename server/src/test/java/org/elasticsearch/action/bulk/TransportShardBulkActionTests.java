@@ -27,10 +27,15 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.internal.Requests;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.bulk.stats.BulkStats;
 import org.elasticsearch.index.bulk.stats.ShardBulkStats;
@@ -50,10 +55,14 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.threadpool.ThreadPool.Names;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -63,6 +72,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -957,6 +967,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
             );
             when(shard.getFailedIndexResult(any(EsRejectedExecutionException.class), anyLong())).thenCallRealMethod();
             when(shard.mapperService()).thenReturn(mock(MapperService.class));
+            when(shard.indexSettings()).thenReturn(new IndexSettings(indexMetadata(), Settings.EMPTY));
 
             randomlySetIgnoredPrimaryResponse(items[0]);
 
@@ -1064,6 +1075,249 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         latch.await();
     }
 
+    public void testPerformOnPrimaryWithParallelParsing() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        Settings settings = Settings.builder()
+            .put(idxSettings)
+            .put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING.getKey(), randomIntBetween(1, 4))
+            .build();
+        updateMappings(shard, IndexMetadata.builder(indexMetadata()).settings(settings).build());
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 100)];
+        int failingItem = randomIntBetween(0, items.length - 1);
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, indexRequests(items, failingItem));
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> fail("should not have had to update the mappings"),
+            listener -> fail("should not have had to wait for a mapping update"),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {}), latch),
+            threadPool,
+            Names.WRITE,
+            indexingPressure
+        );
+        latch.await();
+
+        assertItemResponses(items, failingItem);
+        assertDocCount(shard, items.length - 1);
+        // the documents that were parsed ahead are released once they are taken or the request completes
+        assertBusy(() -> assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L)));
+        closeShards(shard);
+    }
+
+    public void testExecuteBulkItemRequestUsesDocumentsParsedAhead() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        updateMappings(shard, indexMetadata());
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 100)];
+        int failingItem = randomIntBetween(0, items.length - 1);
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, indexRequests(items, failingItem));
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+
+        BulkItemParser itemParser = new BulkItemParser(bulkShardRequest, shard, indexingPressure);
+        // parses every document ahead on this thread
+        itemParser.start(Runnable::run, 1);
+        assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), greaterThan(0L));
+
+        executeBulkItemRequests(new BulkPrimaryExecutionContext(bulkShardRequest, shard), itemParser);
+        itemParser.stop();
+
+        // the document that fails to parse is parsed again to report the failure
+        assertThat(itemParser.parsedAheadTaken(), equalTo(items.length - 1));
+        assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L));
+        assertItemResponses(items, failingItem);
+        assertDocCount(shard, items.length - 1);
+        closeShards(shard);
+    }
+
+    public void testParsingAheadStopsAtIndexingPressureLimit() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        updateMappings(shard, indexMetadata());
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 100)];
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, indexRequests(items, -1));
+        IndexingPressure indexingPressure = new IndexingPressure(
+            Settings.builder().put(IndexingPressure.MAX_INDEXING_BYTES.getKey(), "1b").build()
+        );
+
+        BulkItemParser itemParser = new BulkItemParser(bulkShardRequest, shard, indexingPressure);
+        itemParser.start(Runnable::run, 1);
+        assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L));
+
+        executeBulkItemRequests(new BulkPrimaryExecutionContext(bulkShardRequest, shard), itemParser);
+        itemParser.stop();
+
+        assertThat(itemParser.parsedAheadTaken(), equalTo(0));
+        assertThat(indexingPressure.stats().getPrimaryRejections(), equalTo(0L));
+        assertItemResponses(items, -1);
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
+    public void testParsingTasksHoldTheRequestUntilTheyComplete() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        updateMappings(shard, indexMetadata());
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 100)];
+        AtomicBoolean released = new AtomicBoolean();
+        BulkShardRequest bulkShardRequest = receivedRequest(
+            new BulkShardRequest(shardId, RefreshPolicy.NONE, indexRequests(items, -1)),
+            released
+        );
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+
+        // the parsing tasks are still queued or running when the request completes
+        List<Runnable> tasks = new ArrayList<>();
+        BulkItemParser itemParser = new BulkItemParser(bulkShardRequest, shard, indexingPressure);
+        int threads = randomIntBetween(1, 4);
+        itemParser.start(tasks::add, threads);
+        assertThat(tasks, hasSize(threads));
+
+        final boolean completed = randomBoolean();
+        if (completed) {
+            // the write thread parses the documents that are not parsed ahead
+            executeBulkItemRequests(new BulkPrimaryExecutionContext(bulkShardRequest, shard), itemParser);
+            assertItemResponses(bulkShardRequest.items(), -1);
+        }
+        // otherwise the request fails before any document is indexed
+        itemParser.stop();
+        // the transport handler releases its reference once the request is done
+        bulkShardRequest.decRef();
+        assertFalse("the parsing tasks still reference the sources", released.get());
+
+        for (Runnable task : tasks) {
+            assertFalse(released.get());
+            task.run();
+        }
+        assertTrue(released.get());
+        assertThat(itemParser.parsedAheadTaken(), equalTo(0));
+        assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L));
+        assertDocCount(shard, completed ? items.length : 0);
+        closeShards(shard);
+    }
+
+    public void testReleasingTheReceivedRequestWhileParsingAhead() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        Settings settings = Settings.builder()
+            .put(idxSettings)
+            .put(IndexSettings.INDEX_BULK_PARALLEL_PARSING_THREADS_SETTING.getKey(), randomIntBetween(1, 4))
+            .build();
+        updateMappings(shard, IndexMetadata.builder(indexMetadata()).settings(settings).build());
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 100)];
+        AtomicBoolean released = new AtomicBoolean();
+        BulkShardRequest bulkShardRequest = receivedRequest(
+            new BulkShardRequest(shardId, RefreshPolicy.NONE, indexRequests(items, -1)),
+            released
+        );
+        IndexingPressure indexingPressure = new IndexingPressure(Settings.EMPTY);
+
+        // occupy every parsing thread so that the parse-ahead tasks are still queued when the shard request completes
+        final int parsingThreads = threadPool.info(Names.BULK_PARSING).getMax();
+        final CountDownLatch blockParsing = new CountDownLatch(1);
+        final CyclicBarrier parsingBlocked = new CyclicBarrier(parsingThreads + 1);
+        for (int i = 0; i < parsingThreads; i++) {
+            threadPool.executor(Names.BULK_PARSING).execute(() -> {
+                try {
+                    parsingBlocked.await();
+                    blockParsing.await();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        parsingBlocked.await();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> fail("should not have had to update the mappings"),
+            listener -> fail("should not have had to wait for a mapping update"),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {}), latch),
+            threadPool,
+            Names.WRITE,
+            indexingPressure
+        );
+        latch.await();
+        assertItemResponses(bulkShardRequest.items(), -1);
+
+        // the transport handler releases the request once it completes, the queued parse-ahead tasks still reference its sources
+        assertFalse(bulkShardRequest.decRef());
+        assertFalse(released.get());
+
+        blockParsing.countDown();
+        assertBusy(() -> assertTrue(released.get()));
+        assertThat(indexingPressure.stats().getCurrentPrimaryBytes(), equalTo(0L));
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
+    /**
+     * Returns a copy of the given request as if it was received over the transport: its sources are slices of the received bytes,
+     * which are released once the request and everything that references it are done.
+     */
+    private static BulkShardRequest receivedRequest(BulkShardRequest request, AtomicBoolean released) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            request.writeTo(out);
+            try (
+                ReleasableBytesReference received = new ReleasableBytesReference(
+                    out.bytes(),
+                    AbstractRefCounted.of(() -> released.set(true))
+                );
+                StreamInput in = received.streamInput()
+            ) {
+                return new BulkShardRequest(in);
+            }
+        }
+    }
+
+    /**
+     * Fills the given array with index requests, the document of the one at {@code failingItem} fails to parse.
+     */
+    private static BulkItemRequest[] indexRequests(BulkItemRequest[] items, int failingItem) {
+        for (int i = 0; i < items.length; i++) {
+            IndexRequest writeRequest = new IndexRequest("index").id("id_" + i);
+            if (i == failingItem) {
+                // objects can't be parsed into a text field
+                writeRequest.source(Requests.INDEX_CONTENT_TYPE, "foo", Map.of("bar", "baz"));
+            } else {
+                writeRequest.source(Requests.INDEX_CONTENT_TYPE, "foo", "bar" + i);
+            }
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        return items;
+    }
+
+    private void executeBulkItemRequests(BulkPrimaryExecutionContext context, BulkItemParser itemParser) throws Exception {
+        while (context.hasMoreOperationsToExecute()) {
+            assertTrue(
+                TransportShardBulkAction.executeBulkItemRequest(
+                    context,
+                    itemParser,
+                    null,
+                    threadPool::absoluteTimeInMillis,
+                    (update, shardId, listener) -> fail("should not have had to update the mappings"),
+                    listener -> fail("should not have had to wait for a mapping update"),
+                    ASSERTING_DONE_LISTENER
+                )
+            );
+        }
+    }
+
+    private static void assertItemResponses(BulkItemRequest[] items, int failingItem) {
+        for (int i = 0; i < items.length; i++) {
+            BulkItemResponse primaryResponse = items[i].getPrimaryResponse();
+            assertThat(primaryResponse.getItemId(), equalTo(i));
+            assertThat(primaryResponse.getId(), equalTo("id_" + i));
+            assertThat(primaryResponse.isFailed(), equalTo(i == failingItem));
+        }
+    }
+
     private void randomlySetIgnoredPrimaryResponse(BulkItemRequest primaryRequest) {
         if (randomBoolean()) {
             // add a response to the request and thereby check that it is ignored for the primary.
@@ -42,7 +42,9 @@ import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.InternalFilters;
 import org.elasticsearch.search.aggregations.metrics.InternalMax;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -59,6 +61,7 @@ import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.search.suggest.phrase.PhraseSuggestion;
 import org.elasticsearch.search.suggest.term.TermSuggestion;
+import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.InternalAggregationTestCase;
@@ -642,6 +645,198 @@ public class SearchPhaseControllerTests extends ESTestCase {
         assertNull(reduce.sortedTopDocs.collapseValues);
     }
 
+    public void testStreamingConsumerWithShardFailures() throws Exception {
+        int numShards = randomIntBetween(1, 100);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")));
+        AssertingCircuitBreaker circuitBreaker = new AssertingCircuitBreaker(CircuitBreaker.REQUEST);
+        AtomicBoolean hasConsumedFailure = new AtomicBoolean();
+        QueryPhaseResultConsumer consumer = searchPhaseController.newSearchPhaseResults(
+            fixedExecutor,
+            circuitBreaker,
+            () -> false,
+            SearchProgressListener.NOOP,
+            request,
+            numShards,
+            exc -> hasConsumedFailure.set(true),
+            randomIntBetween(1, 4)
+        );
+        AtomicInteger max = new AtomicInteger();
+        AtomicInteger numSuccessful = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(numShards);
+        // the search action fails the search before reducing if no shard has a result
+        int successfulShard = randomIntBetween(0, numShards - 1);
+        for (int i = 0; i < numShards; i++) {
+            int id = i;
+            switch (id == successfulShard ? 2 : randomIntBetween(0, 2)) {
+                case 0 -> {
+                    // the shard failed, which the search action reports instead of a result
+                    consumer.consumeShardFailure(id);
+                    latch.countDown();
+                }
+                case 1 -> {
+                    // the shard was skipped or had no result
+                    QuerySearchResult empty = QuerySearchResult.nullInstance();
+                    empty.setShardIndex(id);
+                    empty.setSearchShardTarget(new SearchShardTarget("node", new ShardId("a", "b", id), null));
+                    consumer.consumeResult(empty, latch::countDown);
+                }
+                default -> {
+                    int number = randomIntBetween(1, 1000);
+                    max.updateAndGet(prev -> Math.max(prev, number));
+                    numSuccessful.incrementAndGet();
+                    Thread thread = new Thread(
+                        () -> consumer.consumeResult(
+                            streamingShardResult(id, number, new InternalMax("test", number, DocValueFormat.RAW, emptyMap())),
+                            latch::countDown
+                        )
+                    );
+                    threads.add(thread);
+                    thread.start();
+                }
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        latch.await();
+        SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+        assertFalse(hasConsumedFailure.get());
+        assertEquals(numSuccessful.get(), reduce.totalHits.value);
+        InternalMax internalMax = (InternalMax) reduce.aggregations.asList().get(0);
+        assertEquals(max.get(), internalMax.getValue(), 0.0D);
+        assertEquals(1, reduce.sortedTopDocs.scoreDocs.length);
+        assertEquals(max.get(), reduce.sortedTopDocs.scoreDocs[0].score, 0.0f);
+        consumer.close();
+        assertThat(circuitBreaker.allocated, equalTo(0L));
+    }
+
+    public void testStreamingConsumerCircuitBreakerTripsDuringPartialMerge() throws Exception {
+        int numShards = randomIntBetween(2, 20);
+        SearchRequest request = new SearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(0));
+        AssertingCircuitBreaker circuitBreaker = new AssertingCircuitBreaker(CircuitBreaker.REQUEST);
+        AtomicBoolean hasConsumedFailure = new AtomicBoolean();
+        QueryPhaseResultConsumer consumer = searchPhaseController.newSearchPhaseResults(
+            fixedExecutor,
+            circuitBreaker,
+            () -> false,
+            SearchProgressListener.NOOP,
+            request,
+            numShards,
+            exc -> hasConsumedFailure.set(true),
+            randomIntBetween(1, 4)
+        );
+        CountDownLatch latch = new CountDownLatch(numShards);
+        // the merge of the first two results waits for the executor, and then fails to account for its memory
+        CountDownLatch executorBlocked = blockExecutor();
+        InternalMax aggregation = new InternalMax("test", 0d, DocValueFormat.RAW, emptyMap());
+        for (int i = 0; i < 2; i++) {
+            consumer.consumeResult(streamingShardResult(i, 0, aggregation), latch::countDown);
+        }
+        assertThat(circuitBreaker.allocated, greaterThan(0L));
+        circuitBreaker.shouldBreak.set(true);
+        executorBlocked.countDown();
+        assertBusy(() -> assertTrue(hasConsumedFailure.get()));
+        circuitBreaker.shouldBreak.set(false);
+        assertThat(circuitBreaker.allocated, equalTo(0L));
+
+        // the results that come after the failure are released right away
+        for (int i = 2; i < numShards; i++) {
+            consumer.consumeResult(streamingShardResult(i, 0, aggregation), latch::countDown);
+        }
+        latch.await();
+        CircuitBreakingException exc = expectThrows(CircuitBreakingException.class, consumer::reduce);
+        assertThat(exc.getMessage(), containsString("<reduce_aggs>"));
+        consumer.close();
+        assertThat(circuitBreaker.allocated, equalTo(0L));
+    }
+
+    public void testStreamingConsumerCancelledDuringPartialMerge() throws Exception {
+        int numShards = randomIntBetween(2, 20);
+        SearchRequest request = new SearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(0));
+        AssertingCircuitBreaker circuitBreaker = new AssertingCircuitBreaker(CircuitBreaker.REQUEST);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Exception> consumedFailure = new AtomicReference<>();
+        QueryPhaseResultConsumer consumer = searchPhaseController.newSearchPhaseResults(
+            fixedExecutor,
+            circuitBreaker,
+            cancelled::get,
+            SearchProgressListener.NOOP,
+            request,
+            numShards,
+            consumedFailure::set,
+            randomIntBetween(1, 4)
+        );
+        CountDownLatch latch = new CountDownLatch(numShards);
+        // the merge of the first two results waits for the executor and runs once the search is cancelled
+        CountDownLatch executorBlocked = blockExecutor();
+        for (int i = 0; i < 2; i++) {
+            consumer.consumeResult(streamingShardResult(i, 0, filtersAggregation()), latch::countDown);
+        }
+        cancelled.set(true);
+        executorBlocked.countDown();
+        assertBusy(() -> assertThat(consumedFailure.get(), instanceOf(TaskCancelledException.class)));
+        assertThat(circuitBreaker.allocated, equalTo(0L));
+
+        for (int i = 2; i < numShards; i++) {
+            consumer.consumeResult(streamingShardResult(i, 0, filtersAggregation()), latch::countDown);
+        }
+        latch.await();
+        expectThrows(TaskCancelledException.class, consumer::reduce);
+        consumer.close();
+        assertThat(circuitBreaker.allocated, equalTo(0L));
+    }
+
+    /**
+     * Blocks the single thread of the executor until the returned latch is counted down, so that merges are queued.
+     */
+    private CountDownLatch blockExecutor() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        fixedExecutor.execute(() -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        started.await();
+        return blocked;
+    }
+
+    private static QuerySearchResult streamingShardResult(int shardIndex, float score, InternalAggregation aggregation) {
+        QuerySearchResult result = new QuerySearchResult(
+            new ShardSearchContextId(UUIDs.randomBase64UUID(), shardIndex),
+            new SearchShardTarget("node", new ShardId("a", "b", shardIndex), null),
+            null
+        );
+        result.topDocs(
+            new TopDocsAndMaxScore(
+                new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO), new ScoreDoc[] { new ScoreDoc(0, score) }),
+                score
+            ),
+            new DocValueFormat[0]
+        );
+        result.aggregations(InternalAggregations.from(singletonList(aggregation)));
+        result.setShardIndex(shardIndex);
+        result.size(1);
+        return result;
+    }
+
+    private static InternalFilters filtersAggregation() {
+        // the reduction of multi-bucket aggregations checks for cancellation
+        return new InternalFilters(
+            "test",
+            List.of(new InternalFilters.InternalBucket("bucket", 1, InternalAggregations.EMPTY, false)),
+            false,
+            emptyMap()
+        );
+    }
+
     public void testConsumerOnlyAggs() throws Exception {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
@@ -40,4 +40,11 @@ public class CacheBuilderTests extends ESTestCase {
         Cache<Object, Object> cache = CacheBuilder.builder().setExpireAfterWrite(timeValue).build();
         assertEquals(timeValue.getNanos(), cache.getExpireAfterWriteNanos());
     }
+
+    public void testSettingBufferReadPromotions() {
+        assertFalse(CacheBuilder.builder().build().bufferReadPromotions());
+        final boolean bufferReadPromotions = randomBoolean();
+        Cache<Object, Object> cache = CacheBuilder.builder().setBufferReadPromotions(bufferReadPromotions).build();
+        assertEquals(bufferReadPromotions, cache.bufferReadPromotions());
+    }
 }
@@ -879,6 +879,80 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // test that buffered promotions of contended reads keep the LRU list consistent with the cached entries
+    public void testTortureWithBufferedReadPromotions() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(1000)
+            .weigher((k, v) -> 2)
+            .setBufferReadPromotions(true)
+            .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(numberOfEntries);
+                        if (random.nextInt(4) == 0) {
+                            cache.put(key, Integer.toString(j));
+                        } else {
+                            cache.get(key);
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : cache.keys()) {
+            assertTrue("duplicate key [" + key + "] in the LRU list", keys.add(key));
+        }
+        assertEquals(keys.size(), cache.count());
+        assertEquals(2L * keys.size(), cache.weight());
+        Set<Integer> cachedKeys = new HashSet<>();
+        cache.forEach((k, v) -> cachedKeys.add(k));
+        assertEquals(keys, cachedKeys);
+    }
+
+    // without contention reads promote entries immediately, like without buffering
+    public void testBufferedReadPromotionsWithoutContention() {
+        final List<Integer> evictedKeys = new ArrayList<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(numberOfEntries)
+            .setBufferReadPromotions(true)
+            .removalListener(notification -> evictedKeys.add(notification.getKey()))
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        // promote the first half of the entries, the second half becomes the least recently used
+        for (int i = 0; i < numberOfEntries / 2; i++) {
+            assertNotNull(cache.get(i));
+        }
+        int inserted = numberOfEntries - numberOfEntries / 2;
+        for (int i = 0; i < inserted; i++) {
+            cache.put(numberOfEntries + i, Integer.toString(i));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = numberOfEntries / 2; i < numberOfEntries; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, evictedKeys);
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
@@ -12,9 +12,11 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.PreallocatedCircuitBreakerService;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
@@ -22,15 +24,19 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
@@ -386,6 +392,77 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testDirectPages() {
+        final PageCacheRecycler recycler = new MockPageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.DIRECT_ENABLED_SETTING.getKey(), true).build()
+        );
+        assertTrue(recycler.hasDirectBytePages());
+        final HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder().put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false).build(),
+            Collections.emptyList(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS)
+        );
+        final BigArrays directBigArrays = new BigArrays(recycler, hcbs, CircuitBreaker.REQUEST);
+        final CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.REQUEST);
+        final int totalLen = randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, 100000);
+
+        LongArray longs = directBigArrays.newLongArray(randomIntBetween(1, 100), randomBoolean());
+        DoubleArray doubles = directBigArrays.newDoubleArray(randomIntBetween(1, 100), randomBoolean());
+        final long[] longRef = new long[totalLen];
+        final double[] doubleRef = new double[totalLen];
+        for (int i = 0; i < totalLen; ++i) {
+            longRef[i] = randomLong();
+            doubleRef[i] = randomDouble();
+            longs = directBigArrays.grow(longs, i + 1);
+            doubles = directBigArrays.grow(doubles, i + 1);
+            longs.set(i, longRef[i]);
+            doubles.set(i, doubleRef[i]);
+        }
+        assertThat(longs, instanceOf(BigDirectLongArray.class));
+        assertThat(doubles, instanceOf(BigDirectDoubleArray.class));
+        for (int i = 0; i < totalLen; ++i) {
+            assertEquals(longRef[i], longs.get(i));
+            assertEquals(doubleRef[i], doubles.get(i), 0d);
+        }
+        assertEquals(longs.ramBytesUsed() + doubles.ramBytesUsed(), breaker.getUsed());
+
+        Releasables.close(longs, doubles);
+        assertEquals(0, breaker.getUsed());
+    }
+
+    public void testDirectPagesLimit() {
+        final int maxDirectPages = randomIntBetween(1, 4);
+        final PageCacheRecycler recycler = new PageCacheRecycler(
+            Settings.builder()
+                .put(PageCacheRecycler.DIRECT_ENABLED_SETTING.getKey(), true)
+                .put(PageCacheRecycler.LIMIT_DIRECT_SETTING.getKey(), new ByteSizeValue(maxDirectPages * PageCacheRecycler.BYTE_PAGE_SIZE))
+                .build()
+        );
+        final List<Recycler.V<ByteBuffer>> pages = new ArrayList<>();
+        final int numPages = maxDirectPages + randomIntBetween(1, 4);
+        for (int i = 0; i < numPages; i++) {
+            pages.add(recycler.directBytePage(randomBoolean()));
+        }
+        // pages beyond the limit of direct memory are heap pages
+        assertEquals(maxDirectPages, pages.stream().filter(page -> page.v().isDirect()).count());
+        final Set<ByteBuffer> directPages = Collections.newSetFromMap(new IdentityHashMap<>());
+        pages.stream().map(Recycler.V::v).filter(ByteBuffer::isDirect).forEach(directPages::add);
+        Releasables.close(pages);
+
+        // all direct pages went back to the pool and are reused
+        pages.clear();
+        for (int i = 0; i < numPages; i++) {
+            pages.add(recycler.directBytePage(true));
+        }
+        for (Recycler.V<ByteBuffer> page : pages) {
+            assertEquals(page.v().isDirect(), page.isRecycled());
+            if (page.v().isDirect()) {
+                assertTrue(directPages.contains(page.v()));
+            }
+        }
+        Releasables.close(pages);
+    }
+
     public void testEstimatedBytesSameAsActualBytes() throws Exception {
         final int maxSize = 1 << scaledRandomIntBetween(15, 22);
         final long size = randomIntBetween((1 << 14) + 1, maxSize);
@@ -8,9 +8,11 @@
 package org.elasticsearch.index;
 
 import org.apache.lucene.index.NoMergePolicy;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
@@ -19,6 +21,7 @@ import java.io.IOException;
 import static org.elasticsearch.index.IndexSettingsTests.newIndexMeta;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class MergePolicySettingsTests extends ESTestCase {
     protected final ShardId shardId = new ShardId("index", "_na_", 1);
@@ -239,6 +242,69 @@ public class MergePolicySettingsTests extends ESTestCase {
         return Settings.builder().put(MergePolicyConfig.INDEX_COMPOUND_FORMAT_SETTING.getKey(), value).build();
     }
 
+    public void testTimeBasedMergePolicy() {
+        final Settings timeSeries = Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_based")
+            .put(IndexSettings.MODE.getKey(), "time_series")
+            .put(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "some_dimension")
+            .put(IndexSettings.TIME_SERIES_START_TIME.getKey(), "2021-04-28T00:00:00Z")
+            .put(IndexSettings.TIME_SERIES_END_TIME.getKey(), "2021-04-29T00:00:00Z")
+            .build();
+        assertThat(indexSettings(timeSeries).getMergePolicy(), instanceOf(TimeBasedMergePolicy.class));
+
+        final Settings sortedByTimestamp = Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_based")
+            .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "@timestamp", "host")
+            .build();
+        assertThat(indexSettings(sortedByTimestamp).getMergePolicy(), instanceOf(TimeBasedMergePolicy.class));
+
+        for (Settings settings : new Settings[] {
+            Settings.builder().put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_based").build(),
+            Settings.builder()
+                .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_based")
+                .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "host", "@timestamp")
+                .build() }) {
+            final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> indexSettings(settings));
+            assertThat(
+                e.getMessage(),
+                equalTo("[index.merge.policy.type=time_based] requires [index.mode=time_series] or an index sorted by [@timestamp]")
+            );
+        }
+
+        assertThat(indexSettings(Settings.EMPTY).getMergePolicy(), instanceOf(EsTieredMergePolicy.class));
+    }
+
+    public void testTimeBasedMergePolicySettingsUpdate() {
+        final Settings settings = Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_based")
+            .put(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "@timestamp")
+            .build();
+        final IndexSettings indexSettings = indexSettings(settings);
+        TimeBasedMergePolicy mergePolicy = (TimeBasedMergePolicy) indexSettings.getMergePolicy();
+        assertEquals(MergePolicyConfig.DEFAULT_MERGE_FACTOR, mergePolicy.getMergeFactor());
+        assertEquals(MergePolicyConfig.DEFAULT_COLD_AFTER.millis(), mergePolicy.getColdAfterMillis());
+        assertEquals(MergePolicyConfig.DEFAULT_FLOOR_SEGMENT.getMbFrac(), mergePolicy.getFloorSegmentMB(), 0.0d);
+        assertEquals(MergePolicyConfig.DEFAULT_MAX_MERGED_SEGMENT.getMbFrac(), mergePolicy.getMaxMergedSegmentMB(), 0.0d);
+
+        indexSettings.updateIndexMetadata(
+            newIndexMeta(
+                "index",
+                Settings.builder()
+                    .put(settings)
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_MERGE_FACTOR_SETTING.getKey(), 4)
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_COLD_AFTER_SETTING.getKey(), "10m")
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_FLOOR_SEGMENT_SETTING.getKey(), new ByteSizeValue(1, ByteSizeUnit.MB))
+                    .put(MergePolicyConfig.INDEX_MERGE_POLICY_MAX_MERGED_SEGMENT_SETTING.getKey(), new ByteSizeValue(1, ByteSizeUnit.GB))
+                    .build()
+            )
+        );
+        mergePolicy = (TimeBasedMergePolicy) indexSettings.getMergePolicy();
+        assertEquals(4, mergePolicy.getMergeFactor());
+        assertEquals(TimeValue.timeValueMinutes(10).millis(), mergePolicy.getColdAfterMillis());
+        assertEquals(1.0d, mergePolicy.getFloorSegmentMB(), 0.0d);
+        assertEquals(1024.0d, mergePolicy.getMaxMergedSegmentMB(), 0.0d);
+    }
+
     public Settings build(int value) {
         return Settings.builder().put(MergePolicyConfig.INDEX_COMPOUND_FORMAT_SETTING.getKey(), value).build();
     }
@@ -0,0 +1,153 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SerialMergeScheduler;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class TimeBasedMergePolicyTests extends ESTestCase {
+
+    public void testDefaults() {
+        TimeBasedMergePolicy policy = new TimeBasedMergePolicy();
+        assertEquals(Long.MAX_VALUE, policy.getColdAfterMillis());
+        assertEquals(Long.MAX_VALUE / 1024.0 / 1024.0, policy.regularMergePolicy.getMaxMergeMBForForcedMerge(), 0d);
+    }
+
+    public void testSetters() {
+        TimeBasedMergePolicy policy = new TimeBasedMergePolicy();
+        policy.setMergeFactor(42);
+        assertEquals(42, policy.regularMergePolicy.getMergeFactor());
+        policy.setFloorSegmentMB(42);
+        assertEquals(42, policy.regularMergePolicy.getMinMergeMB(), 0d);
+        policy.setMaxMergedSegmentMB(10 * 1024);
+        assertEquals(10 * 1024, policy.regularMergePolicy.getMaxMergeMB(), 0d);
+        policy.setColdAfterMillis(42);
+        assertEquals(42, policy.getColdAfterMillis());
+    }
+
+    public void testOnlyMergesAdjacentSegments() throws IOException {
+        final TimeBasedMergePolicy policy = new TimeBasedMergePolicy();
+        policy.setMergeFactor(between(2, 5));
+        try (Directory dir = newDirectory()) {
+            long timestamp = 0;
+            try (IndexWriter writer = new IndexWriter(dir, newConfig(policy))) {
+                final int numSegments = between(10, 50);
+                for (int i = 0; i < numSegments; i++) {
+                    final int numDocs = between(1, 100);
+                    for (int j = 0; j < numDocs; j++) {
+                        writer.addDocument(newDocument(timestamp++));
+                    }
+                    writer.flush();
+                }
+                writer.commit();
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final List<LeafReaderContext> leaves = reader.leaves();
+                long previousMax = -1;
+                long numDocs = 0;
+                for (LeafReaderContext leaf : leaves) {
+                    final PointValues points = leaf.reader().getPointValues("@timestamp");
+                    final long min = LongPoint.decodeDimension(points.getMinPackedValue(), 0);
+                    final long max = LongPoint.decodeDimension(points.getMaxPackedValue(), 0);
+                    // the time ranges of the segments don't overlap, and there are no gaps between them
+                    assertThat(min, equalTo(previousMax + 1));
+                    assertThat(max - min + 1, equalTo((long) leaf.reader().maxDoc()));
+                    previousMax = max;
+                    numDocs += leaf.reader().maxDoc();
+                }
+                assertThat(numDocs, equalTo(timestamp));
+            }
+        }
+    }
+
+    public void testMergesColdSegments() throws IOException {
+        final AtomicLong offset = new AtomicLong();
+        final TimeBasedMergePolicy policy = new TimeBasedMergePolicy(() -> System.currentTimeMillis() + offset.get());
+        policy.setColdAfterMillis(TimeValue.timeValueHours(1).millis());
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, newConfig(policy))) {
+                final int numSegments = between(2, policy.getMergeFactor() - 1);
+                for (int i = 0; i < numSegments; i++) {
+                    writer.addDocument(newDocument(i));
+                    writer.flush();
+                }
+                writer.maybeMerge();
+                writer.commit();
+                try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                    // too few segments to be merged while they are hot
+                    assertThat(reader.leaves().size(), equalTo(numSegments));
+                }
+
+                offset.set(TimeValue.timeValueHours(2).millis());
+                writer.maybeMerge();
+                writer.commit();
+                try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                    assertThat(reader.leaves().size(), equalTo(1));
+                }
+            }
+        }
+    }
+
+    public void testDoesNotMergeLargeColdSegments() throws IOException {
+        final AtomicLong offset = new AtomicLong();
+        final TimeBasedMergePolicy policy = new TimeBasedMergePolicy(() -> System.currentTimeMillis() + offset.get());
+        policy.setColdAfterMillis(TimeValue.timeValueHours(1).millis());
+        // every segment is larger than half the max merged segment
+        policy.setMaxMergedSegmentMB(0.0001);
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, newConfig(policy))) {
+                final int numSegments = between(2, 5);
+                for (int i = 0; i < numSegments; i++) {
+                    for (int j = 0; j < 100; j++) {
+                        writer.addDocument(newDocument(i * 100 + j));
+                    }
+                    writer.flush();
+                }
+                offset.set(TimeValue.timeValueHours(2).millis());
+                writer.maybeMerge();
+                writer.commit();
+                try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                    assertThat(reader.leaves().size(), equalTo(numSegments));
+                }
+
+                // forced merges are not limited
+                writer.forceMerge(1);
+                writer.commit();
+                try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                    assertThat(reader.leaves().size(), equalTo(1));
+                }
+            }
+        }
+    }
+
+    private static IndexWriterConfig newConfig(TimeBasedMergePolicy policy) {
+        return new IndexWriterConfig().setMergePolicy(policy).setMergeScheduler(new SerialMergeScheduler());
+    }
+
+    private static Document newDocument(long timestamp) {
+        final Document doc = new Document();
+        doc.add(new LongPoint("@timestamp", timestamp));
+        return doc;
+    }
+}
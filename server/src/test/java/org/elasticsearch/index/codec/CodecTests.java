@@ -22,6 +22,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.codec.bloomfilter.ES81BloomFilterPostingsFormat;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MapperRegistry;
 import org.elasticsearch.index.mapper.MapperService;
@@ -35,6 +36,7 @@ import java.io.IOException;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
 @SuppressCodecs("*") // we test against default codec so never get a random one here!
 public class CodecTests extends ESTestCase {
@@ -55,6 +57,17 @@ public class CodecTests extends ESTestCase {
         assertStoredFieldsCompressionEquals(Lucene90Codec.Mode.BEST_COMPRESSION, codec);
     }
 
+    public void testBloomFilterIdField() throws Exception {
+        PerFieldMapperCodec codec = (PerFieldMapperCodec) createCodecService().codec("default");
+        assertThat(codec.getPostingsFormatForField(IdFieldMapper.NAME), not(instanceOf(ES81BloomFilterPostingsFormat.class)));
+
+        codec = (PerFieldMapperCodec) createCodecService(
+            Settings.builder().put(IndexSettings.INDEX_BLOOM_FILTER_ID_FIELD_SETTING.getKey(), true).build()
+        ).codec("default");
+        assertThat(codec.getPostingsFormatForField(IdFieldMapper.NAME), instanceOf(ES81BloomFilterPostingsFormat.class));
+        assertThat(codec.getPostingsFormatForField("field"), not(instanceOf(ES81BloomFilterPostingsFormat.class)));
+    }
+
     // write some docs with it, inspect .si to see this was the used compression
     private void assertStoredFieldsCompressionEquals(Lucene90Codec.Mode expected, Codec actual) throws Exception {
         Directory dir = newDirectory();
@@ -74,8 +87,15 @@ public class CodecTests extends ESTestCase {
     }
 
     private CodecService createCodecService() throws IOException {
+        return createCodecService(Settings.EMPTY);
+    }
+
+    private CodecService createCodecService(Settings indexSettings) throws IOException {
         Settings nodeSettings = Settings.builder().put(Environment.PATH_HOME_SETTING.getKey(), createTempDir()).build();
-        IndexSettings settings = IndexSettingsModule.newIndexSettings("_na", nodeSettings);
+        IndexSettings settings = IndexSettingsModule.newIndexSettings(
+            "_na",
+            Settings.builder().put(nodeSettings).put(indexSettings).build()
+        );
         SimilarityService similarityService = new SimilarityService(settings, null, Collections.emptyMap());
         IndexAnalyzers indexAnalyzers = createTestAnalysis(settings, nodeSettings).indexAnalyzers;
         MapperRegistry mapperRegistry = new MapperRegistry(
@@ -0,0 +1,144 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.bloomfilter;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.BasePostingsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ES81BloomFilterPostingsFormatTests extends BasePostingsFormatTestCase {
+
+    private final Codec codec = TestUtil.alwaysPostingsFormat(new ES81BloomFilterPostingsFormat(TestUtil.getDefaultPostingsFormat()));
+
+    @Override
+    protected Codec getCodec() {
+        return codec;
+    }
+
+    public void testSkipsAbsentTerms() throws Exception {
+        final int numDocs = atLeast(1000);
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setCodec(codec))) {
+                for (int i = 0; i < numDocs; i++) {
+                    final Document doc = new Document();
+                    doc.add(new StringField("id", "present-" + i, Field.Store.NO));
+                    writer.addDocument(doc);
+                }
+                writer.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                final LeafReader leafReader = getOnlyLeafReader(reader);
+                final Terms terms = leafReader.terms("id");
+                assertThat(terms, instanceOf(ES81BloomFilterPostingsFormat.BloomFilteredTerms.class));
+                final ES81BloomFilterPostingsFormat.BloomFilteredTerms bloomFilteredTerms =
+                    (ES81BloomFilterPostingsFormat.BloomFilteredTerms) terms;
+                assertThat(bloomFilteredTerms.filterSizeInBytes(), equalTo(ES81BloomFilterPostingsFormat.numBits(numDocs) / 8));
+
+                final TermsEnum termsEnum = terms.iterator();
+                for (int i = 0; i < numDocs; i++) {
+                    assertTrue(termsEnum.seekExact(new BytesRef("present-" + i)));
+                }
+                assertThat(bloomFilteredTerms.skippedLookups(), equalTo(0L));
+                assertThat(bloomFilteredTerms.falsePositives(), equalTo(0L));
+
+                final int numLookups = atLeast(1000);
+                for (int i = 0; i < numLookups; i++) {
+                    assertFalse(termsEnum.seekExact(new BytesRef("absent-" + i)));
+                }
+                assertThat(bloomFilteredTerms.skippedLookups() + bloomFilteredTerms.falsePositives(), equalTo((long) numLookups));
+                // the filter has at least 10 bits per term, which gives a false positive rate of about 1%
+                assertThat(bloomFilteredTerms.falsePositives(), lessThan(numLookups / 20L));
+            }
+        }
+    }
+
+    public void testNumBits() {
+        assertThat(ES81BloomFilterPostingsFormat.numBits(0), equalTo(64L));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(1), equalTo(64L));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(100), equalTo(1024L));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(1000), equalTo(16384L));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(Integer.MAX_VALUE), equalTo(ES81BloomFilterPostingsFormat.MAX_NUM_BITS));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(Long.MAX_VALUE / 16), equalTo(ES81BloomFilterPostingsFormat.MAX_NUM_BITS));
+    }
+
+    public void testNumBitsAtTheMaximum() {
+        final long maxNumBits = ES81BloomFilterPostingsFormat.MAX_NUM_BITS;
+        final long maxNumTerms = maxNumBits / ES81BloomFilterPostingsFormat.BITS_PER_TERM;
+        assertThat(ES81BloomFilterPostingsFormat.numBits(maxNumTerms / 2), equalTo(maxNumBits / 2));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(maxNumTerms / 2 + 1), equalTo(maxNumBits));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(maxNumTerms), equalTo(maxNumBits));
+        assertThat(ES81BloomFilterPostingsFormat.numBits(maxNumTerms + 1), equalTo(maxNumBits));
+
+        // the largest filter is written in pages of the maximum page size, which evenly divide it
+        final int maxPageSize = ES81BloomFilterPostingsFormat.DEFAULT_PAGE_SIZE_IN_BYTES;
+        assertThat(ES81BloomFilterPostingsFormat.pageSizeInBytes(maxNumBits, maxPageSize), equalTo(maxPageSize));
+        assertThat((maxNumBits >>> 3) % maxPageSize, equalTo(0L));
+        assertThat(ES81BloomFilterPostingsFormat.pageSizeInBytes(64, maxPageSize), equalTo(8));
+    }
+
+    public void testFilterWrittenInPages() throws Exception {
+        final int numDocs = atLeast(1000);
+        final int pageSize = 1 << TestUtil.nextInt(random(), 3, 8);
+        final Codec pagedCodec = TestUtil.alwaysPostingsFormat(
+            new ES81BloomFilterPostingsFormat(TestUtil.getDefaultPostingsFormat(), pageSize)
+        );
+        final long[] skippedLookups = new long[2];
+        final Codec[] codecs = new Codec[] { codec, pagedCodec };
+        for (int c = 0; c < codecs.length; c++) {
+            try (Directory dir = newDirectory()) {
+                try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setCodec(codecs[c]))) {
+                    for (int i = 0; i < numDocs; i++) {
+                        final Document doc = new Document();
+                        doc.add(new StringField("id", "present-" + i, Field.Store.NO));
+                        writer.addDocument(doc);
+                    }
+                    writer.forceMerge(1);
+                }
+                try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                    final ES81BloomFilterPostingsFormat.BloomFilteredTerms terms =
+                        (ES81BloomFilterPostingsFormat.BloomFilteredTerms) getOnlyLeafReader(reader).terms("id");
+                    assertThat(terms.filterSizeInBytes(), equalTo(ES81BloomFilterPostingsFormat.numBits(numDocs) / 8));
+                    final TermsEnum termsEnum = terms.iterator();
+                    for (int i = 0; i < numDocs; i++) {
+                        assertTrue(termsEnum.seekExact(new BytesRef("present-" + i)));
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        assertFalse(termsEnum.seekExact(new BytesRef("absent-" + i)));
+                    }
+                    skippedLookups[c] = terms.skippedLookups();
+                }
+            }
+        }
+        // the filters have the same bits whatever the size of the pages they were written in
+        assertThat(skippedLookups[1], equalTo(skippedLookups[0]));
+    }
+
+    public void testInvalidPageSize() {
+        final int pageSize = random().nextBoolean() ? TestUtil.nextInt(random(), -8, 7) : 1000;
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> new ES81BloomFilterPostingsFormat(TestUtil.getDefaultPostingsFormat(), pageSize)
+        );
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageTester;
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CompactIndexVersionMapTests extends ESTestCase {
+
+    public void testRandomOperations() {
+        final CompactIndexVersionMap map = new CompactIndexVersionMap();
+        final Map<BytesRef, VersionValue> expected = new HashMap<>();
+        final List<BytesRef> ids = new ArrayList<>();
+        final int numIds = randomIntBetween(1, 2000);
+        for (int i = 0; i < numIds; i++) {
+            ids.add(randomId());
+        }
+        final int numOps = randomIntBetween(1, 10000);
+        for (int i = 0; i < numOps; i++) {
+            final BytesRef id = randomFrom(ids);
+            if (randomBoolean()) {
+                final IndexVersionValue value = randomIndexVersionValue();
+                assertThat(map.put(id, value), equalTo(expected.put(id, value)));
+            } else if (randomBoolean()) {
+                assertThat(map.remove(id), equalTo(expected.remove(id)));
+            } else {
+                assertThat(map.get(id), equalTo(expected.get(id)));
+            }
+            assertThat(map.size(), equalTo(expected.size()));
+        }
+        assertThat(map.isEmpty(), equalTo(expected.isEmpty()));
+        assertThat(map.copyToMap(), equalTo(expected));
+        for (BytesRef id : ids) {
+            assertThat(map.get(id), equalTo(expected.get(id)));
+        }
+    }
+
+    public void testDoesNotKeepReferencesToKeys() {
+        final CompactIndexVersionMap map = new CompactIndexVersionMap();
+        final BytesRef id = new BytesRef(new byte[] { 0, 1, 2, 3, 4 }, 1, 3);
+        final IndexVersionValue value = randomIndexVersionValue();
+        map.put(id, value);
+        final BytesRef copy = BytesRef.deepCopyOf(id);
+        id.bytes[2] = 42;
+        assertThat(map.get(id), nullValue());
+        assertThat(map.get(copy), equalTo(value));
+    }
+
+    public void testRamBytesUsed() {
+        final CompactIndexVersionMap map = new CompactIndexVersionMap();
+        final int numIds = randomIntBetween(1000, 50000);
+        for (int i = 0; i < numIds; i++) {
+            map.put(randomId(), randomIndexVersionValue());
+        }
+        final long actualRamBytesUsed = RamUsageTester.ramUsed(map);
+        // less than 10% off, the arrays are all that the map retains
+        assertEquals(actualRamBytesUsed, map.ramBytesUsed(), actualRamBytesUsed / 10);
+    }
+
+    public void testRemovedEntriesAreReclaimed() {
+        final CompactIndexVersionMap map = new CompactIndexVersionMap();
+        final List<BytesRef> ids = new ArrayList<>();
+        for (int i = between(1, 100); i > 0; i--) {
+            final BytesRef id = randomId();
+            ids.add(id);
+            map.put(id, randomIndexVersionValue());
+        }
+        final int size = map.size();
+        final long ramBytesUsed = map.ramBytesUsed();
+        // removing and adding the same ids again reuses the removed slots, and must not grow the map
+        for (int i = 0; i < 100_000; i++) {
+            final BytesRef id = randomFrom(ids);
+            if (map.remove(id) != null) {
+                map.put(id, randomIndexVersionValue());
+            }
+        }
+        assertThat(map.size(), equalTo(size));
+        assertThat(map.ramBytesUsed(), lessThanOrEqualTo(Math.max(4 * ramBytesUsed, 8192L)));
+    }
+
+    private static BytesRef randomId() {
+        return new BytesRef(TestUtil.randomSimpleString(random(), 1, 20));
+    }
+
+    private static IndexVersionValue randomIndexVersionValue() {
+        final Translog.Location location = randomBoolean()
+            ? null
+            : new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomIntBetween(0, Integer.MAX_VALUE));
+        return new IndexVersionValue(location, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+}
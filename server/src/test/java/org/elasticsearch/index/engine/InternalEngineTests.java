@@ -183,6 +183,7 @@ import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_PRIMARY_T
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsInRelativeOrder;
@@ -3883,6 +3884,95 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testDoubleDeliveryPrimaryOnAppendOnlyIndex() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_APPEND_ONLY_SETTING.getKey(), true)
+            .build();
+        final IndexMetadata indexMetadata = IndexMetadata.builder(defaultSettings.getIndexMetadata()).settings(settings).build();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(indexMetadata);
+        final AtomicInteger internalRefreshes = new AtomicInteger();
+        final ReferenceManager.RefreshListener refreshCounter = new ReferenceManager.RefreshListener() {
+            @Override
+            public void beforeRefresh() {
+                internalRefreshes.incrementAndGet();
+            }
+
+            @Override
+            public void afterRefresh(boolean didRefresh) {}
+        };
+        try (
+            Store store = createStore();
+            InternalEngine engine = createEngine(
+                config(
+                    indexSettings,
+                    store,
+                    createTempDir(),
+                    newMergePolicy(),
+                    null,
+                    refreshCounter,
+                    null,
+                    () -> SequenceNumbers.NO_OPS_PERFORMED,
+                    new NoneCircuitBreakerService()
+                )
+            )
+        ) {
+            final int numDocs = randomIntBetween(1, 10);
+            final List<Engine.Index> operations = new ArrayList<>();
+            final List<Engine.Index> retries = new ArrayList<>();
+            final List<Engine.Index> lateOperations = new ArrayList<>();
+            for (int i = 0; i < numDocs; i++) {
+                final ParsedDocument doc = testParsedDocument(Integer.toString(i), null, testDocumentWithTextField(), SOURCE, null);
+                final boolean create = randomBoolean();
+                (randomBoolean() ? operations : lateOperations).add(appendOnlyPrimary(doc, false, i, create));
+                retries.add(appendOnlyPrimary(doc, true, i, create));
+            }
+            for (Engine.Index operation : operations) {
+                engine.index(operation);
+            }
+            assertFalse(engine.isSafeAccessRequired());
+
+            // retries refresh at most once to look up the ids of the documents that were indexed so far, the appends that are
+            // interleaved with them are then tracked in the version map so that later retries don't need to refresh again
+            internalRefreshes.set(0);
+            int numFreshDocs = 0;
+            for (Engine.Index retry : retries) {
+                engine.index(retry);
+                for (int i = randomIntBetween(0, 5); i > 0; i--) {
+                    engine.index(freshAppendOnlyPrimary(numDocs + numFreshDocs++));
+                }
+            }
+            for (Engine.Index operation : lateOperations) {
+                engine.index(operation);
+            }
+            assertThat(internalRefreshes.get(), equalTo(operations.isEmpty() ? 0 : 1));
+            assertTrue(engine.isSafeAccessRequired());
+            assertThat(engine.getVersionMap().size(), greaterThanOrEqualTo(numFreshDocs));
+
+            engine.refresh("test");
+            try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+                TopDocs topDocs = searcher.search(new MatchAllDocsQuery(), 100);
+                assertEquals(numDocs + numFreshDocs, topDocs.totalHits.value);
+            }
+            // the version map keeps requiring safe access until it goes through a refresh without retries
+            assertTrue(engine.isSafeAccessRequired());
+            engine.index(freshAppendOnlyPrimary(numDocs + numFreshDocs++));
+            engine.refresh("test");
+            assertFalse(engine.isSafeAccessRequired());
+            // and then stops tracking the appended documents
+            engine.index(freshAppendOnlyPrimary(numDocs + numFreshDocs++));
+            assertThat(engine.getVersionMap(), anEmptyMap());
+        }
+    }
+
+    /**
+     * Returns an operation that indexes a new document with an auto-generated id that is more recent than the ids of any retry.
+     */
+    private Engine.Index freshAppendOnlyPrimary(int docId) {
+        final ParsedDocument doc = testParsedDocument("fresh-" + docId, null, testDocumentWithTextField(), SOURCE, null);
+        return appendOnlyPrimary(doc, false, docId);
+    }
+
     public void testDoubleDeliveryReplicaAppendingAndDeleteOnly() throws IOException {
         final ParsedDocument doc = testParsedDocument(
             "1",
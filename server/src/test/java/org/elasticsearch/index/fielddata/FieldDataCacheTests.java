@@ -17,22 +17,36 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.plain.PagedBytesIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedSetOrdinalsIndexFieldData;
 import org.elasticsearch.index.mapper.TextFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.script.field.DelegateDocValuesField;
 import org.elasticsearch.script.field.ToScriptField;
 import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.FieldMaskingReader;
 
+import java.util.Collections;
+
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class FieldDataCacheTests extends ESTestCase {
     private static final ToScriptField<SortedSetDocValues> MOCK_TO_SCRIPT_FIELD = (dv, n) -> new DelegateDocValuesField(
@@ -78,6 +92,112 @@ public class FieldDataCacheTests extends ESTestCase {
         dir.close();
     }
 
+    public void testLoadGlobal_reusesOrdinalMapIfSegmentsAreUnchanged() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = new IndexWriterConfig(null);
+        iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(dir, iwc);
+        for (int i = 1; i <= 50; i++) {
+            Document doc = new Document();
+            doc.add(new SortedSetDocValuesField("field1", new BytesRef(String.valueOf(i))));
+            doc.add(new StringField("id", String.valueOf(i), Field.Store.NO));
+            iw.addDocument(doc);
+            if (i % 10 == 0) {
+                iw.commit();
+            }
+        }
+        DirectoryReader ir = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(iw), new ShardId("_index", "_na_", 0));
+        assertThat(ir.leaves().size(), equalTo(5));
+
+        LastLoadedGlobalFieldDataCache fieldDataCache = new LastLoadedGlobalFieldDataCache();
+        SortedSetOrdinalsIndexFieldData fieldData = createSortedDV("field1", fieldDataCache);
+        OrdinalMap ordinalMap = fieldData.loadGlobal(ir).getOrdinalMap();
+        assertThat(ordinalMap.getValueCount(), equalTo(50L));
+
+        // hard deletions don't change the segments
+        iw.deleteDocuments(new Term("id", "7"));
+        DirectoryReader withDeletes = DirectoryReader.openIfChanged(ir, iw);
+        assertNotNull(withDeletes);
+        assertThat(fieldData.loadGlobal(withDeletes).getOrdinalMap(), sameInstance(ordinalMap));
+
+        // but new segments do, which includes updates and deletions with soft deletes since they index new documents
+        Document doc = new Document();
+        doc.add(new SortedSetDocValuesField("field1", new BytesRef("new")));
+        iw.addDocument(doc);
+        DirectoryReader withNewSegment = DirectoryReader.openIfChanged(withDeletes, iw);
+        assertNotNull(withNewSegment);
+        OrdinalMap rebuilt = fieldData.loadGlobal(withNewSegment).getOrdinalMap();
+        assertThat(rebuilt, not(sameInstance(ordinalMap)));
+        assertThat(rebuilt.getValueCount(), equalTo(51L));
+
+        withNewSegment.close();
+        withDeletes.close();
+        ir.close();
+        iw.close();
+        dir.close();
+    }
+
+    public void testLoadGlobal_accountsForReusedOrdinalMapOnce() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = new IndexWriterConfig(null);
+        iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(dir, iwc);
+        for (int i = 1; i <= 50; i++) {
+            Document doc = new Document();
+            doc.add(new SortedSetDocValuesField("field1", new BytesRef(String.valueOf(i))));
+            doc.add(new StringField("id", String.valueOf(i), Field.Store.NO));
+            iw.addDocument(doc);
+            if (i % 10 == 0) {
+                iw.commit();
+            }
+        }
+        DirectoryReader ir = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(iw), new ShardId("_index", "_na_", 0));
+
+        CircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.EMPTY,
+            Collections.emptyList(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS)
+        );
+        CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FIELDDATA);
+        // releases the memory of removed entries like IndicesService does
+        IndicesFieldDataCache indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {
+            @Override
+            public void onRemoval(ShardId shardId, String fieldName, boolean wasEvicted, long sizeInBytes) {
+                breaker.addWithoutBreaking(-sizeInBytes);
+            }
+        });
+        IndexFieldDataCache fieldDataCache = indicesFieldDataCache.buildIndexFieldDataCache(
+            new IndexFieldDataCache.Listener() {},
+            new Index("_index", "_na_"),
+            "field1"
+        );
+        SortedSetOrdinalsIndexFieldData fieldData = new SortedSetOrdinalsIndexFieldData(
+            fieldDataCache,
+            "field1",
+            CoreValuesSourceType.KEYWORD,
+            breakerService,
+            MOCK_TO_SCRIPT_FIELD
+        );
+        OrdinalMap ordinalMap = fieldData.loadGlobal(ir).getOrdinalMap();
+        assertThat(breaker.getUsed(), equalTo(ordinalMap.ramBytesUsed()));
+
+        iw.deleteDocuments(new Term("id", "7"));
+        DirectoryReader withDeletes = DirectoryReader.openIfChanged(ir, iw);
+        assertNotNull(withDeletes);
+        assertThat(fieldData.loadGlobal(withDeletes).getOrdinalMap(), sameInstance(ordinalMap));
+        assertThat(breaker.getUsed(), equalTo(ordinalMap.ramBytesUsed()));
+
+        // the ordinal map stays accounted for as long as global ordinals that use it are cached
+        ir.close();
+        assertThat(breaker.getUsed(), equalTo(ordinalMap.ramBytesUsed()));
+        withDeletes.close();
+        assertThat(breaker.getUsed(), equalTo(0L));
+
+        indicesFieldDataCache.close();
+        iw.close();
+        dir.close();
+    }
+
     private SortedSetOrdinalsIndexFieldData createSortedDV(String fieldName, IndexFieldDataCache indexFieldDataCache) {
         return new SortedSetOrdinalsIndexFieldData(
             indexFieldDataCache,
@@ -126,4 +246,22 @@ public class FieldDataCacheTests extends ESTestCase {
         public void clear(String fieldName) {}
     }
 
+    private class LastLoadedGlobalFieldDataCache extends DummyAccountingFieldDataCache {
+
+        private Accountable lastLoadedGlobal;
+
+        @Override
+        public <FD extends LeafFieldData, IFD extends IndexFieldData.Global<FD>> IFD load(DirectoryReader indexReader, IFD indexFieldData)
+            throws Exception {
+            IFD global = super.load(indexReader, indexFieldData);
+            lastLoadedGlobal = (Accountable) global;
+            return global;
+        }
+
+        @Override
+        public Accountable getLastLoadedGlobal(DirectoryReader indexReader) {
+            return lastLoadedGlobal;
+        }
+    }
+
 }
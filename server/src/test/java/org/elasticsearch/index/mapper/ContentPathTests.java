@@ -0,0 +1,58 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.test.ESTestCase;
+
+public class ContentPathTests extends ESTestCase {
+
+    public void testAddAndRemove() {
+        ContentPath path = new ContentPath();
+        assertEquals("name", path.pathAsText("name"));
+        assertEquals(0, path.length());
+        path.add("foo");
+        path.add("bar");
+        assertEquals("foo.bar.name", path.pathAsText("name"));
+        assertEquals("foo.bar.", path.pathAsText(""));
+        assertEquals(2, path.length());
+        path.remove();
+        assertEquals("foo.baz", path.pathAsText("baz"));
+        assertEquals(1, path.length());
+        path.remove();
+        assertEquals("name", path.pathAsText("name"));
+        assertEquals(0, path.length());
+    }
+
+    public void testOffset() {
+        ContentPath path = new ContentPath(1);
+        path.add("foo");
+        path.add("bar");
+        assertEquals("bar.name", path.pathAsText("name"));
+        path.remove();
+        assertEquals("name", path.pathAsText("name"));
+        path.remove();
+        assertEquals("name", path.pathAsText("name"));
+    }
+
+    public void testDeepPath() {
+        ContentPath path = new ContentPath("root");
+        StringBuilder expected = new StringBuilder("root.");
+        int depth = randomIntBetween(10, 50);
+        for (int i = 0; i < depth; i++) {
+            path.add("level" + i);
+            expected.append("level").append(i).append('.');
+        }
+        assertEquals(expected + "leaf", path.pathAsText("leaf"));
+        assertEquals(depth + 1, path.length());
+        for (int i = 0; i < depth; i++) {
+            path.remove();
+        }
+        assertEquals("root.leaf", path.pathAsText("leaf"));
+    }
+}
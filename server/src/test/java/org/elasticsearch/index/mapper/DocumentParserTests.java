@@ -481,6 +481,44 @@ public class DocumentParserTests extends MapperServiceTestCase {
         assertEquals("value2", result.docs().get(1).getField("baz").binaryValue().utf8ToString());
     }
 
+    public void testNestedDocumentsShareIdAndPathFields() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(mapping(b -> {
+            b.startObject("foo");
+            {
+                b.field("type", "nested");
+                b.startObject("properties");
+                {
+                    b.startObject("bar").field("type", "keyword").endObject();
+                    b.startObject("baz").field("type", "nested").endObject();
+                }
+                b.endObject();
+            }
+            b.endObject();
+        }));
+
+        ParsedDocument result = mapper.parse(source(b -> {
+            b.startArray("foo");
+            {
+                b.startObject().field("bar", "value1").startArray("baz").startObject().endObject().endArray().endObject();
+                b.startObject().field("bar", "value2").startArray("baz").startObject().endObject().endArray().endObject();
+            }
+            b.endArray();
+        }));
+        // foo.baz, foo, foo.baz, foo, root
+        assertEquals(5, result.docs().size());
+        IndexableField idField = result.docs().get(0).getField(IdFieldMapper.NAME);
+        for (int i = 0; i < 4; i++) {
+            assertSame(idField, result.docs().get(i).getField(IdFieldMapper.NAME));
+        }
+        assertEquals(Uid.encodeId("1"), idField.binaryValue());
+        assertEquals("foo.baz", result.docs().get(0).getField(NestedPathFieldMapper.NAME).stringValue());
+        assertSame(result.docs().get(0).getField(NestedPathFieldMapper.NAME), result.docs().get(2).getField(NestedPathFieldMapper.NAME));
+        assertEquals("foo", result.docs().get(1).getField(NestedPathFieldMapper.NAME).stringValue());
+        assertSame(result.docs().get(1).getField(NestedPathFieldMapper.NAME), result.docs().get(3).getField(NestedPathFieldMapper.NAME));
+        assertEquals("value1", result.docs().get(1).getField("foo.bar").binaryValue().utf8ToString());
+        assertEquals("value2", result.docs().get(3).getField("foo.bar").binaryValue().utf8ToString());
+    }
+
     public void testPropagateDynamicWithExistingMapper() throws Exception {
         DocumentMapper mapper = createDocumentMapper(topMapping(b -> {
             b.field("dynamic", false);
@@ -22,7 +22,9 @@ public class RefreshStatsTests extends ESTestCase {
             randomNonNegativeLong(),
             randomNonNegativeLong(),
             randomNonNegativeLong(),
-            between(0, Integer.MAX_VALUE)
+            between(0, Integer.MAX_VALUE),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
         );
         BytesStreamOutput out = new BytesStreamOutput();
         stats.writeTo(out);
@@ -34,5 +36,7 @@ public class RefreshStatsTests extends ESTestCase {
         assertEquals(stats.getListeners(), read.getListeners());
         assertEquals(stats.getTotalTimeInMillis(), read.getTotalTimeInMillis());
         assertEquals(stats.getExternalTotalTimeInMillis(), read.getExternalTotalTimeInMillis());
+        assertEquals(stats.getAdaptiveIntervalInMillis(), read.getAdaptiveIntervalInMillis());
+        assertEquals(stats.getDeferred(), read.getDeferred());
     }
 }
@@ -53,6 +53,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
@@ -66,6 +67,7 @@ import org.elasticsearch.core.Tuple;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.CommitStats;
 import org.elasticsearch.index.engine.DocIdSeqNoAndSource;
@@ -3794,6 +3796,65 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(primary);
     }
 
+    public void testAdaptiveRefreshDefersScheduledRefreshes() throws Exception {
+        Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 1)
+            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexSettings.INDEX_REFRESH_ADAPTIVE_SETTING.getKey(), true)
+            .build();
+        IndexMetadata metadata = IndexMetadata.builder("test").putMapping("""
+            { "properties": { "foo":  { "type": "text"}}}""").settings(settings).primaryTerm(0, 1).build();
+        IndexShard primary = newShard(new ShardId(metadata.getIndex(), 0), true, "n1", metadata, null);
+        recoverShardFromStore(primary);
+
+        // no interval was picked yet
+        indexDoc(primary, "_doc", "0", "{\"foo\" : \"bar\"}");
+        assertTrue(primary.scheduledRefresh());
+
+        primary.setAdaptiveRefreshInterval(TimeValue.timeValueHours(1));
+        indexDoc(primary, "_doc", "1", "{\"foo\" : \"bar\"}");
+        assertTrue(primary.getEngine().refreshNeeded());
+        assertFalse(primary.scheduledRefresh());
+        assertFalse(primary.scheduledRefresh());
+        assertThat(primary.refreshStats().getDeferred(), equalTo(2L));
+        assertThat(primary.refreshStats().getAdaptiveIntervalInMillis(), equalTo(TimeValue.timeValueHours(1).millis()));
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(1, searcher.getIndexReader().numDocs());
+        }
+
+        primary.setAdaptiveRefreshInterval(TimeValue.timeValueMillis(1));
+        assertBusy(() -> assertTrue(primary.scheduledRefresh()));
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(2, searcher.getIndexReader().numDocs());
+        }
+
+        // the ticks of a shard without pending changes are not counted as deferred refreshes
+        primary.setAdaptiveRefreshInterval(TimeValue.timeValueHours(1));
+        assertFalse(primary.getEngine().refreshNeeded());
+        for (int i = between(1, 5); i > 0; i--) {
+            assertFalse(primary.scheduledRefresh());
+        }
+        assertThat(primary.refreshStats().getDeferred(), equalTo(2L));
+        indexDoc(primary, "_doc", "3", "{\"foo\" : \"bar\"}");
+        assertFalse(primary.scheduledRefresh());
+        assertThat(primary.refreshStats().getDeferred(), equalTo(3L));
+        primary.refresh("test");
+        assertFalse(primary.getEngine().refreshNeeded());
+        assertFalse(primary.scheduledRefresh());
+        assertThat(primary.refreshStats().getDeferred(), equalTo(3L));
+
+        // the interval is ignored once adaptive refreshes are disabled
+        primary.setAdaptiveRefreshInterval(TimeValue.timeValueHours(1));
+        primary.indexSettings()
+            .getScopedSettings()
+            .applySettings(Settings.builder().put(settings).put(IndexSettings.INDEX_REFRESH_ADAPTIVE_SETTING.getKey(), false).build());
+        indexDoc(primary, "_doc", "2", "{\"foo\" : \"bar\"}");
+        assertTrue(primary.scheduledRefresh());
+        assertThat(primary.refreshStats().getAdaptiveIntervalInMillis(), equalTo(0L));
+        closeShards(primary);
+    }
+
     public void testRefreshIsNeededWithRefreshListeners() throws IOException, InterruptedException {
         Settings settings = Settings.builder()
             .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
@@ -4443,6 +4504,32 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testAppendOnlyIndexRejectsExplicitIdsAndDeletes() throws IOException {
+        final Settings settings = Settings.builder().put(IndexSettings.INDEX_APPEND_ONLY_SETTING.getKey(), true).build();
+        IndexShard shard = newStartedShard(true, settings);
+
+        final Engine.IndexResult explicitIdResult = indexDoc(shard, "_doc", "1");
+        assertThat(explicitIdResult.getResultType(), equalTo(Engine.Result.Type.FAILURE));
+        assertThat(explicitIdResult.getFailure(), instanceOf(IllegalArgumentException.class));
+        assertThat(explicitIdResult.getFailure().getMessage(), containsString("is append-only"));
+
+        final Engine.DeleteResult deleteResult = deleteDoc(shard, "1");
+        assertThat(deleteResult.getResultType(), equalTo(Engine.Result.Type.FAILURE));
+        assertThat(deleteResult.getFailure(), instanceOf(IllegalArgumentException.class));
+
+        final Engine.IndexResult autoIdResult = shard.applyIndexOperationOnPrimary(
+            Versions.MATCH_ANY,
+            VersionType.INTERNAL,
+            new SourceToParse(UUIDs.base64UUID(), new BytesArray("{}"), XContentType.JSON),
+            UNASSIGNED_SEQ_NO,
+            0,
+            randomNonNegativeLong(),
+            false
+        );
+        assertThat(autoIdResult.getResultType(), not(equalTo(Engine.Result.Type.FAILURE)));
+        closeShards(shard);
+    }
+
     private static void blockingCallRelocated(
         IndexShard indexShard,
         ShardRouting routing,
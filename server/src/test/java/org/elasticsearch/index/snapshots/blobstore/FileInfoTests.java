@@ -15,6 +15,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentFactory;
@@ -23,12 +24,16 @@ import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.json.JsonXContent;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
 import static org.elasticsearch.index.store.StoreFileMetadata.UNAVAILABLE_WRITER_UUID;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 public class FileInfoTests extends ESTestCase {
     private static final org.apache.lucene.util.Version MIN_SUPPORTED_LUCENE_VERSION = org.elasticsearch.Version.CURRENT
@@ -198,4 +203,58 @@ public class FileInfoTests extends ESTestCase {
             assertEquals(numBytes, metadata.length());
         }
     }
+
+    public void testChunksToFromXContentAndStream() throws IOException {
+        final List<BlobStoreIndexShardSnapshot.Chunk> chunks = new ArrayList<>();
+        long length = 0L;
+        for (int i = between(1, 10); i > 0; i--) {
+            final BlobStoreIndexShardSnapshot.Chunk chunk = new BlobStoreIndexShardSnapshot.Chunk(
+                "__chunk-" + randomAlphaOfLength(10).toLowerCase(Locale.ROOT),
+                randomLongBetween(1L, 1000L)
+            );
+            chunks.add(chunk);
+            length += chunk.length();
+        }
+        final StoreFileMetadata metadata = new StoreFileMetadata(
+            "foobar",
+            length,
+            randomAlphaOfLengthBetween(1, 10),
+            Version.LATEST.toString()
+        );
+        final FileInfo info = new FileInfo("_foobar", metadata, chunks);
+        assertThat(info.isChunked(), is(true));
+        assertThat(info.partSize(), nullValue());
+        assertThat(info.numberOfParts(), equalTo(chunks.size()));
+        for (int i = 0; i < info.numberOfParts(); i++) {
+            assertThat(info.partName(i), equalTo(chunks.get(i).name()));
+            assertThat(info.partBytes(i), equalTo(chunks.get(i).length()));
+        }
+
+        final XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
+        FileInfo.toXContent(info, builder, ToXContent.EMPTY_PARAMS);
+        final FileInfo parsedInfo;
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+            parser.nextToken();
+            parsedInfo = FileInfo.fromXContent(parser);
+        }
+        assertThat(parsedInfo.chunks(), equalTo(chunks));
+        assertThat(parsedInfo.isSame(info), is(true));
+
+        final FileInfo deserializedInfo = copyWriteable(info, writableRegistry(), FileInfo::new);
+        assertThat(deserializedInfo.chunks(), equalTo(chunks));
+        assertThat(deserializedInfo.isSame(info), is(true));
+
+        final FileInfo unchunkedInfo = new FileInfo("_foobar", metadata, new ByteSizeValue(randomLongBetween(1L, length)));
+        assertThat(unchunkedInfo.isSame(info), is(false));
+        assertThat(copyWriteable(unchunkedInfo, writableRegistry(), FileInfo::new).isChunked(), is(false));
+
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> copyWriteable(info, writableRegistry(), FileInfo::new, VersionUtils.getPreviousVersion(FileInfo.CHUNKS_VERSION))
+        );
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> new FileInfo("_foobar", new StoreFileMetadata("foobar", metadata.length() + 1L, "0", Version.LATEST.toString()), chunks)
+        );
+    }
 }
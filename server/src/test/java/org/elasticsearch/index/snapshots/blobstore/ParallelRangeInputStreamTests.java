@@ -0,0 +1,256 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.snapshots.blobstore;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ParallelRangeInputStreamTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    public void testRanges() {
+        final FileInfo fileInfo = randomFileInfo();
+        final long rangeSize = randomLongBetween(1L, 100L);
+        final List<ParallelRangeInputStream.Range> ranges = ParallelRangeInputStream.ranges(fileInfo, rangeSize);
+
+        long totalLength = 0L;
+        for (ParallelRangeInputStream.Range range : ranges) {
+            final long partBytes = fileInfo.partBytes(partOf(fileInfo, range.blobName()));
+            assertThat(range.position() + range.length(), lessThanOrEqualTo(partBytes));
+            assertThat(range.length(), lessThan(rangeSize + (rangeSize + 1L) / 2L));
+            if (range.length() < rangeSize) {
+                // small ranges are only left at the end of a part
+                assertThat(range.position() + range.length(), equalTo(partBytes));
+            }
+            totalLength += range.length();
+        }
+        assertThat(totalLength, equalTo(fileInfo.length()));
+    }
+
+    public void testReadsRangesInOrder() throws Exception {
+        final FileInfo fileInfo = randomFileInfo();
+        final Map<String, byte[]> blobs = randomBlobs(fileInfo);
+        final int maxPermits = between(1, 5);
+        final Semaphore semaphore = new Semaphore(maxPermits);
+        final ParallelRangeInputStream.Permits permits = permits(semaphore);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (
+            InputStream stream = new ParallelRangeInputStream(
+                ParallelRangeInputStream.ranges(fileInfo, randomLongBetween(1L, 100L)),
+                between(1, 8),
+                threadPool.generic(),
+                permits,
+                (blobName, position, length) -> new ByteArrayInputStream(blobs.get(blobName), Math.toIntExact(position), (int) length),
+                () -> {}
+            )
+        ) {
+            final byte[] buffer = new byte[between(1, 64)];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                assertThat(read, greaterThanOrEqualTo(0));
+                output.write(buffer, 0, read);
+            }
+            assertThat(stream.read(), equalTo(-1));
+        }
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int part = 0; part < fileInfo.numberOfParts(); part++) {
+            expected.write(blobs.get(fileInfo.partName(part)));
+        }
+        assertArrayEquals(expected.toByteArray(), output.toByteArray());
+        assertBusy(() -> assertThat(semaphore.availablePermits(), equalTo(maxPermits)));
+    }
+
+    public void testReleasesPermitsOnClose() throws Exception {
+        final FileInfo fileInfo = randomFileInfo();
+        final Map<String, byte[]> blobs = randomBlobs(fileInfo);
+        final int maxPermits = between(1, 5);
+        final Semaphore semaphore = new Semaphore(maxPermits);
+        final ParallelRangeInputStream.Permits permits = permits(semaphore);
+
+        final InputStream stream = new ParallelRangeInputStream(
+            ParallelRangeInputStream.ranges(fileInfo, randomLongBetween(1L, 10L)),
+            between(1, 8),
+            threadPool.generic(),
+            permits,
+            (blobName, position, length) -> new ByteArrayInputStream(blobs.get(blobName), Math.toIntExact(position), (int) length),
+            () -> {}
+        );
+        final int bytesToRead = between(0, Math.toIntExact(fileInfo.length()));
+        for (int i = 0; i < bytesToRead; i++) {
+            assertThat(stream.read(), greaterThanOrEqualTo(0));
+        }
+        stream.close();
+        expectThrows(IOException.class, stream::read);
+        assertBusy(() -> assertThat(semaphore.availablePermits(), equalTo(maxPermits)));
+    }
+
+    public void testPropagatesReadFailures() throws Exception {
+        final FileInfo fileInfo = randomFileInfo();
+        final List<ParallelRangeInputStream.Range> ranges = ParallelRangeInputStream.ranges(fileInfo, randomLongBetween(1L, 10L));
+        final ParallelRangeInputStream.Range failingRange = randomFrom(ranges);
+        final Semaphore semaphore = new Semaphore(between(1, 5));
+        final ParallelRangeInputStream.Permits permits = permits(semaphore);
+
+        try (
+            InputStream stream = new ParallelRangeInputStream(ranges, between(1, 8), threadPool.generic(), permits, (blob, pos, len) -> {
+                if (failingRange.equals(new ParallelRangeInputStream.Range(blob, pos, len))) {
+                    throw new IOException("simulated");
+                }
+                return new ByteArrayInputStream(new byte[(int) len]);
+            }, () -> {})
+        ) {
+            final IOException e = expectThrows(IOException.class, () -> {
+                final byte[] buffer = new byte[between(1, 64)];
+                while (stream.read(buffer) != -1) {
+                    // consume the stream until the failing range
+                }
+            });
+            assertThat(e.getMessage(), equalTo("simulated"));
+        }
+    }
+
+    public void testStopsReadingRangesOnceClosed() throws Exception {
+        final FileInfo fileInfo = new FileInfo(
+            "_" + randomAlphaOfLength(5),
+            new StoreFileMetadata(randomAlphaOfLength(5), randomLongBetween(20L, 1000L), "_na_", Version.LATEST.toString()),
+            null
+        );
+        // more ranges than can be read ahead, so that some are only read after the target is closed
+        final List<ParallelRangeInputStream.Range> ranges = ParallelRangeInputStream.ranges(fileInfo, randomLongBetween(1L, 2L));
+        final AtomicBoolean targetClosed = new AtomicBoolean();
+        final AtomicInteger rangesReadAfterClose = new AtomicInteger();
+        final Semaphore semaphore = new Semaphore(between(1, 5));
+        final ParallelRangeInputStream.Permits permits = permits(semaphore);
+
+        try (
+            InputStream stream = new ParallelRangeInputStream(ranges, between(1, 8), threadPool.generic(), permits, (blob, pos, len) -> {
+                if (targetClosed.get()) {
+                    rangesReadAfterClose.incrementAndGet();
+                }
+                return new ByteArrayInputStream(new byte[(int) len]);
+            }, () -> {
+                if (targetClosed.get()) {
+                    throw new AlreadyClosedException("closed");
+                }
+            })
+        ) {
+            // stop within the first range so that there are more ranges to read
+            final int bytesToRead = between(0, Math.toIntExact(ranges.get(0).length()) - 1);
+            for (int i = 0; i < bytesToRead; i++) {
+                assertThat(stream.read(), greaterThanOrEqualTo(0));
+            }
+            targetClosed.set(true);
+            expectThrows(AlreadyClosedException.class, () -> {
+                final byte[] buffer = new byte[between(1, 64)];
+                while (stream.read(buffer) != -1) {
+                    // consume the stream until a range is read after the target was closed
+                }
+            });
+        }
+        // ranges that were already being read when the target was closed may complete, but no other range is read
+        assertThat(rangesReadAfterClose.get(), lessThanOrEqualTo(8));
+    }
+
+    public void testPermitsAreAcquiredForRangeLengths() throws Exception {
+        final FileInfo fileInfo = randomFileInfo();
+        final List<ParallelRangeInputStream.Range> ranges = ParallelRangeInputStream.ranges(fileInfo, randomLongBetween(1L, 100L));
+        final long maxBufferedBytes = randomLongBetween(0L, fileInfo.length());
+        final AtomicLong bufferedBytes = new AtomicLong();
+        final ParallelRangeInputStream.Permits permits = length -> {
+            if (bufferedBytes.addAndGet(length) > maxBufferedBytes) {
+                bufferedBytes.addAndGet(-length);
+                return null;
+            }
+            return Releasables.releaseOnce(() -> bufferedBytes.addAndGet(-length));
+        };
+
+        try (
+            InputStream stream = new ParallelRangeInputStream(
+                ranges,
+                between(1, 8),
+                threadPool.generic(),
+                permits,
+                (blob, pos, len) -> new ByteArrayInputStream(new byte[(int) len]),
+                () -> assertThat(bufferedBytes.get(), lessThanOrEqualTo(maxBufferedBytes))
+            )
+        ) {
+            assertThat(stream.readAllBytes().length, equalTo(Math.toIntExact(fileInfo.length())));
+        }
+        assertBusy(() -> assertThat(bufferedBytes.get(), equalTo(0L)));
+    }
+
+    private static ParallelRangeInputStream.Permits permits(Semaphore semaphore) {
+        return length -> semaphore.tryAcquire() ? Releasables.releaseOnce(semaphore::release) : null;
+    }
+
+    private static FileInfo randomFileInfo() {
+        final long length = randomLongBetween(1L, 1000L);
+        return new FileInfo(
+            "_" + randomAlphaOfLength(5),
+            new StoreFileMetadata(randomAlphaOfLength(5), length, "_na_", Version.LATEST.toString()),
+            randomBoolean() ? null : new ByteSizeValue(randomLongBetween(1L, length))
+        );
+    }
+
+    private static Map<String, byte[]> randomBlobs(FileInfo fileInfo) {
+        final Map<String, byte[]> blobs = new HashMap<>();
+        for (int part = 0; part < fileInfo.numberOfParts(); part++) {
+            blobs.put(fileInfo.partName(part), randomByteArrayOfLength(Math.toIntExact(fileInfo.partBytes(part))));
+        }
+        return blobs;
+    }
+
+    private static int partOf(FileInfo fileInfo, String blobName) {
+        for (int part = 0; part < fileInfo.numberOfParts(); part++) {
+            if (fileInfo.partName(part).equals(blobName)) {
+                return part;
+            }
+        }
+        throw new AssertionError("unknown blob [" + blobName + "] for " + fileInfo);
+    }
+}
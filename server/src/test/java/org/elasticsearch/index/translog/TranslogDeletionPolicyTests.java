@@ -89,6 +89,7 @@ public class TranslogDeletionPolicyTests extends ESTestCase {
                 () -> 1L,
                 () -> 1L,
                 randomNonNegativeLong(),
+                false,
                 new TragicExceptionHolder(),
                 seqNo -> {},
                 BigArrays.NON_RECYCLING_INSTANCE,
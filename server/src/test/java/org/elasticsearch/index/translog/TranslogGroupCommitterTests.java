@@ -0,0 +1,297 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogGroupCommitterTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    private TranslogGroupCommitter newGroupCommitter() {
+        return newGroupCommitter(randomTimeValue(0, 2, "ms"), randomIntBetween(1, 4));
+    }
+
+    private TranslogGroupCommitter newGroupCommitter(TimeValue targetLatency, int maxConcurrentSyncs) {
+        final Settings settings = Settings.builder()
+            .put(TranslogGroupCommitter.TARGET_LATENCY_SETTING.getKey(), targetLatency)
+            .put(TranslogGroupCommitter.MAX_CONCURRENT_SYNCS_SETTING.getKey(), maxConcurrentSyncs)
+            .build();
+        return new TranslogGroupCommitter(
+            settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            threadPool.getThreadContext(),
+            threadPool.generic()
+        );
+    }
+
+    public void testSyncsEachShardUpToItsLocations() throws Exception {
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter();
+        final Path dataPath = createTempDir();
+        final int numShards = randomIntBetween(1, 8);
+        final List<AtomicLong> syncedUpTo = new ArrayList<>();
+        final List<TranslogGroupCommitter.Syncer> syncers = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            final AtomicLong shardSyncedUpTo = new AtomicLong(-1);
+            syncedUpTo.add(shardSyncedUpTo);
+            syncers.add(locations -> {
+                for (Translog.Location location : locations) {
+                    shardSyncedUpTo.accumulateAndGet(location.translogLocation, Math::max);
+                }
+            });
+        }
+
+        final int numThreads = randomIntBetween(1, 8);
+        final int syncsPerThread = randomIntBetween(1, 100);
+        final CountDownLatch latch = new CountDownLatch(numThreads * syncsPerThread);
+        final List<Exception> failures = new CopyOnWriteArrayList<>();
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int[] shards = new int[syncsPerThread];
+            final long[] offsets = new long[syncsPerThread];
+            for (int i = 0; i < syncsPerThread; i++) {
+                shards[i] = randomIntBetween(0, numShards - 1);
+                offsets[i] = randomLongBetween(0, 1000);
+            }
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < syncsPerThread; i++) {
+                    final int shard = shards[i];
+                    final long offset = offsets[i];
+                    groupCommitter.sync(dataPath, syncers.get(shard), new Translog.Location(1, offset, 1), e -> {
+                        if (e != null) {
+                            failures.add(e);
+                        } else if (syncedUpTo.get(shard).get() < offset) {
+                            failures.add(new IllegalStateException("location [" + offset + "] of shard [" + shard + "] wasn't synced"));
+                        }
+                        latch.countDown();
+                    });
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        latch.await();
+        assertThat(failures, equalTo(List.of()));
+    }
+
+    public void testCoalescesTheSyncsRequestedDuringABatch() throws Exception {
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter();
+        final Path dataPath = createTempDir();
+        final CountDownLatch blockFirstBatch = new CountDownLatch(1);
+        final Thread firstBatch = blockWorker(groupCommitter, dataPath, blockFirstBatch);
+
+        // the syncs that are requested while the worker processes a batch are all processed in the next one, once per shard
+        final int numShards = randomIntBetween(1, 8);
+        final List<AtomicInteger> shardSyncs = new ArrayList<>();
+        final List<TranslogGroupCommitter.Syncer> syncers = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            final AtomicInteger syncs = new AtomicInteger();
+            shardSyncs.add(syncs);
+            syncers.add(locations -> syncs.incrementAndGet());
+        }
+        final int numSyncs = randomIntBetween(numShards, 100);
+        final CountDownLatch latch = new CountDownLatch(numSyncs);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < numSyncs; i++) {
+            // the first syncs request every shard
+            final TranslogGroupCommitter.Syncer syncer = syncers.get(i < numShards ? i : randomIntBetween(0, numShards - 1));
+            groupCommitter.sync(dataPath, syncer, new Translog.Location(1, i, 1), e -> {
+                if (e != null) {
+                    failures.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        assertThat(latch.getCount(), equalTo((long) numSyncs));
+
+        blockFirstBatch.countDown();
+        firstBatch.join();
+        latch.await();
+        assertThat(failures.get(), equalTo(0));
+        for (AtomicInteger syncs : shardSyncs) {
+            assertThat(syncs.get(), equalTo(1));
+        }
+    }
+
+    public void testSyncsTheShardsOfABatchConcurrently() throws Exception {
+        final int numShards = randomIntBetween(2, 4);
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter(randomTimeValue(0, 2, "ms"), numShards);
+        final Path dataPath = createTempDir();
+        final CountDownLatch blockFirstBatch = new CountDownLatch(1);
+        final Thread firstBatch = blockWorker(groupCommitter, dataPath, blockFirstBatch);
+
+        // every shard waits for the others to be syncing, which only completes if they are all synced at the same time
+        final CyclicBarrier allSyncing = new CyclicBarrier(numShards);
+        final CountDownLatch latch = new CountDownLatch(numShards);
+        final List<Exception> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            final TranslogGroupCommitter.Syncer syncer = locations -> {
+                try {
+                    allSyncing.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            };
+            groupCommitter.sync(dataPath, syncer, new Translog.Location(1, 0, 1), e -> {
+                if (e != null) {
+                    results.add(e);
+                }
+                latch.countDown();
+            });
+        }
+
+        blockFirstBatch.countDown();
+        firstBatch.join();
+        latch.await();
+        assertThat(results, equalTo(List.of()));
+    }
+
+    public void testWaitsForMoreSyncsAfterBatchesOfSeveralShards() throws Exception {
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter(TimeValue.timeValueHours(1), randomIntBetween(1, 4));
+        final Path dataPath = createTempDir();
+        assertThat(groupCommitter.waitNanos(dataPath), equalTo(0L));
+
+        // a batch of a single shard doesn't make the next one wait
+        syncAndWait(groupCommitter, dataPath, locations -> {});
+        assertThat(groupCommitter.waitNanos(dataPath), equalTo(0L));
+
+        // but a batch of several shards makes it wait for as long as batches take on average
+        final CountDownLatch blockFirstBatch = new CountDownLatch(1);
+        final Thread firstBatch = blockWorker(groupCommitter, dataPath, blockFirstBatch);
+        final int numShards = randomIntBetween(2, 4);
+        final CountDownLatch latch = new CountDownLatch(numShards);
+        for (int i = 0; i < numShards; i++) {
+            groupCommitter.sync(dataPath, locations -> {
+                try {
+                    Thread.sleep(randomIntBetween(1, 10));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }, new Translog.Location(1, 0, 1), e -> latch.countDown());
+        }
+        blockFirstBatch.countDown();
+        firstBatch.join();
+        latch.await();
+        final long waitNanos = groupCommitter.waitNanos(dataPath);
+        assertThat(waitNanos, greaterThan(0L));
+        assertThat(waitNanos, lessThanOrEqualTo(TimeValue.timeValueHours(1).nanos() / 2));
+
+        final long startNanos = System.nanoTime();
+        syncAndWait(groupCommitter, dataPath, locations -> {});
+        assertThat(System.nanoTime() - startNanos, greaterThanOrEqualTo(waitNanos));
+        assertThat(groupCommitter.waitNanos(dataPath), equalTo(0L));
+    }
+
+    public void testDoesNotWaitWithoutTargetLatency() throws Exception {
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter(TimeValue.ZERO, randomIntBetween(1, 4));
+        final Path dataPath = createTempDir();
+        final CountDownLatch blockFirstBatch = new CountDownLatch(1);
+        final Thread firstBatch = blockWorker(groupCommitter, dataPath, blockFirstBatch);
+        final int numShards = randomIntBetween(2, 4);
+        final CountDownLatch latch = new CountDownLatch(numShards);
+        for (int i = 0; i < numShards; i++) {
+            groupCommitter.sync(dataPath, locations -> {}, new Translog.Location(1, 0, 1), e -> latch.countDown());
+        }
+        blockFirstBatch.countDown();
+        firstBatch.join();
+        latch.await();
+        assertThat(groupCommitter.waitNanos(dataPath), lessThanOrEqualTo(0L));
+    }
+
+    public void testOnlyFailsTheSyncsOfTheFailingShard() throws Exception {
+        final TranslogGroupCommitter groupCommitter = newGroupCommitter();
+        final Path dataPath = createTempDir();
+        final IOException failure = new IOException("simulated");
+        final TranslogGroupCommitter.Syncer failingSyncer = locations -> { throw failure; };
+        final TranslogGroupCommitter.Syncer syncer = locations -> {};
+
+        final AtomicReference<Exception> failingResult = new AtomicReference<>();
+        final AtomicReference<Exception> result = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        groupCommitter.sync(dataPath, failingSyncer, new Translog.Location(1, 0, 1), e -> {
+            failingResult.set(e);
+            latch.countDown();
+        });
+        groupCommitter.sync(dataPath, syncer, new Translog.Location(1, 0, 1), e -> {
+            result.set(e);
+            latch.countDown();
+        });
+        latch.await();
+        assertThat(failingResult.get(), sameInstance(failure));
+        assertThat(result.get(), nullValue());
+    }
+
+    /**
+     * Starts a thread that becomes the worker of the given data path and blocks in a batch until {@code unblock} is released, so
+     * that the syncs that are requested in the meantime are queued for the next batch.
+     */
+    private static Thread blockWorker(TranslogGroupCommitter groupCommitter, Path dataPath, CountDownLatch unblock) throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> groupCommitter.sync(dataPath, locations -> {
+            blocked.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }, new Translog.Location(1, 0, 1), e -> assertThat(e, nullValue())));
+        thread.start();
+        blocked.await();
+        return thread;
+    }
+
+    private static void syncAndWait(TranslogGroupCommitter groupCommitter, Path dataPath, TranslogGroupCommitter.Syncer syncer)
+        throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Exception> result = new AtomicReference<>();
+        groupCommitter.sync(dataPath, syncer, new Translog.Location(1, 0, 1), e -> {
+            result.set(e);
+            latch.countDown();
+        });
+        latch.await();
+        assertThat(result.get(), nullValue());
+    }
+}
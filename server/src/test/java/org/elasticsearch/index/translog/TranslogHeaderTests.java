@@ -26,6 +26,23 @@ import static org.hamcrest.Matchers.not;
 
 public class TranslogHeaderTests extends ESTestCase {
 
+    public void testCompressedOperationsHeader() throws Exception {
+        final String translogUUID = UUIDs.randomBase64UUID();
+        final boolean compressedOperations = randomBoolean();
+        final TranslogHeader outHeader = new TranslogHeader(translogUUID, randomNonNegativeLong(), compressedOperations);
+        final Path translogFile = createTempDir().resolve(Translog.getFilename(randomNonNegativeLong()));
+        try (FileChannel channel = FileChannel.open(translogFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            outHeader.write(channel);
+            assertThat(outHeader.sizeInBytes(), equalTo((int) channel.position()));
+        }
+        try (FileChannel channel = FileChannel.open(translogFile, StandardOpenOption.READ)) {
+            final TranslogHeader inHeader = TranslogHeader.read(translogUUID, translogFile, channel);
+            assertThat(inHeader.getPrimaryTerm(), equalTo(outHeader.getPrimaryTerm()));
+            assertThat(inHeader.compressedOperations(), equalTo(compressedOperations));
+            assertThat(inHeader.sizeInBytes(), equalTo((int) channel.position()));
+        }
+    }
+
     public void testCurrentHeaderVersion() throws Exception {
         final String translogUUID = UUIDs.randomBase64UUID();
         final TranslogHeader outHeader = new TranslogHeader(translogUUID, randomNonNegativeLong());
@@ -135,6 +135,7 @@ import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.in;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
@@ -524,7 +525,10 @@ public class TranslogTests extends ESTestCase {
                         "size_in_bytes": 326,
                         "uncommitted_operations": 4,
                         "uncommitted_size_in_bytes": 271,
-                        "earliest_last_modified_age": %s
+                        "earliest_last_modified_age": %s,
+                        "sync_count": 0,
+                        "sync_requests": 0,
+                        "sync_wait_time_in_millis": 0
                       }
                     }""".formatted(stats.getEarliestLastModifiedAge()))));
             }
@@ -582,7 +586,10 @@ public class TranslogTests extends ESTestCase {
                 randomIntBetween(1, 1 << 20),
                 randomIntBetween(1, 1 << 20),
                 randomIntBetween(1, 4096),
-                randomIntBetween(1, 1 << 20)
+                randomIntBetween(1, 1 << 20),
+                randomIntBetween(0, 4096),
+                randomIntBetween(0, 4096),
+                randomIntBetween(0, 1 << 20)
             );
             statsList.add(stats);
             total.add(stats);
@@ -602,6 +609,9 @@ public class TranslogTests extends ESTestCase {
             equalTo(statsList.stream().mapToLong(TranslogStats::getUncommittedSizeInBytes).sum())
         );
         assertThat(total.getEarliestLastModifiedAge(), equalTo(earliestLastModifiedAge));
+        assertThat(total.getSyncCount(), equalTo(statsList.stream().mapToLong(TranslogStats::getSyncCount).sum()));
+        assertThat(total.getSyncRequests(), equalTo(statsList.stream().mapToLong(TranslogStats::getSyncRequests).sum()));
+        assertThat(total.getSyncWaitTimeInMillis(), equalTo(statsList.stream().mapToLong(TranslogStats::getSyncWaitTimeInMillis).sum()));
     }
 
     public void testNegativeNumberOfOperations() {
@@ -623,6 +633,15 @@ public class TranslogTests extends ESTestCase {
         assertThat(e, hasToString(containsString("earliestLastModifiedAge must be >= 0")));
     }
 
+    public void testNegativeSyncStats() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, -1, 1, 1));
+        assertThat(e, hasToString(containsString("syncCount must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, -1, 1));
+        assertThat(e, hasToString(containsString("syncRequests must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, 1, -1));
+        assertThat(e, hasToString(containsString("syncWaitTimeInMillis must be >= 0")));
+    }
+
     public void testBasicSnapshot() throws IOException {
         ArrayList<Translog.Operation> ops = new ArrayList<>();
         try (Translog.Snapshot snapshot = translog.newSnapshot()) {
@@ -661,6 +680,42 @@ public class TranslogTests extends ESTestCase {
         assertNull(translog.readOperation(new Location(100, 0, 0)));
     }
 
+    public void testCompressedOperations() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESS_SETTING.getKey(), true)
+            .build();
+        final String message = "a verbose log message ".repeat(randomIntBetween(10, 100));
+        final byte[] source = ("{\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        final List<Translog.Operation> ops = new ArrayList<>();
+        final List<Translog.Location> locations = new ArrayList<>();
+        try (Translog compressedTranslog = createTranslog(getTranslogConfig(createTempDir(), settings))) {
+            final int numOps = randomIntBetween(1, 100);
+            for (int i = 0; i < numOps; i++) {
+                final Translog.Operation op = new Translog.Index(Integer.toString(i), i, primaryTerm.get(), source);
+                locations.add(addToTranslogAndList(compressedTranslog, ops, op));
+                translog.add(op);
+            }
+            assertThat(compressedTranslog.stats().getTranslogSizeInBytes(), lessThan(translog.stats().getTranslogSizeInBytes()));
+
+            try (Translog.Snapshot snapshot = compressedTranslog.newSnapshot()) {
+                assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+            }
+            for (int i = 0; i < ops.size(); i++) {
+                assertEquals(ops.get(i), compressedTranslog.readOperation(locations.get(i)));
+            }
+
+            // operations are read back from the generations that are no longer written to as well
+            compressedTranslog.rollGeneration();
+            try (Translog.Snapshot snapshot = compressedTranslog.newSnapshot()) {
+                assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+            }
+            for (int i = 0; i < ops.size(); i++) {
+                assertEquals(ops.get(i), compressedTranslog.readOperation(locations.get(i)));
+            }
+        }
+    }
+
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
         try {
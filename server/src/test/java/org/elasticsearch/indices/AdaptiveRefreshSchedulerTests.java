@@ -0,0 +1,78 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AdaptiveRefreshSchedulerTests extends IndexShardTestCase {
+
+    private static final TimeValue MIN = TimeValue.timeValueSeconds(1);
+    private static final TimeValue MAX = TimeValue.timeValueSeconds(30);
+
+    public void testComputeInterval() {
+        // rarely searched shards are refreshed as rarely as possible
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.0, 0.0, MIN, MAX), equalTo(MAX));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.01, 0.0, MIN, MAX), equalTo(MAX));
+        // shards are refreshed about as often as they are searched
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.25, 0.0, MIN, MAX), equalTo(TimeValue.timeValueSeconds(4)));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(100.0, 0.0, MIN, MAX), equalTo(MIN));
+        // the indexing buffer pressure shrinks the interval once half of the buffer is used
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.0, 0.5, MIN, MAX), equalTo(MAX));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.0, 0.75, MIN, MAX), equalTo(TimeValue.timeValueSeconds(15)));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.25, 0.75, MIN, MAX), equalTo(TimeValue.timeValueSeconds(2)));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.0, 1.0, MIN, MAX), equalTo(MIN));
+        assertThat(AdaptiveRefreshScheduler.computeInterval(0.0, 3.0, MIN, MAX), equalTo(MIN));
+    }
+
+    public void testUpdateIntervals() throws Exception {
+        final IndexShard adaptiveShard = newStartedShard(
+            true,
+            Settings.builder().put(IndexSettings.INDEX_REFRESH_ADAPTIVE_SETTING.getKey(), true).build()
+        );
+        final IndexShard regularShard = newStartedShard(true);
+        try {
+            final AdaptiveRefreshScheduler scheduler = newScheduler(Settings.EMPTY, List.of(adaptiveShard, regularShard));
+            scheduler.updateIntervals();
+            // the shard wasn't searched
+            assertThat(adaptiveShard.getAdaptiveRefreshInterval(), equalTo(MAX));
+            assertThat(regularShard.getAdaptiveRefreshInterval(), equalTo(TimeValue.MINUS_ONE));
+        } finally {
+            closeShards(adaptiveShard, regularShard);
+        }
+    }
+
+    public void testMinIntervalMustNotExceedMaxInterval() {
+        final IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> newScheduler(Settings.builder().put("indices.refresh.adaptive.min_interval", "1m").build(), List.of())
+        );
+        assertThat(e.getMessage(), containsString("[indices.refresh.adaptive.min_interval] must be less than or equal to"));
+    }
+
+    private AdaptiveRefreshScheduler newScheduler(Settings settings, List<IndexShard> shards) {
+        return new AdaptiveRefreshScheduler(settings, threadPool, shards, new ByteSizeValue(48, ByteSizeUnit.MB)) {
+            @Override
+            protected Cancellable scheduleTask(ThreadPool threadPool) {
+                return null;
+            }
+        };
+    }
+}
@@ -15,6 +15,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -23,6 +24,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -104,6 +106,143 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testLeafOperationsCache() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        writer.commit();
+        writer.addDocument(newDoc(1, "bar"));
+        writer.commit();
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(dir), new ShardId("foo", "bar", 1));
+        assertEquals(2, reader.leaves().size());
+        IndexReader.CacheHelper firstLeaf = reader.leaves().get(0).reader().getReaderCacheHelper();
+        IndexReader.CacheHelper secondLeaf = reader.leaves().get(1).reader().getReaderCacheHelper();
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestSegmentAggregationsEntity entity = new TestSegmentAggregationsEntity(requestCacheStats, indexShard);
+
+        assertNull(cache.getLeaf(entity, mappingKey, firstLeaf, termBytes));
+        assertEquals(0, requestCacheStats.stats().getSegmentAggregationsHitCount());
+        assertEquals(1, requestCacheStats.stats().getSegmentAggregationsMissCount());
+
+        BytesReference value = new BytesArray("foo");
+        cache.putLeaf(entity, mappingKey, firstLeaf, termBytes, value);
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+        assertTrue(requestCacheStats.stats().getMemorySize().getBytes() > value.length());
+
+        assertEquals(value, cache.getLeaf(entity, mappingKey, firstLeaf, termBytes));
+        assertEquals(1, requestCacheStats.stats().getSegmentAggregationsHitCount());
+        assertNull(cache.getLeaf(entity, mappingKey, secondLeaf, termBytes));
+        assertEquals(2, requestCacheStats.stats().getSegmentAggregationsMissCount());
+        // the statistics of whole requests are left untouched
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(0, requestCacheStats.stats().getMissCount());
+
+        // closing the leaf removes its entries
+        reader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.numRegisteredCloseListeners());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+        assertEquals(0, requestCacheStats.stats().getSegmentAggregationsEvictions());
+        assertEquals(0, requestCacheStats.stats().getEvictions());
+
+        IOUtils.close(writer, dir, cache);
+    }
+
+    public void testLeafEntriesSurviveUnrelatedChanges() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        // a plain config does not flush on its own, so that each commit writes exactly one segment
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        writer.addDocument(newDoc(1, "foo"));
+        writer.commit();
+        writer.addDocument(newDoc(2, "bar"));
+        writer.commit();
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        assertEquals(2, reader.leaves().size());
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        BytesReference termBytes = XContentHelper.toXContent(new TermQueryBuilder("id", "0"), XContentType.JSON, false);
+        TestSegmentAggregationsEntity entity = new TestSegmentAggregationsEntity(requestCacheStats, new AtomicBoolean(true));
+        BytesReference firstValue = new BytesArray("first");
+        BytesReference secondValue = new BytesArray("second");
+        cache.putLeaf(entity, mappingKey, reader.leaves().get(0).reader().getReaderCacheHelper(), termBytes, firstValue);
+        cache.putLeaf(entity, mappingKey, reader.leaves().get(1).reader().getReaderCacheHelper(), termBytes, secondValue);
+        assertEquals(2, cache.count());
+
+        // deleting a document of the first segment changes its cache key but leaves the one of the second segment
+        writer.deleteDocuments(new Term("id", "0"));
+        DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+        assertNotNull(newReader);
+        assertEquals(2, newReader.leaves().size());
+        assertNull(cache.getLeaf(entity, mappingKey, newReader.leaves().get(0).reader().getReaderCacheHelper(), termBytes));
+        assertEquals(1, requestCacheStats.stats().getSegmentAggregationsMissCount());
+        assertEquals(secondValue, cache.getLeaf(entity, mappingKey, newReader.leaves().get(1).reader().getReaderCacheHelper(), termBytes));
+        assertEquals(1, requestCacheStats.stats().getSegmentAggregationsHitCount());
+
+        // the entry of the changed segment is dropped once the old reader is closed
+        reader.close();
+        cache.cleanCache();
+        assertEquals(1, cache.count());
+        assertEquals(secondValue, cache.getLeaf(entity, mappingKey, newReader.leaves().get(1).reader().getReaderCacheHelper(), termBytes));
+        assertEquals(2, requestCacheStats.stats().getSegmentAggregationsHitCount());
+        assertEquals(0, requestCacheStats.stats().getSegmentAggregationsEvictions());
+
+        newReader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+        IOUtils.close(writer, dir, cache);
+    }
+
+    public void testLeafEviction() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+        writer.addDocument(newDoc(0, "foo"));
+        writer.commit();
+        writer.addDocument(newDoc(1, "bar"));
+        writer.commit();
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(dir), new ShardId("foo", "bar", 1));
+        assertEquals(2, reader.leaves().size());
+        IndexReader.CacheHelper firstLeaf = reader.leaves().get(0).reader().getReaderCacheHelper();
+        IndexReader.CacheHelper secondLeaf = reader.leaves().get(1).reader().getReaderCacheHelper();
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        BytesReference termBytes = XContentHelper.toXContent(new TermQueryBuilder("id", "0"), XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+
+        final ByteSizeValue size;
+        {
+            IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+            ShardRequestCache requestCacheStats = new ShardRequestCache();
+            TestSegmentAggregationsEntity entity = new TestSegmentAggregationsEntity(requestCacheStats, indexShard);
+            cache.putLeaf(entity, mappingKey, firstLeaf, termBytes, new BytesArray("foo"));
+            size = requestCacheStats.stats().getMemorySize();
+            IOUtils.close(cache);
+        }
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder().put(IndicesRequestCache.INDICES_CACHE_QUERY_SIZE.getKey(), size.getBytes() + 1 + "b").build()
+        );
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        TestSegmentAggregationsEntity entity = new TestSegmentAggregationsEntity(requestCacheStats, indexShard);
+        cache.putLeaf(entity, mappingKey, firstLeaf, termBytes, new BytesArray("foo"));
+        cache.putLeaf(entity, mappingKey, secondLeaf, termBytes, new BytesArray("bar"));
+        assertEquals(1, cache.count());
+        assertNull(cache.getLeaf(entity, mappingKey, firstLeaf, termBytes));
+        assertEquals(new BytesArray("bar"), cache.getLeaf(entity, mappingKey, secondLeaf, termBytes));
+        assertEquals(1, requestCacheStats.stats().getSegmentAggregationsEvictions());
+        assertEquals(0, requestCacheStats.stats().getEvictions());
+        IOUtils.close(reader, writer, dir, cache);
+    }
+
     public void testCacheDifferentReaders() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
@@ -642,4 +781,34 @@ public class IndicesRequestCacheTests extends ESTestCase {
             return 42;
         }
     }
+
+    private static class TestSegmentAggregationsEntity extends AbstractIndexShardSegmentAggregationsCacheEntity {
+        private final AtomicBoolean standInForIndexShard;
+        private final ShardRequestCache shardRequestCache;
+
+        private TestSegmentAggregationsEntity(ShardRequestCache shardRequestCache, AtomicBoolean standInForIndexShard) {
+            this.standInForIndexShard = standInForIndexShard;
+            this.shardRequestCache = shardRequestCache;
+        }
+
+        @Override
+        protected ShardRequestCache stats() {
+            return shardRequestCache;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return standInForIndexShard.get();
+        }
+
+        @Override
+        public Object getCacheIdentity() {
+            return standInForIndexShard;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return 42;
+        }
+    }
 }
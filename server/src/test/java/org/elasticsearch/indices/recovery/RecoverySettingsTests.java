@@ -11,10 +11,12 @@ package org.elasticsearch.indices.recovery;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.test.ESTestCase;
 
 import static org.elasticsearch.indices.recovery.RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS;
 import static org.elasticsearch.indices.recovery.RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_PER_NODE;
+import static org.elasticsearch.indices.recovery.RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE;
 import static org.elasticsearch.indices.recovery.RecoverySettings.INDICES_RECOVERY_USE_SNAPSHOTS_SETTING;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
@@ -71,6 +73,34 @@ public class RecoverySettingsTests extends ESTestCase {
         permit.close();
     }
 
+    public void testSnapshotFileRangeDownloadPermitsCanBeDynamicallyUpdated() {
+        ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        RecoverySettings recoverySettings = new RecoverySettings(
+            Settings.builder().put(INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE.getKey(), 2).build(),
+            clusterSettings
+        );
+
+        Releasable first = recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit();
+        assertThat(first, is(notNullValue()));
+        Releasable second = recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit();
+        assertThat(second, is(notNullValue()));
+        assertThat(recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit(), is(nullValue()));
+
+        first.close();
+        first.close(); // releasing twice is a no-op
+        Releasable third = recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit();
+        assertThat(third, is(notNullValue()));
+        assertThat(recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit(), is(nullValue()));
+
+        clusterSettings.applySettings(
+            Settings.builder().put(INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_RANGE_DOWNLOADS_PER_NODE.getKey(), 3).build()
+        );
+        Releasable fourth = recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit();
+        assertThat(fourth, is(notNullValue()));
+        assertThat(recoverySettings.tryAcquireSnapshotFileRangeDownloadPermit(), is(nullValue()));
+        Releasables.close(second, third, fourth);
+    }
+
     public void testMaxConcurrentSnapshotFileDownloadsPerNodeIsValidated() {
         ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
         Settings settings = Settings.builder()
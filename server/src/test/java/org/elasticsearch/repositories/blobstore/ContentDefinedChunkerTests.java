@@ -0,0 +1,84 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ContentDefinedChunkerTests extends ESTestCase {
+
+    public void testChunksCoverInput() throws IOException {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(between(64, 4096), randomLongBetween(64L, Long.MAX_VALUE));
+        final byte[] bytes = randomByteArrayOfLength(between(0, 100_000));
+        final List<BlobStoreIndexShardSnapshot.Chunk> chunks = chunker.chunk(new ByteArrayInputStream(bytes));
+
+        long totalLength = 0L;
+        for (int i = 0; i < chunks.size(); i++) {
+            final BlobStoreIndexShardSnapshot.Chunk chunk = chunks.get(i);
+            assertThat(chunk.name(), startsWith(ContentDefinedChunker.CHUNK_BLOB_PREFIX));
+            assertThat(chunk.length(), lessThanOrEqualTo((long) chunker.getMaxChunkSize()));
+            if (i < chunks.size() - 1) {
+                // only the last chunk may be smaller than the minimum size
+                assertThat(chunk.length(), greaterThanOrEqualTo((long) chunker.getMinChunkSize()));
+            }
+            totalLength += chunk.length();
+        }
+        assertThat(totalLength, equalTo((long) bytes.length));
+    }
+
+    public void testChunksAreDeterministic() throws IOException {
+        final int averageChunkSize = between(64, 4096);
+        final byte[] bytes = randomByteArrayOfLength(between(0, 100_000));
+        assertThat(
+            new ContentDefinedChunker(averageChunkSize, Long.MAX_VALUE).chunk(new ByteArrayInputStream(bytes)),
+            equalTo(new ContentDefinedChunker(averageChunkSize, Long.MAX_VALUE).chunk(new ByteArrayInputStream(bytes)))
+        );
+    }
+
+    public void testChunksSurviveInsertions() throws IOException {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1024, Long.MAX_VALUE);
+        final byte[] bytes = randomByteArrayOfLength(between(100_000, 200_000));
+        final List<BlobStoreIndexShardSnapshot.Chunk> chunks = chunker.chunk(new ByteArrayInputStream(bytes));
+
+        // inserting bytes at the beginning only changes the first chunks, unlike splitting into parts of a fixed size
+        final byte[] prefix = randomByteArrayOfLength(between(1, 1000));
+        final byte[] shifted = new byte[prefix.length + bytes.length];
+        System.arraycopy(prefix, 0, shifted, 0, prefix.length);
+        System.arraycopy(bytes, 0, shifted, prefix.length, bytes.length);
+        final Set<BlobStoreIndexShardSnapshot.Chunk> shiftedChunks = new HashSet<>(chunker.chunk(new ByteArrayInputStream(shifted)));
+
+        final long sharedChunks = chunks.stream().filter(shiftedChunks::contains).count();
+        assertThat(sharedChunks, greaterThan(chunks.size() * 9L / 10L));
+    }
+
+    public void testMaxChunkSize() throws IOException {
+        final int maxChunkSize = between(16, 256);
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1024, maxChunkSize);
+        assertThat(chunker.getMaxChunkSize(), equalTo(Math.max(maxChunkSize, chunker.getMinChunkSize())));
+        for (BlobStoreIndexShardSnapshot.Chunk chunk : chunker.chunk(new ByteArrayInputStream(randomByteArrayOfLength(10_000)))) {
+            assertThat(chunk.length(), lessThanOrEqualTo((long) chunker.getMaxChunkSize()));
+        }
+    }
+
+    public void testRejectsSmallAverageChunkSize() {
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(between(Integer.MIN_VALUE, 63), Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class BlockBufferingLeafBucketCollectorTests extends ESTestCase {
+
+    public void testCollectsFullBlocks() throws IOException {
+        RecordingCollector recording = new RecordingCollector();
+        BlockBufferingLeafBucketCollector collector = new BlockBufferingLeafBucketCollector(recording);
+        int numDocs = randomIntBetween(1, 1000);
+        for (int doc = 0; doc < numDocs; doc++) {
+            collector.collect(doc, 0);
+        }
+        assertThat(recording.blocks.size(), equalTo((numDocs - 1) / BlockBufferingLeafBucketCollector.BLOCK_SIZE));
+        collector.flush();
+        assertThat(recording.blocks.size(), equalTo((numDocs - 1) / BlockBufferingLeafBucketCollector.BLOCK_SIZE + 1));
+
+        int expectedDoc = 0;
+        for (int[] block : recording.blocks) {
+            assertThat(block.length, equalTo(Math.min(BlockBufferingLeafBucketCollector.BLOCK_SIZE, numDocs - expectedDoc)));
+            for (int doc : block) {
+                assertThat(doc, equalTo(expectedDoc++));
+            }
+        }
+        assertThat(expectedDoc, equalTo(numDocs));
+
+        // flushing again doesn't collect anything
+        collector.flush();
+        assertThat(recording.blocks.size(), equalTo((numDocs - 1) / BlockBufferingLeafBucketCollector.BLOCK_SIZE + 1));
+    }
+
+    public void testFlushesWhenTheBucketChanges() throws IOException {
+        RecordingCollector recording = new RecordingCollector();
+        BlockBufferingLeafBucketCollector collector = new BlockBufferingLeafBucketCollector(recording);
+        collector.collect(0, 0);
+        collector.collect(1, 0);
+        collector.collect(2, 1);
+        collector.flush();
+        assertThat(recording.blocks.size(), equalTo(2));
+        assertArrayEquals(new int[] { 0, 1 }, recording.blocks.get(0));
+        assertArrayEquals(new int[] { 2 }, recording.blocks.get(1));
+        assertThat(recording.buckets, equalTo(List.of(0L, 1L)));
+    }
+
+    private static class RecordingCollector extends LeafBucketCollector {
+        private final List<int[]> blocks = new ArrayList<>();
+        private final List<Long> buckets = new ArrayList<>();
+
+        @Override
+        public void collect(int doc, long owningBucketOrd) {
+            throw new AssertionError("documents should be collected in blocks");
+        }
+
+        @Override
+        public void collectBlock(int[] docs, int count, long owningBucketOrd) {
+            blocks.add(Arrays.copyOf(docs, count));
+            buckets.add(owningBucketOrd);
+        }
+
+        @Override
+        public boolean supportsBlockCollection() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.test.TestSearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class CachingLeafAggregationsCollectorTests extends AggregatorTestCase {
+
+    private static final MappedFieldType KEYWORD_FIELD = new KeywordFieldMapper.KeywordFieldType("keyword");
+    private static final MappedFieldType NUMBER_FIELD = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.LONG);
+
+    public void testCachedLeavesMatchUncachedResults() throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                indexSegments(writer, between(2, 8));
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                final IndexSearcher searcher = new IndexSearcher(reader);
+                final TestLeafAggregationsCache cache = new TestLeafAggregationsCache(randomCacheableLeaves(reader));
+                final Map<String, Object> expected = collect(searcher, null);
+
+                // the first search collects every cacheable leaf with its own aggregators and caches its results
+                assertThat(collect(searcher, cache), equalTo(expected));
+                assertThat(cache.hits, equalTo(0));
+                assertThat(cache.entries.size(), equalTo(cache.cacheableLeaves.size()));
+
+                // the second search loads the results of the cacheable leaves from the cache
+                assertThat(collect(searcher, cache), equalTo(expected));
+                assertThat(cache.hits, equalTo(cache.cacheableLeaves.size()));
+                assertThat(cache.entries.size(), equalTo(cache.cacheableLeaves.size()));
+            }
+        }
+    }
+
+    public void testChangedLeavesAreCollectedAgain() throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                final int numSegments = between(2, 8);
+                indexSegments(writer, numSegments);
+                try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                    final TestLeafAggregationsCache cache = new TestLeafAggregationsCache(null);
+                    final Map<String, Object> before = collect(new IndexSearcher(reader), cache);
+                    assertThat(cache.entries.size(), equalTo(numSegments));
+
+                    // deleting a document of a segment changes the cache key of its reader
+                    writer.deleteDocuments(new Term("id", "segment-" + between(0, numSegments - 1) + "-0"));
+                    try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader)) {
+                        assertNotNull(newReader);
+                        final IndexSearcher searcher = new IndexSearcher(newReader);
+                        final Map<String, Object> after = collect(searcher, cache);
+                        assertThat(after, equalTo(collect(searcher, null)));
+                        assertNotEquals(before, after);
+                        // only the changed segment was collected again
+                        assertThat(cache.hits, equalTo(numSegments - 1));
+                        assertThat(cache.entries.size(), equalTo(numSegments + 1));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void indexSegments(IndexWriter writer, int numSegments) throws IOException {
+        for (int segment = 0; segment < numSegments; segment++) {
+            // at least two documents, so that deleting one does not drop the whole segment
+            final int numDocs = between(2, 50);
+            for (int i = 0; i < numDocs; i++) {
+                final Document document = new Document();
+                document.add(new StringField("id", "segment-" + segment + "-" + i, Field.Store.NO));
+                // the first document of each segment has a unique term so that deleting it changes the results
+                final String keyword = i == 0 ? "segment-" + segment : "k" + between(0, 9);
+                document.add(new SortedSetDocValuesField("keyword", new BytesRef(keyword)));
+                document.add(new SortedNumericDocValuesField("number", between(0, 100)));
+                writer.addDocument(document);
+            }
+            writer.commit();
+        }
+    }
+
+    private static Set<Object> randomCacheableLeaves(DirectoryReader reader) {
+        final Set<Object> cacheableLeaves = new HashSet<>();
+        for (LeafReaderContext ctx : reader.leaves()) {
+            if (randomBoolean()) {
+                cacheableLeaves.add(ctx.reader().getReaderCacheHelper().getKey());
+            }
+        }
+        return cacheableLeaves;
+    }
+
+    /**
+     * Collects a terms aggregation with a cardinality sub-aggregation and a top level cardinality aggregation, and
+     * returns a summary of the shard-level results.
+     */
+    private Map<String, Object> collect(IndexSearcher searcher, LeafAggregationsCache cache) throws IOException {
+        final AggregationContext context = createAggregationContext(searcher, new MatchAllDocsQuery(), KEYWORD_FIELD, NUMBER_FIELD);
+        final AggregatorFactories factories = AggregatorFactories.builder()
+            .addAggregator(
+                new TermsAggregationBuilder("terms").field("keyword")
+                    .size(100)
+                    .subAggregation(new CardinalityAggregationBuilder("cardinality").field("number"))
+            )
+            .addAggregator(new CardinalityAggregationBuilder("cardinality").field("number"))
+            .build(context, null);
+        try (TestSearchContext searchContext = new TestSearchContext((SearchExecutionContext) null)) {
+            searchContext.aggregations(new SearchContextAggregations(factories));
+            final Aggregator[] aggregators = factories.createTopLevelAggregators();
+            final BucketCollector shared = MultiBucketCollector.wrap(true, List.of(aggregators));
+            shared.preCollection();
+
+            final List<InternalAggregations> partialAggregations = new ArrayList<>();
+            if (cache == null) {
+                searcher.search(new MatchAllDocsQuery(), shared);
+            } else {
+                final CachingLeafAggregationsCollector collector = new CachingLeafAggregationsCollector(searchContext, shared, cache);
+                searcher.search(new MatchAllDocsQuery(), collector);
+                partialAggregations.addAll(collector.finish(true));
+            }
+            partialAggregations.add(AggregationPhase.buildTopLevel(searchContext, aggregators));
+
+            final InternalAggregations reduced = InternalAggregations.reduce(
+                partialAggregations,
+                new AggregationReduceContext.ForPartial(context.bigArrays(), null, () -> false)
+            );
+            return summarize(reduced);
+        }
+    }
+
+    private static Map<String, Object> summarize(InternalAggregations aggregations) {
+        final Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("cardinality", ((Cardinality) aggregations.get("cardinality")).getValue());
+        for (Terms.Bucket bucket : ((Terms) aggregations.get("terms")).getBuckets()) {
+            summary.put(bucket.getKeyAsString(), bucket.getDocCount());
+            summary.put(bucket.getKeyAsString() + ".cardinality", ((Cardinality) bucket.getAggregations().get("cardinality")).getValue());
+        }
+        return summary;
+    }
+
+    /**
+     * Caches the partial results per leaf reader cache key, like the request cache does.
+     */
+    private static class TestLeafAggregationsCache implements LeafAggregationsCache {
+        private final Set<Object> cacheableLeaves;
+        private final Map<Object, InternalAggregations> entries = new HashMap<>();
+        private int hits;
+
+        /**
+         * @param cacheableLeaves the cache keys of the leaves that can be cached, or null if all leaves can be cached
+         */
+        TestLeafAggregationsCache(Set<Object> cacheableLeaves) {
+            this.cacheableLeaves = cacheableLeaves;
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            return cacheableLeaves == null || cacheableLeaves.contains(ctx.reader().getReaderCacheHelper().getKey());
+        }
+
+        @Override
+        public InternalAggregations get(LeafReaderContext ctx) {
+            final InternalAggregations aggregations = entries.get(ctx.reader().getReaderCacheHelper().getKey());
+            if (aggregations != null) {
+                hits++;
+            }
+            return aggregations;
+        }
+
+        @Override
+        public void put(LeafReaderContext ctx, InternalAggregations aggregations) {
+            assertNull("leaf results are cached once", entries.put(ctx.reader().getReaderCacheHelper().getKey(), aggregations));
+        }
+    }
+}
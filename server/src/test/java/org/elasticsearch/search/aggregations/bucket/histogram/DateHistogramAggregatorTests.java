@@ -14,11 +14,16 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateFormatters;
@@ -38,11 +43,15 @@ import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.hamcrest.Matcher;
 
 import java.io.IOException;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -941,6 +950,110 @@ public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCas
         }
     }
 
+    public void testIndexSortedMatchAllIsCountedFromIndexSort() throws IOException {
+        indexSortedTestCase(new MatchAllDocsQuery(), Long.MIN_VALUE, Long.MAX_VALUE, false, false, true);
+    }
+
+    public void testIndexSortedRangeIsCountedFromIndexSort() throws IOException {
+        long lower = asLong("2020-01-05T12:00:00");
+        long upper = asLong("2020-01-20T00:00:00");
+        indexSortedTestCase(LongPoint.newRangeQuery(AGGREGABLE_DATE, lower, upper), lower, upper, false, false, true);
+    }
+
+    public void testIndexSortedWithSubAggIsCollectedWithIndexSort() throws IOException {
+        indexSortedTestCase(new MatchAllDocsQuery(), Long.MIN_VALUE, Long.MAX_VALUE, false, true, false);
+    }
+
+    public void testIndexSortedOtherQueryIsCollectedWithIndexSort() throws IOException {
+        indexSortedTestCase(LongPoint.newExactQuery("even", 1), Long.MIN_VALUE, Long.MAX_VALUE, true, false, false);
+    }
+
+    /**
+     * Aggregates random dates in an index sorted on the date, checking the
+     * results against the documents that the query should match.
+     */
+    private void indexSortedTestCase(
+        Query query,
+        long lower,
+        long upper,
+        boolean onlyEven,
+        boolean withSubAgg,
+        boolean expectCounted
+    ) throws IOException {
+        DateFieldMapper.DateFieldType ft = aggregableDateFieldType(false, true);
+        boolean reverse = randomBoolean();
+        IndexWriterConfig config = new IndexWriterConfig().setIndexSort(
+            new Sort(new SortedNumericSortField(AGGREGABLE_DATE, SortField.Type.LONG, reverse))
+        );
+        long start = asLong("2020-01-01T00:00:00");
+        long day = TimeUnit.DAYS.toMillis(1);
+        Map<Long, Long> expected = new TreeMap<>();
+        try (Directory directory = newDirectory(); IndexWriter indexWriter = new IndexWriter(directory, config)) {
+            int numDocs = randomIntBetween(1, 5000);
+            for (int i = 0; i < numDocs; i++) {
+                long instant = start + randomLongBetween(0, 30 * day);
+                boolean even = i % 2 == 0;
+                indexWriter.addDocument(
+                    List.of(
+                        new SortedNumericDocValuesField(AGGREGABLE_DATE, instant),
+                        new LongPoint(AGGREGABLE_DATE, instant),
+                        new LongPoint("even", even ? 1 : 0)
+                    )
+                );
+                if (instant >= lower && instant <= upper && (onlyEven == false || even)) {
+                    expected.merge(Math.floorDiv(instant, day) * day, 1L, Long::sum);
+                }
+                if (rarely()) {
+                    indexWriter.commit();
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(indexWriter)) {
+                DateHistogramAggregationBuilder builder = new DateHistogramAggregationBuilder("test").field(AGGREGABLE_DATE)
+                    .fixedInterval(DateHistogramInterval.DAY);
+                if (withSubAgg) {
+                    builder.subAggregation(
+                        new DateHistogramAggregationBuilder("sub").field(AGGREGABLE_DATE).fixedInterval(DateHistogramInterval.hours(1))
+                    );
+                }
+                AggregationContext context = createAggregationContext(new IndexSearcher(reader), query, ft);
+                Aggregator agg = createAggregator(builder, context);
+                assertThat(agg, instanceOf(DateHistogramAggregator.class));
+                agg.preCollection();
+                context.searcher().search(context.query(), agg);
+                agg.postCollection();
+                Map<String, Object> debug = new HashMap<>();
+                agg.collectDebugInfo(debug::put);
+                int segments = reader.leaves().size();
+                assertThat(debug.get("segments_counted_from_index_sort"), equalTo(expectCounted ? segments : 0));
+                assertThat(debug.get("segments_collected_with_index_sort"), equalTo(expectCounted ? 0 : segments));
+
+                InternalDateHistogram result = (InternalDateHistogram) agg.buildTopLevel();
+                result = (InternalDateHistogram) result.reduce(
+                    List.of(result),
+                    new AggregationReduceContext.ForFinal(
+                        context.bigArrays(),
+                        null,
+                        context.multiBucketConsumer(),
+                        PipelineTree.EMPTY,
+                        () -> false
+                    )
+                );
+                Map<Long, Long> actual = new TreeMap<>();
+                for (InternalDateHistogram.Bucket bucket : result.getBuckets()) {
+                    if (bucket.getDocCount() > 0) {
+                        actual.put(((ZonedDateTime) bucket.getKey()).toInstant().toEpochMilli(), bucket.getDocCount());
+                    }
+                    if (withSubAgg) {
+                        InternalDateHistogram sub = bucket.getAggregations().get("sub");
+                        long subDocCount = sub.getBuckets().stream().mapToLong(InternalDateHistogram.Bucket::getDocCount).sum();
+                        assertThat(subDocCount, equalTo(bucket.getDocCount()));
+                    }
+                }
+                assertThat(actual, equalTo(expected));
+            }
+        }
+    }
+
     public void testIllegalInterval() throws IOException {
         IllegalArgumentException e = expectThrows(
             IllegalArgumentException.class,
@@ -8,11 +8,26 @@
 
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.CardinalityUpperBound;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.IOException;
+
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -40,4 +55,81 @@ public class TermsAggregatorFactoryTests extends ESTestCase {
         assertThat(TermsAggregatorFactory.pickSubAggColectMode(nonEmpty, 1, 2), equalTo(Aggregator.SubAggCollectionMode.BREADTH_FIRST));
         assertThat(TermsAggregatorFactory.pickSubAggColectMode(nonEmpty, 1, 100), equalTo(Aggregator.SubAggCollectionMode.BREADTH_FIRST));
     }
+
+    public void testSkipGlobalOrdsOnFieldsWithManySegmentOrds() throws IOException {
+        try (Directory dir = newDirectory()) {
+            // 5 segment ordinals in total, although the field only has 4 distinct values
+            indexSegments(dir, new String[] { "a", "b", "c" }, new String[] { "c", "d" });
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                ValuesSource.Bytes.WithOrdinals valuesSource = valuesSource(searcher, false);
+                assertTrue(shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.ONE, valuesSource, searcher, 1));
+                assertTrue(shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.ONE, valuesSource, searcher, 5));
+                assertFalse(shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.ONE, valuesSource, searcher, 6));
+            }
+        }
+    }
+
+    public void testDontSkipGlobalOrdsWhenTheyAreLoaded() throws IOException {
+        try (Directory dir = newDirectory()) {
+            indexSegments(dir, new String[] { "a", "b", "c" }, new String[] { "c", "d" });
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                ValuesSource.Bytes.WithOrdinals valuesSource = valuesSource(searcher, true);
+                assertFalse(shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.ONE, valuesSource, searcher, 1));
+            }
+        }
+    }
+
+    public void testDontSkipGlobalOrdsWithSubAggregationsOrSeveralOwningBuckets() throws IOException {
+        try (Directory dir = newDirectory()) {
+            indexSegments(dir, new String[] { "a", "b", "c" }, new String[] { "c", "d" });
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                ValuesSource.Bytes.WithOrdinals valuesSource = valuesSource(searcher, false);
+                AggregatorFactories subAggregations = mock(AggregatorFactories.class);
+                assertFalse(shouldSkipGlobalOrds(subAggregations, CardinalityUpperBound.ONE, valuesSource, searcher, 1));
+                assertFalse(shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.MANY, valuesSource, searcher, 1));
+                assertFalse(
+                    shouldSkipGlobalOrds(AggregatorFactories.EMPTY, CardinalityUpperBound.ONE.multiply(2), valuesSource, searcher, 1)
+                );
+            }
+        }
+    }
+
+    private static boolean shouldSkipGlobalOrds(
+        AggregatorFactories factories,
+        CardinalityUpperBound cardinality,
+        ValuesSource.Bytes.WithOrdinals valuesSource,
+        IndexSearcher searcher,
+        long minSegmentOrds
+    ) throws IOException {
+        assertNull("tests must not force the execution mode", TermsAggregatorFactory.SKIP_GLOBAL_ORDS);
+        return TermsAggregatorFactory.shouldSkipGlobalOrds(factories, cardinality, valuesSource, searcher, minSegmentOrds);
+    }
+
+    /**
+     * Indexes a segment with the given values of the {@code field} field for each array of values.
+     */
+    private static void indexSegments(Directory dir, String[]... segments) throws IOException {
+        try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            for (String[] values : segments) {
+                for (String value : values) {
+                    Document doc = new Document();
+                    doc.add(new SortedSetDocValuesField("field", new BytesRef(value)));
+                    writer.addDocument(doc);
+                }
+                writer.commit();
+            }
+        }
+    }
+
+    private static ValuesSource.Bytes.WithOrdinals valuesSource(IndexSearcher searcher, boolean globalOrdinalsLoaded) throws IOException {
+        ValuesSource.Bytes.WithOrdinals valuesSource = mock(ValuesSource.Bytes.WithOrdinals.class);
+        when(valuesSource.globalOrdinalsLoaded(searcher)).thenReturn(globalOrdinalsLoaded);
+        when(valuesSource.ordinalsValues(any())).thenAnswer(
+            invocation -> DocValues.getSortedSet(((LeafReaderContext) invocation.getArguments()[0]).reader(), "field")
+        );
+        return valuesSource;
+    }
 }
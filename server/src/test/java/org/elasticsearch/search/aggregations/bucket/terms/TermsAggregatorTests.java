@@ -2092,6 +2092,91 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         }, keywordFt, dummyFt);
     }
 
+    public void testSegmentOrdinals() throws IOException {
+        MappedFieldType fieldType = new KeywordFieldMapper.KeywordFieldType("string", randomBoolean(), true, Collections.emptyMap());
+        TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("t").field("string")
+            .includeExclude(new IncludeExclude(null, "e"))
+            .order(BucketOrder.key(true));
+        TermsAggregatorFactory.SKIP_GLOBAL_ORDS = true;
+        try {
+            debugTestCase(aggregationBuilder, new MatchAllDocsQuery(), iw -> {
+                iw.addDocument(doc(fieldType, "a", "b"));
+                iw.addDocument(doc(fieldType, "", "c", "a"));
+                iw.commit();
+                iw.addDocument(doc(fieldType, "b", "d"));
+                iw.addDocument(doc(fieldType, "e"));
+                iw.addDocument(doc(fieldType, "d"));
+            }, (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+                assertEquals(MapStringTermsAggregator.SegmentOrdinals.class, impl);
+                assertThat(
+                    result.getBuckets().stream().map(StringTerms.Bucket::getKey).collect(toList()),
+                    equalTo(List.of("", "a", "b", "c", "d"))
+                );
+                assertThat(
+                    result.getBuckets().stream().map(StringTerms.Bucket::getDocCount).collect(toList()),
+                    equalTo(List.of(1L, 2L, 2L, 1L, 2L))
+                );
+                assertMap(debug, matchesMap().entry("t", matchesMap().extraOk().entry("result_strategy", "terms")));
+                assertThat((Long) debug.get("t").get("segment_terms_looked_up"), greaterThanOrEqualTo(6L));
+            }, fieldType);
+        } finally {
+            TermsAggregatorFactory.SKIP_GLOBAL_ORDS = null;
+        }
+    }
+
+    public void testSegmentOrdinalsFallsBackToMapWithSubAggregations() throws IOException {
+        MappedFieldType fieldType = new KeywordFieldMapper.KeywordFieldType("string", randomBoolean(), true, Collections.emptyMap());
+        MappedFieldType numberType = new NumberFieldMapper.NumberFieldType("number", NumberFieldMapper.NumberType.LONG);
+        TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("t").field("string")
+            .executionHint("segment_ordinals")
+            .order(BucketOrder.key(true))
+            .subAggregation(new MaxAggregationBuilder("max").field("number"));
+        debugTestCase(aggregationBuilder, new MatchAllDocsQuery(), iw -> {
+            iw.addDocument(List.of(new SortedSetDocValuesField("string", new BytesRef("a")), new SortedNumericDocValuesField("number", 1)));
+            iw.addDocument(List.of(new SortedSetDocValuesField("string", new BytesRef("b")), new SortedNumericDocValuesField("number", 2)));
+            iw.commit();
+            iw.addDocument(List.of(new SortedSetDocValuesField("string", new BytesRef("a")), new SortedNumericDocValuesField("number", 3)));
+        }, (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+            // segment ordinals can't collect sub-aggregations, so the values are hashed instead
+            assertEquals(MapStringTermsAggregator.class, impl);
+            assertThat(result.getBuckets().stream().map(StringTerms.Bucket::getKey).collect(toList()), equalTo(List.of("a", "b")));
+            assertThat(result.getBuckets().stream().map(StringTerms.Bucket::getDocCount).collect(toList()), equalTo(List.of(2L, 1L)));
+            assertThat(
+                result.getBuckets().stream().map(b -> ((InternalMax) b.getAggregations().get("max")).getValue()).collect(toList()),
+                equalTo(List.of(3.0, 2.0))
+            );
+        }, fieldType, numberType);
+    }
+
+    public void testSegmentOrdinalsFallsBackToMapWithoutOrdinals() throws IOException {
+        StringFieldScript.Factory scriptFactory = (fieldName, params, lookup) -> ctx -> new StringFieldScript(
+            fieldName,
+            Map.of(),
+            lookup,
+            ctx
+        ) {
+            @Override
+            public void execute() {
+                emit((String) getDoc().get("k").get(0));
+            }
+        };
+        MappedFieldType keywordFt = new KeywordFieldType("k", true, true, Collections.emptyMap());
+        MappedFieldType runtimeFt = new KeywordScriptFieldType("runtime", scriptFactory, new Script("test"), Map.of());
+        TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("t").field("runtime")
+            .executionHint("segment_ordinals")
+            .order(BucketOrder.key(true));
+        debugTestCase(aggregationBuilder, new MatchAllDocsQuery(), iw -> {
+            iw.addDocument(doc(keywordFt, "a"));
+            iw.addDocument(doc(keywordFt, "b"));
+            iw.addDocument(doc(keywordFt, "a"));
+        }, (StringTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+            // runtime fields have no ordinals
+            assertEquals(MapStringTermsAggregator.class, impl);
+            assertThat(result.getBuckets().stream().map(StringTerms.Bucket::getKey).collect(toList()), equalTo(List.of("a", "b")));
+            assertThat(result.getBuckets().stream().map(StringTerms.Bucket::getDocCount).collect(toList()), equalTo(List.of(2L, 1L)));
+        }, keywordFt, runtimeFt);
+    }
+
     private final SeqNoFieldMapper.SequenceIDFields sequenceIDFields = SeqNoFieldMapper.SequenceIDFields.emptySeqID();
 
     private List<Document> generateDocsWithNested(String id, int value, int[] nestedValues) {
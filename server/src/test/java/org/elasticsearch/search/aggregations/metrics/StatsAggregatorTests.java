@@ -100,6 +100,31 @@ public class StatsAggregatorTests extends AggregatorTestCase {
         }, ft);
     }
 
+    public void testRandomDoublesManyDocs() throws IOException {
+        // more documents than fit in a single block, some of them without values
+        final MappedFieldType ft = new NumberFieldMapper.NumberFieldType("field", NumberType.DOUBLE);
+        final SimpleStatsAggregator expected = new SimpleStatsAggregator();
+        testCase(stats("_name").field(ft.name()), iw -> {
+            int numDocs = randomIntBetween(300, 1000);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                int numValues = randomIntBetween(0, 3);
+                for (int j = 0; j < numValues; j++) {
+                    double value = randomDoubleBetween(-100d, 100d, true);
+                    long valueAsLong = NumericUtils.doubleToSortableLong(value);
+                    doc.add(new SortedNumericDocValuesField(ft.name(), valueAsLong));
+                    expected.add(value);
+                }
+                iw.addDocument(doc);
+            }
+        }, stats -> {
+            assertEquals(expected.count, stats.getCount(), 0);
+            assertEquals(expected.sum, stats.getSum(), TOLERANCE);
+            assertEquals(expected.min, stats.getMin(), 0);
+            assertEquals(expected.max, stats.getMax(), 0);
+        }, ft);
+    }
+
     public void testRandomLongs() throws IOException {
         randomLongsTestCase(randomIntBetween(1, 5), stats("_name").field("field"), (expected, stats) -> {
             assertEquals(expected.count, stats.getCount(), 0);
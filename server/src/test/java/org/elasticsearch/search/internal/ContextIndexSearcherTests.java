@@ -27,6 +27,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
@@ -40,6 +41,7 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Accountable;
@@ -52,26 +54,32 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.internal.ContextIndexSearcher.intersectScorerAndBitSet;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitableLeafReader;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitablePointValues;
 import static org.elasticsearch.search.internal.ExitableDirectoryReader.ExitableTerms;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class ContextIndexSearcherTests extends ESTestCase {
@@ -271,6 +279,63 @@ public class ContextIndexSearcherTests extends ESTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testConcurrentSearchOverLeafSlices() throws Exception {
+        try (Directory directory = newDirectory()) {
+            IndexWriterConfig iwc = new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE);
+            int numSegments = randomIntBetween(ContextIndexSearcher.MAX_SEGMENTS_PER_SLICE + 1, 20);
+            int numDocs = 0;
+            try (IndexWriter iw = new IndexWriter(directory, iwc)) {
+                for (int i = 0; i < numSegments; i++) {
+                    int numSegmentDocs = randomIntBetween(1, 10);
+                    for (int j = 0; j < numSegmentDocs; j++) {
+                        Document document = new Document();
+                        document.add(new StringField("field", "value", Field.Store.NO));
+                        iw.addDocument(document);
+                    }
+                    numDocs += numSegmentDocs;
+                    iw.commit();
+                }
+            }
+            ExecutorService executor = EsExecutors.newFixed(
+                "test",
+                randomIntBetween(1, 4),
+                -1,
+                EsExecutors.daemonThreadFactory("search_worker"),
+                new ThreadContext(Settings.EMPTY),
+                false
+            );
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true,
+                    executor
+                );
+                assertThat(searcher.getSliceCount(), greaterThan(1));
+                CollectorManager<TotalHitCountCollector, Integer> manager = new CollectorManager<>() {
+                    @Override
+                    public TotalHitCountCollector newCollector() {
+                        return new TotalHitCountCollector();
+                    }
+
+                    @Override
+                    public Integer reduce(Collection<TotalHitCountCollector> collectors) {
+                        assertThat(collectors.size(), equalTo(searcher.getSliceCount()));
+                        return collectors.stream().mapToInt(TotalHitCountCollector::getTotalHits).sum();
+                    }
+                };
+                assertThat(searcher.search(new TermQuery(new Term("field", "value")), manager), equalTo(numDocs));
+
+                searcher.addQueryCancellation(() -> { throw new TaskCancelledException("cancelled"); });
+                expectThrows(TaskCancelledException.class, () -> searcher.search(new MatchAllDocsQuery(), manager));
+            } finally {
+                terminate(executor);
+            }
+        }
+    }
+
     private SparseFixedBitSet query(LeafReaderContext leaf, String field, String value) throws IOException {
         SparseFixedBitSet sparseFixedBitSet = new SparseFixedBitSet(leaf.reader().maxDoc());
         TermsEnum tenum = leaf.reader().terms(field).iterator();
@@ -58,6 +58,9 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchShardTask;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
@@ -81,6 +84,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static org.elasticsearch.search.query.TopDocsCollectorContext.hasInfMaxScore;
 import static org.hamcrest.Matchers.anyOf;
@@ -917,6 +921,117 @@ public class QueryPhaseTests extends IndexShardTestCase {
         }
     }
 
+    public void testConcurrentSearchMatchesSequentialSearch() throws Exception {
+        try (Directory dir = newDirectory()) {
+            final int numDocs;
+            try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                // enough segments for the leaves to be searched in several slices
+                final int numSegments = between(12, 20);
+                int doc = 0;
+                for (int i = 0; i < numSegments; i++) {
+                    for (int j = between(5, 20); j > 0; j--) {
+                        Document document = new Document();
+                        if (randomBoolean()) {
+                            document.add(new StringField("foo", "bar", Store.NO));
+                        }
+                        if (randomBoolean()) {
+                            document.add(new StringField("foo", "baz", Store.NO));
+                        }
+                        document.add(new NumericDocValuesField("rank", doc++));
+                        w.addDocument(document);
+                    }
+                    w.commit();
+                }
+                numDocs = doc;
+            }
+            ExecutorService executor = EsExecutors.newFixed(
+                "test",
+                between(1, 4),
+                -1,
+                EsExecutors.daemonThreadFactory("search_worker"),
+                new ThreadContext(Settings.EMPTY),
+                false
+            );
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                final ContextIndexSearcher sequentialSearcher = newContextSearcher(reader);
+                final ContextIndexSearcher concurrentSearcher = new ContextIndexSearcher(
+                    reader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    true,
+                    executor
+                );
+                assertThat(concurrentSearcher.getSliceCount(), greaterThan(1));
+                for (int iter = 0; iter < 20; iter++) {
+                    final Query query = randomFrom(
+                        new MatchAllDocsQuery(),
+                        new TermQuery(new Term("foo", "bar")),
+                        new BooleanQuery.Builder().add(new TermQuery(new Term("foo", "bar")), Occur.SHOULD)
+                            .add(new TermQuery(new Term("foo", "baz")), Occur.SHOULD)
+                            .build()
+                    );
+                    final int size = randomFrom(0, 1, 10);
+                    final int count = sequentialSearcher.count(query);
+                    // a single collector reports an exact count when it stops right at the threshold, so avoid that boundary
+                    final int trackTotalHitsUpTo = randomFrom(
+                        SearchContext.TRACK_TOTAL_HITS_DISABLED,
+                        SearchContext.TRACK_TOTAL_HITS_ACCURATE,
+                        SearchContext.DEFAULT_TRACK_TOTAL_HITS_UP_TO,
+                        randomValueOtherThanMany(t -> t == count || Math.max(t, size) == count, () -> between(1, numDocs))
+                    );
+                    final Sort rankSort = new Sort(new SortField("rank", SortField.Type.LONG));
+                    final SortAndFormats sort = randomBoolean()
+                        ? null
+                        : new SortAndFormats(rankSort, new DocValueFormat[] { DocValueFormat.RAW });
+                    // terminate_after is not supported by concurrent collection and falls back to a sequential search
+                    final int terminateAfter = randomBoolean() ? 0 : between(1, numDocs);
+                    QuerySearchResult sequential = executeQuery(sequentialSearcher, query, size, trackTotalHitsUpTo, sort, terminateAfter);
+                    QuerySearchResult concurrent = executeQuery(concurrentSearcher, query, size, trackTotalHitsUpTo, sort, terminateAfter);
+
+                    final TopDocs expected = sequential.topDocs().topDocs;
+                    final TopDocs actual = concurrent.topDocs().topDocs;
+                    assertEquals(expected.totalHits.relation, actual.totalHits.relation);
+                    if (expected.totalHits.relation == TotalHits.Relation.EQUAL_TO) {
+                        assertEquals(expected.totalHits.value, actual.totalHits.value);
+                    }
+                    assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+                    for (int i = 0; i < expected.scoreDocs.length; i++) {
+                        assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+                        assertEquals(expected.scoreDocs[i].score, actual.scoreDocs[i].score, 0f);
+                        if (sort != null) {
+                            assertArrayEquals(((FieldDoc) expected.scoreDocs[i]).fields, ((FieldDoc) actual.scoreDocs[i]).fields);
+                        }
+                    }
+                    assertEquals(sequential.terminatedEarly(), concurrent.terminatedEarly());
+                }
+            } finally {
+                terminate(executor);
+            }
+        }
+    }
+
+    private QuerySearchResult executeQuery(
+        ContextIndexSearcher searcher,
+        Query query,
+        int size,
+        int trackTotalHitsUpTo,
+        SortAndFormats sort,
+        int terminateAfter
+    ) throws Exception {
+        TestSearchContext context = new TestSearchContext(null, indexShard, searcher);
+        context.setTask(new SearchShardTask(123L, "", "", "", null, Collections.emptyMap()));
+        context.parsedQuery(new ParsedQuery(query));
+        context.setSize(size);
+        context.trackTotalHitsUpTo(trackTotalHitsUpTo);
+        context.terminateAfter(terminateAfter);
+        if (sort != null) {
+            context.sort(sort);
+        }
+        QueryPhase.executeInternal(context);
+        return context.queryResult();
+    }
+
     private static ContextIndexSearcher newContextSearcher(IndexReader reader) throws IOException {
         return new ContextIndexSearcher(
             reader,
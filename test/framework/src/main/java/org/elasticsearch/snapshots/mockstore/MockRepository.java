@@ -32,6 +32,7 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.PathUtils;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.plugins.RepositoryPlugin;
@@ -101,10 +102,28 @@ public class MockRepository extends FsRepository {
 
     private final AtomicLong failureCounter = new AtomicLong();
 
+    private final AtomicLong rangeReadCounter = new AtomicLong();
+
+    private final ConcurrentMap<String, AtomicLong> blobWriteCounters = new ConcurrentHashMap<>();
+
     public long getFailureCount() {
         return failureCounter.get();
     }
 
+    /**
+     * Returns the number of non-atomic writes of each blob that was written, keyed by the path of the blob.
+     */
+    public Map<String, Long> getBlobWriteCounts() {
+        return blobWriteCounters.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get()));
+    }
+
+    /**
+     * Returns the number of reads of ranges of blobs.
+     */
+    public long getRangeReadCount() {
+        return rangeReadCounter.get();
+    }
+
     private final double randomControlIOExceptionRate;
 
     private final double randomDataFileIOExceptionRate;
@@ -115,6 +134,11 @@ public class MockRepository extends FsRepository {
 
     private final long waitAfterUnblock;
 
+    /**
+     * Artificial latency added to every read of a blob, to simulate remote repositories with a local one.
+     */
+    private final TimeValue readLatency;
+
     private final String randomPrefix;
 
     private final Environment env;
@@ -185,6 +209,7 @@ public class MockRepository extends FsRepository {
         blockAndFailOnWriteSnapFile = metadata.settings().getAsBoolean("block_on_snap", false);
         randomPrefix = metadata.settings().get("random", "default");
         waitAfterUnblock = metadata.settings().getAsLong("wait_after_unblock", 0L);
+        readLatency = metadata.settings().getAsTime("read_latency", TimeValue.ZERO);
         env = environment;
         logger.info("starting mock repository with random prefix {}", randomPrefix);
     }
@@ -471,6 +496,17 @@ public class MockRepository extends FsRepository {
                 throw new IOException("exception after block");
             }
 
+            private void maybeDelayRead() throws IOException {
+                if (readLatency.millis() > 0L) {
+                    try {
+                        Thread.sleep(readLatency.millis());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("interrupted while delaying read", e);
+                    }
+                }
+            }
+
             private void maybeReadErrorAfterBlock(final String blobName) {
                 if (throwReadErrorAfterUnblock) {
                     throw new AssertionError("Read operation are not allowed anymore at this point [blob=" + blobName + "]");
@@ -498,6 +534,7 @@ public class MockRepository extends FsRepository {
                         maybeReadErrorAfterBlock(name);
                         maybeIOExceptionOrBlock(name);
                     }
+                maybeDelayRead();
                 return super.readBlob(name);
             }
 
@@ -505,6 +542,8 @@ public class MockRepository extends FsRepository {
             public InputStream readBlob(String name, long position, long length) throws IOException {
                 maybeReadErrorAfterBlock(name);
                 maybeIOExceptionOrBlock(name);
+                maybeDelayRead();
+                rangeReadCounter.incrementAndGet();
                 return super.readBlob(name, position, length);
             }
 
@@ -591,6 +630,7 @@ public class MockRepository extends FsRepository {
 
             private void beforeWrite(String blobName) throws IOException {
                 maybeIOExceptionOrBlock(blobName);
+                blobWriteCounters.computeIfAbsent(path().buildAsString() + blobName, k -> new AtomicLong()).incrementAndGet();
                 if (blobName.startsWith(BlobStoreRepository.SNAPSHOT_PREFIX) && path().equals(basePath()) == false) {
                     if (blockOnWriteShardLevelMeta) {
                         blockExecutionAndMaybeWait(blobName);
@@ -0,0 +1,177 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.decider.ShardsLimitAllocationDecider;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.xpack.core.searchablesnapshots.MountSearchableSnapshotAction;
+import org.elasticsearch.xpack.core.searchablesnapshots.MountSearchableSnapshotRequest;
+import org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapshotShardStats;
+import org.elasticsearch.xpack.searchablesnapshots.action.SearchableSnapshotsStatsAction;
+import org.elasticsearch.xpack.searchablesnapshots.action.SearchableSnapshotsStatsRequest;
+import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class FrozenSearchableSnapshotsPrefetchIntegTests extends BaseFrozenSearchableSnapshotsIntegTestCase {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal, Settings otherSettings) {
+        final Settings.Builder builder = Settings.builder().put(super.nodeSettings(nodeOrdinal, otherSettings));
+        if (DiscoveryNode.canContainData(otherSettings)) {
+            // small regions in a cache that is large enough for the prefetched files of both shards, so that none is skipped or evicted
+            builder.put(FrozenCacheService.SHARED_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(16, ByteSizeUnit.MB).getStringRep())
+                .put(FrozenCacheService.SHARED_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(16, ByteSizeUnit.KB).getStringRep());
+        }
+        return builder.build();
+    }
+
+    public void testPrefetchOnOpeningAnotherShardOfTheIndex() throws Exception {
+        final String repositoryName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        final String indexName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        final String restoredIndexName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        final String snapshotName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+
+        createRepository(repositoryName, "fs");
+        assertAcked(
+            prepareCreate(
+                indexName,
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 2)
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                    // a single merged segment without compound file per shard, so that each shard has one file of every extension
+                    .put(MergePolicyConfig.INDEX_COMPOUND_FORMAT_SETTING.getKey(), false)
+            ).setMapping("keyword", "type=keyword", "number", "type=long")
+        );
+        final List<IndexRequestBuilder> indexRequestBuilders = new ArrayList<>();
+        for (int i = between(2_000, 5_000); i >= 0; i--) {
+            indexRequestBuilders.add(
+                client().prepareIndex(indexName).setSource("keyword", randomAlphaOfLength(10), "number", randomLongBetween(0L, 1_000_000L))
+            );
+        }
+        indexRandom(true, true, indexRequestBuilders);
+        assertThat(
+            client().admin().indices().prepareForceMerge(indexName).setMaxNumSegments(1).setFlush(true).get().getFailedShards(),
+            equalTo(0)
+        );
+        createFullSnapshot(repositoryName, snapshotName);
+
+        final String nodeName = randomFrom(internalCluster().getDataNodeNames());
+        logger.info("--> mount the index with only one shard allocated on node [{}]", nodeName);
+        final MountSearchableSnapshotRequest mountRequest = new MountSearchableSnapshotRequest(
+            restoredIndexName,
+            repositoryName,
+            snapshotName,
+            indexName,
+            Settings.builder()
+                .put(SearchableSnapshots.SNAPSHOT_CACHE_PREFETCH_ENABLED_SETTING.getKey(), true)
+                .put(IndexMetadata.INDEX_ROUTING_REQUIRE_GROUP_PREFIX + "._name", nodeName)
+                .put(ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING.getKey(), 1)
+                .build(),
+            Strings.EMPTY_ARRAY,
+            false,
+            MountSearchableSnapshotRequest.Storage.SHARED_CACHE
+        );
+        client().execute(MountSearchableSnapshotAction.INSTANCE, mountRequest).actionGet();
+        assertBusy(() -> assertThat(startedShards(restoredIndexName), hasSize(1)));
+        final int searchedShard = startedShards(restoredIndexName).get(0).id();
+        final int openedShard = 1 - searchedShard;
+
+        logger.info("--> search shard [{}] so that the parts of its files that are read are recorded", searchedShard);
+        final SearchResponse searchResponse = client().prepareSearch(restoredIndexName)
+            .setPreference("_shards:" + searchedShard)
+            .setRequestCache(false)
+            .setQuery(rangeQuery("number").gte(randomLongBetween(0L, 500_000L)))
+            .addAggregation(terms("keyword").field("keyword"))
+            .get();
+        assertSearchResponse(searchResponse);
+        assertThat(searchResponse.getHits().getTotalHits().value, greaterThan(0L));
+
+        logger.info("--> allocate shard [{}] on the same node", openedShard);
+        assertAcked(
+            client().admin()
+                .indices()
+                .prepareUpdateSettings(restoredIndexName)
+                .setSettings(Settings.builder().putNull(ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING.getKey()))
+        );
+        ensureGreen(restoredIndexName);
+
+        assertBusy(() -> {
+            final Map<String, SearchableSnapshotShardStats.CacheIndexInputStats> searchedShardStats = shardStats(
+                restoredIndexName,
+                searchedShard
+            );
+            final Map<String, SearchableSnapshotShardStats.CacheIndexInputStats> openedShardStats = shardStats(
+                restoredIndexName,
+                openedShard
+            );
+            // the metadata files and the terms and points indices are fully fetched
+            for (String ext : List.of("tmd", "dvm", "kdm", "tip", "kdi")) {
+                final SearchableSnapshotShardStats.CacheIndexInputStats stats = openedShardStats.get(ext);
+                assertThat(ext, stats, notNullValue());
+                assertThat(
+                    Strings.toString(stats),
+                    stats.getCachedBytesWritten().getTotal(),
+                    greaterThanOrEqualTo(stats.getTotalSize().getBytes())
+                );
+            }
+            // the parts of the doc values that the terms aggregation read in the other shard are fetched, although it is not searched
+            assertThat(searchedShardStats.get("dvd").getCachedBytesRead().getTotal(), greaterThan(0L));
+            final SearchableSnapshotShardStats.CacheIndexInputStats docValuesStats = openedShardStats.get("dvd");
+            assertThat(docValuesStats, notNullValue());
+            assertThat(Strings.toString(docValuesStats), docValuesStats.getCachedBytesWritten().getTotal(), greaterThan(0L));
+        });
+        assertExecutorIsIdle(SearchableSnapshots.CACHE_PREWARMING_THREAD_POOL_NAME);
+    }
+
+    private static List<ShardRouting> startedShards(String indexName) {
+        return client().admin().cluster().prepareState().get().getState().routingTable().index(indexName).shardsWithState(STARTED);
+    }
+
+    /**
+     * Returns the searchable snapshot stats of the files of the given shard, by file extension.
+     */
+    private static Map<String, SearchableSnapshotShardStats.CacheIndexInputStats> shardStats(String indexName, int shardId) {
+        final Map<String, SearchableSnapshotShardStats.CacheIndexInputStats> stats = new HashMap<>();
+        for (SearchableSnapshotShardStats shardStats : client().execute(
+            SearchableSnapshotsStatsAction.INSTANCE,
+            new SearchableSnapshotsStatsRequest(indexName)
+        ).actionGet().getStats()) {
+            if (shardStats.getShardRouting().id() == shardId) {
+                for (SearchableSnapshotShardStats.CacheIndexInputStats indexInputStats : shardStats.getStats()) {
+                    stats.put(indexInputStats.getFileExt(), indexInputStats);
+                }
+            }
+        }
+        return stats;
+    }
+}
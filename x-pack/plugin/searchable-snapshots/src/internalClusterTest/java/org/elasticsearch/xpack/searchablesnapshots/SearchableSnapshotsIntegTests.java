@@ -45,6 +45,7 @@ import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.index.shard.IndexLongFieldRange;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.snapshots.SnapshotInfo;
@@ -1244,6 +1245,46 @@ public class SearchableSnapshotsIntegTests extends BaseSearchableSnapshotsIntegT
         }
     }
 
+    public void testCannotMountSnapshotStoredAsContentDefinedChunks() throws Exception {
+        final String suffix = getTestName().toLowerCase(Locale.ROOT);
+
+        final String index = "index_" + suffix;
+        createAndPopulateIndex(index, Settings.builder().put(INDEX_SOFT_DELETES_SETTING.getKey(), true));
+
+        final String repository = "repository_" + suffix;
+        createRepository(
+            repository,
+            "fs",
+            Settings.builder()
+                .put("location", randomRepoPath())
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_SETTING.getKey(), true)
+        );
+
+        final String snapshot = "snapshot_" + suffix;
+        createFullSnapshot(repository, snapshot);
+        assertAcked(client().admin().indices().prepareDelete(index));
+
+        final String mountedIndex = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        final IllegalArgumentException exception = expectThrows(IllegalArgumentException.class, () -> {
+            try {
+                mountSnapshot(repository, snapshot, index, mountedIndex, Settings.EMPTY);
+            } catch (Exception e) {
+                final Throwable cause = ExceptionsHelper.unwrap(e, IllegalArgumentException.class);
+                throw cause == null ? e : cause;
+            }
+        });
+        assertThat(
+            exception.getMessage(),
+            allOf(
+                containsString(index),
+                containsString(repository),
+                containsString(snapshot),
+                containsString("cannot be mounted because its files are stored as content-defined chunks")
+            )
+        );
+        assertFalse("no index should have been created", indexExists(mountedIndex));
+    }
+
     private static long max(long... values) {
         return Arrays.stream(values).max().orElseThrow(() -> new AssertionError("no values"));
     }
@@ -186,6 +186,12 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         Setting.Property.IndexScope,
         Setting.Property.NotCopyableOnResize
     );
+    public static final Setting<Boolean> SNAPSHOT_CACHE_PREFETCH_ENABLED_SETTING = Setting.boolSetting(
+        "index.store.snapshot.cache.prefetch.enabled",
+        false,
+        Setting.Property.IndexScope,
+        Setting.Property.NotCopyableOnResize
+    );
     // The file extensions that are excluded from the cache
     public static final Setting<List<String>> SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING = Setting.listSetting(
         "index.store.snapshot.cache.excluded_file_types",
@@ -291,6 +297,7 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
             SNAPSHOT_INDEX_ID_SETTING,
             SNAPSHOT_CACHE_ENABLED_SETTING,
             SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING,
+            SNAPSHOT_CACHE_PREFETCH_ENABLED_SETTING,
             SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING,
             SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING,
             DELETE_SEARCHABLE_SNAPSHOT_ON_INDEX_DELETION,
@@ -310,6 +317,9 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
             FrozenCacheService.SHARED_CACHE_MAX_FREQ_SETTING,
             FrozenCacheService.SHARED_CACHE_DECAY_INTERVAL_SETTING,
             FrozenCacheService.SHARED_CACHE_MIN_TIME_DELTA_SETTING,
+            FrozenCacheService.SHARED_CACHE_MMAP_SETTING,
+            FrozenCacheService.SHARED_CACHE_ADMISSION_ENABLED_SETTING,
+            FrozenCacheService.SHARED_CACHE_ADMISSION_WINDOW_SIZE_SETTING,
             BlobStoreCacheMaintenanceService.SNAPSHOT_SNAPSHOT_CLEANUP_INTERVAL_SETTING,
             BlobStoreCacheMaintenanceService.SNAPSHOT_SNAPSHOT_CLEANUP_KEEP_ALIVE_SETTING,
             BlobStoreCacheMaintenanceService.SNAPSHOT_SNAPSHOT_CLEANUP_BATCH_SIZE_SETTING,
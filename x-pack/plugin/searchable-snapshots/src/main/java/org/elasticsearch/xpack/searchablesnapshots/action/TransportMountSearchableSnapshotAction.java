@@ -29,6 +29,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.indices.ShardLimitValidator;
 import org.elasticsearch.indices.SystemIndices;
 import org.elasticsearch.license.XPackLicenseState;
@@ -36,6 +37,7 @@ import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.snapshots.SearchableSnapshotsSettings;
 import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.tasks.Task;
@@ -178,7 +180,7 @@ public class TransportMountSearchableSnapshotAction extends TransportMasterNodeA
         // Retrieve IndexId and SnapshotId instances, which are then used to create a new restore
         // request, which is then sent on to the actual snapshot restore mechanism
         final Repository repository = repositoriesService.repository(repoName);
-        SearchableSnapshots.getSearchableRepository(repository); // just check it's valid
+        final BlobStoreRepository blobStoreRepository = SearchableSnapshots.getSearchableRepository(repository);
 
         final ListenableFuture<RepositoryData> repositoryDataListener = new ListenableFuture<>();
         repository.getRepositoryData(repositoryDataListener);
@@ -217,6 +219,27 @@ public class TransportMountSearchableSnapshotAction extends TransportMasterNodeA
                 );
             }
 
+            // searchable snapshots read files by ranges of positions that assume that files are split into parts of a fixed size
+            for (int shardId = 0; shardId < indexMetadata.getNumberOfShards(); shardId++) {
+                final BlobStoreIndexShardSnapshot shardSnapshot = blobStoreRepository.loadShardSnapshot(
+                    blobStoreRepository.shardContainer(indexId, shardId),
+                    snapshotId
+                );
+                if (shardSnapshot.indexFiles().stream().anyMatch(BlobStoreIndexShardSnapshot.FileInfo::isChunked)) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            Locale.ROOT,
+                            "index [%s] in snapshot [%s/%s:%s] cannot be mounted because its files are stored as content-defined chunks; "
+                                + "did you mean to restore it instead?",
+                            indexName,
+                            repoName,
+                            repository.getMetadata().uuid(),
+                            snapName
+                        )
+                    );
+                }
+            }
+
             final Set<String> ignoreIndexSettings = new LinkedHashSet<>(Arrays.asList(request.ignoreIndexSettings()));
             ignoreIndexSettings.add(IndexMetadata.SETTING_DATA_PATH);
             for (final String indexSettingKey : indexMetadata.getSettings().keySet()) {
@@ -6,6 +6,7 @@
  */
 package org.elasticsearch.xpack.searchablesnapshots.action.cache;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.ActionFilters;
@@ -36,6 +37,9 @@ import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheServi
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -134,7 +138,9 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             frozenCacheStats.getWriteBytes(),
             frozenCacheStats.getReadCount(),
             frozenCacheStats.getReadBytes(),
-            frozenCacheStats.getEvictCount()
+            frozenCacheStats.getEvictCount(),
+            frozenCacheStats.getAdmissionRejectionCount(),
+            frozenCacheStats.getIndices()
         );
     }
 
@@ -178,6 +184,8 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         private final long reads;
         private final long bytesRead;
         private final long evictions;
+        private final long admissionRejections;
+        private final Map<String, FrozenCacheService.IndexStats> indices;
 
         public NodeCachesStatsResponse(
             DiscoveryNode node,
@@ -188,7 +196,9 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             long bytesWritten,
             long reads,
             long bytesRead,
-            long evictions
+            long evictions,
+            long admissionRejections,
+            Map<String, FrozenCacheService.IndexStats> indices
         ) {
             super(node);
             this.numRegions = numRegions;
@@ -199,6 +209,8 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.reads = reads;
             this.bytesRead = bytesRead;
             this.evictions = evictions;
+            this.admissionRejections = admissionRejections;
+            this.indices = Objects.requireNonNull(indices);
         }
 
         public NodeCachesStatsResponse(StreamInput in) throws IOException {
@@ -211,6 +223,16 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.reads = in.readVLong();
             this.bytesRead = in.readVLong();
             this.evictions = in.readVLong();
+            if (in.getVersion().onOrAfter(Version.V_8_1_0)) {
+                this.admissionRejections = in.readVLong();
+                this.indices = in.readMap(
+                    StreamInput::readString,
+                    i -> new FrozenCacheService.IndexStats(i.readVLong(), i.readVLong(), i.readVLong())
+                );
+            } else {
+                this.admissionRejections = 0L;
+                this.indices = Map.of();
+            }
         }
 
         @Override
@@ -224,6 +246,14 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             out.writeVLong(reads);
             out.writeVLong(bytesRead);
             out.writeVLong(evictions);
+            if (out.getVersion().onOrAfter(Version.V_8_1_0)) {
+                out.writeVLong(admissionRejections);
+                out.writeMap(indices, StreamOutput::writeString, (o, indexStats) -> {
+                    o.writeVLong(indexStats.getHits());
+                    o.writeVLong(indexStats.getMisses());
+                    o.writeVLong(indexStats.getAdmissionRejections());
+                });
+            }
         }
 
         @Override
@@ -240,6 +270,19 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
                     builder.field("num_regions", numRegions);
                     builder.humanReadableField("size_in_bytes", "size", ByteSizeValue.ofBytes(size));
                     builder.humanReadableField("region_size_in_bytes", "region_size", ByteSizeValue.ofBytes(regionSize));
+                    builder.field("admission_rejections", admissionRejections);
+                    builder.startObject("indices");
+                    for (Map.Entry<String, FrozenCacheService.IndexStats> index : new TreeMap<>(indices).entrySet()) {
+                        final FrozenCacheService.IndexStats indexStats = index.getValue();
+                        final long total = indexStats.getHits() + indexStats.getMisses();
+                        builder.startObject(index.getKey());
+                        builder.field("hits", indexStats.getHits());
+                        builder.field("misses", indexStats.getMisses());
+                        builder.field("hit_ratio", total == 0L ? 0.0d : (double) indexStats.getHits() / total);
+                        builder.field("admission_rejections", indexStats.getAdmissionRejections());
+                        builder.endObject();
+                    }
+                    builder.endObject();
                 }
                 builder.endObject();
             }
@@ -278,6 +321,14 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         public long getEvictions() {
             return evictions;
         }
+
+        public long getAdmissionRejections() {
+            return admissionRejections;
+        }
+
+        public Map<String, FrozenCacheService.IndexStats> getIndices() {
+            return indices;
+        }
     }
 
     public static class NodesCachesStatsResponse extends BaseNodesResponse<NodeCachesStatsResponse> implements ToXContentObject {
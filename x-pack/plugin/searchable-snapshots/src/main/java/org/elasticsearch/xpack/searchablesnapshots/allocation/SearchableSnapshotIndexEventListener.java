@@ -110,6 +110,9 @@ public class SearchableSnapshotIndexEventListener implements IndexEventListener
                         );
                     }
                 }
+                if (frozenCacheService != null) {
+                    frozenCacheService.onIndexRemoved(indexService.index());
+                }
             }
         }
     }
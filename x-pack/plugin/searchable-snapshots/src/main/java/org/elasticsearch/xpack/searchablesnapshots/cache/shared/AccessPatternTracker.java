@@ -0,0 +1,122 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps track of the parts of the Lucene files of partially mounted indices that are read through the shared cache, so that the parts
+ * that the shards of an index usually read can be fetched in advance when another shard of the same index is opened on the node.
+ *
+ * Lucene files are split into {@link #NUM_BUCKETS} buckets of equal size and, for every index and file extension, the tracker counts the
+ * number of files that had each bucket read at least once. Buckets are relative to the length of the files so that the access patterns of
+ * files of different sizes can be compared.
+ */
+public class AccessPatternTracker {
+
+    /**
+     * The number of buckets that files are split into, so that the set of buckets read in a file fits in a {@code long}.
+     */
+    public static final int NUM_BUCKETS = Long.SIZE;
+
+    private final Map<Index, Map<String, Histogram>> histograms = ConcurrentCollections.newConcurrentMap();
+
+    /**
+     * Records that a file with the given extension started to be read for the given index.
+     */
+    public void onFileRead(Index index, String extension) {
+        histogram(index, extension).files.incrementAndGet();
+    }
+
+    /**
+     * Records that the given buckets have been read for the first time in a file with the given extension of the given index.
+     */
+    public void onBucketsRead(Index index, String extension, long buckets) {
+        final Histogram histogram = histogram(index, extension);
+        for (long remaining = buckets; remaining != 0L; remaining &= remaining - 1) {
+            histogram.buckets.incrementAndGet(Long.numberOfTrailingZeros(remaining));
+        }
+    }
+
+    /**
+     * Returns the buckets that have been read in at least half of the files with the given extension of the given index, or {@code 0L}
+     * if no such files have been read yet.
+     */
+    public long getHotBuckets(Index index, String extension) {
+        final Map<String, Histogram> indexHistograms = histograms.get(index);
+        if (indexHistograms == null) {
+            return 0L;
+        }
+        final Histogram histogram = indexHistograms.get(extension);
+        if (histogram == null) {
+            return 0L;
+        }
+        final int files = histogram.files.get();
+        long hotBuckets = 0L;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            final int count = histogram.buckets.get(bucket);
+            if (count > 0 && count * 2L >= files) {
+                hotBuckets |= 1L << bucket;
+            }
+        }
+        return hotBuckets;
+    }
+
+    /**
+     * Forgets about the access patterns of the given index, for instance because it has been removed from the node.
+     */
+    public void remove(Index index) {
+        histograms.remove(index);
+    }
+
+    private Histogram histogram(Index index, String extension) {
+        return histograms.computeIfAbsent(index, i -> ConcurrentCollections.newConcurrentMap())
+            .computeIfAbsent(extension, e -> new Histogram());
+    }
+
+    /**
+     * Returns the buckets of a file of the given length that contain the bytes in {@code [position, position + length)}.
+     */
+    public static long buckets(long fileLength, long position, long length) {
+        assert position >= 0L && length > 0L && position + length <= fileLength : position + "+" + length + " vs " + fileLength;
+        final int first = bucket(fileLength, position);
+        final int last = bucket(fileLength, position + length - 1L);
+        final long upToLast = last == NUM_BUCKETS - 1 ? -1L : (1L << (last + 1)) - 1L;
+        return upToLast & (-1L << first);
+    }
+
+    /**
+     * Returns the position of the first byte of the given bucket in a file of the given length. The bucket {@link #NUM_BUCKETS} can
+     * be used to get the end of the last bucket.
+     */
+    public static long bucketStart(long fileLength, int bucket) {
+        assert bucket >= 0 && bucket <= NUM_BUCKETS : bucket;
+        return bucket * (fileLength / NUM_BUCKETS) + Math.min(bucket, fileLength % NUM_BUCKETS);
+    }
+
+    private static int bucket(long fileLength, long position) {
+        // inverse of bucketStart: the first (fileLength % NUM_BUCKETS) buckets are one byte larger than the others
+        final long smallBucketSize = fileLength / NUM_BUCKETS;
+        final long largeBuckets = fileLength % NUM_BUCKETS;
+        final long largeBucketsEnd = largeBuckets * (smallBucketSize + 1L);
+        if (position < largeBucketsEnd) {
+            return Math.toIntExact(position / (smallBucketSize + 1L));
+        }
+        return Math.toIntExact(largeBuckets + (position - largeBucketsEnd) / smallBucketSize);
+    }
+
+    private static class Histogram {
+        private final AtomicInteger files = new AtomicInteger();
+        private final AtomicIntegerArray buckets = new AtomicIntegerArray(NUM_BUCKETS);
+    }
+}
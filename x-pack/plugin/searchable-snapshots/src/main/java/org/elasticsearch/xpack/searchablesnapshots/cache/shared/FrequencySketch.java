@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+/**
+ * A count-min sketch that estimates how many times keys have been accessed recently, used by the {@link FrozenCacheService} to only
+ * admit a new region in the shared cache if it is accessed more frequently than the region that it would evict (TinyLFU).
+ *
+ * Every key is counted by {@link #DEPTH} 4-bit counters, sixteen of which are packed in a {@code long}. Once {@code windowSize} accesses
+ * have been recorded all counters are halved, so that the estimated frequencies reflect recent accesses and keys that were frequently
+ * accessed a long time ago do not stay in the cache forever.
+ *
+ * This class is not thread-safe.
+ */
+class FrequencySketch {
+
+    static final int DEPTH = 4;
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    private final long[] table;
+    private final int counterMask;
+    private final int windowSize;
+    private int additions;
+
+    /**
+     * @param maxKeys       the number of keys that are expected to be tracked, for instance the number of regions in the cache
+     * @param windowSize    the number of accesses after which all counters are halved
+     */
+    FrequencySketch(int maxKeys, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size must be greater than zero but was [" + windowSize + "]");
+        }
+        // four counters per key, rounded up to a power of two so that counters can be selected with a mask
+        final int expectedCounters = Math.min(Math.max(maxKeys, 1), 1 << 26) * DEPTH;
+        final int numCounters = Math.max(Long.SIZE, Integer.highestOneBit(expectedCounters - 1) << 1);
+        this.table = new long[numCounters / 16];
+        this.counterMask = numCounters - 1;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Records an access to the key with the given hash code.
+     */
+    void increment(int hashCode) {
+        final int hash = spread(hashCode);
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            added |= incrementAt(counterIndex(hash, i));
+        }
+        if (added && ++additions >= windowSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of recent accesses to the key with the given hash code, between 0 and {@link #MAX_FREQUENCY}.
+     */
+    int frequency(int hashCode) {
+        final int hash = spread(hashCode);
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, counterAt(counterIndex(hash, i)));
+        }
+        return frequency;
+    }
+
+    // visible for testing
+    int getAdditions() {
+        return additions;
+    }
+
+    private int counterIndex(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private int counterAt(int counterIndex) {
+        return (int) ((table[counterIndex >>> 4] >>> ((counterIndex & 15) << 2)) & 0xfL);
+    }
+
+    private boolean incrementAt(int counterIndex) {
+        final int shift = (counterIndex & 15) << 2;
+        final long mask = 0xfL << shift;
+        final int i = counterIndex >>> 4;
+        if ((table[i] & mask) != mask) {
+            table[i] += 1L << shift;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = additions >>> 1;
+    }
+
+    private static int spread(int hashCode) {
+        int x = hashCode * 0x31848bab;
+        return x ^ (x >>> 14);
+    }
+}
@@ -25,11 +25,13 @@ import org.elasticsearch.common.util.concurrent.AbstractAsyncTask;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.monitor.fs.FsProbe;
 import org.elasticsearch.node.NodeRoleSettings;
@@ -42,6 +44,8 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -229,6 +233,33 @@ public class FrozenCacheService implements Releasable {
         Setting.Property.NodeScope
     );
 
+    public static final Setting<Boolean> SHARED_CACHE_MMAP_SETTING = Setting.boolSetting(
+        SHARED_CACHE_SETTINGS_PREFIX + "mmap",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<Boolean> SHARED_CACHE_ADMISSION_ENABLED_SETTING = Setting.boolSetting(
+        SHARED_CACHE_SETTINGS_PREFIX + "admission.enabled",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<Integer> SHARED_CACHE_ADMISSION_WINDOW_SIZE_SETTING = Setting.intSetting(
+        SHARED_CACHE_SETTINGS_PREFIX + "admission.window_size",
+        -1,                           // default, ten times the number of regions
+        -1,                           // min
+        value -> {
+            if (value == 0) {
+                throw new SettingsException(
+                    "setting [{}] must be greater than zero or -1",
+                    SHARED_CACHE_SETTINGS_PREFIX + "admission.window_size"
+                );
+            }
+        },
+        Setting.Property.NodeScope
+    );
+
     private static final Logger logger = LogManager.getLogger(FrozenCacheService.class);
 
     private final ConcurrentHashMap<RegionKey, Entry<CacheFileRegion>> keyMapping;
@@ -261,6 +292,15 @@ public class FrozenCacheService implements Releasable {
 
     private final LongAdder evictCount = new LongAdder();
 
+    private final LongAdder admissionRejectionCount = new LongAdder();
+    private final Map<Index, IndexCounters> indexCounters = new ConcurrentHashMap<>();
+
+    // admission filter of the cache, only accessed under the lock of this instance
+    @Nullable
+    private final FrequencySketch frequencySketch;
+
+    private final AccessPatternTracker accessPatternTracker = new AccessPatternTracker();
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public FrozenCacheService(NodeEnvironment environment, Settings settings, ThreadPool threadPool) {
         this.currentTimeSupplier = threadPool::relativeTimeInMillis;
@@ -290,8 +330,21 @@ public class FrozenCacheService implements Releasable {
         this.maxFreq = SHARED_CACHE_MAX_FREQ_SETTING.get(settings);
         this.minTimeDelta = SHARED_CACHE_MIN_TIME_DELTA_SETTING.get(settings).millis();
         freqs = new Entry[maxFreq];
+        if (SHARED_CACHE_ADMISSION_ENABLED_SETTING.get(settings)) {
+            final int windowSize = SHARED_CACHE_ADMISSION_WINDOW_SIZE_SETTING.get(settings);
+            frequencySketch = new FrequencySketch(numRegions, windowSize == -1 ? Math.max(1, numRegions) * 10 : windowSize);
+        } else {
+            frequencySketch = null;
+        }
         try {
-            sharedBytes = new SharedBytes(numRegions, regionSize, environment, writeBytes::add, readBytes::add);
+            sharedBytes = new SharedBytes(
+                numRegions,
+                regionSize,
+                environment,
+                writeBytes::add,
+                readBytes::add,
+                SHARED_CACHE_MMAP_SETTING.get(settings)
+            );
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -315,6 +368,10 @@ public class FrozenCacheService implements Releasable {
         return toIntBytes(recoveryRangeSize.getBytes());
     }
 
+    public AccessPatternTracker getAccessPatternTracker() {
+        return accessPatternTracker;
+    }
+
     private int getRegion(long position) {
         return Math.toIntExact(position / regionSize);
     }
@@ -380,25 +437,30 @@ public class FrozenCacheService implements Releasable {
                 regionKey,
                 key -> new Entry<>(new CacheFileRegion(regionKey, effectiveRegionSize), now)
             );
+            final IndexCounters counters = indexCounters.computeIfAbsent(cacheKey.getShardId().getIndex(), i -> new IndexCounters());
             if (entry.chunk.sharedBytesPos == -1) {
                 // new item
                 assert entry.freq == 0;
                 assert entry.prev == null;
                 assert entry.next == null;
+                counters.misses.increment();
                 final Integer freeSlot = freeRegions.poll();
                 if (freeSlot != null) {
                     // no need to evict an item, just add
                     entry.chunk.sharedBytesPos = freeSlot;
                     assert regionOwners[freeSlot].compareAndSet(null, entry.chunk);
                     synchronized (this) {
+                        recordAccess(regionKey);
                         pushEntryToBack(entry);
                     }
                 } else {
                     // need to evict something
+                    final boolean admitted;
                     synchronized (this) {
-                        maybeEvict();
+                        recordAccess(regionKey);
+                        admitted = maybeEvict(regionKey);
                     }
-                    final Integer freeSlotRetry = freeRegions.poll();
+                    final Integer freeSlotRetry = admitted ? freeRegions.poll() : null;
                     if (freeSlotRetry != null) {
                         entry.chunk.sharedBytesPos = freeSlotRetry;
                         assert regionOwners[freeSlotRetry].compareAndSet(null, entry.chunk);
@@ -408,12 +470,19 @@ public class FrozenCacheService implements Releasable {
                     } else {
                         boolean removed = keyMapping.remove(regionKey, entry);
                         assert removed;
+                        if (admitted == false) {
+                            admissionRejectionCount.increment();
+                            counters.admissionRejections.increment();
+                            throw new AlreadyClosedException("region not admitted in the shared cache");
+                        }
                         throw new AlreadyClosedException("no free region found");
                     }
                 }
             } else {
+                counters.hits.increment();
                 // check if we need to promote item
                 synchronized (this) {
+                    recordAccess(regionKey);
                     if (now - entry.lastAccessed >= minTimeDelta && entry.freq + 1 < maxFreq) {
                         unlink(entry);
                         entry.freq++;
@@ -431,12 +500,28 @@ public class FrozenCacheService implements Releasable {
         freeRegions.add(chunk.sharedBytesPos);
     }
 
-    // used by tests
-    int freeRegionCount() {
+    public int freeRegionCount() {
         return freeRegions.size();
     }
 
+    /**
+     * Returns the number of regions of the shared cache that the given range of a file spans.
+     */
+    public int getRegionCount(ByteRange range) {
+        if (range.length() == 0L) {
+            return 0;
+        }
+        return getEndingRegion(range.end()) - getRegion(range.start()) + 1;
+    }
+
     public Stats getStats() {
+        final Map<String, IndexStats> indices = new HashMap<>();
+        indexCounters.forEach(
+            (index, counters) -> indices.put(
+                index.getName(),
+                new IndexStats(counters.hits.sum(), counters.misses.sum(), counters.admissionRejections.sum())
+            )
+        );
         return new Stats(
             numRegions,
             cacheSize,
@@ -445,10 +530,20 @@ public class FrozenCacheService implements Releasable {
             writeCount.sum(),
             writeBytes.sum(),
             readCount.sum(),
-            readBytes.sum()
+            readBytes.sum(),
+            admissionRejectionCount.sum(),
+            Collections.unmodifiableMap(indices)
         );
     }
 
+    /**
+     * Forgets about the statistics and the access patterns of the given index, once it is removed from the node.
+     */
+    public void onIndexRemoved(Index index) {
+        indexCounters.remove(index);
+        accessPatternTracker.remove(index);
+    }
+
     private synchronized boolean invariant(final Entry<CacheFileRegion> e, boolean present) {
         boolean found = false;
         for (int i = 0; i < maxFreq; i++) {
@@ -478,18 +573,38 @@ public class FrozenCacheService implements Releasable {
         return true;
     }
 
-    private void maybeEvict() {
+    private void recordAccess(RegionKey regionKey) {
+        assert Thread.holdsLock(this);
+        if (frequencySketch != null) {
+            frequencySketch.increment(regionKey.hashCode());
+        }
+    }
+
+    /**
+     * Evicts the least frequently used region that is not in use to make room for the given candidate region. If the admission filter is
+     * enabled the candidate is only admitted if it was accessed more frequently than the region it would evict, so that scanning lots of
+     * regions once does not evict the regions that are regularly used.
+     *
+     * @return false if the candidate region was not admitted in the cache, true otherwise
+     */
+    private boolean maybeEvict(RegionKey candidate) {
         assert Thread.holdsLock(this);
         for (int i = 0; i < maxFreq; i++) {
             for (Entry<CacheFileRegion> entry = freqs[i]; entry != null; entry = entry.next) {
+                if (frequencySketch != null
+                    && entry.chunk.refCount() <= 1
+                    && frequencySketch.frequency(candidate.hashCode()) <= frequencySketch.frequency(entry.chunk.regionKey.hashCode())) {
+                    return false;
+                }
                 boolean evicted = entry.chunk.tryEvict();
                 if (evicted) {
                     unlink(entry);
                     keyMapping.remove(entry.chunk.regionKey, entry);
-                    return;
+                    return true;
                 }
             }
         }
+        return true;
     }
 
     private void pushEntryToBack(final Entry<CacheFileRegion> entry) {
@@ -593,6 +708,12 @@ public class FrozenCacheService implements Releasable {
         }
     }
 
+    private static class IndexCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder admissionRejections = new LongAdder();
+    }
+
     // used by tests
     int getFreq(CacheFileRegion cacheFileRegion) {
         return keyMapping.get(cacheFileRegion.regionKey).freq;
@@ -933,7 +1054,7 @@ public class FrozenCacheService implements Releasable {
 
     public static class Stats {
 
-        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, Map.of());
 
         private final int numberOfRegions;
         private final long size;
@@ -943,6 +1064,8 @@ public class FrozenCacheService implements Releasable {
         private final long writeBytes;
         private final long readCount;
         private final long readBytes;
+        private final long admissionRejectionCount;
+        private final Map<String, IndexStats> indices;
 
         private Stats(
             int numberOfRegions,
@@ -952,7 +1075,9 @@ public class FrozenCacheService implements Releasable {
             long writeCount,
             long writeBytes,
             long readCount,
-            long readBytes
+            long readBytes,
+            long admissionRejectionCount,
+            Map<String, IndexStats> indices
         ) {
             this.numberOfRegions = numberOfRegions;
             this.size = size;
@@ -962,6 +1087,8 @@ public class FrozenCacheService implements Releasable {
             this.writeBytes = writeBytes;
             this.readCount = readCount;
             this.readBytes = readBytes;
+            this.admissionRejectionCount = admissionRejectionCount;
+            this.indices = indices;
         }
 
         public int getNumberOfRegions() {
@@ -995,5 +1122,45 @@ public class FrozenCacheService implements Releasable {
         public long getReadBytes() {
             return readBytes;
         }
+
+        public long getAdmissionRejectionCount() {
+            return admissionRejectionCount;
+        }
+
+        /**
+         * @return the statistics of the shared cache per index name
+         */
+        public Map<String, IndexStats> getIndices() {
+            return indices;
+        }
+    }
+
+    /**
+     * Statistics about the regions of the shared cache used by the shards of an index. A region is hit if it is already in the cache when
+     * it is read, and missed otherwise, in which case it may not be admitted in the cache if the admission filter is enabled.
+     */
+    public static class IndexStats {
+
+        private final long hits;
+        private final long misses;
+        private final long admissionRejections;
+
+        public IndexStats(long hits, long misses, long admissionRejections) {
+            this.hits = hits;
+            this.misses = misses;
+            this.admissionRejections = admissionRejections;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getAdmissionRejections() {
+            return admissionRejections;
+        }
     }
 }
@@ -20,10 +20,13 @@ import org.elasticsearch.xpack.searchablesnapshots.preallocate.Preallocate;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.function.IntConsumer;
 
@@ -40,6 +43,11 @@ public class SharedBytes extends AbstractRefCounted {
         StandardOpenOption.WRITE,
         StandardOpenOption.CREATE };
 
+    /**
+     * The largest size of a single mapping of the cache file, see {@link FileChannel#map}.
+     */
+    static final long MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+
     final int numRegions;
     final long regionSize;
 
@@ -48,11 +56,26 @@ public class SharedBytes extends AbstractRefCounted {
     private final FileChannel fileChannel;
     private final Path path;
 
+    // read-only mappings of the cache file, each holding a whole number of regions, or null if reads go through the file channel
+    private final MappedByteBuffer[] mappings;
+    private final long mappingSize;
+
     private final IntConsumer writeBytes;
     private final IntConsumer readBytes;
 
-    SharedBytes(int numRegions, long regionSize, NodeEnvironment environment, IntConsumer writeBytes, IntConsumer readBytes)
-        throws IOException {
+    SharedBytes(
+        int numRegions,
+        long regionSize,
+        NodeEnvironment environment,
+        IntConsumer writeBytes,
+        IntConsumer readBytes,
+        boolean mmap
+    ) throws IOException {
+        if (mmap && regionSize > MAX_MAPPING_SIZE) {
+            throw new IllegalArgumentException(
+                "cannot memory-map regions of [" + regionSize + "] bytes, they must not be larger than [" + MAX_MAPPING_SIZE + "] bytes"
+            );
+        }
         this.numRegions = numRegions;
         this.regionSize = regionSize;
         final long fileSize = numRegions * regionSize;
@@ -62,8 +85,18 @@ public class SharedBytes extends AbstractRefCounted {
             Preallocate.preallocate(cacheFile, fileSize);
             this.fileChannel = FileChannel.open(cacheFile, OPEN_OPTIONS);
             assert this.fileChannel.size() == fileSize : "expected file size " + fileSize + " but was " + fileChannel.size();
+            if (mmap) {
+                // regions must not span several mappings so that reads within a region are served by a single mapping
+                this.mappingSize = (MAX_MAPPING_SIZE / regionSize) * regionSize;
+                this.mappings = mapCacheFile(fileChannel, fileSize, mappingSize);
+            } else {
+                this.mappingSize = 0L;
+                this.mappings = null;
+            }
         } else {
             this.fileChannel = null;
+            this.mappingSize = 0L;
+            this.mappings = null;
             for (Path path : environment.nodeDataPaths()) {
                 Files.deleteIfExists(path.resolve(CACHE_FILE_NAME));
             }
@@ -73,6 +106,24 @@ public class SharedBytes extends AbstractRefCounted {
         this.readBytes = readBytes;
     }
 
+    private static MappedByteBuffer[] mapCacheFile(FileChannel fileChannel, long fileSize, long mappingSize) throws IOException {
+        final MappedByteBuffer[] mappings = new MappedByteBuffer[Math.toIntExact((fileSize + mappingSize - 1) / mappingSize)];
+        boolean success = false;
+        try {
+            for (int i = 0; i < mappings.length; i++) {
+                final long start = i * mappingSize;
+                // the file is only written through the channel, whose writes are visible through the mappings as they share the page cache
+                mappings[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(mappingSize, fileSize - start));
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(fileChannel);
+            }
+        }
+        return mappings;
+    }
+
     /**
      * Tries to find a suitable path to a searchable snapshots shared cache file in the data paths founds in the environment.
      *
@@ -98,6 +149,12 @@ public class SharedBytes extends AbstractRefCounted {
 
     @Override
     protected void closeInternal() {
+        if (mappings != null) {
+            // there is no public API to unmap the mappings, they are only released once garbage collected: drop them so that they can
+            // be collected as soon as possible, until then the deleted cache file keeps using its disk space (and cannot be deleted at
+            // all on Windows, in which case it is reused by the next cache)
+            Arrays.fill(mappings, null);
+        }
         try {
             IOUtils.close(fileChannel, path == null ? null : () -> Files.deleteIfExists(path));
         } catch (IOException e) {
@@ -147,7 +204,19 @@ public class SharedBytes extends AbstractRefCounted {
         @SuppressForbidden(reason = "Use positional reads on purpose")
         public int read(ByteBuffer dst, long position) throws IOException {
             checkOffsets(position, dst.remaining());
-            final int bytesRead = fileChannel.read(dst, position);
+            final int bytesRead;
+            if (mappings != null) {
+                // copies straight from the page cache, without a system call
+                bytesRead = dst.remaining();
+                final MappedByteBuffer mapping = mappings[Math.toIntExact(position / mappingSize)];
+                if (mapping == null) {
+                    // the shared bytes have been closed, like reads through the closed file channel
+                    throw new ClosedChannelException();
+                }
+                dst.put(mapping.slice(Math.toIntExact(position % mappingSize), bytesRead));
+            } else {
+                bytesRead = fileChannel.read(dst, position);
+            }
             readBytes.accept(bytesRead);
             return bytesRead;
         }
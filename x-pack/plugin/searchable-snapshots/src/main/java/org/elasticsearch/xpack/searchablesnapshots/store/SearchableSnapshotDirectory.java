@@ -10,6 +10,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.BaseDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FilterDirectory;
@@ -41,6 +42,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.LuceneFilesExtensions;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.repositories.IndexId;
@@ -57,6 +59,7 @@ import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheFile;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
 import org.elasticsearch.xpack.searchablesnapshots.cache.full.CacheService;
+import org.elasticsearch.xpack.searchablesnapshots.cache.shared.AccessPatternTracker;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.FrozenCacheFile;
 import org.elasticsearch.xpack.searchablesnapshots.recovery.SearchableSnapshotRecoveryState;
@@ -71,8 +74,10 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -83,6 +88,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
@@ -92,6 +98,7 @@ import static org.elasticsearch.snapshots.SearchableSnapshotsSettings.SNAPSHOT_P
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREFETCH_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_INDEX_ID_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_INDEX_NAME_SETTING;
@@ -116,6 +123,11 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
 
     private static final Logger logger = LogManager.getLogger(SearchableSnapshotDirectory.class);
 
+    /**
+     * The fraction of the free regions of the shared cache that prefetching the files of a shard may use.
+     */
+    static final double MAX_PREFETCH_FREE_REGIONS_RATIO = 0.5d;
+
     private final Supplier<BlobContainer> blobContainerSupplier;
     private final Supplier<BlobStoreIndexShardSnapshot> snapshotSupplier;
     private final BlobStoreCacheService blobStoreCacheService;
@@ -129,6 +141,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     private final CacheService cacheService;
     private final boolean useCache;
     private final boolean prewarmCache;
+    private final boolean prefetchCache;
     private final Set<String> excludedFileTypes;
     private final long uncachedChunkSize; // if negative use BlobContainer#readBlobPreferredLength, see #getUncachedChunkSize()
     private final Path cacheDir;
@@ -137,6 +150,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     private final boolean partial;
     private final FrozenCacheService frozenCacheService;
     private final ByteSizeValue blobStoreCacheMaxLength;
+    private final Map<String, AtomicLong> accessedBuckets;
 
     // volatile fields are updated once under `this` lock, all together, iff loaded is not true.
     private volatile BlobStoreIndexShardSnapshot snapshot;
@@ -177,12 +191,14 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         this.useCache = SNAPSHOT_CACHE_ENABLED_SETTING.get(indexSettings);
         this.partial = SNAPSHOT_PARTIAL_SETTING.get(indexSettings);
         this.prewarmCache = partial == false && useCache ? SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.get(indexSettings) : false;
+        this.prefetchCache = partial && useCache ? SNAPSHOT_CACHE_PREFETCH_ENABLED_SETTING.get(indexSettings) : false;
         this.excludedFileTypes = new HashSet<>(SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING.get(indexSettings));
         this.uncachedChunkSize = SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING.get(indexSettings).getBytes();
         this.blobStoreCacheMaxLength = SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING.get(indexSettings);
         this.threadPool = threadPool;
         this.loaded = false;
         this.frozenCacheService = frozenCacheService;
+        this.accessedBuckets = partial ? ConcurrentCollections.newConcurrentMap() : Map.of();
         assert invariant();
     }
 
@@ -230,6 +246,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
                     waitForPendingEvictions();
                     this.recoveryState = (SearchableSnapshotRecoveryState) snapshotRecoveryState;
                     prewarmCache(preWarmListener);
+                    prefetchCache();
                 }
             }
         }
@@ -571,6 +588,143 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         }
     }
 
+    /**
+     * Fetches in the shared cache, in the background, the parts of the files of a partially mounted shard that are likely to be read by
+     * the first searches: the files that are read on most searches (see {@link #isPrefetchedByDefault(String)}) are fully fetched, and
+     * for other files the parts that have been read in most of the files with the same extension of the other shards of the index on this
+     * node, as recorded by {@link #recordAccess}. Prefetching uses at most {@link #MAX_PREFETCH_FREE_REGIONS_RATIO} of the free regions of
+     * the shared cache, metadata files first, so that it does not evict the regions that are read by searches.
+     */
+    private void prefetchCache() {
+        if (prefetchCache == false) {
+            return;
+        }
+
+        final AccessPatternTracker accessPatternTracker = frozenCacheService.getAccessPatternTracker();
+        final List<Tuple<BlobStoreIndexShardSnapshot.FileInfo, List<ByteRange>>> candidates = new ArrayList<>();
+        for (BlobStoreIndexShardSnapshot.FileInfo file : snapshot().indexFiles()) {
+            if (file.metadata().hashEqualsContents() || isExcludedFromCache(file.physicalName()) || file.length() == 0L) {
+                continue;
+            }
+            final String ext = getNonNullFileExt(file.physicalName());
+            if (isPrefetchedByDefault(ext)) {
+                candidates.add(Tuple.tuple(file, List.of(ByteRange.of(0L, file.length()))));
+                continue;
+            }
+            // prefetch runs of consecutive hot buckets at once
+            final List<ByteRange> ranges = new ArrayList<>();
+            for (long remaining = accessPatternTracker.getHotBuckets(shardId.getIndex(), ext); remaining != 0L;) {
+                final int first = Long.numberOfTrailingZeros(remaining);
+                final int last = first + Long.numberOfTrailingZeros(~(remaining >>> first));
+                final long start = AccessPatternTracker.bucketStart(file.length(), first);
+                final long end = AccessPatternTracker.bucketStart(file.length(), last);
+                if (start < end) {
+                    ranges.add(ByteRange.of(start, end));
+                }
+                remaining = last == AccessPatternTracker.NUM_BUCKETS ? 0L : remaining & (-1L << last);
+            }
+            if (ranges.isEmpty() == false) {
+                candidates.add(Tuple.tuple(file, ranges));
+            }
+        }
+        candidates.sort(Comparator.comparingInt(candidate -> prefetchPriority(getNonNullFileExt(candidate.v1().physicalName()))));
+
+        final BlockingQueue<Tuple<ActionListener<Void>, CheckedRunnable<Exception>>> queue = new LinkedBlockingQueue<>();
+        int availableRegions = (int) (frozenCacheService.freeRegionCount() * MAX_PREFETCH_FREE_REGIONS_RATIO);
+        for (Tuple<BlobStoreIndexShardSnapshot.FileInfo, List<ByteRange>> candidate : candidates) {
+            final BlobStoreIndexShardSnapshot.FileInfo file = candidate.v1();
+            final List<ByteRange> ranges = candidate.v2();
+            final int regions = ranges.stream().mapToInt(frozenCacheService::getRegionCount).sum();
+            if (regions > availableRegions) {
+                logger.trace("{} not prefetching [{}] that spans [{}] regions of the shared cache", shardId, file.physicalName(), regions);
+                continue;
+            }
+            availableRegions -= regions;
+            final ActionListener<Void> fileListener = ActionListener.wrap(ignored -> {}, e -> {
+                if (e instanceof AlreadyClosedException == false) {
+                    logger.warn(() -> new ParameterizedMessage("{} prefetching failed for file [{}]", shardId, file.physicalName()), e);
+                }
+            });
+            queue.add(Tuple.tuple(fileListener, () -> {
+                ensureOpen();
+                final long startTimeInNanos = statsCurrentTimeNanosSupplier.getAsLong();
+                long bytesPrefetched = 0L;
+                try (IndexInput input = openInput(file.physicalName(), CachedBlobContainerIndexInput.CACHE_WARMING_CONTEXT)) {
+                    assert input instanceof FrozenIndexInput : "expected frozen index input but got " + input.getClass();
+                    for (ByteRange range : ranges) {
+                        bytesPrefetched += ((FrozenIndexInput) input).prefetch(range.start(), range.end());
+                    }
+                }
+                final long prefetched = bytesPrefetched;
+                logger.trace(
+                    () -> new ParameterizedMessage(
+                        "{} [{}] bytes of [{}] prefetched in [{}] ms",
+                        shardId,
+                        prefetched,
+                        file.physicalName(),
+                        TimeValue.timeValueNanos(statsCurrentTimeNanosSupplier.getAsLong() - startTimeInNanos).millis()
+                    )
+                );
+            }));
+        }
+
+        logger.debug("{} prefetching [{}] files in the shared cache", shardId, queue.size());
+
+        final Executor executor = prewarmExecutor();
+        final int workers = Math.min(threadPool.info(SearchableSnapshots.CACHE_PREWARMING_THREAD_POOL_NAME).getMax(), queue.size());
+        for (int i = 0; i < workers; ++i) {
+            prewarmNext(executor, queue);
+        }
+    }
+
+    /**
+     * Returns whether the Lucene files with the given extension are fully prefetched when a partially mounted shard is opened: those are
+     * the metadata files that Lucene reads when opening a segment, plus the terms and points indices that are read by most searches.
+     */
+    static boolean isPrefetchedByDefault(String ext) {
+        final LuceneFilesExtensions extension = LuceneFilesExtensions.fromExtension(ext);
+        return extension != null
+            && (extension.isMetadata()
+                || extension == LuceneFilesExtensions.TIP
+                || extension == LuceneFilesExtensions.KDI
+                || extension == LuceneFilesExtensions.DII);
+    }
+
+    /**
+     * Returns the order in which the files with the given extension are prefetched: metadata files first, as they are small and read
+     * when opening a segment, then the other files that are prefetched by default and finally the hot parts of the other files.
+     */
+    private static int prefetchPriority(String ext) {
+        final LuceneFilesExtensions extension = LuceneFilesExtensions.fromExtension(ext);
+        if (extension != null && extension.isMetadata()) {
+            return 0;
+        }
+        return isPrefetchedByDefault(ext) ? 1 : 2;
+    }
+
+    /**
+     * Records that the bytes in {@code [position, position + length)} of the given file of a partially mounted shard are read from the
+     * shared cache, so that the parts of the files that are read by searches can be prefetched when other shards of the same index are
+     * opened on this node.
+     */
+    public void recordAccess(BlobStoreIndexShardSnapshot.FileInfo fileInfo, long position, long length) {
+        assert partial;
+        if (length <= 0L) {
+            return;
+        }
+        final String ext = getNonNullFileExt(fileInfo.physicalName());
+        final AccessPatternTracker accessPatternTracker = frozenCacheService.getAccessPatternTracker();
+        final AtomicLong accessed = accessedBuckets.computeIfAbsent(fileInfo.physicalName(), name -> {
+            accessPatternTracker.onFileRead(shardId.getIndex(), ext);
+            return new AtomicLong();
+        });
+        final long buckets = AccessPatternTracker.buckets(fileInfo.length(), position, length);
+        final long previous = accessed.getAndAccumulate(buckets, (current, added) -> current | added);
+        if ((buckets & ~previous) != 0L) {
+            accessPatternTracker.onBucketsRead(shardId.getIndex(), ext, buckets & ~previous);
+        }
+    }
+
     private void prewarmNext(final Executor executor, final BlockingQueue<Tuple<ActionListener<Void>, CheckedRunnable<Exception>>> queue) {
         try {
             final Tuple<ActionListener<Void>, CheckedRunnable<Exception>> next = queue.poll(0L, TimeUnit.MILLISECONDS);
@@ -19,6 +19,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.FrozenCacheFile;
+import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.RangeMissingHandler;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.SharedBytes;
 import org.elasticsearch.xpack.searchablesnapshots.store.IndexInputStats;
 import org.elasticsearch.xpack.searchablesnapshots.store.SearchableSnapshotDirectory;
@@ -129,6 +130,7 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
         };
 
         logger.trace("readInternal: read [{}-{}] ([{}] bytes) from [{}]", position, position + length, length, this);
+        directory.recordAccess(fileInfo, position, length);
 
         try {
             final ByteRange startRangeToWrite = computeRange(position);
@@ -154,14 +156,7 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
                     luceneByteBufLock,
                     stopAsyncReads
                 ),
-                (channel, channelPos, relativePos, len, progressUpdater) -> {
-                    final long startTimeNanos = stats.currentTimeNanos();
-                    final long streamStartPosition = rangeToWrite.start() + relativePos;
-
-                    try (InputStream input = openInputStreamFromBlobStore(streamStartPosition, len)) {
-                        writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
-                    }
-                },
+                cacheRangeWriter(rangeToWrite),
                 directory.cacheFetchAsyncExecutor()
             );
 
@@ -176,6 +171,45 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
         }
     }
 
+    private RangeMissingHandler cacheRangeWriter(ByteRange rangeToWrite) {
+        return (channel, channelPos, relativePos, len, progressUpdater) -> {
+            final long startTimeNanos = stats.currentTimeNanos();
+            final long streamStartPosition = rangeToWrite.start() + relativePos;
+
+            try (InputStream input = openInputStreamFromBlobStore(streamStartPosition, len)) {
+                writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
+            }
+        };
+    }
+
+    /**
+     * Populates the shared cache with the bytes of the file in {@code [start, end)}, without reading them. Missing bytes are fetched from
+     * the blob store by ranges of the default size, one range after the other, so that prefetching a large part of a file does not use
+     * more than one thread of the cache fetch thread pool.
+     *
+     * @return the number of bytes that were already available in the shared cache or have been fetched
+     */
+    public long prefetch(long start, long end) throws Exception {
+        ensureContext(ctx -> ctx == CachedBlobContainerIndexInput.CACHE_WARMING_CONTEXT);
+        assert 0L <= start && start <= end && end <= fileInfo.length() : start + "-" + end + " vs " + fileInfo.length();
+        long position = start;
+        long bytesPrefetched = 0L;
+        while (position < end) {
+            final ByteRange range = computeRange(position);
+            logger.trace("prefetch: populating [{}-{}] of [{}]", range.start(), range.end(), frozenCacheFile);
+            final StepListener<Integer> populateCacheFuture = frozenCacheFile.populateAndRead(
+                range,
+                range,
+                (channel, channelPos, relativePos, len) -> Math.toIntExact(len),
+                cacheRangeWriter(range),
+                directory.cacheFetchAsyncExecutor()
+            );
+            bytesPrefetched += populateCacheFuture.asFuture().get();
+            position = range.end();
+        }
+        return bytesPrefetched;
+    }
+
     private static int positionalWrite(SharedBytes.IO fc, long start, ByteBuffer byteBuffer) throws IOException {
         assert assertCurrentThreadMayWriteCacheFile();
         byteBuffer.flip();
@@ -0,0 +1,74 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.index.Index;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.elasticsearch.xpack.searchablesnapshots.cache.shared.AccessPatternTracker.NUM_BUCKETS;
+import static org.elasticsearch.xpack.searchablesnapshots.cache.shared.AccessPatternTracker.bucketStart;
+import static org.elasticsearch.xpack.searchablesnapshots.cache.shared.AccessPatternTracker.buckets;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class AccessPatternTrackerTests extends ESTestCase {
+
+    public void testBuckets() {
+        assertThat(buckets(NUM_BUCKETS * 10L, 0L, 1L), equalTo(1L));
+        assertThat(buckets(NUM_BUCKETS * 10L, 9L, 2L), equalTo(0b11L));
+        assertThat(buckets(NUM_BUCKETS * 10L, 0L, NUM_BUCKETS * 10L), equalTo(-1L));
+        assertThat(buckets(NUM_BUCKETS * 10L, NUM_BUCKETS * 10L - 1L, 1L), equalTo(Long.MIN_VALUE));
+        // files that are smaller than the number of buckets have one byte per bucket
+        assertThat(buckets(3L, 2L, 1L), equalTo(0b100L));
+    }
+
+    public void testBucketsMatchBucketStart() {
+        final long fileLength = randomLongBetween(1L, Long.MAX_VALUE / NUM_BUCKETS);
+        assertThat(bucketStart(fileLength, 0), equalTo(0L));
+        assertThat(bucketStart(fileLength, NUM_BUCKETS), equalTo(fileLength));
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            final long start = bucketStart(fileLength, bucket);
+            final long end = bucketStart(fileLength, bucket + 1);
+            assertThat(start, lessThanOrEqualTo(end));
+            if (start < end) {
+                assertThat(buckets(fileLength, start, 1L), equalTo(1L << bucket));
+                assertThat(buckets(fileLength, end - 1L, 1L), equalTo(1L << bucket));
+                assertThat(buckets(fileLength, start, end - start), equalTo(1L << bucket));
+            }
+        }
+        final long position = randomLongBetween(0L, fileLength - 1L);
+        final long length = randomLongBetween(1L, fileLength - position);
+        final long buckets = buckets(fileLength, position, length);
+        assertThat(Long.bitCount(buckets), greaterThanOrEqualTo(1));
+        assertThat(bucketStart(fileLength, Long.numberOfTrailingZeros(buckets)), lessThanOrEqualTo(position));
+        assertThat(bucketStart(fileLength, NUM_BUCKETS - Long.numberOfLeadingZeros(buckets)), greaterThanOrEqualTo(position + length));
+    }
+
+    public void testHotBuckets() {
+        final AccessPatternTracker tracker = new AccessPatternTracker();
+        final Index index = new Index("index", "_na_");
+        assertThat(tracker.getHotBuckets(index, "tim"), equalTo(0L));
+
+        tracker.onFileRead(index, "tim");
+        tracker.onBucketsRead(index, "tim", 0b0111L);
+        tracker.onFileRead(index, "tim");
+        tracker.onBucketsRead(index, "tim", 0b0100L);
+        tracker.onFileRead(index, "tim");
+        tracker.onBucketsRead(index, "tim", 0b1100L);
+        tracker.onFileRead(index, "tim");
+        tracker.onBucketsRead(index, "tim", 0b1000L);
+        // buckets read in at least half of the files
+        assertThat(tracker.getHotBuckets(index, "tim"), equalTo(0b1100L));
+        assertThat(tracker.getHotBuckets(index, "dvd"), equalTo(0L));
+        assertThat(tracker.getHotBuckets(new Index("other", "_na_"), "tim"), equalTo(0L));
+
+        tracker.remove(index);
+        assertThat(tracker.getHotBuckets(index, "tim"), equalTo(0L));
+    }
+}
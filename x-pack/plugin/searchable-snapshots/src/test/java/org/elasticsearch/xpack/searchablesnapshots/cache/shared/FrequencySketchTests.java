@@ -0,0 +1,60 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testFrequencyNeverUnderestimates() {
+        final int numKeys = between(1, 1000);
+        final FrequencySketch sketch = new FrequencySketch(numKeys, Integer.MAX_VALUE);
+        final int[] counts = new int[numKeys];
+        for (int i = 0; i < numKeys * 5; i++) {
+            final int key = randomIntBetween(0, numKeys - 1);
+            sketch.increment(key);
+            counts[key]++;
+        }
+        for (int key = 0; key < numKeys; key++) {
+            assertThat(sketch.frequency(key), greaterThanOrEqualTo(Math.min(counts[key], FrequencySketch.MAX_FREQUENCY)));
+        }
+    }
+
+    public void testFrequencyIsCapped() {
+        final FrequencySketch sketch = new FrequencySketch(between(1, 100), Integer.MAX_VALUE);
+        final int key = randomInt();
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY * 2; i++) {
+            sketch.increment(key);
+        }
+        assertThat(sketch.frequency(key), equalTo(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testFrequenciesAreHalvedAfterWindow() {
+        final int windowSize = between(10, 100);
+        final FrequencySketch sketch = new FrequencySketch(1000, windowSize);
+        final int key = randomInt();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(key);
+        }
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(10));
+        // other keys keep on being accessed and eventually the counts of the key decay
+        for (int i = 0; i < windowSize * 4; i++) {
+            sketch.increment(key + 1 + i);
+        }
+        assertThat(sketch.frequency(key), lessThan(10));
+        assertThat(sketch.getAdditions(), lessThan(windowSize));
+    }
+
+    public void testRejectsNonPositiveWindowSize() {
+        expectThrows(IllegalArgumentException.class, () -> new FrequencySketch(10, randomIntBetween(Integer.MIN_VALUE, 0)));
+    }
+}
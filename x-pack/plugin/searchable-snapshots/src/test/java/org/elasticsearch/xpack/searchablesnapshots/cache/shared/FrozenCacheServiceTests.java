@@ -7,6 +7,7 @@
 
 package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
 
+import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
@@ -127,6 +128,61 @@ public class FrozenCacheServiceTests extends ESTestCase {
         }
     }
 
+    public void testAdmissionFilter() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SHARED_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(200)).getStringRep())
+            .put(FrozenCacheService.SHARED_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SHARED_CACHE_ADMISSION_ENABLED_SETTING.getKey(), true)
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey = generateCacheKey();
+            final int reads = between(2, 5);
+            CacheFileRegion region0 = null;
+            CacheFileRegion region1 = null;
+            for (int i = 0; i < reads; i++) {
+                region0 = cacheService.get(cacheKey, size(250), 0);
+                region1 = cacheService.get(cacheKey, size(250), 1);
+            }
+            assertEquals(0, cacheService.freeRegionCount());
+
+            // region 2 is read less often than the regions in the cache, it is not admitted
+            final AlreadyClosedException e = expectThrows(AlreadyClosedException.class, () -> cacheService.get(cacheKey, size(250), 2));
+            assertThat(e.getMessage(), equalTo("region not admitted in the shared cache"));
+            assertFalse(region0.isEvicted());
+            assertFalse(region1.isEvicted());
+
+            // until it is read more often than the least frequently used region
+            int rejections = 1;
+            CacheFileRegion region2 = null;
+            while (region2 == null) {
+                try {
+                    region2 = cacheService.get(cacheKey, size(250), 2);
+                } catch (AlreadyClosedException ace) {
+                    rejections++;
+                }
+            }
+            assertThat(rejections, equalTo(reads));
+            assertTrue(region0.isEvicted());
+            assertFalse(region1.isEvicted());
+
+            final FrozenCacheService.Stats stats = cacheService.getStats();
+            assertThat(stats.getAdmissionRejectionCount(), equalTo((long) rejections));
+            final FrozenCacheService.IndexStats indexStats = stats.getIndices().get(cacheKey.getShardId().getIndexName());
+            assertThat(indexStats.getHits(), equalTo(2L * (reads - 1)));
+            assertThat(indexStats.getMisses(), equalTo(2L + rejections + 1L));
+            assertThat(indexStats.getAdmissionRejections(), equalTo((long) rejections));
+
+            cacheService.onIndexRemoved(cacheKey.getShardId().getIndex());
+            assertThat(cacheService.getStats().getIndices().containsKey(cacheKey.getShardId().getIndexName()), is(false));
+        }
+    }
+
     public void testForceEviction() throws IOException {
         Settings settings = Settings.builder()
             .put(NODE_NAME_SETTING.getKey(), "node")
@@ -375,6 +431,28 @@ public class FrozenCacheServiceTests extends ESTestCase {
         }
     }
 
+    public void testGetRegionCount() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SHARED_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(500)).getStringRep())
+            .put(FrozenCacheService.SHARED_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            assertEquals(0, cacheService.getRegionCount(ByteRange.EMPTY));
+            assertEquals(1, cacheService.getRegionCount(ByteRange.of(0L, 1L)));
+            assertEquals(1, cacheService.getRegionCount(ByteRange.of(0L, size(100))));
+            assertEquals(2, cacheService.getRegionCount(ByteRange.of(0L, size(100) + 1L)));
+            assertEquals(2, cacheService.getRegionCount(ByteRange.of(size(100) - 1L, size(100) + 1L)));
+            assertEquals(1, cacheService.getRegionCount(ByteRange.of(size(100), size(200))));
+            assertEquals(3, cacheService.getRegionCount(ByteRange.of(size(50), size(250))));
+        }
+    }
+
     private void assertThatNonPositiveRecoveryRangeSizeRejected(Setting<ByteSizeValue> setting) {
         final String value = randomFrom(ByteSizeValue.MINUS_ONE, ByteSizeValue.ZERO).getStringRep();
         final Settings settings = Settings.builder()
@@ -0,0 +1,72 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.env.TestEnvironment;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SharedBytesTests extends ESTestCase {
+
+    public void testReadWhatWasWritten() throws IOException {
+        final int numRegions = between(1, 5);
+        final long regionSize = SharedBytes.PAGE_SIZE * between(1, 16);
+        final boolean mmap = randomBoolean();
+        final AtomicLong bytesRead = new AtomicLong();
+        final Settings settings = Settings.builder().put(NODE_NAME_SETTING.getKey(), "node").put("path.home", createTempDir()).build();
+        try (NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings))) {
+            final SharedBytes sharedBytes = new SharedBytes(numRegions, regionSize, environment, ignored -> {}, bytesRead::addAndGet, mmap);
+            try {
+                final int region = between(0, numRegions - 1);
+                final SharedBytes.IO io = sharedBytes.getFileChannel(region);
+                try {
+                    final long regionStart = sharedBytes.getPhysicalOffset(region);
+                    final byte[] bytes = randomByteArrayOfLength(Math.toIntExact(regionSize));
+                    final ByteBuffer src = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+                    assertThat(io.write(src, regionStart), equalTo(bytes.length));
+
+                    final int offset = between(0, bytes.length - 1);
+                    final int length = between(1, bytes.length - offset);
+                    final ByteBuffer dst = ByteBuffer.allocate(length + 2);
+                    dst.position(1);
+                    dst.limit(1 + length);
+                    assertThat(io.read(dst, regionStart + offset), equalTo(length));
+                    assertThat(dst.position(), equalTo(1 + length));
+                    for (int i = 0; i < length; i++) {
+                        assertThat(dst.get(1 + i), equalTo(bytes[offset + i]));
+                    }
+                    assertThat(bytesRead.get(), equalTo((long) length));
+                } finally {
+                    io.decRef();
+                }
+            } finally {
+                sharedBytes.decRef();
+            }
+        }
+    }
+
+    public void testRejectsRegionsTooLargeToBeMapped() throws IOException {
+        final Settings settings = Settings.builder().put(NODE_NAME_SETTING.getKey(), "node").put("path.home", createTempDir()).build();
+        try (NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings))) {
+            final IllegalArgumentException e = expectThrows(
+                IllegalArgumentException.class,
+                () -> new SharedBytes(1, SharedBytes.MAX_MAPPING_SIZE + 1, environment, ignored -> {}, ignored -> {}, true)
+            );
+            assertThat(e.getMessage(), containsString("cannot memory-map regions of"));
+        }
+    }
+}
@@ -74,6 +74,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.LuceneFilesExtensions;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
@@ -829,6 +830,34 @@ public class SearchableSnapshotDirectoryTests extends AbstractSearchableSnapshot
         }
     }
 
+    public void testIsPrefetchedByDefault() {
+        // the metadata files that Lucene reads when opening a segment, like the terms dictionary and doc values metadata
+        for (String ext : List.of("si", "cfe", "fnm", "tmd", "dvm", "nvm", "kdm", "fdm", "tvm", "vem", "bfm", "cmp")) {
+            assertTrue(ext, SearchableSnapshotDirectory.isPrefetchedByDefault(ext));
+        }
+        // the terms and points indices that are read by most searches
+        for (String ext : List.of("tip", "kdi", "dii")) {
+            assertTrue(ext, SearchableSnapshotDirectory.isPrefetchedByDefault(ext));
+        }
+        // the other files are only prefetched where the other shards of the index have been read
+        for (String ext : List.of("tim", "doc", "pos", "pay", "dvd", "nvd", "kdd", "dim", "fdt", "fdx", "liv", "cfs", "tvd", "vec")) {
+            assertFalse(ext, SearchableSnapshotDirectory.isPrefetchedByDefault(ext));
+        }
+        for (LuceneFilesExtensions extension : LuceneFilesExtensions.values()) {
+            assertThat(
+                extension.getExtension(),
+                SearchableSnapshotDirectory.isPrefetchedByDefault(extension.getExtension()),
+                equalTo(
+                    extension.isMetadata()
+                        || extension == LuceneFilesExtensions.TIP
+                        || extension == LuceneFilesExtensions.KDI
+                        || extension == LuceneFilesExtensions.DII
+                )
+            );
+        }
+        assertFalse(SearchableSnapshotDirectory.isPrefetchedByDefault(""));
+    }
+
     public void testRecoveryStateIsKeptOpenAfterPreWarmFailures() throws Exception {
         FileSystem fileSystem = PathUtils.getDefaultFileSystem();
         FaultyReadsFileSystem disruptFileSystemProvider = new FaultyReadsFileSystem(fileSystem);